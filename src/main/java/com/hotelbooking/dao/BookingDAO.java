@@ -1,11 +1,19 @@
 package com.hotelbooking.dao;
 
 import com.hotelbooking.model.Booking;
+import com.hotelbooking.model.BookingRecord;
 import com.hotelbooking.utils.DBConnection;
+import com.hotelbooking.utils.SqlUtil;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 /**
  * Data Access Object (DAO) for managing {@link Booking} entities.
@@ -22,7 +30,9 @@ import java.util.List;
  * </ul>
  *
  * <p><b>Database Table:</b> {@code bookings}</p>
- * <p><b>Columns:</b> id, customer_id, room_id, check_in, check_out</p>
+ * <p><b>Columns:</b> id, customer_id, room_id, check_in, check_out, assigned_by_type</p>
+ * <p>{@code assigned_by_type} ({@code TINYINT(1) NOT NULL DEFAULT 0}) is set for bookings
+ * whose room the system chose from a room type; only those may be moved between rooms.</p>
  *
  * @author  
  * @version 1.0
@@ -44,17 +54,7 @@ public class BookingDAO {
 
             List<Booking> list = new ArrayList<>();
             while (rs.next()) {
-                Booking b = new Booking();
-                b.setId(rs.getInt("id"));
-                b.setCustomerId(rs.getInt("customer_id"));
-                b.setRoomId(rs.getInt("room_id"));
-
-                Date ci = rs.getDate("check_in");
-                Date co = rs.getDate("check_out");
-                b.setCheckIn(ci != null ? ci.toString() : null);
-                b.setCheckOut(co != null ? co.toString() : null);
-
-                list.add(b);
+                list.add(mapRow(rs));
             }
             return list;
         }
@@ -75,21 +75,95 @@ public class BookingDAO {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    Booking b = new Booking();
-                    b.setId(rs.getInt("id"));
-                    b.setCustomerId(rs.getInt("customer_id"));
-                    b.setRoomId(rs.getInt("room_id"));
+                    return mapRow(rs);
+                }
+                return null;
+            }
+        }
+    }
+
+
+    /**
+     * Retrieves the bookings of a room that have not ended before the given date.
+     *
+     * @param roomId The room ID.
+     * @param from   Bookings checking out on or before this date are skipped.
+     * @return The bookings as compact records, ordered by check-in date.
+     * @throws Exception if a database access error occurs.
+     */
+    public List<BookingRecord> getCurrentForRoom(int roomId, LocalDate from) throws Exception {
+        String sql = "SELECT * FROM bookings WHERE room_id=? AND check_out > ? ORDER BY check_in, id";
+        List<BookingRecord> list = new ArrayList<>();
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setInt(1, roomId);
+            ps.setObject(2, from);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(mapRecord(rs));
+            }
+        }
+        return list;
+    }
 
-                    Date ci = rs.getDate("check_in");
-                    Date co = rs.getDate("check_out");
-                    b.setCheckIn(ci != null ? ci.toString() : null);
-                    b.setCheckOut(co != null ? co.toString() : null);
+    /**
+     * Retrieves the bookings of several rooms that have not ended before the given date,
+     * using chunked {@code room_id IN (...)} queries on one connection.
+     *
+     * @param roomIds The room IDs.
+     * @param from    Bookings checking out on or before this date are skipped.
+     * @return The bookings as compact records, ordered by room and check-in date within each chunk.
+     * @throws Exception if a database access error occurs.
+     */
+    public List<BookingRecord> getCurrentForRooms(Collection<Integer> roomIds, LocalDate from) throws Exception {
+        List<BookingRecord> list = new ArrayList<>();
+        List<List<Integer>> chunks = SqlUtil.chunks(roomIds, SqlUtil.IN_CHUNK_SIZE);
+        if (chunks.isEmpty()) return list;
 
-                    return b;
+        try (Connection c = DBConnection.getConnection()) {
+            for (List<Integer> chunk : chunks) {
+                String sql = "SELECT * FROM bookings WHERE room_id IN (" + SqlUtil.placeholders(chunk.size())
+                        + ") AND check_out > ? ORDER BY room_id, check_in, id";
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    int i = 1;
+                    for (Integer roomId : chunk) ps.setInt(i++, roomId);
+                    ps.setObject(i, from);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) list.add(mapRecord(rs));
+                    }
                 }
-                return null;
             }
         }
+        return list;
+    }
+
+    /**
+     * Moves bookings to other rooms in one batched transaction.
+     *
+     * @param roomByBooking The new room ID for each booking ID.
+     * @return The number of bookings updated.
+     * @throws Exception if a database error occurs; nothing is changed in that case.
+     */
+    public int reassignRooms(Map<Integer, Integer> roomByBooking) throws Exception {
+        if (roomByBooking.isEmpty()) return 0;
+        int updated = 0;
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement("UPDATE bookings SET room_id=? WHERE id=?")) {
+                for (Map.Entry<Integer, Integer> e : roomByBooking.entrySet()) {
+                    ps.setInt(1, e.getValue());
+                    ps.setInt(2, e.getKey());
+                    ps.addBatch();
+                }
+                for (int n : ps.executeBatch()) updated += Math.max(n, 0);
+                c.commit();
+            } catch (Exception e) {
+                c.rollback();
+                throw e;
+            }
+        }
+        for (Integer id : roomByBooking.keySet()) BookingHistoryCache.invalidateBooking(id);
+        return updated;
     }
 
     /**
@@ -100,20 +174,142 @@ public class BookingDAO {
      * @throws Exception if a database error occurs.
      */
     public int create(Booking b) throws Exception {
-        String sql = "INSERT INTO bookings(customer_id, room_id, check_in, check_out) VALUES(?,?,?,?)";
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        return create(b, null);
+    }
+
+    /**
+     * Creates a new booking record and runs {@code step} in the same transaction.
+     * <p>
+     * The generated ID is set on {@code b} before {@code step} runs, so the step can refer
+     * to the new booking (for example in the guest's notification).
+     * </p>
+     *
+     * @param b    The {@link Booking} object containing customer, room, and date information.
+     * @param step Further writes to commit with the booking, or {@code null}.
+     * @return The auto-generated booking ID, or {@code -1} if the operation fails.
+     * @throws Exception if a database error occurs; nothing is stored in that case.
+     */
+    public int create(Booking b, SqlUtil.TransactionStep step) throws Exception {
+        String sql = "INSERT INTO bookings(customer_id, room_id, check_in, check_out, assigned_by_type) VALUES(?,?,?,?,?)";
+        int id = -1;
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    ps.setInt(1, b.getCustomerId());
+                    ps.setInt(2, b.getRoomId());
+                    ps.setObject(3, b.getCheckIn());
+                    ps.setObject(4, b.getCheckOut());
+                    ps.setBoolean(5, b.isAssignedByType());
+                    ps.executeUpdate();
+
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        if (keys.next()) id = keys.getInt(1);
+                    }
+                }
+                if (id > 0) {
+                    b.setId(id);
+                    if (step != null) step.run(c);
+                }
+                c.commit();
+            } catch (Exception e) {
+                c.rollback();
+                throw e;
+            }
+        }
+        BookingHistoryCache.invalidateCustomer(b.getCustomerId());
+        return id;
+    }
+
+    /**
+     * Creates several bookings in one transaction, or none of them.
+     * <p>
+     * The rooms are first locked with {@code SELECT ... FOR UPDATE} in ascending ID order, so
+     * concurrent group bookings that share rooms queue up instead of deadlocking. Existing
+     * bookings of all the rooms in the overall date span are then read with one query and
+     * compared in memory. If any booking overlaps, the transaction is rolled back and
+     * {@code null} is returned; otherwise all rows are inserted with one JDBC batch, the
+     * generated IDs are set on the bookings and {@code step} runs before the commit.
+     * </p>
+     *
+     * @param bookings The bookings to create; must not overlap each other.
+     * @param step     Further writes to commit with the bookings, or {@code null}.
+     * @return The generated IDs, in the order of {@code bookings}, or {@code null} if any
+     *         room is already booked for its dates.
+     * @throws Exception if a database error occurs; nothing is written in that case.
+     */
+    public int[] createAll(List<Booking> bookings, SqlUtil.TransactionStep step) throws Exception {
+        if (bookings.isEmpty()) return new int[0];
+        TreeSet<Integer> roomIds = new TreeSet<>();
+        LocalDate minIn = null;
+        LocalDate maxOut = null;
+        for (Booking b : bookings) {
+            roomIds.add(b.getRoomId());
+            if (minIn == null || b.getCheckIn().isBefore(minIn)) minIn = b.getCheckIn();
+            if (maxOut == null || b.getCheckOut().isAfter(maxOut)) maxOut = b.getCheckOut();
+        }
+        List<Integer> rooms = new ArrayList<>(roomIds);
 
-            ps.setInt(1, b.getCustomerId());
-            ps.setInt(2, b.getRoomId());
-            ps.setDate(3, b.getCheckIn() != null ? Date.valueOf(b.getCheckIn()) : null);
-            ps.setDate(4, b.getCheckOut() != null ? Date.valueOf(b.getCheckOut()) : null);
-            ps.executeUpdate();
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                String lock = "SELECT id FROM rooms WHERE id IN (" + SqlUtil.placeholders(rooms.size())
+                        + ") ORDER BY id FOR UPDATE";
+                try (PreparedStatement ps = c.prepareStatement(lock)) {
+                    for (int i = 0; i < rooms.size(); i++) ps.setInt(i + 1, rooms.get(i));
+                    ps.executeQuery().close();
+                }
+
+                Map<Integer, List<Booking>> existing = new HashMap<>();
+                String overlap = "SELECT * FROM bookings WHERE room_id IN (" + SqlUtil.placeholders(rooms.size())
+                        + ") AND check_out > ? AND check_in < ?";
+                try (PreparedStatement ps = c.prepareStatement(overlap)) {
+                    int i = 1;
+                    for (Integer roomId : rooms) ps.setInt(i++, roomId);
+                    ps.setObject(i++, minIn);
+                    ps.setObject(i, maxOut);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            Booking b = mapRow(rs);
+                            existing.computeIfAbsent(b.getRoomId(), k -> new ArrayList<>()).add(b);
+                        }
+                    }
+                }
+                for (Booking b : bookings) {
+                    for (Booking other : existing.getOrDefault(b.getRoomId(), Collections.emptyList())) {
+                        if (other.getCheckOut().isAfter(b.getCheckIn()) && other.getCheckIn().isBefore(b.getCheckOut())) {
+                            c.rollback();
+                            return null;
+                        }
+                    }
+                }
 
-            try (ResultSet keys = ps.getGeneratedKeys()) {
-                if (keys.next()) return keys.getInt(1);
+                int[] ids = new int[bookings.size()];
+                String sql = "INSERT INTO bookings(customer_id, room_id, check_in, check_out, assigned_by_type) VALUES(?,?,?,?,?)";
+                try (PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    for (Booking b : bookings) {
+                        ps.setInt(1, b.getCustomerId());
+                        ps.setInt(2, b.getRoomId());
+                        ps.setObject(3, b.getCheckIn());
+                        ps.setObject(4, b.getCheckOut());
+                        ps.setBoolean(5, b.isAssignedByType());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (int i = 0; i < ids.length && keys.next(); i++) ids[i] = keys.getInt(1);
+                    }
+                }
+                for (int i = 0; i < ids.length; i++) bookings.get(i).setId(ids[i]);
+                if (step != null) step.run(c);
+                c.commit();
+
+                for (Booking b : bookings) BookingHistoryCache.invalidateCustomer(b.getCustomerId());
+                return ids;
+            } catch (Exception e) {
+                c.rollback();
+                throw e;
             }
-            return -1;
         }
     }
 
@@ -125,17 +321,46 @@ public class BookingDAO {
      * @throws Exception if a database access error occurs.
      */
     public boolean update(Booking b) throws Exception {
-        String sql = "UPDATE bookings SET customer_id=?, room_id=?, check_in=?, check_out=? WHERE id=?";
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        return update(b, null);
+    }
 
-            ps.setInt(1, b.getCustomerId());
-            ps.setInt(2, b.getRoomId());
-            ps.setDate(3, b.getCheckIn() != null ? Date.valueOf(b.getCheckIn()) : null);
-            ps.setDate(4, b.getCheckOut() != null ? Date.valueOf(b.getCheckOut()) : null);
-            ps.setInt(5, b.getId());
-            return ps.executeUpdate() > 0;
+    /**
+     * Updates an existing booking record and, if it exists, runs {@code step} in the same
+     * transaction.
+     *
+     * @param b    The {@link Booking} object with updated details.
+     * @param step Further writes to commit with the update, or {@code null}.
+     * @return {@code true} if the update succeeded, {@code false} if the booking does not exist.
+     * @throws Exception if a database access error occurs; nothing is changed in that case.
+     */
+    public boolean update(Booking b, SqlUtil.TransactionStep step) throws Exception {
+        String sql = "UPDATE bookings SET customer_id=?, room_id=?, check_in=?, check_out=?, assigned_by_type=? "
+                + "WHERE id=?";
+        boolean ok;
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setInt(1, b.getCustomerId());
+                    ps.setInt(2, b.getRoomId());
+                    ps.setObject(3, b.getCheckIn());
+                    ps.setObject(4, b.getCheckOut());
+                    ps.setBoolean(5, b.isAssignedByType());
+                    ps.setInt(6, b.getId());
+                    ok = ps.executeUpdate() > 0;
+                }
+                if (ok && step != null) step.run(c);
+                c.commit();
+            } catch (Exception e) {
+                c.rollback();
+                throw e;
+            }
         }
+        if (ok) {
+            BookingHistoryCache.invalidateBooking(b.getId());
+            BookingHistoryCache.invalidateCustomer(b.getCustomerId());
+        }
+        return ok;
     }
 
     /**
@@ -146,13 +371,72 @@ public class BookingDAO {
      * @throws Exception if a database access error occurs.
      */
     public boolean delete(int id) throws Exception {
+        return delete(id, null);
+    }
+
+    /**
+     * Deletes a booking record by its ID and, if it existed, runs {@code step} in the same
+     * transaction.
+     *
+     * @param id   The booking ID to delete.
+     * @param step Further writes to commit with the deletion, or {@code null}.
+     * @return {@code true} if the deletion was successful, {@code false} if the booking does not exist.
+     * @throws Exception if a database access error occurs; nothing is deleted in that case.
+     */
+    public boolean delete(int id, SqlUtil.TransactionStep step) throws Exception {
         String sql = "DELETE FROM bookings WHERE id=?";
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        boolean ok;
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setInt(1, id);
+                    ok = ps.executeUpdate() > 0;
+                }
+                if (ok && step != null) step.run(c);
+                c.commit();
+            } catch (Exception e) {
+                c.rollback();
+                throw e;
+            }
+        }
+        if (ok) BookingHistoryCache.invalidateBooking(id);
+        return ok;
+    }
 
-            ps.setInt(1, id);
-            return ps.executeUpdate() > 0;
+    /**
+     * Deletes bookings that have been moved to the history archive, together with their
+     * payments, in a single transaction.
+     *
+     * @param ids The IDs of the archived bookings.
+     * @return The number of bookings deleted.
+     * @throws Exception if a database access error occurs; nothing is deleted in that case.
+     */
+    public int deleteArchived(Collection<Integer> ids) throws Exception {
+        int deleted = 0;
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                for (List<Integer> chunk : SqlUtil.chunks(ids, SqlUtil.IN_CHUNK_SIZE)) {
+                    String in = " IN (" + SqlUtil.placeholders(chunk.size()) + ")";
+                    try (PreparedStatement payments = c.prepareStatement("DELETE FROM payments WHERE booking_id" + in);
+                         PreparedStatement bookings = c.prepareStatement("DELETE FROM bookings WHERE id" + in)) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            payments.setInt(i + 1, chunk.get(i));
+                            bookings.setInt(i + 1, chunk.get(i));
+                        }
+                        payments.executeUpdate();
+                        deleted += bookings.executeUpdate();
+                    }
+                }
+                c.commit();
+            } catch (Exception e) {
+                c.rollback();
+                throw e;
+            }
         }
+        for (Integer id : ids) BookingHistoryCache.invalidateBooking(id);
+        return deleted;
     }
 
     /**
@@ -176,14 +460,14 @@ public class BookingDAO {
      * @return {@code true} if the room is available, {@code false} otherwise.
      * @throws Exception if a database error occurs.
      */
-    public boolean isRoomAvailable(int roomId, java.sql.Date desiredIn, java.sql.Date desiredOut) throws Exception {
+    public boolean isRoomAvailable(int roomId, LocalDate desiredIn, LocalDate desiredOut) throws Exception {
         String sql = "SELECT COUNT(*) FROM bookings WHERE room_id=? AND NOT (check_out <= ? OR check_in >= ?)";
         try (Connection c = DBConnection.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
 
             ps.setInt(1, roomId);
-            ps.setDate(2, desiredIn);
-            ps.setDate(3, desiredOut);
+            ps.setObject(2, desiredIn);
+            ps.setObject(3, desiredOut);
 
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -194,4 +478,67 @@ public class BookingDAO {
             }
         }
     }
+
+    /**
+     * Retrieves the bookings of a room that overlap a date range, other than one booking
+     * (the one being modified).
+     *
+     * @param roomId    The room ID to check.
+     * @param from      The first night.
+     * @param to        The departure date (exclusive).
+     * @param excludeId The booking to leave out.
+     * @return The overlapping bookings, ordered by check-in date.
+     * @throws Exception if a database error occurs.
+     */
+    public List<Booking> getOverlapping(int roomId, LocalDate from, LocalDate to, int excludeId)
+            throws Exception {
+        String sql = "SELECT * FROM bookings WHERE room_id=? AND check_in < ? AND check_out > ? AND id<>? "
+                + "ORDER BY check_in";
+        List<Booking> list = new ArrayList<>();
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setInt(1, roomId);
+            ps.setObject(2, to);
+            ps.setObject(3, from);
+            ps.setInt(4, excludeId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(mapRow(rs));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Maps a single row from a {@link ResultSet} to a {@link Booking} object.
+     *
+     * @param rs The {@link ResultSet} pointing to the current row.
+     * @return A {@link Booking} object containing the mapped data.
+     * @throws SQLException if an error occurs while accessing the result set.
+     */
+    private Booking mapRow(ResultSet rs) throws SQLException {
+        Booking b = new Booking();
+        b.setId(rs.getInt("id"));
+        b.setCustomerId(rs.getInt("customer_id"));
+        b.setRoomId(rs.getInt("room_id"));
+
+        b.setCheckIn(rs.getObject("check_in", LocalDate.class));
+        b.setCheckOut(rs.getObject("check_out", LocalDate.class));
+        b.setAssignedByType(rs.getBoolean("assigned_by_type"));
+        return b;
+    }
+
+    /**
+     * Maps a row of the {@code bookings} table to a {@link BookingRecord}.
+     *
+     * @param rs The {@link ResultSet} positioned at the row.
+     * @return The compact booking.
+     * @throws SQLException if an error occurs while accessing the result set.
+     */
+    private BookingRecord mapRecord(ResultSet rs) throws SQLException {
+        return new BookingRecord(rs.getInt("id"), rs.getInt("customer_id"), rs.getInt("room_id"),
+                (int) rs.getObject("check_in", LocalDate.class).toEpochDay(),
+                (int) rs.getObject("check_out", LocalDate.class).toEpochDay(),
+                rs.getBoolean("assigned_by_type"));
+    }
 }
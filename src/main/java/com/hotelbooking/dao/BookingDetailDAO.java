@@ -0,0 +1,246 @@
+package com.hotelbooking.dao;
+
+import com.hotelbooking.model.Booking;
+import com.hotelbooking.model.BookingDetail;
+import com.hotelbooking.model.Customer;
+import com.hotelbooking.model.Payment;
+import com.hotelbooking.model.Review;
+import com.hotelbooking.model.Room;
+import com.hotelbooking.utils.DBConnection;
+import com.hotelbooking.utils.SqlUtil;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Data Access Object (DAO) that assembles {@link BookingDetail} views.
+ * <p>
+ * Instead of loading a booking, its room, its customer and its payments with separate
+ * queries (or separate HTTP calls), this DAO extends the multi-table join used by
+ * {@link BookingHistoryDAO#getHistoryByCustomer(int)}: a single query joins
+ * {@code bookings}, {@code rooms}, {@code customers} and {@code payments}, and one
+ * batched query on the same connection picks up the matching {@code reviews}.
+ * </p>
+ *
+ * <p><b>Responsibilities:</b></p>
+ * <ul>
+ *   <li>Fetch the full detail of one booking.</li>
+ *   <li>Fetch details for a list of bookings or for all bookings of a customer.</li>
+ * </ul>
+ *
+ * <p><b>Database Tables Involved:</b></p>
+ * <ul>
+ *   <li>{@code bookings}</li>
+ *   <li>{@code rooms}</li>
+ *   <li>{@code customers}</li>
+ *   <li>{@code payments}</li>
+ *   <li>{@code reviews}</li>
+ * </ul>
+ *
+ * @author
+ * @version 1.0
+ * @since 2025-11-01
+ */
+public class BookingDetailDAO {
+
+    /** Join shared by every lookup; callers append the {@code WHERE} clause. */
+    private static final String DETAIL_SELECT =
+            "SELECT b.id AS booking_id, b.customer_id, b.room_id, b.check_in, b.check_out, " +
+            "r.room_no, r.room_type, r.price AS room_price, r.status AS room_status, " +
+            "c.name AS customer_name, c.email AS customer_email, c.phone AS customer_phone, " +
+            "p.id AS payment_id, p.amount AS payment_amount, p.method AS payment_method, " +
+            "p.status AS payment_status " +
+            "FROM bookings b " +
+            "JOIN rooms r ON b.room_id = r.id " +
+            "JOIN customers c ON b.customer_id = c.id " +
+            "LEFT JOIN payments p ON p.booking_id = b.id ";
+
+    /** Ordering shared by every lookup: newest stay first, payments in insertion order. */
+    private static final String DETAIL_ORDER = " ORDER BY b.check_in DESC, b.id DESC, p.id";
+
+    /**
+     * Retrieves the full detail of a single booking.
+     *
+     * @param bookingId The ID of the booking.
+     * @return The {@link BookingDetail}, or {@code null} if the booking does not exist.
+     * @throws Exception if a database access or SQL error occurs.
+     */
+    public BookingDetail getDetail(int bookingId) throws Exception {
+        return getDetails(Collections.singletonList(bookingId)).get(bookingId);
+    }
+
+    /**
+     * Retrieves the details of several bookings.
+     * <p>
+     * IDs are de-duplicated and split into chunks of {@link SqlUtil#IN_CHUNK_SIZE};
+     * all queries run on one connection.
+     * </p>
+     *
+     * @param bookingIds The IDs of the bookings.
+     * @return A map from booking ID to {@link BookingDetail}, in the order the IDs were given.
+     *         IDs that do not exist are absent from the result.
+     * @throws Exception if a database access or SQL error occurs.
+     */
+    public Map<Integer, BookingDetail> getDetails(Collection<Integer> bookingIds) throws Exception {
+        List<List<Integer>> chunks = SqlUtil.chunks(bookingIds, SqlUtil.IN_CHUNK_SIZE);
+        Map<Integer, BookingDetail> found = new LinkedHashMap<>();
+        if (chunks.isEmpty()) return found;
+
+        try (Connection c = DBConnection.getConnection()) {
+            for (List<Integer> chunk : chunks) {
+                String sql = DETAIL_SELECT + "WHERE b.id IN (" + SqlUtil.placeholders(chunk.size()) + ")" + DETAIL_ORDER;
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) ps.setInt(i + 1, chunk.get(i));
+                    readDetails(ps, found);
+                }
+            }
+            attachReviews(c, found);
+        }
+        return SqlUtil.inOrder(bookingIds, found);
+    }
+
+    /**
+     * Retrieves the details of every booking made by a customer, newest stay first.
+     *
+     * @param customerId The ID of the customer.
+     * @return A list of {@link BookingDetail} objects; empty if the customer has no bookings.
+     * @throws Exception if a database access or SQL error occurs.
+     */
+    public List<BookingDetail> getDetailsByCustomer(int customerId) throws Exception {
+        Map<Integer, BookingDetail> found = new LinkedHashMap<>();
+
+        try (Connection c = DBConnection.getConnection()) {
+            try (PreparedStatement ps = c.prepareStatement(DETAIL_SELECT + "WHERE b.customer_id = ?" + DETAIL_ORDER)) {
+                ps.setInt(1, customerId);
+                readDetails(ps, found);
+            }
+            attachReviews(c, found);
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    /**
+     * Executes a detail join and folds its rows (one per payment) into {@link BookingDetail}s.
+     *
+     * @param ps  The prepared join statement with parameters already bound.
+     * @param out The map to add details to, keyed by booking ID.
+     * @throws SQLException if an error occurs while reading the result set.
+     */
+    private void readDetails(PreparedStatement ps, Map<Integer, BookingDetail> out) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                int bookingId = rs.getInt("booking_id");
+                BookingDetail d = out.get(bookingId);
+                if (d == null) {
+                    d = mapDetail(rs);
+                    out.put(bookingId, d);
+                }
+
+                int paymentId = rs.getInt("payment_id");
+                if (!rs.wasNull()) {
+                    Payment p = new Payment();
+                    p.setId(paymentId);
+                    p.setBookingId(bookingId);
+                    p.setAmount(rs.getDouble("payment_amount"));
+                    p.setMethod(rs.getString("payment_method"));
+                    p.setStatus(rs.getString("payment_status"));
+                    d.getPayments().add(p);
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads, in one batched query, the reviews each booking's customer left for the booked
+     * room and attaches them to the matching details.
+     *
+     * @param c       The open connection to reuse.
+     * @param details The details to enrich, keyed by booking ID.
+     * @throws SQLException if a database access error occurs.
+     */
+    private void attachReviews(Connection c, Map<Integer, BookingDetail> details) throws SQLException {
+        if (details.isEmpty()) return;
+
+        Set<Integer> customerIds = new HashSet<>();
+        Set<Integer> roomIds = new HashSet<>();
+        for (BookingDetail d : details.values()) {
+            customerIds.add(d.getBooking().getCustomerId());
+            roomIds.add(d.getBooking().getRoomId());
+        }
+
+        // Chunk both id sets so neither IN list exceeds the bind-parameter limit.
+        Map<Long, List<Review>> byCustomerAndRoom = new LinkedHashMap<>();
+        List<Integer> roomList = new ArrayList<>(roomIds);
+        for (List<Integer> chunk : SqlUtil.chunks(customerIds, SqlUtil.IN_CHUNK_SIZE)) {
+            for (List<Integer> roomChunk : SqlUtil.chunks(roomList, SqlUtil.IN_CHUNK_SIZE)) {
+                String sql = "SELECT * FROM reviews WHERE customer_id IN (" + SqlUtil.placeholders(chunk.size()) +
+                        ") AND room_id IN (" + SqlUtil.placeholders(roomChunk.size()) + ") ORDER BY created_at DESC";
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    int idx = 1;
+                    for (Integer id : chunk) ps.setInt(idx++, id);
+                    for (Integer id : roomChunk) ps.setInt(idx++, id);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            Review r = ReviewDAO.mapRow(rs);
+                            byCustomerAndRoom.computeIfAbsent(pairKey(r.getCustomerId(), r.getRoomId()),
+                                    k -> new ArrayList<>()).add(r);
+                        }
+                    }
+                }
+            }
+        }
+
+        for (BookingDetail d : details.values()) {
+            List<Review> reviews = byCustomerAndRoom.get(pairKey(d.getBooking().getCustomerId(), d.getBooking().getRoomId()));
+            if (reviews != null) d.setReviews(new ArrayList<>(reviews));
+        }
+    }
+
+    /**
+     * Maps the booking, room and customer columns of a detail row.
+     *
+     * @param rs The {@link ResultSet} pointing to the current row.
+     * @return A new {@link BookingDetail} with empty payment and review lists.
+     * @throws SQLException if an error occurs while accessing the result set.
+     */
+    private BookingDetail mapDetail(ResultSet rs) throws SQLException {
+        Booking b = new Booking();
+        b.setId(rs.getInt("booking_id"));
+        b.setCustomerId(rs.getInt("customer_id"));
+        b.setRoomId(rs.getInt("room_id"));
+        b.setCheckIn(rs.getObject("check_in", LocalDate.class));
+        b.setCheckOut(rs.getObject("check_out", LocalDate.class));
+
+        Room r = new Room();
+        r.setId(b.getRoomId());
+        r.setRoomNo(rs.getInt("room_no"));
+        r.setRoomType(rs.getString("room_type"));
+        r.setPrice(rs.getDouble("room_price"));
+        r.setStatus(rs.getString("room_status"));
+
+        Customer cu = new Customer();
+        cu.setId(b.getCustomerId());
+        cu.setName(rs.getString("customer_name"));
+        cu.setEmail(rs.getString("customer_email"));
+        cu.setPhone(rs.getString("customer_phone"));
+
+        BookingDetail d = new BookingDetail();
+        d.setBooking(b);
+        d.setRoom(r);
+        d.setCustomer(cu);
+        return d;
+    }
+
+    /** Packs a (customer, room) pair into a single map key. */
+    private static long pairKey(int customerId, int roomId) {
+        return ((long) customerId << 32) | (roomId & 0xffffffffL);
+    }
+}
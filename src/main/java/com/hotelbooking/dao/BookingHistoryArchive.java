@@ -0,0 +1,442 @@
+package com.hotelbooking.dao;
+
+import com.hotelbooking.model.BookingHistory;
+import com.hotelbooking.utils.IntObjectHashMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Cold storage tier for old booking history, kept in compressed, append-only segment files.
+ * <p>
+ * Completed bookings older than a configurable horizon are moved out of the {@code bookings}
+ * table (see {@code BookingHistoryService#archiveCompletedBefore}) and written here as
+ * {@link BookingHistory} rows. Each customer's rows from one archive run form a single
+ * deflate-compressed record; an in-memory index maps customer IDs to the records that belong
+ * to them, and records are read back through memory-mapped segment files. History therefore
+ * stays queryable while the hot table stays small.
+ * </p>
+ *
+ * <p><b>Segment layout</b> ({@code segment-000001.hba}, ...):</p>
+ * <pre>
+ * header : int magic ("HBSA"), short version
+ * record : int customerId, int rowCount, int rawLength, int compressedLength, byte[compressedLength]
+ * </pre>
+ * Records are only ever appended. A new segment is started once the active one exceeds
+ * {@link #MAX_SEGMENT_BYTES}. On startup every segment is scanned to rebuild the index; a
+ * partially written record at the tail of the last segment (e.g. after a crash) is truncated.
+ * Rows archived twice (a run interrupted between writing and deleting from the database) are
+ * de-duplicated by booking ID on read.
+ *
+ * <p><b>Configuration</b> (system properties):</p>
+ * <ul>
+ *   <li>{@code history.archive.dir} &mdash; segment directory
+ *       (default {@code ${user.home}/hotel-history-archive})</li>
+ *   <li>{@code history.archive.horizonDays} &mdash; age in days after check-out at which
+ *       a booking becomes archivable (default {@value #DEFAULT_HORIZON_DAYS})</li>
+ * </ul>
+ *
+ * @author
+ * @version 1.0
+ * @since 2025-11-01
+ */
+public class BookingHistoryArchive {
+
+    /** Default archive horizon in days after check-out. */
+    public static final int DEFAULT_HORIZON_DAYS = 730;
+
+    /** Size after which the active segment is sealed and a new one started. */
+    public static final long MAX_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    /** Magic number at the start of every segment ("HBSA"). */
+    private static final int MAGIC = 0x48425341;
+
+    /** Segment format version. */
+    private static final short VERSION = 1;
+
+    /** Bytes taken by the segment header. */
+    private static final int HEADER_BYTES = 6;
+
+    /** Bytes taken by a record header. */
+    private static final int RECORD_HEADER_BYTES = 16;
+
+    /** Marker for a {@code null} date in the compact row encoding. */
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    /** Lazily opened archive for the configured directory. */
+    private static volatile BookingHistoryArchive shared;
+
+    /** Directory holding the segment files. */
+    private final Path dir;
+
+    /** Open segments by number. */
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+
+    /** Customer ID &rarr; record locations, packed as {@code (segmentNo << 32) | offset}. */
+    private final IntObjectHashMap<List<Long>> index = new IntObjectHashMap<>();
+
+    /**
+     * Opens (or creates) an archive in the given directory and rebuilds its index.
+     *
+     * @param dir the directory holding the segment files
+     * @throws IOException if the directory or a segment cannot be read
+     */
+    public BookingHistoryArchive(Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "segment-*.hba")) {
+            for (Path p : files) {
+                String name = p.getFileName().toString();
+                int no = Integer.parseInt(name.substring("segment-".length(), name.length() - ".hba".length()));
+                segments.put(no, new Segment(no, p));
+            }
+        }
+        for (Segment s : segments.values()) {
+            scan(s, s.no == segments.lastKey());
+        }
+    }
+
+    /**
+     * Returns the archive for the directory configured by {@code history.archive.dir},
+     * opening it on first use.
+     *
+     * @return the shared archive
+     * @throws IOException if the archive cannot be opened
+     */
+    public static BookingHistoryArchive shared() throws IOException {
+        BookingHistoryArchive a = shared;
+        if (a == null) {
+            synchronized (BookingHistoryArchive.class) {
+                a = shared;
+                if (a == null) {
+                    String dir = System.getProperty("history.archive.dir",
+                            Paths.get(System.getProperty("user.home"), "hotel-history-archive").toString());
+                    a = new BookingHistoryArchive(Paths.get(dir));
+                    shared = a;
+                }
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Returns the configured archive horizon in days ({@code history.archive.horizonDays}).
+     *
+     * @return the horizon in days
+     */
+    public static int horizonDays() {
+        return Integer.getInteger("history.archive.horizonDays", DEFAULT_HORIZON_DAYS);
+    }
+
+    /**
+     * Appends history rows to the archive, one compressed record per customer, and forces
+     * them to disk before returning.
+     *
+     * @param rows the rows to archive (may span several customers)
+     * @throws IOException if the rows cannot be written
+     */
+    public synchronized void append(List<BookingHistory> rows) throws IOException {
+        Map<Integer, List<BookingHistory>> byCustomer = new LinkedHashMap<>();
+        for (BookingHistory h : rows) {
+            byCustomer.computeIfAbsent(h.getCustomerId(), k -> new ArrayList<>()).add(h);
+        }
+        if (byCustomer.isEmpty()) return;
+
+        Segment active = activeSegment();
+        for (Map.Entry<Integer, List<BookingHistory>> e : byCustomer.entrySet()) {
+            if (active.size >= MAX_SEGMENT_BYTES) {
+                active.channel.force(true);
+                active = newSegment(active.no + 1);
+            }
+            byte[] raw = encode(e.getValue());
+            byte[] compressed = deflate(raw);
+
+            ByteBuffer buf = ByteBuffer.allocate(RECORD_HEADER_BYTES + compressed.length);
+            buf.putInt(e.getKey()).putInt(e.getValue().size()).putInt(raw.length).putInt(compressed.length);
+            buf.put(compressed).flip();
+
+            long offset = active.size;
+            while (buf.hasRemaining()) active.channel.write(buf, active.size + buf.position());
+            active.size += RECORD_HEADER_BYTES + compressed.length;
+            index.computeIfAbsent(e.getKey(), k -> new ArrayList<>()).add(pack(active.no, offset));
+        }
+        active.channel.force(true);
+    }
+
+    /**
+     * Reads every archived row of a customer, newest stay first, de-duplicated by booking ID.
+     *
+     * @param customerId the customer ID
+     * @return the archived rows; empty if the customer has none
+     * @throws IOException if a segment cannot be read
+     */
+    public List<BookingHistory> read(int customerId) throws IOException {
+        List<Long> locations;
+        synchronized (this) {
+            List<Long> l = index.get(customerId);
+            if (l == null) return new ArrayList<>();
+            locations = new ArrayList<>(l);
+        }
+
+        // A booking archived twice (run retried after a crash) keeps the rows of its latest record.
+        Map<Integer, List<BookingHistory>> byBooking = new HashMap<>();
+        for (long loc : locations) {
+            Map<Integer, List<BookingHistory>> inRecord = new LinkedHashMap<>();
+            for (BookingHistory h : readRecord((int) (loc >>> 32), (int) loc)) {
+                inRecord.computeIfAbsent(h.getBookingId(), k -> new ArrayList<>()).add(h);
+            }
+            byBooking.putAll(inRecord);
+        }
+
+        List<BookingHistory> out = new ArrayList<>();
+        for (List<BookingHistory> l : byBooking.values()) out.addAll(l);
+        out.sort((a, b) -> {
+            int c = compareNullable(b.getCheckIn(), a.getCheckIn());
+            return c != 0 ? c : Integer.compare(b.getBookingId(), a.getBookingId());
+        });
+        return out;
+    }
+
+    /**
+     * Returns the number of customers with archived history.
+     *
+     * @return the number of indexed customers
+     */
+    public synchronized int customerCount() {
+        return index.size();
+    }
+
+    // ---------------------------
+    // Segment handling
+    // ---------------------------
+
+    /** Returns the segment new records are appended to, creating the first one if needed. */
+    private Segment activeSegment() throws IOException {
+        if (segments.isEmpty()) return newSegment(1);
+        return segments.lastEntry().getValue();
+    }
+
+    /** Creates an empty segment with a header and registers it. */
+    private Segment newSegment(int no) throws IOException {
+        Path p = dir.resolve(String.format("segment-%06d.hba", no));
+        Segment s = new Segment(no, p);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort(VERSION).flip();
+        while (header.hasRemaining()) s.channel.write(header, header.position());
+        s.size = HEADER_BYTES;
+        segments.put(no, s);
+        return s;
+    }
+
+    /**
+     * Rebuilds index entries for a segment by walking its record headers. A truncated tail
+     * record in the active segment is cut off so later appends start on a record boundary.
+     */
+    private void scan(Segment s, boolean active) throws IOException {
+        long fileSize = s.channel.size();
+        if (fileSize < HEADER_BYTES) {
+            s.channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putShort(VERSION).flip();
+            while (header.hasRemaining()) s.channel.write(header, header.position());
+            s.size = HEADER_BYTES;
+            return;
+        }
+
+        MappedByteBuffer map = s.map(fileSize);
+        if (map.getInt(0) != MAGIC) throw new IOException("Not a history archive segment: " + s.path);
+
+        long pos = HEADER_BYTES;
+        while (pos + RECORD_HEADER_BYTES <= fileSize) {
+            int customerId = map.getInt((int) pos);
+            int compressedLength = map.getInt((int) pos + 12);
+            long end = pos + RECORD_HEADER_BYTES + compressedLength;
+            if (compressedLength < 0 || end > fileSize) break;
+            index.computeIfAbsent(customerId, k -> new ArrayList<>()).add(pack(s.no, pos));
+            pos = end;
+        }
+        s.size = pos;
+        if (pos < fileSize) {
+            if (!active) throw new IOException("Corrupt history archive segment: " + s.path);
+            s.channel.truncate(pos);
+        }
+    }
+
+    /** Reads and decodes one record through the segment's memory mapping. */
+    private List<BookingHistory> readRecord(int segmentNo, int offset) throws IOException {
+        Segment s;
+        synchronized (this) {
+            s = segments.get(segmentNo);
+        }
+        if (s == null) throw new IOException("Missing history archive segment " + segmentNo);
+
+        ByteBuffer map = s.mapAtLeast(offset + RECORD_HEADER_BYTES).duplicate();
+        int rawLength = map.getInt(offset + 8);
+        int compressedLength = map.getInt(offset + 12);
+        map = s.mapAtLeast((long) offset + RECORD_HEADER_BYTES + compressedLength).duplicate();
+
+        byte[] compressed = new byte[compressedLength];
+        map.position(offset + RECORD_HEADER_BYTES);
+        map.get(compressed);
+        return decode(inflate(compressed, rawLength));
+    }
+
+    private static long pack(int segmentNo, long offset) {
+        return ((long) segmentNo << 32) | (offset & 0xffffffffL);
+    }
+
+    // ---------------------------
+    // Row encoding
+    // ---------------------------
+
+    /** Encodes rows in a compact binary form (dates as epoch days). */
+    private static byte[] encode(List<BookingHistory> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows.size() * 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (BookingHistory h : rows) {
+                out.writeInt(h.getBookingId());
+                out.writeInt(h.getRoomId());
+                writeNullable(out, h.getRoomNumber());
+                writeNullable(out, h.getRoomType());
+                out.writeInt(h.getCustomerId());
+                writeNullable(out, h.getCustomerName());
+                out.writeInt(toEpochDay(h.getCheckIn()));
+                out.writeInt(toEpochDay(h.getCheckOut()));
+                out.writeDouble(h.getPaymentAmount());
+                writeNullable(out, h.getPaymentStatus());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Decodes rows written by {@link #encode(List)}. */
+    private static List<BookingHistory> decode(byte[] raw) throws IOException {
+        List<BookingHistory> rows = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            while (in.available() > 0) {
+                BookingHistory h = new BookingHistory();
+                h.setBookingId(in.readInt());
+                h.setRoomId(in.readInt());
+                h.setRoomNumber(readNullable(in));
+                h.setRoomType(readNullable(in));
+                h.setCustomerId(in.readInt());
+                h.setCustomerName(readNullable(in));
+                h.setCheckIn(fromEpochDay(in.readInt()));
+                h.setCheckOut(fromEpochDay(in.readInt()));
+                h.setPaymentAmount(in.readDouble());
+                h.setPaymentStatus(readNullable(in));
+                rows.add(h);
+            }
+        }
+        return rows;
+    }
+
+    private static void writeNullable(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static int toEpochDay(LocalDate date) {
+        return date != null ? (int) date.toEpochDay() : NO_DATE;
+    }
+
+    private static LocalDate fromEpochDay(int day) {
+        return day != NO_DATE ? LocalDate.ofEpochDay(day) : null;
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buf = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buf, 0, deflater.deflate(buf));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int n = 0;
+            while (n < rawLength && !inflater.finished()) {
+                n += inflater.inflate(raw, n, rawLength - n);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt history archive record", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int compareNullable(LocalDate a, LocalDate b) {
+        if (a == null) return b == null ? 0 : -1;
+        if (b == null) return 1;
+        return a.compareTo(b);
+    }
+
+    /**
+     * One segment file with its channel and current memory mapping.
+     */
+    private static final class Segment {
+        final int no;
+        final Path path;
+        final FileChannel channel;
+        long size;
+        private MappedByteBuffer map;
+
+        Segment(int no, Path path) throws IOException {
+            this.no = no;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+
+        /** Maps the first {@code length} bytes of the file read-only. */
+        synchronized MappedByteBuffer map(long length) throws IOException {
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            return map;
+        }
+
+        /** Returns a mapping covering at least {@code length} bytes, remapping after appends. */
+        synchronized MappedByteBuffer mapAtLeast(long length) throws IOException {
+            if (map == null || map.capacity() < length) {
+                map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            return map;
+        }
+    }
+}
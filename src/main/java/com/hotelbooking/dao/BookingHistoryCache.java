@@ -0,0 +1,169 @@
+package com.hotelbooking.dao;
+
+import com.hotelbooking.model.BookingHistory;
+import com.hotelbooking.model.BookingHistoryPage;
+import com.hotelbooking.utils.IntIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory cache of the first page of each customer's booking history.
+ * <p>
+ * The first page is by far the most requested one, and for customers with many stays the
+ * underlying four-table join is expensive. Pages are cached per customer (least recently
+ * used customers are evicted beyond {@link #MAX_CUSTOMERS}) and invalidated by the DAOs
+ * that write bookings, payments, rooms or customers, so a cached page never outlives the
+ * data it was built from.
+ * </p>
+ *
+ * <p><b>Invalidation rules:</b></p>
+ * <ul>
+ *   <li>A booking created or updated for a customer drops that customer's page.</li>
+ *   <li>A booking or payment change drops the page of whichever customer has that booking
+ *       on their cached page (tracked via a booking &rarr; customer map).</li>
+ *   <li>Room changes drop every page, since room details are embedded in each row.</li>
+ * </ul>
+ *
+ * <p>To avoid caching a page that was read just before a concurrent write, every
+ * invalidation bumps a generation counter and {@link #put} ignores pages loaded under an
+ * older generation.</p>
+ *
+ * <p><b>Note:</b> cached {@link BookingHistory} rows are shared between callers and must be
+ * treated as read-only.</p>
+ *
+ * @author
+ * @version 1.0
+ * @since 2025-11-01
+ */
+public final class BookingHistoryCache {
+
+    /** Maximum number of customers whose first page is kept. */
+    public static final int MAX_CUSTOMERS = 10_000;
+
+    /** Guards all fields below. */
+    private static final Object LOCK = new Object();
+
+    /** Cached first pages in access order (eldest first). */
+    private static final LinkedHashMap<Integer, BookingHistoryPage> PAGES = new LinkedHashMap<>(256, 0.75f, true);
+
+    /** Booking ID &rarr; customer ID for every booking that appears on a cached page. */
+    private static final IntIntHashMap OWNERS = new IntIntHashMap();
+
+    /** Incremented on every invalidation. */
+    private static long generation;
+
+    private BookingHistoryCache() {}
+
+    /**
+     * Returns the current generation; read it before loading a page from the database
+     * and pass it to {@link #put}.
+     *
+     * @return the current generation
+     */
+    public static long generation() {
+        synchronized (LOCK) {
+            return generation;
+        }
+    }
+
+    /**
+     * Returns a copy of the cached first page for a customer.
+     *
+     * @param customerId the customer ID
+     * @return the cached page, or {@code null} if none is cached
+     */
+    public static BookingHistoryPage get(int customerId) {
+        synchronized (LOCK) {
+            BookingHistoryPage page = PAGES.get(customerId);
+            return page != null ? copy(page) : null;
+        }
+    }
+
+    /**
+     * Caches the first page for a customer, unless an invalidation happened since
+     * {@code observedGeneration} was read.
+     *
+     * @param customerId         the customer ID
+     * @param page               the first page loaded from the database
+     * @param observedGeneration the value of {@link #generation()} before the page was loaded
+     */
+    public static void put(int customerId, BookingHistoryPage page, long observedGeneration) {
+        synchronized (LOCK) {
+            if (observedGeneration != generation) return;
+
+            removeLocked(customerId);
+            PAGES.put(customerId, copy(page));
+            for (BookingHistory h : page.getItems()) {
+                OWNERS.put(h.getBookingId(), customerId);
+            }
+
+            Iterator<Map.Entry<Integer, BookingHistoryPage>> it = PAGES.entrySet().iterator();
+            while (PAGES.size() > MAX_CUSTOMERS && it.hasNext()) {
+                Map.Entry<Integer, BookingHistoryPage> eldest = it.next();
+                forgetOwners(eldest.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops the cached page of a customer.
+     *
+     * @param customerId the customer ID
+     */
+    public static void invalidateCustomer(int customerId) {
+        synchronized (LOCK) {
+            generation++;
+            removeLocked(customerId);
+        }
+    }
+
+    /**
+     * Drops the cached page that contains the given booking, if any.
+     *
+     * @param bookingId the booking ID
+     */
+    public static void invalidateBooking(int bookingId) {
+        synchronized (LOCK) {
+            generation++;
+            if (OWNERS.containsKey(bookingId)) removeLocked(OWNERS.getOrDefault(bookingId, 0));
+        }
+    }
+
+    /**
+     * Drops every cached page.
+     */
+    public static void invalidateAll() {
+        synchronized (LOCK) {
+            generation++;
+            PAGES.clear();
+            OWNERS.clear();
+        }
+    }
+
+    /** Removes one customer's page and its owner entries; caller holds {@link #LOCK}. */
+    private static void removeLocked(int customerId) {
+        BookingHistoryPage old = PAGES.remove(customerId);
+        if (old != null) forgetOwners(old);
+    }
+
+    /** Removes the owner entries of a page; caller holds {@link #LOCK}. */
+    private static void forgetOwners(BookingHistoryPage page) {
+        for (BookingHistory h : page.getItems()) {
+            OWNERS.remove(h.getBookingId());
+        }
+    }
+
+    /** Copies the page envelope so callers cannot change the cached item list. */
+    private static BookingHistoryPage copy(BookingHistoryPage page) {
+        BookingHistoryPage out = new BookingHistoryPage();
+        out.setItems(new ArrayList<>(page.getItems()));
+        out.setHasMore(page.isHasMore());
+        out.setNextCheckIn(page.getNextCheckIn());
+        out.setNextBookingId(page.getNextBookingId());
+        return out;
+    }
+}
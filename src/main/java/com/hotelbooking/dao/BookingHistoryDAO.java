@@ -1,9 +1,12 @@
 package com.hotelbooking.dao;
 
 import com.hotelbooking.model.BookingHistory;
+import com.hotelbooking.model.BookingHistoryPage;
 import com.hotelbooking.utils.DBConnection;
+import com.hotelbooking.utils.SingleFlight;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,6 +22,7 @@ import java.util.List;
  * <p><b>Responsibilities:</b></p>
  * <ul>
  *   <li>Fetch booking history for a specific customer.</li>
+ *   <li>Fetch history one page at a time (keyset pagination), caching each customer's first page.</li>
  *   <li>Provide detailed records combining booking, room, customer, and payment information.</li>
  * </ul>
  *
@@ -36,6 +40,15 @@ import java.util.List;
  */
 public class BookingHistoryDAO {
 
+    /**
+     * Coalesces concurrent identical history reads into a single join query; every caller
+     * gets its own copies of the rows. Shared across all {@code BookingHistoryDAO} instances.
+     */
+    private static final SingleFlight READS = new SingleFlight();
+
+    /** Number of bookings on a history page when the caller does not specify a size. */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
     /**
      * Retrieves the full booking history for a given customer.
      * <p>
@@ -57,6 +70,20 @@ public class BookingHistoryDAO {
      * @throws Exception if a database access or SQL error occurs.
      */
     public List<BookingHistory> getHistoryByCustomer(int customerId) throws Exception {
+        // The history is written through other DAOs, which all bump the cache generation, so
+        // keying on it keeps a read from joining a query that started before such a write.
+        return READS.execute("getHistoryByCustomer", new Object[]{customerId, BookingHistoryCache.generation()},
+                () -> queryHistoryByCustomer(customerId), SingleFlight.eachCopied(BookingHistory::new));
+    }
+
+    /**
+     * Runs the join behind {@link #getHistoryByCustomer(int)}.
+     *
+     * @param customerId The unique ID of the customer whose booking history is to be fetched.
+     * @return A list of {@link BookingHistory} objects containing detailed booking data.
+     * @throws Exception if a database access or SQL error occurs.
+     */
+    private List<BookingHistory> queryHistoryByCustomer(int customerId) throws Exception {
         List<BookingHistory> list = new ArrayList<>();
 
         String sql = "SELECT b.id AS booking_id, b.room_id, r.room_number, r.type AS room_type, " +
@@ -75,18 +102,7 @@ public class BookingHistoryDAO {
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    BookingHistory bh = new BookingHistory();
-                    bh.setBookingId(rs.getInt("booking_id"));
-                    bh.setRoomId(rs.getInt("room_id"));
-                    bh.setRoomNumber(rs.getString("room_number"));
-                    bh.setRoomType(rs.getString("room_type"));
-                    bh.setCustomerId(rs.getInt("customer_id"));
-                    bh.setCustomerName(rs.getString("customer_name"));
-                    bh.setCheckIn(rs.getString("check_in"));
-                    bh.setCheckOut(rs.getString("check_out"));
-                    bh.setPaymentAmount(rs.getDouble("payment_amount"));
-                    bh.setPaymentStatus(rs.getString("payment_status"));
-                    list.add(bh);
+                    list.add(mapRow(rs));
                 }
             }
         }
@@ -94,18 +110,180 @@ public class BookingHistoryDAO {
     }
 
     /**
-     * Placeholder method for fetching booking history by user ID.
+     * Retrieves the first page of a customer's booking history
+     * ({@link #DEFAULT_PAGE_SIZE} bookings, newest stay first).
+     * <p>
+     * The first page is served from {@link BookingHistoryCache} when possible; on a miss
+     * it is loaded with {@link #getBookingHistory(int, String, Integer, int)} and cached.
+     * </p>
+     *
+     * @param customerId The customer whose history is requested.
+     * @return The first {@link BookingHistoryPage}.
+     * @throws Exception if a database access or SQL error occurs.
+     */
+    public BookingHistoryPage getBookingHistory(int customerId) throws Exception {
+        BookingHistoryPage cached = BookingHistoryCache.get(customerId);
+        if (cached != null) return cached;
+
+        long generation = BookingHistoryCache.generation();
+        BookingHistoryPage page = getBookingHistory(customerId, null, null, DEFAULT_PAGE_SIZE);
+        BookingHistoryCache.put(customerId, page, generation);
+        return page;
+    }
+
+    /**
+     * Retrieves one page of a customer's booking history, newest stay first.
+     * <p>
+     * Uses keyset pagination on {@code (check_in, id)}: bookings are paged in a derived
+     * table (so a booking with several payments is never split across pages) and only
+     * the selected page is joined with {@code customers}, {@code rooms} and
+     * {@code payments}. The cost of a page therefore does not grow with the length of
+     * the customer's history.
+     * </p>
+     *
+     * <p><b>SQL Logic (later pages):</b></p>
+     * <pre>
+     * SELECT ... FROM (SELECT * FROM bookings WHERE customer_id = ?
+     *                  AND (check_in &lt; ? OR (check_in = ? AND id &lt; ?))
+     *                  ORDER BY check_in DESC, id DESC LIMIT ?) b
+     * JOIN customers c ... JOIN rooms r ... LEFT JOIN payments p ...
+     * </pre>
+     *
+     * @param customerId      The customer whose history is requested.
+     * @param beforeCheckIn   Check-in date cursor, or {@code null} for the first page.
+     * @param beforeBookingId Booking ID cursor paired with {@code beforeCheckIn}, or {@code null} for the first page.
+     * @param limit           Maximum number of bookings on the page.
+     * @return The requested {@link BookingHistoryPage}.
+     * @throws Exception if a database access or SQL error occurs.
+     */
+    public BookingHistoryPage getBookingHistory(int customerId, LocalDate beforeCheckIn, Integer beforeBookingId,
+                                                int limit) throws Exception {
+        boolean hasCursor = beforeCheckIn != null && beforeBookingId != null;
+
+        String sql = "SELECT b.id AS booking_id, b.room_id, r.room_number, r.type AS room_type, " +
+                "b.customer_id, c.name AS customer_name, b.check_in, b.check_out, " +
+                "p.amount AS payment_amount, p.status AS payment_status " +
+                "FROM (SELECT * FROM bookings WHERE customer_id = ? " +
+                (hasCursor ? "AND (check_in < ? OR (check_in = ? AND id < ?)) " : "") +
+                "ORDER BY check_in DESC, id DESC LIMIT ?) b " +
+                "JOIN customers c ON b.customer_id = c.id " +
+                "JOIN rooms r ON b.room_id = r.id " +
+                "LEFT JOIN payments p ON p.booking_id = b.id " +
+                "ORDER BY b.check_in DESC, b.id DESC";
+
+        List<BookingHistory> rows = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            int idx = 1;
+            ps.setInt(idx++, customerId);
+            if (hasCursor) {
+                ps.setObject(idx++, beforeCheckIn);
+                ps.setObject(idx++, beforeCheckIn);
+                ps.setInt(idx++, beforeBookingId);
+            }
+            // Fetch one extra booking to learn whether another page exists.
+            ps.setInt(idx, limit + 1);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapRow(rs));
+                }
+            }
+        }
+        return toPage(rows, limit);
+    }
+
+    /**
+     * Retrieves history rows for bookings that checked out before the given date, in
+     * ascending booking ID order, for moving into {@link BookingHistoryArchive}.
      * <p>
-     * This method currently prints a debug message and returns an empty list.
-     * It is intended for future implementation that may involve custom filtering,
-     * caching, or API-based history retrieval.
+     * At most {@code limit} bookings are returned per call (all payment rows of a booking
+     * are always included), so callers can archive in bounded batches.
      * </p>
      *
-     * @param userId The user ID for whom booking history will be fetched.
-     * @return An empty list (unimplemented placeholder).
+     * @param horizon Bookings with {@code check_out} strictly before this date qualify.
+     * @param limit   Maximum number of bookings to return.
+     * @return The matching history rows; empty when nothing is left to archive.
+     * @throws Exception if a database access or SQL error occurs.
+     */
+    public List<BookingHistory> getCompletedBefore(LocalDate horizon, int limit) throws Exception {
+        String sql = "SELECT b.id AS booking_id, b.room_id, r.room_number, r.type AS room_type, " +
+                "b.customer_id, c.name AS customer_name, b.check_in, b.check_out, " +
+                "p.amount AS payment_amount, p.status AS payment_status " +
+                "FROM (SELECT * FROM bookings WHERE check_out < ? ORDER BY id LIMIT ?) b " +
+                "JOIN customers c ON b.customer_id = c.id " +
+                "JOIN rooms r ON b.room_id = r.id " +
+                "LEFT JOIN payments p ON p.booking_id = b.id " +
+                "ORDER BY b.id";
+
+        List<BookingHistory> list = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setObject(1, horizon);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRow(rs));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Trims rows loaded with a {@code limit + 1} look-ahead to {@code limit} bookings and
+     * fills in the next-page cursor.
+     *
+     * @param rows  The joined rows, newest stay first.
+     * @param limit The number of bookings the page may contain.
+     * @return The resulting {@link BookingHistoryPage}.
+     */
+    private BookingHistoryPage toPage(List<BookingHistory> rows, int limit) {
+        BookingHistoryPage page = new BookingHistoryPage();
+        List<BookingHistory> items = new ArrayList<>();
+        int bookings = 0;
+        int lastBookingId = 0;
+        for (BookingHistory h : rows) {
+            if (bookings == 0 || h.getBookingId() != lastBookingId) {
+                if (bookings == limit) {
+                    page.setHasMore(true);
+                    break;
+                }
+                bookings++;
+                lastBookingId = h.getBookingId();
+            }
+            items.add(h);
+        }
+        page.setItems(items);
+        if (page.isHasMore()) {
+            BookingHistory last = items.get(items.size() - 1);
+            page.setNextCheckIn(last.getCheckIn());
+            page.setNextBookingId(last.getBookingId());
+        }
+        return page;
+    }
+
+    /**
+     * Maps a single row of the history join to a {@link BookingHistory} object.
+     *
+     * @param rs The {@link ResultSet} pointing to the current row.
+     * @return A {@link BookingHistory} object containing the mapped data.
+     * @throws SQLException if an error occurs while accessing the result set.
      */
-    public List<BookingHistory> getBookingHistory(int userId) {
-        System.out.println("Fetching booking history for user: " + userId);
-        return new ArrayList<>();
+    private BookingHistory mapRow(ResultSet rs) throws SQLException {
+        BookingHistory bh = new BookingHistory();
+        bh.setBookingId(rs.getInt("booking_id"));
+        bh.setRoomId(rs.getInt("room_id"));
+        bh.setRoomNumber(rs.getString("room_number"));
+        bh.setRoomType(rs.getString("room_type"));
+        bh.setCustomerId(rs.getInt("customer_id"));
+        bh.setCustomerName(rs.getString("customer_name"));
+        bh.setCheckIn(rs.getObject("check_in", LocalDate.class));
+        bh.setCheckOut(rs.getObject("check_out", LocalDate.class));
+        bh.setPaymentAmount(rs.getDouble("payment_amount"));
+        bh.setPaymentStatus(rs.getString("payment_status"));
+        return bh;
     }
 }
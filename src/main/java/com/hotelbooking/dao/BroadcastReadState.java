@@ -0,0 +1,84 @@
+package com.hotelbooking.dao;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Per-user read state of broadcast notifications, stored as one row of
+ * {@code notification_reads}.
+ * <p>
+ * Every broadcast with an ID up to {@link #watermark} is read. Above the watermark, bit
+ * {@code i} of {@link #bits} marks notification ID {@code watermark + 1 + i} as read. The
+ * watermark is advanced past every leading run of read broadcasts, so the bitmap only spans
+ * the range between the oldest unread and the newest read broadcast.
+ * </p>
+ */
+final class BroadcastReadState {
+
+    /** Every broadcast with an ID at or below this value is read. */
+    int watermark;
+
+    /** Read flags above the watermark. */
+    BitSet bits = new BitSet();
+
+    /**
+     * Checks whether a broadcast has been read.
+     *
+     * @param id the broadcast notification ID
+     * @return {@code true} if it has been read
+     */
+    boolean isRead(int id) {
+        return id <= watermark || bits.get(id - watermark - 1);
+    }
+
+    /**
+     * Marks a broadcast as read.
+     *
+     * @param id the broadcast notification ID
+     * @return {@code true} if it was unread before
+     */
+    boolean markRead(int id) {
+        if (isRead(id)) return false;
+        bits.set(id - watermark - 1);
+        return true;
+    }
+
+    /**
+     * Moves the watermark up to just below the first unread broadcast and drops the bits it
+     * passes.
+     *
+     * @param broadcastIds the IDs of the broadcasts above the current watermark, ascending
+     */
+    void compact(List<Integer> broadcastIds) {
+        int target = watermark;
+        boolean allRead = true;
+        for (int id : broadcastIds) {
+            if (!isRead(id)) {
+                target = id - 1;
+                allRead = false;
+                break;
+            }
+            target = id;
+        }
+        if (allRead && !broadcastIds.isEmpty()) target = Math.max(target, watermark + bits.length());
+        if (target <= watermark) return;
+
+        int shift = target - watermark;
+        bits = bits.get(shift, Math.max(shift, bits.length()));
+        watermark = target;
+    }
+
+    /**
+     * Counts unread broadcasts.
+     *
+     * @param broadcastIds the IDs of the broadcasts above the current watermark
+     * @return the number of them that are unread
+     */
+    int countUnread(List<Integer> broadcastIds) {
+        int unread = 0;
+        for (int id : broadcastIds) {
+            if (!isRead(id)) unread++;
+        }
+        return unread;
+    }
+}
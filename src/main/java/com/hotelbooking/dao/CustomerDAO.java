@@ -47,12 +47,7 @@ public class CustomerDAO {
 
             List<Customer> list = new ArrayList<>();
             while (rs.next()) {
-                Customer u = new Customer();
-                u.setId(rs.getInt("id"));
-                u.setName(rs.getString("name"));
-                u.setEmail(rs.getString("email"));
-                u.setPhone(rs.getString("phone"));
-                list.add(u);
+                list.add(mapRow(rs));
             }
             return list;
         }
@@ -73,12 +68,7 @@ public class CustomerDAO {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    Customer u = new Customer();
-                    u.setId(rs.getInt("id"));
-                    u.setName(rs.getString("name"));
-                    u.setEmail(rs.getString("email"));
-                    u.setPhone(rs.getString("phone"));
-                    return u;
+                    return mapRow(rs);
                 }
                 return null;
             }
@@ -125,7 +115,10 @@ public class CustomerDAO {
             ps.setString(2, u.getEmail());
             ps.setString(3, u.getPhone());
             ps.setInt(4, u.getId());
-            return ps.executeUpdate() > 0;
+            boolean ok = ps.executeUpdate() > 0;
+            // The customer name is embedded in every cached history row.
+            if (ok) BookingHistoryCache.invalidateCustomer(u.getId());
+            return ok;
         }
     }
 
@@ -145,4 +138,20 @@ public class CustomerDAO {
             return ps.executeUpdate() > 0;
         }
     }
+
+    /**
+     * Maps a single row from a {@link ResultSet} to a {@link Customer} object.
+     *
+     * @param rs The {@link ResultSet} pointing to the current row.
+     * @return A {@link Customer} object containing the mapped data.
+     * @throws SQLException if an error occurs while accessing the result set.
+     */
+    private Customer mapRow(ResultSet rs) throws SQLException {
+        Customer u = new Customer();
+        u.setId(rs.getInt("id"));
+        u.setName(rs.getString("name"));
+        u.setEmail(rs.getString("email"));
+        u.setPhone(rs.getString("phone"));
+        return u;
+    }
 }
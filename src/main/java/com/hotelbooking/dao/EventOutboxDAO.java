@@ -0,0 +1,97 @@
+package com.hotelbooking.dao;
+
+import com.hotelbooking.model.OutboxEvent;
+import com.hotelbooking.utils.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+
+/**
+ * Data Access Object (DAO) for the booking event outbox.
+ * <p>
+ * The event bus inserts one row per durable handler inside the transaction of the booking
+ * change that raised the event, so an event is stored if and only if its change was
+ * committed. The bus's relay then claims and settles the rows through the queries
+ * inherited from {@link OutboxTable}, exactly like the delivery workers do for the
+ * {@link OutboxDAO notification outbox}; a handled row is marked {@code DONE}.
+ * </p>
+ *
+ * <p><b>Table definition:</b></p>
+ * <pre>
+ * CREATE TABLE event_outbox (
+ *   id              BIGINT AUTO_INCREMENT PRIMARY KEY,
+ *   handler         VARCHAR(128) NOT NULL,
+ *   event_type      VARCHAR(32)  NOT NULL,
+ *   payload         TEXT         NOT NULL,
+ *   status          VARCHAR(16)  NOT NULL DEFAULT 'PENDING',
+ *   attempts        INT          NOT NULL DEFAULT 0,
+ *   next_attempt_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+ *   last_error      VARCHAR(512),
+ *   created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+ *   INDEX idx_event_outbox_due (status, next_attempt_at)
+ * );
+ * </pre>
+ *
+ * @author
+ * @version 1.0
+ * @since 2025-11-01
+ */
+public class EventOutboxDAO extends OutboxTable<OutboxEvent> {
+
+    public EventOutboxDAO() {
+        super("event_outbox", "DONE", rs -> {
+            OutboxEvent e = new OutboxEvent();
+            e.setHandler(rs.getString("handler"));
+            e.setEventType(rs.getString("event_type"));
+            return e;
+        });
+    }
+
+    /**
+     * Inserts one row per handler on the caller's connection (and transaction).
+     *
+     * @param c         The connection of the surrounding transaction.
+     * @param handlers  The names of the durable handlers to hand the event to.
+     * @param eventType The event type.
+     * @param payload   The event serialized as JSON.
+     * @throws SQLException if a database access error occurs.
+     */
+    public void enqueue(Connection c, Collection<String> handlers, String eventType, String payload) throws SQLException {
+        if (handlers.isEmpty()) return;
+        String sql = "INSERT INTO event_outbox(handler, event_type, payload) VALUES (?,?,?)";
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            for (String handler : handlers) {
+                ps.setString(1, handler);
+                ps.setString(2, eventType);
+                ps.setString(3, payload);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Inserts one row per handler in a transaction of its own, for events that are not
+     * raised by a database change.
+     *
+     * @param handlers  The names of the durable handlers to hand the event to.
+     * @param eventType The event type.
+     * @param payload   The event serialized as JSON.
+     * @throws Exception if a database access error occurs; nothing is stored in that case.
+     */
+    public void enqueue(Collection<String> handlers, String eventType, String payload) throws Exception {
+        if (handlers.isEmpty()) return;
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                enqueue(c, handlers, eventType, payload);
+                c.commit();
+            } catch (Exception e) {
+                c.rollback();
+                throw e;
+            }
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.hotelbooking.dao;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hotelbooking.model.Notification;
 import com.hotelbooking.utils.DBConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -17,8 +21,11 @@ import java.util.List;
  *
  * <p><b>Responsibilities:</b></p>
  * <ul>
- *   <li>Insert new notifications (system-wide or user-specific)</li>
+ *   <li>Insert new notifications (system-wide or user-specific), together with their
+ *       outbox deliveries in one transaction (see {@link OutboxDAO})</li>
  *   <li>Retrieve notifications for a given user</li>
+ *   <li>Retrieve a user's most recent notifications and unread counts</li>
+ *   <li>Track, per user, which global notifications have been read</li>
  *   <li>Mark notifications as read</li>
  *   <li>Delete notifications</li>
  * </ul>
@@ -26,12 +33,30 @@ import java.util.List;
  * <p><b>Database Table:</b> {@code notifications}</p>
  * <p><b>Columns:</b> id, user_id, booking_id, title, message, is_read, created_at</p>
  *
+ * <p>Global notifications ({@code user_id IS NULL}) are stored once. Their {@code is_read} column
+ * is not used; each user's read state lives in {@code notification_reads} as a read watermark
+ * plus a bitmap of read IDs above it (see {@link BroadcastReadState}):</p>
+ * <pre>
+ * CREATE TABLE notification_reads (
+ *   user_id     INT PRIMARY KEY,
+ *   watermark   INT NOT NULL DEFAULT 0,
+ *   read_bitmap BLOB NOT NULL
+ * );
+ * CREATE INDEX idx_notifications_user_created ON notifications(user_id, created_at, id);
+ * </pre>
+ *
  * @author  
  * @version 1.0
  * @since 2025-11-01
  */
 public class NotificationDAO {
 
+    /** Serializes outbox payloads. */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** Writes delivery rows in the same transaction as the notification. */
+    private final OutboxDAO outbox = new OutboxDAO();
+
     /**
      * Creates a new notification record in the database.
      * <p>
@@ -44,9 +69,45 @@ public class NotificationDAO {
      * @throws Exception if a database error occurs during insertion.
      */
     public int createNotification(Notification n) throws Exception {
+        return createNotification(n, Collections.emptyList());
+    }
+
+    /**
+     * Creates a new notification together with its outbox deliveries, in one transaction.
+     *
+     * @param n        The {@link Notification} object containing the notification details.
+     * @param channels The delivery channels to enqueue the notification for (may be empty).
+     * @return The auto-generated ID of the inserted notification, or {@code -1} if creation fails.
+     * @throws Exception if a database error occurs; nothing is stored in that case.
+     */
+    public int createNotification(Notification n, Collection<String> channels) throws Exception {
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                int id = createNotification(c, n, channels);
+                c.commit();
+                return id;
+            } catch (Exception e) {
+                c.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Creates a notification and its outbox deliveries on the caller's connection, so they
+     * commit or roll back together with the caller's own business change.
+     *
+     * @param c        The connection of the surrounding transaction.
+     * @param n        The {@link Notification} object containing the notification details.
+     * @param channels The delivery channels to enqueue the notification for (may be empty).
+     * @return The auto-generated ID of the inserted notification, or {@code -1} if creation fails.
+     * @throws Exception if a database error occurs.
+     */
+    public int createNotification(Connection c, Notification n, Collection<String> channels) throws Exception {
         String sql = "INSERT INTO notifications(user_id, booking_id, title, message) VALUES (?,?,?,?)";
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        int id = -1;
+        try (PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             if (n.getUserId() == null) ps.setNull(1, Types.INTEGER);
             else ps.setInt(1, n.getUserId());
@@ -59,17 +120,29 @@ public class NotificationDAO {
             ps.executeUpdate();
 
             try (ResultSet rs = ps.getGeneratedKeys()) {
-                if (rs.next()) return rs.getInt(1);
+                if (rs.next()) id = rs.getInt(1);
             }
-            return -1;
         }
+
+        if (id > 0 && !channels.isEmpty()) {
+            Notification stored = new Notification();
+            stored.setId(id);
+            stored.setUserId(n.getUserId());
+            stored.setBookingId(n.getBookingId());
+            stored.setTitle(n.getTitle());
+            stored.setMessage(n.getMessage());
+            outbox.enqueue(c, id, channels, MAPPER.writeValueAsString(stored));
+        }
+        return id;
     }
 
     /**
      * Retrieves all notifications for a given user.
      * <p>
      * If {@code userId} is {@code null}, retrieves all notifications in the system.
-     * Otherwise, retrieves both user-specific and global (user_id is NULL) notifications.
+     * Otherwise, retrieves both user-specific and global (user_id is NULL) notifications
+     * with two indexed queries merged newest first; the read flag of each global
+     * notification reflects this user's own read state.
      * </p>
      *
      * @param userId The ID of the user, or {@code null} to fetch all notifications.
@@ -77,35 +150,160 @@ public class NotificationDAO {
      * @throws Exception if a database error occurs.
      */
     public List<Notification> getNotificationsForUser(Integer userId) throws Exception {
-        String sql;
         if (userId == null) {
-            sql = "SELECT * FROM notifications ORDER BY created_at DESC";
-        } else {
-            sql = "SELECT * FROM notifications WHERE user_id = ? OR user_id IS NULL ORDER BY created_at DESC";
+            List<Notification> out = new ArrayList<>();
+            try (Connection c = DBConnection.getConnection();
+                 PreparedStatement ps = c.prepareStatement("SELECT * FROM notifications ORDER BY created_at DESC, id DESC");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(mapRow(rs));
+            }
+            return out;
         }
+        return getRecentForUser(userId, Integer.MAX_VALUE);
+    }
 
-        List<Notification> out = new ArrayList<>();
+    /**
+     * Retrieves a single notification by its ID.
+     *
+     * @param id The ID of the notification.
+     * @return The {@link Notification}, or {@code null} if it does not exist.
+     * @throws Exception if a database error occurs.
+     */
+    public Notification getById(int id) throws Exception {
+        String sql = "SELECT * FROM notifications WHERE id = ?";
         try (Connection c = DBConnection.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
 
-            if (userId != null) ps.setInt(1, userId);
-
+            ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) out.add(mapRow(rs));
+                return rs.next() ? mapRow(rs) : null;
             }
         }
-        return out;
     }
 
     /**
-     * Marks a notification as read.
+     * Retrieves the most recent notifications visible to a user
+     * (user-specific and global), newest first.
+     * <p>
+     * The user's own rows and the global rows are read with two separate indexed queries
+     * (instead of one {@code user_id = ? OR user_id IS NULL} scan) and merged. Global rows
+     * are marked read according to the user's entry in {@code notification_reads}.
+     * </p>
+     *
+     * @param userId The ID of the user.
+     * @param limit  The maximum number of notifications to return.
+     * @return Up to {@code limit} {@link Notification} objects.
+     * @throws Exception if a database error occurs.
+     */
+    public List<Notification> getRecentForUser(int userId, int limit) throws Exception {
+        String personalSql = "SELECT * FROM notifications WHERE user_id = ? ORDER BY created_at DESC, id DESC LIMIT ?";
+        String broadcastSql = "SELECT * FROM notifications WHERE user_id IS NULL ORDER BY created_at DESC, id DESC LIMIT ?";
+
+        try (Connection c = DBConnection.getConnection()) {
+            List<Notification> personal = new ArrayList<>();
+            try (PreparedStatement ps = c.prepareStatement(personalSql)) {
+                ps.setInt(1, userId);
+                ps.setInt(2, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) personal.add(mapRow(rs));
+                }
+            }
+
+            List<Notification> broadcast = new ArrayList<>();
+            try (PreparedStatement ps = c.prepareStatement(broadcastSql)) {
+                ps.setInt(1, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) broadcast.add(mapRow(rs));
+                }
+            }
+            if (!broadcast.isEmpty()) {
+                BroadcastReadState state = readState(c, userId, false);
+                for (Notification n : broadcast) n.setRead(state.isRead(n.getId()));
+            }
+            return mergeNewestFirst(personal, broadcast, limit);
+        }
+    }
+
+    /**
+     * Counts the unread notifications visible to a user: their own unread rows plus the
+     * global notifications they have not read yet.
+     *
+     * @param userId The ID of the user.
+     * @return The number of unread notifications.
+     * @throws Exception if a database error occurs.
+     */
+    public int countUnread(int userId) throws Exception {
+        String sql = "SELECT COUNT(*) FROM notifications WHERE user_id = ? AND is_read = 0";
+        try (Connection c = DBConnection.getConnection()) {
+            int unread = 0;
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                ps.setInt(1, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) unread = rs.getInt(1);
+                }
+            }
+            BroadcastReadState state = readState(c, userId, false);
+            return unread + state.countUnread(broadcastIdsAbove(c, state.watermark));
+        }
+    }
+
+    /**
+     * Marks a global notification as read for one user only.
+     * <p>
+     * The user's {@code notification_reads} row is locked, updated and compacted in one
+     * transaction, so concurrent calls for the same user never lose an update.
+     * </p>
+     *
+     * @param userId         The ID of the user who read the notification.
+     * @param notificationId The ID of the global notification.
+     * @return {@code true} if the notification was unread for this user before.
+     * @throws Exception if a database error occurs.
+     */
+    public boolean markBroadcastRead(int userId, int notificationId) throws Exception {
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = c.prepareStatement(
+                        "INSERT IGNORE INTO notification_reads(user_id, watermark, read_bitmap) VALUES (?, 0, ?)")) {
+                    ps.setInt(1, userId);
+                    ps.setBytes(2, new byte[0]);
+                    ps.executeUpdate();
+                }
+                BroadcastReadState state = readState(c, userId, true);
+                boolean changed = state.markRead(notificationId);
+                if (changed) {
+                    state.compact(broadcastIdsAbove(c, state.watermark));
+                    try (PreparedStatement ps = c.prepareStatement(
+                            "UPDATE notification_reads SET watermark = ?, read_bitmap = ? WHERE user_id = ?")) {
+                        ps.setInt(1, state.watermark);
+                        ps.setBytes(2, state.bits.toByteArray());
+                        ps.setInt(3, userId);
+                        ps.executeUpdate();
+                    }
+                }
+                c.commit();
+                return changed;
+            } catch (Exception e) {
+                c.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Marks a notification as read if it is still unread.
+     * <p>
+     * The update only matches an unread row, so of several concurrent calls for the same
+     * notification exactly one sees {@code true}.
+     * </p>
      *
      * @param id The ID of the notification to mark as read.
-     * @return {@code true} if the notification was successfully updated, {@code false} otherwise.
+     * @return {@code true} if this call flipped the notification from unread to read;
+     *         {@code false} if it was already read or does not exist.
      * @throws Exception if a database error occurs.
      */
     public boolean markAsRead(int id) throws Exception {
-        String sql = "UPDATE notifications SET is_read=1 WHERE id = ?";
+        String sql = "UPDATE notifications SET is_read=1 WHERE id = ? AND is_read = 0";
         try (Connection c = DBConnection.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
 
@@ -131,6 +329,77 @@ public class NotificationDAO {
         }
     }
 
+    /**
+     * Loads a user's broadcast read state.
+     *
+     * @param c         The open connection to use.
+     * @param userId    The ID of the user.
+     * @param forUpdate Whether to lock the row for the current transaction.
+     * @return The read state; an empty one if the user has never read a broadcast.
+     * @throws SQLException if a database error occurs.
+     */
+    private BroadcastReadState readState(Connection c, int userId, boolean forUpdate) throws SQLException {
+        String sql = "SELECT watermark, read_bitmap FROM notification_reads WHERE user_id = ?" + (forUpdate ? " FOR UPDATE" : "");
+        BroadcastReadState state = new BroadcastReadState();
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    state.watermark = rs.getInt("watermark");
+                    byte[] bitmap = rs.getBytes("read_bitmap");
+                    if (bitmap != null) state.bits = BitSet.valueOf(bitmap);
+                }
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Lists the IDs of global notifications above a watermark, ascending.
+     *
+     * @param c         The open connection to use.
+     * @param watermark The exclusive lower bound.
+     * @return The notification IDs.
+     * @throws SQLException if a database error occurs.
+     */
+    private List<Integer> broadcastIdsAbove(Connection c, int watermark) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement ps = c.prepareStatement(
+                "SELECT id FROM notifications WHERE user_id IS NULL AND id > ? ORDER BY id")) {
+            ps.setInt(1, watermark);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Merges two lists that are each sorted newest first into one, newest first.
+     *
+     * @param a     The first list.
+     * @param b     The second list.
+     * @param limit The maximum number of entries to return.
+     * @return The merged list.
+     */
+    private static List<Notification> mergeNewestFirst(List<Notification> a, List<Notification> b, int limit) {
+        List<Notification> out = new ArrayList<>(Math.min(limit, a.size() + b.size()));
+        int i = 0, j = 0;
+        while (out.size() < limit && (i < a.size() || j < b.size())) {
+            if (j >= b.size() || (i < a.size() && isNewer(a.get(i), b.get(j)))) out.add(a.get(i++));
+            else out.add(b.get(j++));
+        }
+        return out;
+    }
+
+    /** Orders notifications by creation time, then ID, newest first. */
+    private static boolean isNewer(Notification x, Notification y) {
+        String cx = x.getCreatedAt() != null ? x.getCreatedAt() : "";
+        String cy = y.getCreatedAt() != null ? y.getCreatedAt() : "";
+        int cmp = cx.compareTo(cy);
+        return cmp != 0 ? cmp > 0 : x.getId() > y.getId();
+    }
+
     /**
      * Helper method for mapping a single database row to a {@link Notification} object.
      * <p>
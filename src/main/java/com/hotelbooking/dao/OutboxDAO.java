@@ -0,0 +1,72 @@
+package com.hotelbooking.dao;
+
+import com.hotelbooking.model.OutboxMessage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+
+/**
+ * Data Access Object (DAO) for the notification delivery outbox.
+ * <p>
+ * Rows are inserted by {@link NotificationDAO} inside the transaction that creates the
+ * notification, so a notification is never stored without its deliveries (or vice versa).
+ * Delivery workers then claim and settle the rows through the queries inherited from
+ * {@link OutboxTable}, which marks a delivered row {@code SENT}.
+ * </p>
+ *
+ * <p><b>Table definition:</b></p>
+ * <pre>
+ * CREATE TABLE notification_outbox (
+ *   id              BIGINT AUTO_INCREMENT PRIMARY KEY,
+ *   notification_id INT          NOT NULL,
+ *   channel         VARCHAR(32)  NOT NULL,
+ *   payload         TEXT         NOT NULL,
+ *   status          VARCHAR(16)  NOT NULL DEFAULT 'PENDING',
+ *   attempts        INT          NOT NULL DEFAULT 0,
+ *   next_attempt_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+ *   last_error      VARCHAR(512),
+ *   created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+ *   INDEX idx_outbox_due (status, next_attempt_at)
+ * );
+ * </pre>
+ *
+ * @author
+ * @version 1.0
+ * @since 2025-11-01
+ */
+public class OutboxDAO extends OutboxTable<OutboxMessage> {
+
+    public OutboxDAO() {
+        super("notification_outbox", "SENT", rs -> {
+            OutboxMessage m = new OutboxMessage();
+            m.setNotificationId(rs.getInt("notification_id"));
+            m.setChannel(rs.getString("channel"));
+            return m;
+        });
+    }
+
+    /**
+     * Inserts one outbox row per channel on the caller's connection (and transaction).
+     *
+     * @param c              The connection of the surrounding transaction.
+     * @param notificationId The ID of the notification to deliver.
+     * @param channels       The names of the channels to deliver over.
+     * @param payload        The notification serialized as JSON.
+     * @throws SQLException if a database access error occurs.
+     */
+    void enqueue(Connection c, int notificationId, Collection<String> channels, String payload) throws SQLException {
+        if (channels.isEmpty()) return;
+        String sql = "INSERT INTO notification_outbox(notification_id, channel, payload) VALUES (?,?,?)";
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            for (String channel : channels) {
+                ps.setInt(1, notificationId);
+                ps.setString(2, channel);
+                ps.setString(3, payload);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
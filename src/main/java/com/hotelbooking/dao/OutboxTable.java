@@ -0,0 +1,198 @@
+package com.hotelbooking.dao;
+
+import com.hotelbooking.model.OutboxEntry;
+import com.hotelbooking.utils.DBConnection;
+import com.hotelbooking.utils.SqlUtil;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Claim and outcome queries shared by the outbox tables.
+ * <p>
+ * An outbox table holds rows written inside the transaction of the change they follow up.
+ * Background workers claim batches of due rows with {@code FOR UPDATE SKIP LOCKED}, so any
+ * number of workers (in one JVM or several) can poll the table without blocking on or
+ * double-claiming each other's rows.
+ * </p>
+ *
+ * <p>A claimed row is moved to {@code SENDING} with a lease: its {@code next_attempt_at} is
+ * pushed forward by the lease length. If the worker dies before reporting back, the row
+ * becomes due again once the lease expires. The attempt count doubles as the claim token:
+ * every claim increments it, so {@link #markDone}, {@link #reschedule} and {@link #markFailed}
+ * only touch a row that is still {@code SENDING} under the caller's attempt, and a worker
+ * whose lease expired cannot overwrite the outcome of the worker that took the row over.</p>
+ *
+ * <p>Every outbox table has the columns {@code id}, {@code payload}, {@code status},
+ * {@code attempts}, {@code next_attempt_at} and {@code last_error} (see {@link OutboxDAO}
+ * and {@link EventOutboxDAO} for the full definitions); the row mapper only reads the
+ * table's own columns.</p>
+ *
+ * @param <T> the row type
+ * @author
+ * @version 1.0
+ * @since 2025-11-01
+ */
+public class OutboxTable<T extends OutboxEntry> {
+
+    /** Longest error message stored per row. */
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final String table;
+
+    private final String doneStatus;
+
+    private final SqlUtil.RowMapper<T> mapper;
+
+    /**
+     * @param table      The table name; a constant supplied by the DAO, never user input.
+     * @param doneStatus The status a row is given once it has been processed.
+     * @param mapper     Creates the row object and reads the table's own columns.
+     */
+    protected OutboxTable(String table, String doneStatus, SqlUtil.RowMapper<T> mapper) {
+        this.table = table;
+        this.doneStatus = doneStatus;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Claims up to {@code limit} due rows.
+     * <p>
+     * Due rows are {@code PENDING} rows whose retry time has come and {@code SENDING} rows
+     * whose lease has expired. Rows locked by another worker's claim are skipped. Claimed
+     * rows are moved to {@code SENDING}, their attempt count is incremented and they are
+     * leased for {@code leaseSeconds}.
+     * </p>
+     *
+     * @param limit        The maximum number of rows to claim.
+     * @param leaseSeconds How long the claim is held before another worker may take the row.
+     * @return The claimed rows, with {@code attempts} already incremented.
+     * @throws Exception if a database access error occurs.
+     */
+    public List<T> claimBatch(int limit, int leaseSeconds) throws Exception {
+        String select = "SELECT * FROM " + table + " " +
+                "WHERE status IN ('PENDING','SENDING') AND next_attempt_at <= CURRENT_TIMESTAMP " +
+                "ORDER BY next_attempt_at, id LIMIT ? FOR UPDATE SKIP LOCKED";
+        List<T> out = new ArrayList<>();
+
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = c.prepareStatement(select)) {
+                    ps.setInt(1, limit);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) out.add(mapRow(rs));
+                    }
+                }
+                if (!out.isEmpty()) {
+                    String update = "UPDATE " + table + " SET status = 'SENDING', attempts = attempts + 1, " +
+                            "next_attempt_at = CURRENT_TIMESTAMP + INTERVAL ? SECOND WHERE id IN (" +
+                            SqlUtil.placeholders(out.size()) + ")";
+                    try (PreparedStatement ps = c.prepareStatement(update)) {
+                        ps.setInt(1, leaseSeconds);
+                        for (int i = 0; i < out.size(); i++) ps.setLong(i + 2, out.get(i).getId());
+                        ps.executeUpdate();
+                    }
+                }
+                c.commit();
+            } catch (Exception e) {
+                c.rollback();
+                throw e;
+            }
+        }
+
+        for (T row : out) {
+            row.setStatus("SENDING");
+            row.setAttempts(row.getAttempts() + 1);
+        }
+        return out;
+    }
+
+    /**
+     * Marks a row as processed.
+     *
+     * @param row The claimed row.
+     * @return {@code true} if the caller still held the lease, {@code false} if the lease had
+     *         expired and the row was claimed again (the row is left to the new claim).
+     * @throws Exception if a database access error occurs.
+     */
+    public boolean markDone(T row) throws Exception {
+        String sql = "UPDATE " + table + " SET status = ?, last_error = NULL " +
+                "WHERE id = ? AND status = 'SENDING' AND attempts = ?";
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, doneStatus);
+            ps.setLong(2, row.getId());
+            ps.setInt(3, row.getAttempts());
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Puts a row back in the queue after a failed attempt.
+     *
+     * @param row          The claimed row.
+     * @param delaySeconds Seconds to wait before the next attempt.
+     * @param error        The error of the failed attempt.
+     * @return {@code true} if the caller still held the lease, {@code false} otherwise.
+     * @throws Exception if a database access error occurs.
+     */
+    public boolean reschedule(T row, int delaySeconds, String error) throws Exception {
+        String sql = "UPDATE " + table + " SET status = 'PENDING', " +
+                "next_attempt_at = CURRENT_TIMESTAMP + INTERVAL ? SECOND, last_error = ? " +
+                "WHERE id = ? AND status = 'SENDING' AND attempts = ?";
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, delaySeconds);
+            ps.setString(2, truncate(error));
+            ps.setLong(3, row.getId());
+            ps.setInt(4, row.getAttempts());
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Gives up on a row after its last allowed attempt. The row is kept, so it can be
+     * inspected and reset to {@code PENDING} by hand.
+     *
+     * @param row   The claimed row.
+     * @param error The error of the last attempt.
+     * @return {@code true} if the caller still held the lease, {@code false} otherwise.
+     * @throws Exception if a database access error occurs.
+     */
+    public boolean markFailed(T row, String error) throws Exception {
+        String sql = "UPDATE " + table + " SET status = 'FAILED', last_error = ? " +
+                "WHERE id = ? AND status = 'SENDING' AND attempts = ?";
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, truncate(error));
+            ps.setLong(2, row.getId());
+            ps.setInt(3, row.getAttempts());
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Maps a single row: the table's own columns through the mapper, then the shared ones.
+     *
+     * @param rs The {@link ResultSet} pointing to the current row.
+     * @return The mapped row.
+     * @throws SQLException if an error occurs while accessing the result set.
+     */
+    private T mapRow(ResultSet rs) throws SQLException {
+        T row = mapper.map(rs);
+        row.setId(rs.getLong("id"));
+        row.setPayload(rs.getString("payload"));
+        row.setStatus(rs.getString("status"));
+        row.setAttempts(rs.getInt("attempts"));
+        row.setLastError(rs.getString("last_error"));
+        return row;
+    }
+
+    /** Shortens an error message to fit the {@code last_error} column. */
+    private static String truncate(String error) {
+        if (error == null) return null;
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
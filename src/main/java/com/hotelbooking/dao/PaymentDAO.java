@@ -2,6 +2,7 @@ package com.hotelbooking.dao;
 
 import com.hotelbooking.model.Payment;
 import com.hotelbooking.utils.DBConnection;
+import com.hotelbooking.utils.SqlUtil;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -95,21 +96,47 @@ public class PaymentDAO {
      * @throws Exception if a database error occurs.
      */
     public int create(Payment p) throws Exception {
-        String sql = "INSERT INTO payments(booking_id, amount, method, status) VALUES(?, ?, ?, ?)";
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            ps.setInt(1, p.getBookingId());
-            ps.setDouble(2, p.getAmount());
-            ps.setString(3, p.getMethod());
-            ps.setString(4, p.getStatus());
-            ps.executeUpdate();
+        return create(p, null);
+    }
 
-            try (ResultSet keys = ps.getGeneratedKeys()) {
-                if (keys.next()) return keys.getInt(1);
+    /**
+     * Inserts a new payment record and runs {@code step} in the same transaction. The
+     * generated ID is set on {@code p} before {@code step} runs.
+     *
+     * @param p    The {@link Payment} object containing payment details.
+     * @param step Further writes to commit with the payment, or {@code null}.
+     * @return The auto-generated ID of the inserted payment, or {@code -1} if insertion fails.
+     * @throws Exception if a database error occurs; nothing is stored in that case.
+     */
+    public int create(Payment p, SqlUtil.TransactionStep step) throws Exception {
+        String sql = "INSERT INTO payments(booking_id, amount, method, status) VALUES(?, ?, ?, ?)";
+        int id = -1;
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    ps.setInt(1, p.getBookingId());
+                    ps.setDouble(2, p.getAmount());
+                    ps.setString(3, p.getMethod());
+                    ps.setString(4, p.getStatus());
+                    ps.executeUpdate();
+
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        if (keys.next()) id = keys.getInt(1);
+                    }
+                }
+                if (id > 0) {
+                    p.setId(id);
+                    if (step != null) step.run(c);
+                }
+                c.commit();
+            } catch (Exception e) {
+                c.rollback();
+                throw e;
             }
-            return -1;
         }
+        BookingHistoryCache.invalidateBooking(p.getBookingId());
+        return id;
     }
 
     /**
@@ -120,17 +147,46 @@ public class PaymentDAO {
      * @throws Exception if a database error occurs.
      */
     public boolean update(Payment p) throws Exception {
-        String sql = "UPDATE payments SET booking_id=?, amount=?, method=?, status=? WHERE id=?";
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        return update(p, null);
+    }
 
-            ps.setInt(1, p.getBookingId());
-            ps.setDouble(2, p.getAmount());
-            ps.setString(3, p.getMethod());
-            ps.setString(4, p.getStatus());
-            ps.setInt(5, p.getId());
-            return ps.executeUpdate() > 0;
+    /**
+     * Updates an existing payment record and, if it exists, runs {@code step} in the same
+     * transaction.
+     *
+     * @param p    The {@link Payment} object containing updated payment data.
+     * @param step Further writes to commit with the update, or {@code null}.
+     * @return {@code true} if the update was successful, {@code false} if the payment does not exist.
+     * @throws Exception if a database error occurs; nothing is changed in that case.
+     */
+    public boolean update(Payment p, SqlUtil.TransactionStep step) throws Exception {
+        // The payment may move between bookings, so both bookings' cached history is dropped.
+        Payment before = getById(p.getId());
+        String sql = "UPDATE payments SET booking_id=?, amount=?, method=?, status=? WHERE id=?";
+        boolean ok;
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setInt(1, p.getBookingId());
+                    ps.setDouble(2, p.getAmount());
+                    ps.setString(3, p.getMethod());
+                    ps.setString(4, p.getStatus());
+                    ps.setInt(5, p.getId());
+                    ok = ps.executeUpdate() > 0;
+                }
+                if (ok && step != null) step.run(c);
+                c.commit();
+            } catch (Exception e) {
+                c.rollback();
+                throw e;
+            }
+        }
+        if (ok) {
+            BookingHistoryCache.invalidateBooking(p.getBookingId());
+            if (before != null) BookingHistoryCache.invalidateBooking(before.getBookingId());
         }
+        return ok;
     }
 
     /**
@@ -141,12 +197,15 @@ public class PaymentDAO {
      * @throws Exception if a database error occurs.
      */
     public boolean delete(int id) throws Exception {
+        Payment before = getById(id);
         String sql = "DELETE FROM payments WHERE id=?";
         try (Connection c = DBConnection.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
 
             ps.setInt(1, id);
-            return ps.executeUpdate() > 0;
+            boolean ok = ps.executeUpdate() > 0;
+            if (ok && before != null) BookingHistoryCache.invalidateBooking(before.getBookingId());
+            return ok;
         }
     }
 
@@ -2,6 +2,7 @@ package com.hotelbooking.dao;
 
 import com.hotelbooking.model.Review;
 import com.hotelbooking.utils.DBConnection;
+import com.hotelbooking.utils.SingleFlight;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -18,6 +19,7 @@ import java.util.List;
  * <p><b>Responsibilities:</b></p>
  * <ul>
  *   <li>Insert new customer reviews into the database</li>
+ *   <li>Retrieve a single review by ID</li>
  *   <li>Retrieve reviews for a specific room</li>
  *   <li>Retrieve all reviews</li>
  *   <li>Delete reviews by ID</li>
@@ -32,6 +34,14 @@ import java.util.List;
  */
 public class ReviewDAO {
 
+    /**
+     * Coalesces concurrent identical reads (e.g. a burst of requests for the same room's
+     * reviews) into a single query; every caller gets its own copies of the reviews.
+     * Forgotten after each write, so a read never joins a query that started before the
+     * caller's own write. Shared across all {@code ReviewDAO} instances.
+     */
+    private static final SingleFlight READS = new SingleFlight();
+
     /**
      * Inserts a new review record into the database.
      * <p>
@@ -53,6 +63,7 @@ public class ReviewDAO {
             ps.setInt(3, r.getRating());
             ps.setString(4, r.getComment());
             ps.executeUpdate();
+            READS.forget();
 
             try (ResultSet rs = ps.getGeneratedKeys()) {
                 if (rs.next()) return rs.getInt(1);
@@ -61,18 +72,55 @@ public class ReviewDAO {
         }
     }
 
+    /**
+     * Retrieves a single review by its ID.
+     *
+     * @param id The ID of the review.
+     * @return The {@link Review}, or {@code null} if no review has that ID.
+     * @throws Exception if a database error occurs during retrieval.
+     */
+    public Review getById(int id) throws Exception {
+        String sql = "SELECT * FROM reviews WHERE id = ?";
+
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapRow(rs) : null;
+            }
+        }
+    }
+
     /**
      * Retrieves all reviews associated with a specific room.
      * <p>
      * The reviews are ordered by their creation timestamp in descending order (newest first).
      * </p>
      *
+     * <p>
+     * Concurrent calls for the same room share one query; each caller receives its own
+     * copies of the reviews.
+     * </p>
+     *
      * @param roomId The ID of the room for which to retrieve reviews.
      * @return A list of {@link Review} objects belonging to the specified room.
      *         Returns an empty list if no reviews are found.
      * @throws Exception if a database error occurs during retrieval.
      */
     public List<Review> getReviewsByRoom(int roomId) throws Exception {
+        return READS.execute("getReviewsByRoom", new Object[]{roomId},
+                () -> queryReviewsByRoom(roomId), SingleFlight.eachCopied(Review::new));
+    }
+
+    /**
+     * Runs the query behind {@link #getReviewsByRoom(int)}.
+     *
+     * @param roomId The ID of the room for which to retrieve reviews.
+     * @return A list of {@link Review} objects belonging to the specified room.
+     * @throws Exception if a database error occurs during retrieval.
+     */
+    private List<Review> queryReviewsByRoom(int roomId) throws Exception {
         String sql = "SELECT * FROM reviews WHERE room_id = ? ORDER BY created_at DESC";
         List<Review> out = new ArrayList<>();
 
@@ -101,6 +149,16 @@ public class ReviewDAO {
      * @throws Exception if a database error occurs.
      */
     public List<Review> getAllReviews() throws Exception {
+        return READS.execute("getAllReviews", null, this::queryAllReviews, SingleFlight.eachCopied(Review::new));
+    }
+
+    /**
+     * Runs the query behind {@link #getAllReviews()}.
+     *
+     * @return A list of all {@link Review} records, sorted by creation time (newest first).
+     * @throws Exception if a database error occurs.
+     */
+    private List<Review> queryAllReviews() throws Exception {
         String sql = "SELECT * FROM reviews ORDER BY created_at DESC";
         List<Review> out = new ArrayList<>();
 
@@ -129,7 +187,9 @@ public class ReviewDAO {
              PreparedStatement ps = c.prepareStatement(sql)) {
 
             ps.setInt(1, id);
-            return ps.executeUpdate() > 0;
+            boolean ok = ps.executeUpdate() > 0;
+            READS.forget();
+            return ok;
         }
     }
 
@@ -137,14 +197,15 @@ public class ReviewDAO {
      * Maps a single row from a {@link ResultSet} to a {@link Review} object.
      * <p>
      * This method is a helper used internally to convert database records into
-     * usable Java objects.
+     * usable Java objects. It is package-private so other DAOs that select whole
+     * {@code reviews} rows (e.g. {@link BookingDetailDAO}) can reuse it.
      * </p>
      *
      * @param rs The {@link ResultSet} pointing to the current row.
      * @return A {@link Review} object containing the mapped data.
      * @throws SQLException if an error occurs while accessing the result set.
      */
-    private Review mapRow(ResultSet rs) throws SQLException {
+    static Review mapRow(ResultSet rs) throws SQLException {
         Review r = new Review();
         r.setId(rs.getInt("id"));
         r.setRoomId(rs.getInt("room_id"));
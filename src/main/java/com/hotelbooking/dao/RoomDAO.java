@@ -2,10 +2,15 @@ package com.hotelbooking.dao;
 
 import com.hotelbooking.model.Room;
 import com.hotelbooking.utils.DBConnection;
+import com.hotelbooking.utils.SingleFlight;
+import com.hotelbooking.utils.SqlUtil;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object (DAO) class for managing {@link Room} entities.
@@ -21,7 +26,7 @@ import java.util.List;
  *   <li>Add new rooms</li>
  *   <li>Update existing room details</li>
  *   <li>Delete rooms</li>
- *   <li>Support future functionality for room availability checks</li>
+ *   <li>Retrieve the rooms available for a date range</li>
  * </ul>
  *
  * @author  
@@ -30,6 +35,13 @@ import java.util.List;
  */
 public class RoomDAO {
 
+    /**
+     * Coalesces concurrent identical reads into a single query; every caller gets its own
+     * copies of the rooms. Forgotten after each write, so a read never joins a query that
+     * started before the caller's own write. Shared across all {@code RoomDAO} instances.
+     */
+    private static final SingleFlight READS = new SingleFlight();
+
     /**
      * Retrieves all rooms from the database.
      *
@@ -37,6 +49,16 @@ public class RoomDAO {
      * @throws Exception if a database connection or query error occurs.
      */
     public List<Room> getAll() throws Exception {
+        return READS.execute("getAll", null, this::queryAll, SingleFlight.eachCopied(Room::new));
+    }
+
+    /**
+     * Runs the query behind {@link #getAll()}.
+     *
+     * @return A list of {@link Room} objects representing all rooms in the system.
+     * @throws Exception if a database connection or query error occurs.
+     */
+    private List<Room> queryAll() throws Exception {
         String sql = "SELECT * FROM rooms";
         try (Connection c = DBConnection.getConnection();
              Statement s = c.createStatement();
@@ -44,13 +66,7 @@ public class RoomDAO {
 
             List<Room> list = new ArrayList<>();
             while (rs.next()) {
-                Room r = new Room();
-                r.setId(rs.getInt("id"));
-                r.setRoomNo(rs.getInt("room_no"));
-                r.setRoomType(rs.getString("room_type"));
-                r.setPrice(rs.getDouble("price"));
-                r.setStatus(rs.getString("status"));
-                list.add(r);
+                list.add(mapRow(rs));
             }
             return list;
         }
@@ -59,11 +75,27 @@ public class RoomDAO {
     /**
      * Retrieves a room by its unique ID.
      *
+     * <p>
+     * Concurrent lookups of the same ID share one query; each caller receives its own
+     * copy of the room.
+     * </p>
+     *
      * @param id The room ID to search for.
      * @return The corresponding {@link Room} object if found, otherwise {@code null}.
      * @throws Exception if a database error occurs.
      */
     public Room getById(int id) throws Exception {
+        return READS.execute("getById", new Object[]{id}, () -> queryById(id), Room::new);
+    }
+
+    /**
+     * Runs the query behind {@link #getById(int)}.
+     *
+     * @param id The room ID to search for.
+     * @return The corresponding {@link Room} object if found, otherwise {@code null}.
+     * @throws Exception if a database error occurs.
+     */
+    private Room queryById(int id) throws Exception {
         String sql = "SELECT * FROM rooms WHERE id=?";
         try (Connection c = DBConnection.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
@@ -71,19 +103,29 @@ public class RoomDAO {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    Room r = new Room();
-                    r.setId(rs.getInt("id"));
-                    r.setRoomNo(rs.getInt("room_no"));
-                    r.setRoomType(rs.getString("room_type"));
-                    r.setPrice(rs.getDouble("price"));
-                    r.setStatus(rs.getString("status"));
-                    return r;
+                    return mapRow(rs);
                 }
                 return null;
             }
         }
     }
 
+    /**
+     * Retrieves several rooms in one round-trip using {@code WHERE id IN (...)}.
+     * <p>
+     * Duplicate IDs are ignored and large ID lists are split into chunks of
+     * {@link SqlUtil#IN_CHUNK_SIZE}, all executed on a single connection.
+     * IDs that do not exist are simply absent from the result.
+     * </p>
+     *
+     * @param ids The room IDs to look up.
+     * @return A map from room ID to {@link Room}, in the order the IDs were given.
+     * @throws Exception if a database error occurs.
+     */
+    public Map<Integer, Room> getByIds(Collection<Integer> ids) throws Exception {
+        return SqlUtil.selectByIds("rooms", ids, this::mapRow);
+    }
+
     /**
      * Creates a new room record in the database.
      *
@@ -101,6 +143,7 @@ public class RoomDAO {
             ps.setDouble(3, r.getPrice());
             ps.setString(4, r.getStatus());
             ps.executeUpdate();
+            READS.forget();
 
             try (ResultSet keys = ps.getGeneratedKeys()) {
                 if (keys.next()) return keys.getInt(1);
@@ -126,7 +169,11 @@ public class RoomDAO {
             ps.setDouble(3, r.getPrice());
             ps.setString(4, r.getStatus());
             ps.setInt(5, r.getId());
-            return ps.executeUpdate() > 0;
+            boolean ok = ps.executeUpdate() > 0;
+            READS.forget();
+            // Room number and type are embedded in every cached history row.
+            if (ok) BookingHistoryCache.invalidateAll();
+            return ok;
         }
     }
 
@@ -143,10 +190,29 @@ public class RoomDAO {
              PreparedStatement ps = c.prepareStatement(sql)) {
 
             ps.setInt(1, id);
-            return ps.executeUpdate() > 0;
+            boolean ok = ps.executeUpdate() > 0;
+            READS.forget();
+            return ok;
         }
     }
 
+    /**
+     * Maps a single row from a {@link ResultSet} to a {@link Room} object.
+     *
+     * @param rs The {@link ResultSet} pointing to the current row.
+     * @return A {@link Room} object containing the mapped data.
+     * @throws SQLException if an error occurs while accessing the result set.
+     */
+    private Room mapRow(ResultSet rs) throws SQLException {
+        Room r = new Room();
+        r.setId(rs.getInt("id"));
+        r.setRoomNo(rs.getInt("room_no"));
+        r.setRoomType(rs.getString("room_type"));
+        r.setPrice(rs.getDouble("price"));
+        r.setStatus(rs.getString("status"));
+        return r;
+    }
+
     /**
      * Placeholder for future implementation of room creation logic.
      * <p>
@@ -162,17 +228,42 @@ public class RoomDAO {
     }
 
     /**
-     * Placeholder for future implementation of fetching available rooms.
-     * <p>
-     * Intended to return rooms available between the specified check-in and check-out dates.
-     * </p>
+     * Retrieves the rooms that have no booking overlapping the given dates.
      *
      * @param checkIn  The desired check-in date.
-     * @param checkOut The desired check-out date.
-     * @return A list of available {@link Room} objects when implemented.
-     * @throws UnsupportedOperationException Always thrown until implemented.
+     * @param checkOut The desired check-out date (exclusive).
+     * @return The available rooms, ordered by ID.
+     * @throws Exception if a database error occurs.
+     */
+    public List<Room> getAvailableRooms(LocalDate checkIn, LocalDate checkOut) throws Exception {
+        return getAvailableRooms(checkIn, checkOut, null);
+    }
+
+    /**
+     * Retrieves the rooms of a type that have no booking overlapping the given dates.
+     *
+     * @param checkIn  The desired check-in date.
+     * @param checkOut The desired check-out date (exclusive).
+     * @param roomType The room type, or {@code null} for all types.
+     * @return The available rooms, ordered by ID.
+     * @throws Exception if a database error occurs.
      */
-    public List<Room> getAvailableRooms(Date checkIn, Date checkOut) {
-        throw new UnsupportedOperationException("Unimplemented method 'getAvailableRooms'");
+    public List<Room> getAvailableRooms(LocalDate checkIn, LocalDate checkOut, String roomType) throws Exception {
+        String sql = "SELECT * FROM rooms r WHERE (? IS NULL OR r.room_type=?) AND NOT EXISTS ("
+                + "SELECT 1 FROM bookings b WHERE b.room_id=r.id AND b.check_in < ? AND b.check_out > ?) "
+                + "ORDER BY r.id";
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setString(1, roomType);
+            ps.setString(2, roomType);
+            ps.setObject(3, checkOut);
+            ps.setObject(4, checkIn);
+            List<Room> list = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(mapRow(rs));
+            }
+            return list;
+        }
     }
 }
@@ -0,0 +1,111 @@
+package com.hotelbooking.dao;
+
+import com.hotelbooking.utils.DBConnection;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Data Access Object (DAO) for the nightly rates of each room type.
+ * <p>
+ * One row per room type and night. Nights without a row are charged at the room's own
+ * price. Room types are compared with the column's (case-insensitive) collation.
+ * </p>
+ *
+ * <p><b>Table definition:</b></p>
+ * <pre>
+ * CREATE TABLE room_rates (
+ *   room_type VARCHAR(50)   NOT NULL,
+ *   rate_date DATE          NOT NULL,
+ *   price     DECIMAL(10,2) NOT NULL,
+ *   PRIMARY KEY (room_type, rate_date)
+ * );
+ * </pre>
+ *
+ * @author
+ * @version 1.0
+ * @since 2025-11-01
+ */
+public class RoomRateDAO {
+
+    /**
+     * Retrieves the rates of a room type for a date range.
+     *
+     * @param roomType The room type.
+     * @param from     The first night.
+     * @param to       The day after the last night.
+     * @return The rates by night, in date order.
+     * @throws Exception if a database error occurs.
+     */
+    public Map<LocalDate, Double> getRates(String roomType, LocalDate from, LocalDate to) throws Exception {
+        String sql = "SELECT rate_date, price FROM room_rates WHERE room_type=? AND rate_date >= ? AND rate_date < ?";
+        Map<LocalDate, Double> rates = new TreeMap<>();
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setString(1, roomType);
+            ps.setObject(2, from);
+            ps.setObject(3, to);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) rates.put(rs.getObject("rate_date", LocalDate.class), rs.getDouble("price"));
+            }
+        }
+        return rates;
+    }
+
+    /**
+     * Sets the rate of a room type for the given nights, replacing existing rates, in one
+     * transaction.
+     *
+     * @param roomType The room type.
+     * @param nights   The nights to set.
+     * @param price    The nightly rate.
+     * @throws Exception if a database error occurs; no rate is changed in that case.
+     */
+    public void setRates(String roomType, Collection<LocalDate> nights, double price) throws Exception {
+        if (nights.isEmpty()) return;
+        String sql = "INSERT INTO room_rates(room_type, rate_date, price) VALUES (?,?,?) "
+                + "ON DUPLICATE KEY UPDATE price=VALUES(price)";
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                for (LocalDate night : nights) {
+                    ps.setString(1, roomType);
+                    ps.setObject(2, night);
+                    ps.setDouble(3, price);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                c.commit();
+            } catch (Exception e) {
+                c.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Removes the rates of a room type for a date range, so those nights fall back to the
+     * rooms' own prices.
+     *
+     * @param roomType The room type.
+     * @param from     The first night.
+     * @param to       The day after the last night.
+     * @return The number of nights cleared.
+     * @throws Exception if a database error occurs.
+     */
+    public int clearRates(String roomType, LocalDate from, LocalDate to) throws Exception {
+        String sql = "DELETE FROM room_rates WHERE room_type=? AND rate_date >= ? AND rate_date < ?";
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setString(1, roomType);
+            ps.setObject(2, from);
+            ps.setObject(3, to);
+            return ps.executeUpdate();
+        }
+    }
+}
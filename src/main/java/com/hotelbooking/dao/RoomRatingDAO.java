@@ -0,0 +1,129 @@
+package com.hotelbooking.dao;
+
+import com.hotelbooking.model.RoomRating;
+import com.hotelbooking.utils.DBConnection;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Data Access Object (DAO) for the persisted per-room review aggregates.
+ * <p>
+ * Each row of {@code room_ratings} holds the review count, rating sum and 1&ndash;5 star
+ * histogram of one room. Rows are adjusted with atomic increments whenever a review is
+ * added or deleted, and can be rebuilt from the {@code reviews} table at any time.
+ * </p>
+ *
+ * <p><b>Table definition:</b></p>
+ * <pre>
+ * CREATE TABLE room_ratings (
+ *   room_id      INT PRIMARY KEY,
+ *   review_count INT    NOT NULL DEFAULT 0,
+ *   rating_sum   BIGINT NOT NULL DEFAULT 0,
+ *   star1 INT NOT NULL DEFAULT 0, star2 INT NOT NULL DEFAULT 0, star3 INT NOT NULL DEFAULT 0,
+ *   star4 INT NOT NULL DEFAULT 0, star5 INT NOT NULL DEFAULT 0
+ * );
+ * </pre>
+ *
+ * @author
+ * @version 1.0
+ * @since 2025-11-01
+ */
+public class RoomRatingDAO {
+
+    /**
+     * Retrieves the aggregates of every room that has at least one review.
+     *
+     * @return A map from room ID to {@link RoomRating}.
+     * @throws Exception if a database access error occurs.
+     */
+    public Map<Integer, RoomRating> getAll() throws Exception {
+        String sql = "SELECT * FROM room_ratings";
+        Map<Integer, RoomRating> out = new HashMap<>();
+
+        try (Connection c = DBConnection.getConnection();
+             Statement s = c.createStatement();
+             ResultSet rs = s.executeQuery(sql)) {
+
+            while (rs.next()) {
+                RoomRating r = mapRow(rs);
+                out.put(r.getRoomId(), r);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Adds ({@code delta = 1}) or removes ({@code delta = -1}) one review from a room's aggregate.
+     * <p>
+     * Uses a single upsert with relative increments, so concurrent writers never lose updates.
+     * </p>
+     *
+     * @param roomId The ID of the reviewed room.
+     * @param rating The review's rating, between 1 and 5.
+     * @param delta  {@code 1} for an added review, {@code -1} for a deleted one.
+     * @throws Exception if a database access error occurs.
+     */
+    public void applyReview(int roomId, int rating, int delta) throws Exception {
+        String star = "star" + rating;
+        String sql = "INSERT INTO room_ratings(room_id, review_count, rating_sum, " + star + ") VALUES(?,?,?,?) " +
+                "ON DUPLICATE KEY UPDATE review_count = GREATEST(review_count + VALUES(review_count), 0), " +
+                "rating_sum = GREATEST(rating_sum + VALUES(rating_sum), 0), " +
+                star + " = GREATEST(" + star + " + VALUES(" + star + "), 0)";
+
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setInt(1, roomId);
+            ps.setInt(2, delta);
+            ps.setLong(3, (long) rating * delta);
+            ps.setInt(4, delta);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Recomputes every aggregate from the {@code reviews} table in one transaction.
+     *
+     * @return The number of rooms with reviews after the rebuild.
+     * @throws Exception if a database access error occurs; the old aggregates are kept in that case.
+     */
+    public int rebuild() throws Exception {
+        String insert = "INSERT INTO room_ratings(room_id, review_count, rating_sum, star1, star2, star3, star4, star5) " +
+                "SELECT room_id, COUNT(*), SUM(rating), SUM(rating = 1), SUM(rating = 2), SUM(rating = 3), " +
+                "SUM(rating = 4), SUM(rating = 5) FROM reviews GROUP BY room_id";
+
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try (Statement s = c.createStatement()) {
+                s.executeUpdate("DELETE FROM room_ratings");
+                int rooms = s.executeUpdate(insert);
+                c.commit();
+                return rooms;
+            } catch (Exception e) {
+                c.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Maps a single row from a {@link ResultSet} to a {@link RoomRating} object.
+     *
+     * @param rs The {@link ResultSet} pointing to the current row.
+     * @return A {@link RoomRating} object containing the mapped data.
+     * @throws SQLException if an error occurs while accessing the result set.
+     */
+    private RoomRating mapRow(ResultSet rs) throws SQLException {
+        RoomRating r = new RoomRating(rs.getInt("room_id"));
+        r.setCount(rs.getInt("review_count"));
+        r.setSum(rs.getLong("rating_sum"));
+        int[] histogram = new int[RoomRating.STARS];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = rs.getInt("star" + (i + 1));
+        }
+        r.setHistogram(histogram);
+        return r;
+    }
+}
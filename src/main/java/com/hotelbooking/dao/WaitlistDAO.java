@@ -0,0 +1,200 @@
+package com.hotelbooking.dao;
+
+import com.hotelbooking.model.WaitlistEntry;
+import com.hotelbooking.utils.DBConnection;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object (DAO) for {@link WaitlistEntry} records.
+ * <p>
+ * Only entries in {@code WAITING} state can be offered a room; the status updates below are
+ * conditional on the current state, so an entry cancelled by the customer while a room is
+ * being offered to it is never marked {@code OFFERED}.
+ * </p>
+ *
+ * <p><b>Table definition:</b></p>
+ * <pre>
+ * CREATE TABLE waitlist_entries (
+ *   id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+ *   customer_id INT          NOT NULL,
+ *   room_type   VARCHAR(50)  NOT NULL,
+ *   check_in    DATE         NOT NULL,
+ *   check_out   DATE         NOT NULL,
+ *   status      VARCHAR(16)  NOT NULL DEFAULT 'WAITING',
+ *   hold_id     BIGINT,
+ *   created_at  TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+ *   INDEX idx_waitlist_waiting (status, check_out),
+ *   INDEX idx_waitlist_customer (customer_id, id)
+ * );
+ * </pre>
+ *
+ * @author
+ * @version 1.0
+ * @since 2025-11-01
+ */
+public class WaitlistDAO {
+
+    /**
+     * Inserts a new entry in {@code WAITING} state.
+     *
+     * @param e The entry to store.
+     * @return The auto-generated ID, or {@code -1} if creation fails.
+     * @throws Exception if a database error occurs.
+     */
+    public long create(WaitlistEntry e) throws Exception {
+        String sql = "INSERT INTO waitlist_entries(customer_id, room_type, check_in, check_out) VALUES (?,?,?,?)";
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            ps.setInt(1, e.getCustomerId());
+            ps.setString(2, e.getRoomType());
+            ps.setObject(3, e.getCheckIn());
+            ps.setObject(4, e.getCheckOut());
+            ps.executeUpdate();
+
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next()) return rs.getLong(1);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieves an entry by ID.
+     *
+     * @param id The entry ID.
+     * @return The entry, or {@code null} if not found.
+     * @throws Exception if a database error occurs.
+     */
+    public WaitlistEntry getById(long id) throws Exception {
+        String sql = "SELECT * FROM waitlist_entries WHERE id=?";
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setLong(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapRow(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the waiting entries whose stay has not ended before the given date.
+     *
+     * @param from Entries checking out on or before this date are skipped.
+     * @return The entries, oldest first.
+     * @throws Exception if a database error occurs.
+     */
+    public List<WaitlistEntry> getWaiting(LocalDate from) throws Exception {
+        String sql = "SELECT * FROM waitlist_entries WHERE status='WAITING' AND check_out > ? ORDER BY id";
+        List<WaitlistEntry> list = new ArrayList<>();
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setObject(1, from);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(mapRow(rs));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Retrieves a customer's entries.
+     *
+     * @param customerId The customer ID.
+     * @return The entries, newest first.
+     * @throws Exception if a database error occurs.
+     */
+    public List<WaitlistEntry> getForCustomer(int customerId) throws Exception {
+        String sql = "SELECT * FROM waitlist_entries WHERE customer_id=? ORDER BY id DESC";
+        List<WaitlistEntry> list = new ArrayList<>();
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setInt(1, customerId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(mapRow(rs));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Records that a waiting entry has been offered a hold.
+     *
+     * @param id     The entry ID.
+     * @param holdId The hold placed for the customer.
+     * @return {@code true} if the entry was still waiting and has been updated.
+     * @throws Exception if a database error occurs.
+     */
+    public boolean markOffered(long id, long holdId) throws Exception {
+        String sql = "UPDATE waitlist_entries SET status='OFFERED', hold_id=? WHERE id=? AND status='WAITING'";
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setLong(1, holdId);
+            ps.setLong(2, id);
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Records that the hold offered to an entry ended without being confirmed. Hold IDs are
+     * only unique within one run of the application, so the customer is matched as well.
+     *
+     * @param holdId     The hold ID.
+     * @param customerId The customer the hold was placed for.
+     * @return {@code true} if an offered entry has been updated.
+     * @throws Exception if a database error occurs.
+     */
+    public boolean markExpired(long holdId, int customerId) throws Exception {
+        String sql = "UPDATE waitlist_entries SET status='EXPIRED' WHERE hold_id=? AND customer_id=? AND status='OFFERED'";
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setLong(1, holdId);
+            ps.setInt(2, customerId);
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Cancels a waiting entry.
+     *
+     * @param id The entry ID.
+     * @return {@code true} if the entry was waiting and has been cancelled.
+     * @throws Exception if a database error occurs.
+     */
+    public boolean cancel(long id) throws Exception {
+        String sql = "UPDATE waitlist_entries SET status='CANCELLED' WHERE id=? AND status='WAITING'";
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setLong(1, id);
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Maps the current row of a {@link ResultSet} to a {@link WaitlistEntry}.
+     */
+    private WaitlistEntry mapRow(ResultSet rs) throws SQLException {
+        WaitlistEntry e = new WaitlistEntry();
+        e.setId(rs.getLong("id"));
+        e.setCustomerId(rs.getInt("customer_id"));
+        e.setRoomType(rs.getString("room_type"));
+        e.setCheckIn(rs.getObject("check_in", LocalDate.class));
+        e.setCheckOut(rs.getObject("check_out", LocalDate.class));
+        e.setStatus(rs.getString("status"));
+        long holdId = rs.getLong("hold_id");
+        e.setHoldId(rs.wasNull() ? null : holdId);
+        Timestamp ts = rs.getTimestamp("created_at");
+        e.setCreatedAt(ts != null ? ts.toString() : null);
+        return e;
+    }
+}
@@ -0,0 +1,38 @@
+package com.hotelbooking.delivery;
+
+import com.hotelbooking.model.OutboxMessage;
+
+/**
+ * Service-provider interface for sending notifications outside the application
+ * (e-mail, SMS, push, ...).
+ * <p>
+ * Implementations are discovered with {@link java.util.ServiceLoader}: list the
+ * implementation class in {@code META-INF/services/com.hotelbooking.delivery.DeliveryChannel}.
+ * Each channel receives every notification enqueued for its {@link #name()} from the
+ * delivery outbox; it decides itself how to reach the recipient.
+ * </p>
+ *
+ * <p>{@link #deliver(OutboxMessage)} is called from delivery worker threads and may be called
+ * concurrently. Throwing an exception schedules a retry with exponential backoff, so
+ * implementations should be idempotent per {@link OutboxMessage#getId()}.</p>
+ *
+ * @see DeliveryChannels
+ * @see DeliveryWorkerPool
+ */
+public interface DeliveryChannel {
+
+    /**
+     * Returns the channel name stored in the outbox, e.g. {@code "email"}.
+     *
+     * @return a short, unique, lower-case name
+     */
+    String name();
+
+    /**
+     * Delivers one notification.
+     *
+     * @param message the outbox message; {@link OutboxMessage#getPayload()} holds the notification JSON
+     * @throws Exception if delivery failed and should be retried
+     */
+    void deliver(OutboxMessage message) throws Exception;
+}
@@ -0,0 +1,70 @@
+package com.hotelbooking.delivery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the {@link DeliveryChannel}s available to this application.
+ * <p>
+ * Channels are discovered once with {@link ServiceLoader}. The system property
+ * {@code notification.channels} (a comma-separated list of channel names) selects which of
+ * them new notifications are enqueued for; by default every discovered channel is used.
+ * </p>
+ */
+public final class DeliveryChannels {
+
+    /** Discovered channels by name, in discovery order. */
+    private static volatile Map<String, DeliveryChannel> channels;
+
+    private DeliveryChannels() {}
+
+    /**
+     * Looks up a channel by name.
+     *
+     * @param name the channel name
+     * @return the channel, or {@code null} if no such channel is installed
+     */
+    public static DeliveryChannel get(String name) {
+        return all().get(name);
+    }
+
+    /**
+     * Returns the names of the channels new notifications should be delivered over.
+     *
+     * @return the enabled channel names; empty if none are installed or enabled
+     */
+    public static List<String> enabledNames() {
+        Map<String, DeliveryChannel> all = all();
+        String configured = System.getProperty("notification.channels");
+        if (configured == null) return new ArrayList<>(all.keySet());
+
+        List<String> out = new ArrayList<>();
+        for (String name : configured.split(",")) {
+            String trimmed = name.trim();
+            if (all.containsKey(trimmed) && !out.contains(trimmed)) out.add(trimmed);
+        }
+        return out;
+    }
+
+    /** Loads the channels on first use. */
+    private static Map<String, DeliveryChannel> all() {
+        Map<String, DeliveryChannel> m = channels;
+        if (m == null) {
+            synchronized (DeliveryChannels.class) {
+                m = channels;
+                if (m == null) {
+                    Map<String, DeliveryChannel> found = new LinkedHashMap<>();
+                    for (DeliveryChannel ch : ServiceLoader.load(DeliveryChannel.class, DeliveryChannels.class.getClassLoader())) {
+                        found.putIfAbsent(ch.name(), ch);
+                    }
+                    channels = m = Collections.unmodifiableMap(found);
+                }
+            }
+        }
+        return m;
+    }
+}
@@ -0,0 +1,52 @@
+package com.hotelbooking.delivery;
+
+import com.hotelbooking.dao.OutboxDAO;
+import com.hotelbooking.model.OutboxMessage;
+
+/**
+ * Pool of background threads that deliver notifications from the outbox.
+ * <p>
+ * The workers are {@link OutboxWorkers} over the {@link OutboxDAO notification outbox}: each
+ * claims batches of due rows, hands each one to its {@link DeliveryChannel} and retries
+ * failures with exponential backoff, marking a row {@code FAILED} after
+ * {@link #MAX_ATTEMPTS} attempts. Rows for channels that are not installed fail the same
+ * way, so installing the channel later and resetting the rows is enough to deliver them.
+ * </p>
+ *
+ * <p>The number of workers is read from the system property {@code notification.workers}
+ * (default {@value #DEFAULT_WORKERS}). The pool is started and stopped with the web
+ * application by {@code com.hotelbooking.servlet.AppContextListener}.</p>
+ */
+public final class DeliveryWorkerPool {
+
+    /** Default number of worker threads. */
+    public static final int DEFAULT_WORKERS = 2;
+
+    /** Attempts after which a delivery is given up. */
+    public static final int MAX_ATTEMPTS = 8;
+
+    private final OutboxWorkers<OutboxMessage> workers =
+            new OutboxWorkers<>("delivery-worker", new OutboxDAO(), MAX_ATTEMPTS, DeliveryWorkerPool::deliver, null);
+
+    /**
+     * Starts the worker threads. Does nothing if the pool is already running.
+     */
+    public void start() {
+        workers.start(Math.max(1, Integer.getInteger("notification.workers", DEFAULT_WORKERS)));
+    }
+
+    /**
+     * Stops the worker threads and waits briefly for in-flight deliveries to finish.
+     * Rows a worker had claimed but not finished are retried once their lease expires.
+     */
+    public void stop() {
+        workers.stop();
+    }
+
+    /** Delivers one message over its channel. */
+    private static void deliver(OutboxMessage m) throws Exception {
+        DeliveryChannel channel = DeliveryChannels.get(m.getChannel());
+        if (channel == null) throw new IllegalStateException("Unknown delivery channel: " + m.getChannel());
+        channel.deliver(m);
+    }
+}
@@ -0,0 +1,48 @@
+package com.hotelbooking.delivery;
+
+import com.hotelbooking.model.OutboxMessage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link DeliveryChannel} that appends every notification to a local file, one line per
+ * delivery. Intended for development and tests, where no mail or SMS gateway is available.
+ * <p>
+ * The file is {@code notification.file.path} (system property), by default
+ * {@code hotel-notifications.log} in the temporary directory. Each line has the form
+ * {@code <outboxId>\t<notificationId>\t<payload JSON>}.
+ * </p>
+ */
+public class FileDeliveryChannel implements DeliveryChannel {
+
+    /** Channel name stored in the outbox. */
+    public static final String NAME = "file";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void deliver(OutboxMessage message) throws IOException {
+        String line = message.getId() + "\t" + message.getNotificationId() + "\t" + message.getPayload() + System.lineSeparator();
+        Path path = path();
+        synchronized (FileDeliveryChannel.class) {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Files.write(path, line.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        }
+    }
+
+    /** Resolves the output file from the system property. */
+    private static Path path() {
+        return Paths.get(System.getProperty("notification.file.path",
+                Paths.get(System.getProperty("java.io.tmpdir"), "hotel-notifications.log").toString()));
+    }
+}
@@ -0,0 +1,195 @@
+package com.hotelbooking.delivery;
+
+import com.hotelbooking.dao.OutboxTable;
+import com.hotelbooking.model.OutboxEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Background threads that work off an outbox table.
+ * <p>
+ * Each thread repeatedly claims a batch of due rows (see
+ * {@link OutboxTable#claimBatch(int, int)}), passes each one to the processor and records the
+ * outcome. When the table has nothing due a thread sleeps for {@link #POLL_MILLIS} before
+ * polling again.
+ * </p>
+ *
+ * <p><b>Retries:</b> a failed attempt is retried after
+ * {@code min(BASE_BACKOFF_SECONDS * 2^(attempts-1), MAX_BACKOFF_SECONDS)} seconds plus up to
+ * 20% random jitter; after the configured number of attempts the row is marked
+ * {@code FAILED}.</p>
+ *
+ * @param <T> the row type
+ */
+public final class OutboxWorkers<T extends OutboxEntry> {
+
+    /** Maximum number of rows a thread claims at once. */
+    public static final int BATCH_SIZE = 20;
+
+    /** Pause between polls when there is nothing due. */
+    public static final long POLL_MILLIS = 1000;
+
+    /** How long a claimed row stays reserved for its thread. */
+    public static final int LEASE_SECONDS = 60;
+
+    /** Delay before the first retry. */
+    public static final int BASE_BACKOFF_SECONDS = 5;
+
+    /** Longest delay between retries. */
+    public static final int MAX_BACKOFF_SECONDS = 3600;
+
+    private static final Logger LOG = Logger.getLogger(OutboxWorkers.class.getName());
+
+    /**
+     * Processes one claimed row.
+     *
+     * @param <T> the row type
+     */
+    @FunctionalInterface
+    public interface Processor<T> {
+        /**
+         * @param row the claimed row
+         * @throws Exception if the attempt failed; the row is then retried or given up
+         */
+        void process(T row) throws Exception;
+    }
+
+    private final String name;
+
+    private final OutboxTable<T> table;
+
+    private final int maxAttempts;
+
+    private final Processor<T> processor;
+
+    private final Runnable beforePoll;
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    private volatile boolean running;
+
+    /**
+     * @param name        prefix of the thread names, also used in log messages
+     * @param table       the outbox table to work off
+     * @param maxAttempts attempts after which a row is marked {@code FAILED}
+     * @param processor   processes one row
+     * @param beforePoll  run by each thread before every claim, or {@code null}
+     */
+    public OutboxWorkers(String name, OutboxTable<T> table, int maxAttempts, Processor<T> processor,
+                         Runnable beforePoll) {
+        this.name = name;
+        this.table = table;
+        this.maxAttempts = maxAttempts;
+        this.processor = processor;
+        this.beforePoll = beforePoll;
+    }
+
+    /**
+     * Starts the threads. Does nothing if they are already running.
+     *
+     * @param count the number of threads
+     */
+    public synchronized void start(int count) {
+        if (running) return;
+        running = true;
+        for (int i = 1; i <= count; i++) {
+            Thread t = new Thread(this::run, name + "-" + i);
+            t.setDaemon(true);
+            t.start();
+            threads.add(t);
+        }
+    }
+
+    /**
+     * Stops the threads and waits briefly for in-flight attempts to finish. Rows a thread had
+     * claimed but not finished are retried once their lease expires.
+     */
+    public synchronized void stop() {
+        running = false;
+        for (Thread t : threads) t.interrupt();
+        for (Thread t : threads) {
+            try {
+                t.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        threads.clear();
+    }
+
+    /**
+     * Computes the retry delay after a failed attempt, without jitter.
+     *
+     * @param attempts the number of attempts made so far (1 after the first failure)
+     * @return the delay in seconds
+     */
+    public static int backoffSeconds(int attempts) {
+        int shift = Math.min(Math.max(attempts - 1, 0), 30);
+        long delay = (long) BASE_BACKOFF_SECONDS << shift;
+        return (int) Math.min(delay, MAX_BACKOFF_SECONDS);
+    }
+
+    /** Main loop of one thread. */
+    private void run() {
+        while (running) {
+            try {
+                if (beforePoll != null) beforePoll.run();
+                List<T> batch = table.claimBatch(BATCH_SIZE, LEASE_SECONDS);
+                if (batch.isEmpty()) {
+                    Thread.sleep(POLL_MILLIS);
+                    continue;
+                }
+                for (T row : batch) {
+                    if (!running) break;
+                    attempt(row);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Database unavailable or similar: back off before polling again.
+                LOG.log(Level.WARNING, name + ": outbox poll failed", e);
+                try {
+                    Thread.sleep(POLL_MILLIS * 5);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Processes one row and records the result. */
+    private void attempt(T row) throws Exception {
+        String error;
+        try {
+            processor.process(row);
+            if (!table.markDone(row)) leaseLost(row);
+            return;
+        } catch (Exception e) {
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+
+        if (row.getAttempts() >= maxAttempts) {
+            LOG.warning(name + ": giving up on outbox row " + row.getId() + " after " + row.getAttempts()
+                    + " attempts: " + error);
+            if (!table.markFailed(row, error)) leaseLost(row);
+        } else {
+            int delay = backoffSeconds(row.getAttempts());
+            delay += ThreadLocalRandom.current().nextInt(delay / 5 + 1);
+            if (!table.reschedule(row, delay, error)) leaseLost(row);
+        }
+    }
+
+    /** Logs an outcome that was dropped because the row had been claimed again. */
+    private void leaseLost(T row) {
+        LOG.warning(name + ": lease on outbox row " + row.getId() + " expired before attempt "
+                + row.getAttempts() + " finished; leaving the row to its new claim");
+    }
+}
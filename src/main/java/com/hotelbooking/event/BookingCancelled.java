@@ -0,0 +1,17 @@
+package com.hotelbooking.event;
+
+import com.hotelbooking.model.Booking;
+
+/**
+ * Published after a booking has been cancelled. The booking row no longer exists; the
+ * event is the only remaining record of what was cancelled.
+ */
+public final class BookingCancelled extends BookingEvent {
+
+    /**
+     * @param booking the booking as it was before cancellation
+     */
+    public BookingCancelled(Booking booking) {
+        super(booking);
+    }
+}
@@ -0,0 +1,16 @@
+package com.hotelbooking.event;
+
+import com.hotelbooking.model.Booking;
+
+/**
+ * Published after a booking has been stored.
+ */
+public final class BookingCreated extends BookingEvent {
+
+    /**
+     * @param booking the stored booking, including its generated ID
+     */
+    public BookingCreated(Booking booking) {
+        super(booking);
+    }
+}
@@ -0,0 +1,75 @@
+package com.hotelbooking.event;
+
+import com.hotelbooking.model.Booking;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Base class of the booking lifecycle events published on the {@link EventBus}.
+ * <p>
+ * An event is an immutable snapshot of the booking at the moment it was published, so
+ * handlers running later on the dispatcher thread see the state that triggered them even
+ * if the booking has changed (or been deleted) since.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public abstract class BookingEvent {
+
+    private final int bookingId;
+    private final int customerId;
+    private final int roomId;
+    private final LocalDate checkIn;
+    private final LocalDate checkOut;
+    private final Instant occurredAt = Instant.now();
+
+    /**
+     * Captures the booking fields of an event.
+     *
+     * @param booking the booking the event is about
+     */
+    protected BookingEvent(Booking booking) {
+        this.bookingId = booking.getId();
+        this.customerId = booking.getCustomerId();
+        this.roomId = booking.getRoomId();
+        this.checkIn = booking.getCheckIn();
+        this.checkOut = booking.getCheckOut();
+    }
+
+    /** @return the booking ID */
+    public int getBookingId() {
+        return bookingId;
+    }
+
+    /** @return the ID of the customer who holds the booking */
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    /** @return the ID of the booked room */
+    public int getRoomId() {
+        return roomId;
+    }
+
+    /** @return the check-in date */
+    public LocalDate getCheckIn() {
+        return checkIn;
+    }
+
+    /** @return the check-out date */
+    public LocalDate getCheckOut() {
+        return checkOut;
+    }
+
+    /** @return when the event was published */
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{bookingId=" + bookingId + ", roomId=" + roomId + "}";
+    }
+}
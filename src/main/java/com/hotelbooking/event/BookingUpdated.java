@@ -0,0 +1,43 @@
+package com.hotelbooking.event;
+
+import com.hotelbooking.model.Booking;
+
+import java.time.LocalDate;
+
+/**
+ * Published after a booking's room or dates have been changed. The event carries the
+ * new values; {@link #getPreviousRoomId()} and the previous dates describe the interval
+ * the booking no longer occupies.
+ */
+public final class BookingUpdated extends BookingEvent {
+
+    private final int previousRoomId;
+    private final LocalDate previousCheckIn;
+    private final LocalDate previousCheckOut;
+
+    /**
+     * @param before the booking as it was before the update
+     * @param after  the booking as it is now
+     */
+    public BookingUpdated(Booking before, Booking after) {
+        super(after);
+        this.previousRoomId = before.getRoomId();
+        this.previousCheckIn = before.getCheckIn();
+        this.previousCheckOut = before.getCheckOut();
+    }
+
+    /** @return the room the booking was for before the update */
+    public int getPreviousRoomId() {
+        return previousRoomId;
+    }
+
+    /** @return the check-in date before the update */
+    public LocalDate getPreviousCheckIn() {
+        return previousCheckIn;
+    }
+
+    /** @return the check-out date before the update */
+    public LocalDate getPreviousCheckOut() {
+        return previousCheckOut;
+    }
+}
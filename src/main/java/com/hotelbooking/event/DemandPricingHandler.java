@@ -0,0 +1,41 @@
+package com.hotelbooking.event;
+
+import com.hotelbooking.service.PricingService;
+
+/**
+ * Reports booking changes to demand pricing.
+ * <p>
+ * The handler only records which rooms and nights changed; {@link PricingService} re-prices
+ * them in batches, so it is cheap enough to run for every event and need not be durable. A
+ * missed event leaves prices stale until the type is next rebuilt, at the latest the next day.
+ * </p>
+ */
+public class DemandPricingHandler implements EventHandler<BookingEvent> {
+
+    private final PricingService pricing = new PricingService();
+
+    /**
+     * Registers the handler for the events that change occupancy.
+     *
+     * @param bus the bus to subscribe to
+     */
+    public static void register(EventBus bus) {
+        DemandPricingHandler handler = new DemandPricingHandler();
+        bus.subscribe(BookingCreated.class, handler);
+        bus.subscribe(BookingUpdated.class, handler);
+        bus.subscribe(BookingCancelled.class, handler);
+    }
+
+    @Override
+    public void handle(BookingEvent event) {
+        if (event instanceof BookingCreated) {
+            pricing.bookingMade(event.getRoomId(), event.getCheckIn(), event.getCheckOut());
+        } else if (event instanceof BookingUpdated) {
+            BookingUpdated u = (BookingUpdated) event;
+            pricing.occupancyChanged(u.getPreviousRoomId(), u.getPreviousCheckIn(), u.getPreviousCheckOut());
+            pricing.occupancyChanged(u.getRoomId(), u.getCheckIn(), u.getCheckOut());
+        } else if (event instanceof BookingCancelled) {
+            pricing.occupancyChanged(event.getRoomId(), event.getCheckIn(), event.getCheckOut());
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.hotelbooking.event;
+
+import com.hotelbooking.dao.EventOutboxDAO;
+import com.hotelbooking.delivery.OutboxWorkers;
+import com.hotelbooking.model.OutboxEvent;
+
+import java.sql.Connection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-process publish/subscribe bus for booking lifecycle events.
+ * <p>
+ * Best-effort handlers are fed from memory: services publish an event once their database
+ * write has committed and return immediately, and the handlers run later on the dispatcher
+ * thread. Events are buffered in a fixed-size ring ({@code events.bus.capacity}, default
+ * {@value #DEFAULT_CAPACITY}) and dispatched in publish order. When the ring is full, or the
+ * bus has not been started, the publishing thread dispatches the event itself, so no event
+ * is dropped and memory stays bounded.
+ * </p>
+ *
+ * <p><b>Durable handlers</b> are fed from the {@code event_outbox} table instead (see
+ * {@link EventOutboxDAO}). A service calls {@link #record(Connection, BookingEvent)} inside
+ * the transaction of the change that raised the event, which stores one row per durable
+ * handler; the relay thread, an {@link OutboxWorkers} like the notification delivery workers,
+ * claims due rows, hands each to its handler and retries failures with exponential backoff
+ * ({@value #MAX_ATTEMPTS} attempts) before marking the row {@code FAILED}. The hand-off is therefore at least once across restarts: a crash after the
+ * commit leaves the row due, and a relay that dies mid-attempt loses its lease. Events that
+ * are not raised by a database change (such as {@link HoldReleased}) go through
+ * {@link #publishDurable(BookingEvent)}, which records them in a transaction of their own;
+ * until that succeeds they wait in memory and are retried on every relay poll.</p>
+ *
+ * <p>The shared bus is started and stopped by
+ * {@code com.hotelbooking.servlet.AppContextListener}.</p>
+ */
+public final class EventBus {
+
+    /** Default number of events the ring can hold. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /** Attempts after which a durable hand-off is given up and the row marked {@code FAILED}. */
+    public static final int MAX_ATTEMPTS = 16;
+
+    private static final Logger LOG = Logger.getLogger(EventBus.class.getName());
+
+    private static final EventBus SHARED =
+            new EventBus(Math.max(1, Integer.getInteger("events.bus.capacity", DEFAULT_CAPACITY)));
+
+    private final ArrayBlockingQueue<Published> ring;
+
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+
+    /** Durable events whose outbox write failed, waiting for the next relay poll. */
+    private final ConcurrentLinkedQueue<BookingEvent> unrecorded = new ConcurrentLinkedQueue<>();
+
+    /** Keeps {@link #unrecorded} in order while it is written out; separate from the start/stop lock. */
+    private final Object recordLock = new Object();
+
+    private final EventOutboxDAO outbox = new EventOutboxDAO();
+
+    private final OutboxWorkers<OutboxEvent> relay =
+            new OutboxWorkers<>("event-bus-relay", outbox, MAX_ATTEMPTS, this::handOff, this::recordPending);
+
+    private volatile boolean running;
+
+    private Thread dispatcher;
+
+    /**
+     * Creates a bus with a ring of the given capacity.
+     *
+     * @param capacity the maximum number of buffered events
+     */
+    public EventBus(int capacity) {
+        this.ring = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Returns the process-wide bus.
+     *
+     * @return the shared bus
+     */
+    public static EventBus shared() {
+        return SHARED;
+    }
+
+    /**
+     * Registers a best-effort handler.
+     *
+     * @param type    the event type, subclasses included
+     * @param handler the handler
+     * @param <E>     the event type
+     */
+    public <E extends BookingEvent> void subscribe(Class<E> type, EventHandler<? super E> handler) {
+        subscriptions.add(new Subscription<>(type, handler, false));
+    }
+
+    /**
+     * Registers a durable handler, which receives every recorded event of the type until it
+     * accepts it. Outbox rows name the handler by its class, so a durable handler must be a
+     * named class (not a lambda) and each class may be registered only once per type.
+     *
+     * @param type    the event type, subclasses included
+     * @param handler the handler; must tolerate being called more than once per event
+     * @param <E>     the event type
+     */
+    public <E extends BookingEvent> void subscribeDurable(Class<E> type, EventHandler<? super E> handler) {
+        subscriptions.add(new Subscription<>(type, handler, true));
+    }
+
+    /**
+     * Stores an event for its durable handlers on the caller's connection, so it commits or
+     * rolls back with the caller's change. Publish it with {@link #publish(BookingEvent)}
+     * after the commit for the best-effort handlers.
+     *
+     * @param c     the connection of the surrounding transaction
+     * @param event the event
+     * @throws Exception if a database access error occurs
+     */
+    public void record(Connection c, BookingEvent event) throws Exception {
+        Set<String> handlers = durableHandlers(event);
+        if (!handlers.isEmpty()) outbox.enqueue(c, handlers, EventCodec.type(event), EventCodec.encode(event));
+    }
+
+    /**
+     * Publishes an event to the best-effort handlers. Returns without waiting for them unless
+     * the ring is full or the bus is not running, in which case the event is dispatched on
+     * the calling thread. Durable handlers only see events passed to
+     * {@link #record(Connection, BookingEvent)} or {@link #publishDurable(BookingEvent)}.
+     *
+     * @param event the event
+     */
+    public void publish(BookingEvent event) {
+        enqueue(new Published(event, false));
+    }
+
+    /**
+     * Publishes an event that was not recorded in a transaction: the best-effort handlers get
+     * it as with {@link #publish(BookingEvent)}, and it is recorded for the durable handlers
+     * off the calling thread.
+     *
+     * @param event the event
+     */
+    public void publishDurable(BookingEvent event) {
+        enqueue(new Published(event, true));
+    }
+
+    /**
+     * Starts the dispatcher and relay threads. Does nothing if the bus is already running.
+     */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        dispatcher = new Thread(this::runDispatcher, "event-bus-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        relay.start(1);
+    }
+
+    /**
+     * Stops both threads, dispatches every buffered event on the calling thread and makes a
+     * last attempt to record durable events still held in memory. Outbox rows that were due
+     * or in flight stay in the table and are handed off after the next start.
+     */
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        relay.stop();
+        dispatcher.interrupt();
+        try {
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dispatcher = null;
+
+        Published p;
+        while ((p = ring.poll()) != null) dispatch(p);
+        recordPending();
+        if (!unrecorded.isEmpty()) {
+            LOG.severe(unrecorded.size() + " durable events could not be recorded before shutdown: " + unrecorded);
+            unrecorded.clear();
+        }
+    }
+
+    /** Puts a published event on the ring, or dispatches it inline if that is not possible. */
+    private void enqueue(Published p) {
+        if (running && ring.offer(p)) return;
+        dispatch(p);
+    }
+
+    /** Main loop of the dispatcher thread. */
+    private void runDispatcher() {
+        while (running) {
+            try {
+                dispatch(ring.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /** Hands an event to every matching best-effort subscription and records it if asked to. */
+    private void dispatch(Published p) {
+        for (Subscription<?> s : subscriptions) {
+            if (!s.durable && s.type.isInstance(p.event)) {
+                try {
+                    s.handle(p.event);
+                } catch (Exception e) {
+                    LOG.log(Level.WARNING, "Event handler failed for " + p.event, e);
+                }
+            }
+        }
+        if (p.durable) {
+            unrecorded.add(p.event);
+            recordPending();
+        }
+    }
+
+    /** Writes the events waiting in memory to the outbox in order, stopping at the first failure. */
+    private void recordPending() {
+        synchronized (recordLock) {
+            BookingEvent event;
+            while ((event = unrecorded.peek()) != null) {
+                try {
+                    Set<String> handlers = durableHandlers(event);
+                    if (!handlers.isEmpty())
+                        outbox.enqueue(handlers, EventCodec.type(event), EventCodec.encode(event));
+                } catch (Exception e) {
+                    LOG.log(Level.WARNING, "Could not record " + event + "; will retry", e);
+                    return;
+                }
+                unrecorded.poll();
+            }
+        }
+    }
+
+    /** Hands one outbox row to its durable handler. */
+    private void handOff(OutboxEvent row) throws Exception {
+        BookingEvent event = EventCodec.decode(row.getEventType(), row.getPayload());
+        Subscription<?> s = durableSubscription(row.getHandler(), event);
+        if (s == null) {
+            throw new IllegalStateException("No durable handler " + row.getHandler() + " for " + row.getEventType());
+        }
+        s.handle(event);
+    }
+
+    /** Returns the names of the durable handlers subscribed to an event, each once. */
+    private Set<String> durableHandlers(BookingEvent event) {
+        Set<String> names = new LinkedHashSet<>();
+        for (Subscription<?> s : subscriptions) {
+            if (s.durable && s.type.isInstance(event)) names.add(s.name());
+        }
+        return names;
+    }
+
+    /** Finds the durable subscription of the named handler that accepts an event. */
+    private Subscription<?> durableSubscription(String name, BookingEvent event) {
+        for (Subscription<?> s : subscriptions) {
+            if (s.durable && s.type.isInstance(event) && s.name().equals(name)) return s;
+        }
+        return null;
+    }
+
+    /** An event on the ring, and whether it still has to be recorded for durable handlers. */
+    private static final class Published {
+
+        final BookingEvent event;
+        final boolean durable;
+
+        Published(BookingEvent event, boolean durable) {
+            this.event = event;
+            this.durable = durable;
+        }
+    }
+
+    /** A handler together with the event type it listens to. */
+    private static final class Subscription<E extends BookingEvent> {
+
+        final Class<E> type;
+        final EventHandler<? super E> handler;
+        final boolean durable;
+
+        Subscription(Class<E> type, EventHandler<? super E> handler, boolean durable) {
+            this.type = type;
+            this.handler = handler;
+            this.durable = durable;
+        }
+
+        /** The name stored in the outbox rows of a durable handler. */
+        String name() {
+            return handler.getClass().getName();
+        }
+
+        void handle(BookingEvent event) throws Exception {
+            handler.handle(type.cast(event));
+        }
+    }
+}
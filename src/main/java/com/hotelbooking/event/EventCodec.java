@@ -0,0 +1,123 @@
+package com.hotelbooking.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.hotelbooking.model.Booking;
+import com.hotelbooking.model.BookingHold;
+import com.hotelbooking.model.Payment;
+
+import java.time.LocalDate;
+
+/**
+ * Converts events to and from the JSON stored in the event outbox.
+ * <p>
+ * Each event is written as its booking fields plus the fields of its own type, and is read
+ * back through its public constructor. Dates are stored as ISO strings. The
+ * {@link BookingEvent#getOccurredAt() occurrence time} of a decoded event is the time it
+ * was decoded.
+ * </p>
+ */
+final class EventCodec {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private EventCodec() {}
+
+    /**
+     * @param event the event
+     * @return the type name stored with the event
+     */
+    static String type(BookingEvent event) {
+        return event.getClass().getSimpleName();
+    }
+
+    /**
+     * Serializes an event.
+     *
+     * @param event the event
+     * @return the JSON payload
+     * @throws IllegalArgumentException if the event type is not supported
+     */
+    static String encode(BookingEvent event) {
+        ObjectNode json = MAPPER.createObjectNode();
+        json.put("bookingId", event.getBookingId());
+        json.put("customerId", event.getCustomerId());
+        json.put("roomId", event.getRoomId());
+        json.put("checkIn", event.getCheckIn().toString());
+        json.put("checkOut", event.getCheckOut().toString());
+
+        if (event instanceof BookingUpdated) {
+            BookingUpdated u = (BookingUpdated) event;
+            json.put("previousRoomId", u.getPreviousRoomId());
+            json.put("previousCheckIn", u.getPreviousCheckIn().toString());
+            json.put("previousCheckOut", u.getPreviousCheckOut().toString());
+        } else if (event instanceof PaymentCaptured) {
+            PaymentCaptured p = (PaymentCaptured) event;
+            json.put("paymentId", p.getPaymentId());
+            json.put("amount", p.getAmount());
+            json.put("method", p.getMethod());
+        } else if (event instanceof HoldReleased) {
+            HoldReleased h = (HoldReleased) event;
+            json.put("holdId", h.getHoldId());
+            json.put("expired", h.isExpired());
+        } else if (!(event instanceof BookingCreated) && !(event instanceof BookingCancelled)) {
+            throw new IllegalArgumentException("Unsupported event type: " + type(event));
+        }
+        return json.toString();
+    }
+
+    /**
+     * Rebuilds an event.
+     *
+     * @param type    the stored type name
+     * @param payload the stored JSON
+     * @return the event
+     * @throws Exception if the payload cannot be parsed
+     * @throws IllegalArgumentException if the type is unknown
+     */
+    static BookingEvent decode(String type, String payload) throws Exception {
+        JsonNode json = MAPPER.readTree(payload);
+        Booking booking = new Booking();
+        booking.setId(json.path("bookingId").asInt());
+        booking.setCustomerId(json.path("customerId").asInt());
+        booking.setRoomId(json.path("roomId").asInt());
+        booking.setCheckIn(LocalDate.parse(json.path("checkIn").asText()));
+        booking.setCheckOut(LocalDate.parse(json.path("checkOut").asText()));
+
+        switch (type) {
+            case "BookingCreated":
+                return new BookingCreated(booking);
+            case "BookingCancelled":
+                return new BookingCancelled(booking);
+            case "BookingUpdated": {
+                Booking before = new Booking();
+                before.setId(booking.getId());
+                before.setCustomerId(booking.getCustomerId());
+                before.setRoomId(json.path("previousRoomId").asInt());
+                before.setCheckIn(LocalDate.parse(json.path("previousCheckIn").asText()));
+                before.setCheckOut(LocalDate.parse(json.path("previousCheckOut").asText()));
+                return new BookingUpdated(before, booking);
+            }
+            case "PaymentCaptured": {
+                Payment p = new Payment();
+                p.setId(json.path("paymentId").asInt());
+                p.setBookingId(booking.getId());
+                p.setAmount(json.path("amount").asDouble());
+                p.setMethod(json.path("method").isNull() ? null : json.path("method").asText());
+                return new PaymentCaptured(booking, p);
+            }
+            case "HoldReleased": {
+                BookingHold hold = new BookingHold();
+                hold.setId(json.path("holdId").asLong());
+                hold.setRoomId(booking.getRoomId());
+                hold.setCustomerId(booking.getCustomerId());
+                hold.setCheckIn(booking.getCheckIn());
+                hold.setCheckOut(booking.getCheckOut());
+                return new HoldReleased(hold, json.path("expired").asBoolean());
+            }
+            default:
+                throw new IllegalArgumentException("Unknown event type: " + type);
+        }
+    }
+}
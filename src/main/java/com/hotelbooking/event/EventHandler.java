@@ -0,0 +1,24 @@
+package com.hotelbooking.event;
+
+/**
+ * Receives events from the {@link EventBus}.
+ * <p>
+ * Best-effort handlers run on the bus's dispatcher thread (or on the publishing thread when
+ * the bus is saturated or stopped), so they should not block for long. Durable handlers run
+ * on the bus's relay thread from the event outbox; they may be called more than once for the
+ * same event and must tolerate that.
+ * </p>
+ *
+ * @param <E> the event type handled
+ */
+@FunctionalInterface
+public interface EventHandler<E extends BookingEvent> {
+
+    /**
+     * Handles one event.
+     *
+     * @param event the event
+     * @throws Exception if handling failed; durable handlers are retried
+     */
+    void handle(E event) throws Exception;
+}
@@ -0,0 +1,43 @@
+package com.hotelbooking.event;
+
+import com.hotelbooking.model.Booking;
+import com.hotelbooking.model.BookingHold;
+
+/**
+ * Published when a hold ends without being confirmed, because it expired or was released.
+ * Its dates are free again. There is no booking, so {@link #getBookingId()} is {@code 0}.
+ */
+public final class HoldReleased extends BookingEvent {
+
+    private final long holdId;
+    private final boolean expired;
+
+    /**
+     * @param hold    the hold that ended
+     * @param expired {@code true} if it lapsed, {@code false} if it was released
+     */
+    public HoldReleased(BookingHold hold, boolean expired) {
+        super(asBooking(hold));
+        this.holdId = hold.getId();
+        this.expired = expired;
+    }
+
+    /** @return the ID of the hold that ended */
+    public long getHoldId() {
+        return holdId;
+    }
+
+    /** @return {@code true} if the hold lapsed rather than being released */
+    public boolean isExpired() {
+        return expired;
+    }
+
+    private static Booking asBooking(BookingHold hold) {
+        Booking b = new Booking();
+        b.setCustomerId(hold.getCustomerId());
+        b.setRoomId(hold.getRoomId());
+        b.setCheckIn(hold.getCheckIn());
+        b.setCheckOut(hold.getCheckOut());
+        return b;
+    }
+}
@@ -0,0 +1,41 @@
+package com.hotelbooking.event;
+
+import com.hotelbooking.model.Booking;
+import com.hotelbooking.model.Payment;
+
+/**
+ * Published when a payment for a booking reaches the {@code Completed} status, either
+ * because it was recorded as completed or because it was updated to completed.
+ */
+public final class PaymentCaptured extends BookingEvent {
+
+    private final int paymentId;
+    private final double amount;
+    private final String method;
+
+    /**
+     * @param booking the booking the payment belongs to
+     * @param payment the captured payment
+     */
+    public PaymentCaptured(Booking booking, Payment payment) {
+        super(booking);
+        this.paymentId = payment.getId();
+        this.amount = payment.getAmount();
+        this.method = payment.getMethod();
+    }
+
+    /** @return the payment ID */
+    public int getPaymentId() {
+        return paymentId;
+    }
+
+    /** @return the captured amount */
+    public double getAmount() {
+        return amount;
+    }
+
+    /** @return the payment method */
+    public String getMethod() {
+        return method;
+    }
+}
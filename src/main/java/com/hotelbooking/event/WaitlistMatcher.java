@@ -0,0 +1,70 @@
+package com.hotelbooking.event;
+
+import com.hotelbooking.model.BookingHold;
+import com.hotelbooking.service.WaitlistService;
+
+import java.time.LocalDate;
+
+/**
+ * Durable handler that offers freed room nights to waitlisted customers.
+ * <p>
+ * A cancelled booking frees all its nights; an updated booking frees the nights of its old
+ * room and dates that the new ones do not cover; a hold that ends unconfirmed frees its
+ * nights and, if it was a waitlist offer, closes that offer. Matching itself is done by
+ * {@link WaitlistService#roomFreed(int, LocalDate, LocalDate)}. A retried event finds the nights it
+ * already offered held, so it does not offer them twice.
+ * </p>
+ */
+public class WaitlistMatcher implements EventHandler<BookingEvent> {
+
+    private final WaitlistService waitlist = new WaitlistService();
+
+    /**
+     * Registers the handler for the events that free room nights.
+     *
+     * @param bus the bus to subscribe to
+     */
+    public static void register(EventBus bus) {
+        WaitlistMatcher matcher = new WaitlistMatcher();
+        bus.subscribeDurable(BookingCancelled.class, matcher);
+        bus.subscribeDurable(BookingUpdated.class, matcher);
+        bus.subscribeDurable(HoldReleased.class, matcher);
+    }
+
+    @Override
+    public void handle(BookingEvent event) throws Exception {
+        if (event instanceof BookingCancelled) {
+            waitlist.roomFreed(event.getRoomId(), event.getCheckIn(), event.getCheckOut());
+        } else if (event instanceof BookingUpdated) {
+            BookingUpdated u = (BookingUpdated) event;
+            LocalDate oldIn = u.getPreviousCheckIn();
+            LocalDate oldOut = u.getPreviousCheckOut();
+            if (u.getPreviousRoomId() != u.getRoomId()) {
+                waitlist.roomFreed(u.getPreviousRoomId(), oldIn, oldOut);
+                return;
+            }
+            // Same room: free what lies before and after the new dates.
+            if (oldIn.isBefore(u.getCheckIn()))
+                waitlist.roomFreed(u.getRoomId(), oldIn, min(oldOut, u.getCheckIn()));
+            if (oldOut.isAfter(u.getCheckOut()))
+                waitlist.roomFreed(u.getRoomId(), max(oldIn, u.getCheckOut()), oldOut);
+        } else if (event instanceof HoldReleased) {
+            HoldReleased h = (HoldReleased) event;
+            BookingHold hold = new BookingHold();
+            hold.setId(h.getHoldId());
+            hold.setRoomId(h.getRoomId());
+            hold.setCustomerId(h.getCustomerId());
+            hold.setCheckIn(h.getCheckIn());
+            hold.setCheckOut(h.getCheckOut());
+            waitlist.holdEnded(hold);
+        }
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? b : a;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? b : a;
+    }
+}
@@ -1,5 +1,14 @@
 package com.hotelbooking.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.hotelbooking.utils.LocalDateDeserializer;
+import com.hotelbooking.utils.LocalDateSerializer;
+
+import java.time.LocalDate;
+
 /**
  * Represents a hotel room booking made by a customer.
  * <p>
@@ -13,8 +22,8 @@ package com.hotelbooking.model;
  *     booking.setId(101);
  *     booking.setCustomerId(15);
  *     booking.setRoomId(202);
- *     booking.setCheckIn("2025-11-10");
- *     booking.setCheckOut("2025-11-15");
+ *     booking.setCheckIn(LocalDate.of(2025, 11, 10));
+ *     booking.setCheckOut(LocalDate.of(2025, 11, 15));
  * </pre>
  *
  * <p><b>Use Cases:</b></p>
@@ -38,11 +47,30 @@ public class Booking {
     /** The ID of the room associated with this booking. */
     private int roomId;
 
-    /** The check-in date for the booking (format: YYYY-MM-DD). */
-    private String checkIn;
+    /** The check-in date for the booking (serialized as YYYY-MM-DD). */
+    @JsonSerialize(using = LocalDateSerializer.class)
+    @JsonDeserialize(using = LocalDateDeserializer.class)
+    private LocalDate checkIn;
 
-    /** The check-out date for the booking (format: YYYY-MM-DD). */
-    private String checkOut;
+    /** The check-out date for the booking (serialized as YYYY-MM-DD). */
+    @JsonSerialize(using = LocalDateSerializer.class)
+    @JsonDeserialize(using = LocalDateDeserializer.class)
+    private LocalDate checkOut;
+
+    /**
+     * The requested room type when the guest books a type rather than a specific room
+     * (request only; not stored). A concrete {@code roomId} is assigned on creation.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String roomType;
+
+    /**
+     * Whether the room was chosen by the system from a requested room type. Only such
+     * bookings may be moved to another room of the type; a booking for a specific room is
+     * never moved. Set by the service, never by the client.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private boolean assignedByType;
 
     /** 
      * Default no-argument constructor. 
@@ -111,39 +139,75 @@ public class Booking {
     /**
      * Gets the check-in date for the booking.
      *
-     * @return the check-in date (format: YYYY-MM-DD)
+     * @return the check-in date
      */
-    public String getCheckIn() {
+    public LocalDate getCheckIn() {
         return checkIn;
     }
 
     /**
      * Sets the check-in date for the booking.
      *
-     * @param checkIn the check-in date to set (format: YYYY-MM-DD)
+     * @param checkIn the check-in date to set
      */
-    public void setCheckIn(String checkIn) {
+    public void setCheckIn(LocalDate checkIn) {
         this.checkIn = checkIn;
     }
 
     /**
      * Gets the check-out date for the booking.
      *
-     * @return the check-out date (format: YYYY-MM-DD)
+     * @return the check-out date
      */
-    public String getCheckOut() {
+    public LocalDate getCheckOut() {
         return checkOut;
     }
 
     /**
      * Sets the check-out date for the booking.
      *
-     * @param checkOut the check-out date to set (format: YYYY-MM-DD)
+     * @param checkOut the check-out date to set
      */
-    public void setCheckOut(String checkOut) {
+    public void setCheckOut(LocalDate checkOut) {
         this.checkOut = checkOut;
     }
 
+    /**
+     * Gets the requested room type.
+     *
+     * @return the room type, or {@code null} if a specific room was requested
+     */
+    public String getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * Sets the requested room type, letting the system choose the room.
+     *
+     * @param roomType the room type to set (e.g., "Deluxe")
+     */
+    public void setRoomType(String roomType) {
+        this.roomType = roomType;
+    }
+
+    /**
+     * Checks whether the room was chosen by the system from a room type.
+     *
+     * @return {@code true} if the booking may be moved to another room of its type
+     */
+    public boolean isAssignedByType() {
+        return assignedByType;
+    }
+
+    /**
+     * Sets whether the room was chosen by the system from a room type.
+     *
+     * @param assignedByType {@code true} if the booking may be moved to another room of its type
+     */
+    public void setAssignedByType(boolean assignedByType) {
+        this.assignedByType = assignedByType;
+    }
+
     /**
      * Returns a string representation of the booking, useful for debugging or logging.
      *
@@ -0,0 +1,159 @@
+package com.hotelbooking.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregated view of a single booking together with everything needed to render it.
+ * <p>
+ * A {@code BookingDetail} bundles the {@link Booking} itself with its {@link Room},
+ * the {@link Customer} who made it, all {@link Payment}s recorded against it, and the
+ * {@link Review}s the customer left for the booked room. It lets the front end render
+ * a booking from one API call instead of chaining calls to the bookings, rooms,
+ * customers and payments endpoints.
+ * </p>
+ *
+ * <p><b>Example JSON:</b></p>
+ * <pre>
+ * {
+ *   "booking":  { "id": 101, "customerId": 15, "roomId": 202, "checkIn": "2025-11-10", "checkOut": "2025-11-15" },
+ *   "room":     { "id": 202, "roomNo": 202, "roomType": "Deluxe", "price": 150.0, "status": "Available" },
+ *   "customer": { "id": 15, "name": "John Smith", "email": "john@example.com", "phone": "555-0100" },
+ *   "payments": [ { "id": 7, "bookingId": 101, "amount": 750.0, "method": "Credit Card", "status": "Completed" } ],
+ *   "reviews":  [ { "id": 3, "roomId": 202, "customerId": 15, "rating": 5, "comment": "Great stay" } ]
+ * }
+ * </pre>
+ *
+ * @author
+ * @version 1.0
+ */
+public class BookingDetail {
+
+    /** The booking being described. */
+    private Booking booking;
+
+    /** The room the booking is for. */
+    private Room room;
+
+    /** The customer who made the booking. */
+    private Customer customer;
+
+    /** Payments recorded against the booking (empty if none). */
+    private List<Payment> payments = new ArrayList<>();
+
+    /** Reviews the customer left for the booked room (empty if none). */
+    private List<Review> reviews = new ArrayList<>();
+
+    /**
+     * Default no-argument constructor.
+     * <p>Creates an empty {@code BookingDetail} object.</p>
+     */
+    public BookingDetail() {}
+
+    // ---------------------------
+    // Getters and Setters
+    // ---------------------------
+
+    /**
+     * Gets the booking being described.
+     *
+     * @return the booking
+     */
+    public Booking getBooking() {
+        return booking;
+    }
+
+    /**
+     * Sets the booking being described.
+     *
+     * @param booking the booking to set
+     */
+    public void setBooking(Booking booking) {
+        this.booking = booking;
+    }
+
+    /**
+     * Gets the room the booking is for.
+     *
+     * @return the room
+     */
+    public Room getRoom() {
+        return room;
+    }
+
+    /**
+     * Sets the room the booking is for.
+     *
+     * @param room the room to set
+     */
+    public void setRoom(Room room) {
+        this.room = room;
+    }
+
+    /**
+     * Gets the customer who made the booking.
+     *
+     * @return the customer
+     */
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    /**
+     * Sets the customer who made the booking.
+     *
+     * @param customer the customer to set
+     */
+    public void setCustomer(Customer customer) {
+        this.customer = customer;
+    }
+
+    /**
+     * Gets the payments recorded against the booking.
+     *
+     * @return the list of payments (never {@code null})
+     */
+    public List<Payment> getPayments() {
+        return payments;
+    }
+
+    /**
+     * Sets the payments recorded against the booking.
+     *
+     * @param payments the payments to set
+     */
+    public void setPayments(List<Payment> payments) {
+        this.payments = payments != null ? payments : new ArrayList<>();
+    }
+
+    /**
+     * Gets the reviews the customer left for the booked room.
+     *
+     * @return the list of reviews (never {@code null})
+     */
+    public List<Review> getReviews() {
+        return reviews;
+    }
+
+    /**
+     * Sets the reviews the customer left for the booked room.
+     *
+     * @param reviews the reviews to set
+     */
+    public void setReviews(List<Review> reviews) {
+        this.reviews = reviews != null ? reviews : new ArrayList<>();
+    }
+
+    /**
+     * Returns a string representation of the booking detail, useful for debugging or logging.
+     *
+     * @return a formatted string containing the booking and the sizes of its related lists
+     */
+    @Override
+    public String toString() {
+        return "BookingDetail [booking=" + booking +
+                ", room=" + room +
+                ", payments=" + payments.size() +
+                ", reviews=" + reviews.size() + "]";
+    }
+}
@@ -1,5 +1,12 @@
 package com.hotelbooking.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.hotelbooking.utils.LocalDateDeserializer;
+import com.hotelbooking.utils.LocalDateSerializer;
+
+import java.time.LocalDate;
+
 /**
  * Represents a record of a completed or historical hotel booking.
  * <p>
@@ -18,8 +25,8 @@ package com.hotelbooking.model;
  *     history.setRoomType("Deluxe");
  *     history.setCustomerId(12);
  *     history.setCustomerName("John Smith");
- *     history.setCheckIn("2025-10-20");
- *     history.setCheckOut("2025-10-25");
+ *     history.setCheckIn(LocalDate.of(2025, 10, 20));
+ *     history.setCheckOut(LocalDate.of(2025, 10, 25));
  *     history.setPaymentAmount(750.0);
  *     history.setPaymentStatus("Paid");
  * </pre>
@@ -54,11 +61,15 @@ public class BookingHistory {
     /** The full name of the customer who made the booking. */
     private String customerName;
 
-    /** The check-in date for the booking (format: yyyy-MM-dd). */
-    private String checkIn;
+    /** The check-in date for the booking (serialized as YYYY-MM-DD). */
+    @JsonSerialize(using = LocalDateSerializer.class)
+    @JsonDeserialize(using = LocalDateDeserializer.class)
+    private LocalDate checkIn;
 
-    /** The check-out date for the booking (format: yyyy-MM-dd). */
-    private String checkOut;
+    /** The check-out date for the booking (serialized as YYYY-MM-DD). */
+    @JsonSerialize(using = LocalDateSerializer.class)
+    @JsonDeserialize(using = LocalDateDeserializer.class)
+    private LocalDate checkOut;
 
     /** The total payment amount for the booking. */
     private double paymentAmount;
@@ -66,6 +77,29 @@ public class BookingHistory {
     /** The current status of the payment (e.g., Paid, Pending, Refunded). */
     private String paymentStatus;
 
+    /**
+     * Default no-argument constructor.
+     */
+    public BookingHistory() {}
+
+    /**
+     * Copy constructor.
+     *
+     * @param other the history row to copy
+     */
+    public BookingHistory(BookingHistory other) {
+        this.bookingId = other.bookingId;
+        this.roomId = other.roomId;
+        this.roomNumber = other.roomNumber;
+        this.roomType = other.roomType;
+        this.customerId = other.customerId;
+        this.customerName = other.customerName;
+        this.checkIn = other.checkIn;
+        this.checkOut = other.checkOut;
+        this.paymentAmount = other.paymentAmount;
+        this.paymentStatus = other.paymentStatus;
+    }
+
     // ---------------------------
     // Getters and Setters
     // ---------------------------
@@ -181,36 +215,36 @@ public class BookingHistory {
     /**
      * Gets the check-in date of the booking.
      *
-     * @return the check-in date (format: yyyy-MM-dd)
+     * @return the check-in date
      */
-    public String getCheckIn() {
+    public LocalDate getCheckIn() {
         return checkIn;
     }
 
     /**
      * Sets the check-in date of the booking.
      *
-     * @param checkIn the check-in date to set (format: yyyy-MM-dd)
+     * @param checkIn the check-in date to set
      */
-    public void setCheckIn(String checkIn) {
+    public void setCheckIn(LocalDate checkIn) {
         this.checkIn = checkIn;
     }
 
     /**
      * Gets the check-out date of the booking.
      *
-     * @return the check-out date (format: yyyy-MM-dd)
+     * @return the check-out date
      */
-    public String getCheckOut() {
+    public LocalDate getCheckOut() {
         return checkOut;
     }
 
     /**
      * Sets the check-out date of the booking.
      *
-     * @param checkOut the check-out date to set (format: yyyy-MM-dd)
+     * @param checkOut the check-out date to set
      */
-    public void setCheckOut(String checkOut) {
+    public void setCheckOut(LocalDate checkOut) {
         this.checkOut = checkOut;
     }
 
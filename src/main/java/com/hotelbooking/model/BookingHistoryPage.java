@@ -0,0 +1,131 @@
+package com.hotelbooking.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.hotelbooking.utils.LocalDateDeserializer;
+import com.hotelbooking.utils.LocalDateSerializer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of a customer's booking history, newest stay first.
+ * <p>
+ * Pages use keyset pagination on {@code (checkIn, bookingId)}: to fetch the next page,
+ * pass {@link #getNextCheckIn()} and {@link #getNextBookingId()} back as the
+ * {@code before} / {@code beforeId} cursor. When {@link #isHasMore()} is {@code false}
+ * both cursor fields are {@code null}.
+ * </p>
+ *
+ * <p><b>Example JSON:</b></p>
+ * <pre>
+ * {
+ *   "items": [ { "bookingId": 101, "checkIn": "2025-10-20", ... } ],
+ *   "hasMore": true,
+ *   "nextCheckIn": "2025-10-20",
+ *   "nextBookingId": 101
+ * }
+ * </pre>
+ *
+ * @author
+ * @version 1.0
+ */
+public class BookingHistoryPage {
+
+    /** The history rows on this page (one per booking/payment pair). */
+    private List<BookingHistory> items = new ArrayList<>();
+
+    /** Whether older bookings exist beyond this page. */
+    private boolean hasMore;
+
+    /** Check-in date of the last booking on this page, used as the next cursor. */
+    @JsonSerialize(using = LocalDateSerializer.class)
+    @JsonDeserialize(using = LocalDateDeserializer.class)
+    private LocalDate nextCheckIn;
+
+    /** ID of the last booking on this page, used as the next cursor tie-breaker. */
+    private Integer nextBookingId;
+
+    /**
+     * Default no-argument constructor.
+     * <p>Creates an empty page.</p>
+     */
+    public BookingHistoryPage() {}
+
+    // ---------------------------
+    // Getters and Setters
+    // ---------------------------
+
+    /**
+     * Gets the history rows on this page.
+     *
+     * @return the list of rows (never {@code null})
+     */
+    public List<BookingHistory> getItems() {
+        return items;
+    }
+
+    /**
+     * Sets the history rows on this page.
+     *
+     * @param items the rows to set
+     */
+    public void setItems(List<BookingHistory> items) {
+        this.items = items != null ? items : new ArrayList<>();
+    }
+
+    /**
+     * Checks whether older bookings exist beyond this page.
+     *
+     * @return {@code true} if another page is available
+     */
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    /**
+     * Sets whether older bookings exist beyond this page.
+     *
+     * @param hasMore {@code true} if another page is available
+     */
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Gets the check-in date cursor for the next page.
+     *
+     * @return the check-in date, or {@code null} on the last page
+     */
+    public LocalDate getNextCheckIn() {
+        return nextCheckIn;
+    }
+
+    /**
+     * Sets the check-in date cursor for the next page.
+     *
+     * @param nextCheckIn the check-in date to set
+     */
+    public void setNextCheckIn(LocalDate nextCheckIn) {
+        this.nextCheckIn = nextCheckIn;
+    }
+
+    /**
+     * Gets the booking ID cursor for the next page.
+     *
+     * @return the booking ID, or {@code null} on the last page
+     */
+    public Integer getNextBookingId() {
+        return nextBookingId;
+    }
+
+    /**
+     * Sets the booking ID cursor for the next page.
+     *
+     * @param nextBookingId the booking ID to set
+     */
+    public void setNextBookingId(Integer nextBookingId) {
+        this.nextBookingId = nextBookingId;
+    }
+}
@@ -0,0 +1,169 @@
+package com.hotelbooking.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.hotelbooking.utils.LocalDateDeserializer;
+import com.hotelbooking.utils.LocalDateSerializer;
+
+import java.time.LocalDate;
+
+/**
+ * A provisional reservation of a room for a date range, made while a guest completes checkout.
+ * <p>
+ * A hold blocks overlapping bookings and holds until it is confirmed (turned into a
+ * {@link Booking}), released, or reaches {@code expiresAt}. Holds are kept in memory only.
+ * </p>
+ *
+ * <p><b>Example:</b></p>
+ * <pre>
+ *     BookingHold hold = new BookingHold();
+ *     hold.setRoomId(202);
+ *     hold.setCustomerId(15);
+ *     hold.setCheckIn(LocalDate.of(2025, 11, 10));
+ *     hold.setCheckOut(LocalDate.of(2025, 11, 15));
+ * </pre>
+ *
+ * @author
+ * @version 1.0
+ */
+public class BookingHold {
+
+    /** The unique identifier of the hold. */
+    private long id;
+
+    /** The ID of the held room. */
+    private int roomId;
+
+    /** The ID of the customer holding the room. */
+    private int customerId;
+
+    /** The check-in date (serialized as YYYY-MM-DD). */
+    @JsonSerialize(using = LocalDateSerializer.class)
+    @JsonDeserialize(using = LocalDateDeserializer.class)
+    private LocalDate checkIn;
+
+    /** The check-out date (serialized as YYYY-MM-DD). */
+    @JsonSerialize(using = LocalDateSerializer.class)
+    @JsonDeserialize(using = LocalDateDeserializer.class)
+    private LocalDate checkOut;
+
+    /** When the hold lapses, as an ISO-8601 instant. */
+    private String expiresAt;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public BookingHold() {}
+
+    // ---------------------------
+    // Getters and Setters
+    // ---------------------------
+
+    /**
+     * Gets the hold ID.
+     *
+     * @return the hold ID
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the hold ID.
+     *
+     * @param id the hold ID to set
+     */
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the ID of the held room.
+     *
+     * @return the room ID
+     */
+    public int getRoomId() {
+        return roomId;
+    }
+
+    /**
+     * Sets the ID of the held room.
+     *
+     * @param roomId the room ID to set
+     */
+    public void setRoomId(int roomId) {
+        this.roomId = roomId;
+    }
+
+    /**
+     * Gets the ID of the customer holding the room.
+     *
+     * @return the customer ID
+     */
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    /**
+     * Sets the ID of the customer holding the room.
+     *
+     * @param customerId the customer ID to set
+     */
+    public void setCustomerId(int customerId) {
+        this.customerId = customerId;
+    }
+
+    /**
+     * Gets the check-in date.
+     *
+     * @return the check-in date
+     */
+    public LocalDate getCheckIn() {
+        return checkIn;
+    }
+
+    /**
+     * Sets the check-in date.
+     *
+     * @param checkIn the check-in date to set
+     */
+    public void setCheckIn(LocalDate checkIn) {
+        this.checkIn = checkIn;
+    }
+
+    /**
+     * Gets the check-out date.
+     *
+     * @return the check-out date
+     */
+    public LocalDate getCheckOut() {
+        return checkOut;
+    }
+
+    /**
+     * Sets the check-out date.
+     *
+     * @param checkOut the check-out date to set
+     */
+    public void setCheckOut(LocalDate checkOut) {
+        this.checkOut = checkOut;
+    }
+
+    /**
+     * Gets the expiry time.
+     *
+     * @return the expiry time as an ISO-8601 instant
+     */
+    public String getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Sets the expiry time.
+     *
+     * @param expiresAt the expiry time to set, as an ISO-8601 instant
+     */
+    public void setExpiresAt(String expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,71 @@
+package com.hotelbooking.model;
+
+import java.time.LocalDate;
+
+/**
+ * Compact, immutable copy of a {@link Booking} for in-memory caches and indexes.
+ * <p>
+ * Dates are kept as epoch days in {@code int} fields, so a record is a single object of
+ * six primitives instead of a {@link Booking} with two {@link LocalDate}s. Loading a
+ * room's calendar into the availability index goes through these records.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public final class BookingRecord {
+
+    private final int id;
+    private final int customerId;
+    private final int roomId;
+    private final int checkIn;
+    private final int checkOut;
+    private final boolean assignedByType;
+
+    /**
+     * @param id             the booking ID
+     * @param customerId     the customer ID
+     * @param roomId         the room ID
+     * @param checkIn        the check-in date (epoch day)
+     * @param checkOut       the check-out date (epoch day)
+     * @param assignedByType whether the room was chosen by the system from a room type
+     */
+    public BookingRecord(int id, int customerId, int roomId, int checkIn, int checkOut, boolean assignedByType) {
+        this.id = id;
+        this.customerId = customerId;
+        this.roomId = roomId;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+        this.assignedByType = assignedByType;
+    }
+
+    /** @return the booking ID */
+    public int getId() {
+        return id;
+    }
+
+    /** @return the customer ID */
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    /** @return the room ID */
+    public int getRoomId() {
+        return roomId;
+    }
+
+    /** @return the check-in date (epoch day) */
+    public int getCheckIn() {
+        return checkIn;
+    }
+
+    /** @return the check-out date (epoch day) */
+    public int getCheckOut() {
+        return checkOut;
+    }
+
+    /** @return {@code true} if the booking may be moved to another room of its type */
+    public boolean isAssignedByType() {
+        return assignedByType;
+    }
+}
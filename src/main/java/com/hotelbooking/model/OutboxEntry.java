@@ -0,0 +1,128 @@
+package com.hotelbooking.model;
+
+/**
+ * The columns every outbox row has, whatever it carries.
+ * <p>
+ * An outbox row is written in the same transaction as the change it follows up and is
+ * processed asynchronously by background workers that claim it, attempt it and record the
+ * outcome (see {@code com.hotelbooking.dao.OutboxTable}).
+ * </p>
+ *
+ * <p><b>Status values:</b> {@code PENDING}, {@code SENDING} (claimed by a worker), the
+ * table's completed status ({@code SENT} or {@code DONE}) and {@code FAILED} (retries
+ * exhausted).</p>
+ *
+ * @author
+ * @version 1.0
+ */
+public abstract class OutboxEntry {
+
+    /** The unique identifier of the outbox row. */
+    private long id;
+
+    /** The content serialized as JSON. */
+    private String payload;
+
+    /** The current status. */
+    private String status;
+
+    /** Number of attempts so far, including the current one. */
+    private int attempts;
+
+    /** The error of the last failed attempt, if any. */
+    private String lastError;
+
+    // ---------------------------
+    // Getters and Setters
+    // ---------------------------
+
+    /**
+     * Gets the outbox row ID.
+     *
+     * @return the ID
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the outbox row ID.
+     *
+     * @param id the ID to set
+     */
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the content serialized as JSON.
+     *
+     * @return the payload
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    /**
+     * Sets the content serialized as JSON.
+     *
+     * @param payload the payload to set
+     */
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    /**
+     * Gets the status.
+     *
+     * @return the status
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the status.
+     *
+     * @param status the status to set
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * Gets the number of attempts so far.
+     *
+     * @return the attempt count
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Sets the number of attempts so far.
+     *
+     * @param attempts the attempt count to set
+     */
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    /**
+     * Gets the error of the last failed attempt.
+     *
+     * @return the error, or {@code null}
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Sets the error of the last failed attempt.
+     *
+     * @param lastError the error to set
+     */
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,69 @@
+package com.hotelbooking.model;
+
+/**
+ * One pending hand-off of a booking event to one durable event handler.
+ * <p>
+ * Outbox events are written in the same transaction as the booking change that raised them
+ * and are handed to their handler asynchronously by the event bus's relay, so a committed
+ * change is never lost to a crash between the commit and the handler.
+ * </p>
+ *
+ * <p><b>Status values:</b> {@code PENDING}, {@code SENDING} (claimed by a relay),
+ * {@code DONE} and {@code FAILED} (retries exhausted).</p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class OutboxEvent extends OutboxEntry {
+
+    /** The name of the handler the event is for. */
+    private String handler;
+
+    /** The event type, e.g. {@code "BookingCancelled"}. */
+    private String eventType;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public OutboxEvent() {}
+
+    // ---------------------------
+    // Getters and Setters
+    // ---------------------------
+
+    /**
+     * Gets the name of the handler the event is for.
+     *
+     * @return the handler name
+     */
+    public String getHandler() {
+        return handler;
+    }
+
+    /**
+     * Sets the name of the handler the event is for.
+     *
+     * @param handler the handler name to set
+     */
+    public void setHandler(String handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Gets the event type.
+     *
+     * @return the event type
+     */
+    public String getEventType() {
+        return eventType;
+    }
+
+    /**
+     * Sets the event type.
+     *
+     * @param eventType the event type to set
+     */
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+}
@@ -0,0 +1,69 @@
+package com.hotelbooking.model;
+
+/**
+ * One pending delivery of a notification over one channel (e-mail, SMS, ...).
+ * <p>
+ * Outbox messages are written in the same transaction as the notification they deliver and
+ * are picked up asynchronously by the delivery workers, so the request that created the
+ * notification never waits for an external service.
+ * </p>
+ *
+ * <p><b>Status values:</b> {@code PENDING}, {@code SENDING} (claimed by a worker),
+ * {@code SENT} and {@code FAILED} (retries exhausted).</p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class OutboxMessage extends OutboxEntry {
+
+    /** The ID of the notification being delivered. */
+    private int notificationId;
+
+    /** The name of the delivery channel, e.g. {@code "email"}. */
+    private String channel;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public OutboxMessage() {}
+
+    // ---------------------------
+    // Getters and Setters
+    // ---------------------------
+
+    /**
+     * Gets the ID of the notification being delivered.
+     *
+     * @return the notification ID
+     */
+    public int getNotificationId() {
+        return notificationId;
+    }
+
+    /**
+     * Sets the ID of the notification being delivered.
+     *
+     * @param notificationId the notification ID to set
+     */
+    public void setNotificationId(int notificationId) {
+        this.notificationId = notificationId;
+    }
+
+    /**
+     * Gets the delivery channel name.
+     *
+     * @return the channel name
+     */
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * Sets the delivery channel name.
+     *
+     * @param channel the channel name to set
+     */
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+}
@@ -0,0 +1,140 @@
+package com.hotelbooking.model;
+
+import java.util.List;
+
+/**
+ * A nightly rate for one room type over a date range, optionally limited to some days of
+ * the week (for example a weekend rate).
+ * <p>
+ * Nights without a rate are charged at the room's own {@link Room#getPrice() price}.
+ * </p>
+ *
+ * <p><b>Example:</b></p>
+ * <pre>
+ *     RatePeriod weekend = new RatePeriod();
+ *     weekend.setRoomType("Deluxe");
+ *     weekend.setFrom("2025-06-01");
+ *     weekend.setTo("2025-09-01");
+ *     weekend.setPrice(180.0);
+ *     weekend.setDaysOfWeek(Arrays.asList(5, 6)); // Friday and Saturday nights
+ * </pre>
+ *
+ * @author
+ * @version 1.0
+ */
+public class RatePeriod {
+
+    /** The room type the rate applies to. */
+    private String roomType;
+
+    /** The first night of the period (format: YYYY-MM-DD). */
+    private String from;
+
+    /** The day after the last night of the period (format: YYYY-MM-DD). */
+    private String to;
+
+    /** The nightly rate. */
+    private double price;
+
+    /** ISO days of the week (1 = Monday ... 7 = Sunday) the rate applies to; {@code null} for every night. */
+    private List<Integer> daysOfWeek;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public RatePeriod() {}
+
+    // ---------------------------
+    // Getters and Setters
+    // ---------------------------
+
+    /**
+     * Gets the room type.
+     *
+     * @return the room type
+     */
+    public String getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * Sets the room type.
+     *
+     * @param roomType the value to set
+     */
+    public void setRoomType(String roomType) {
+        this.roomType = roomType;
+    }
+
+    /**
+     * Gets the first night.
+     *
+     * @return the first night (YYYY-MM-DD)
+     */
+    public String getFrom() {
+        return from;
+    }
+
+    /**
+     * Sets the first night.
+     *
+     * @param from the value to set
+     */
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    /**
+     * Gets the end of the period (exclusive).
+     *
+     * @return the day after the last night (YYYY-MM-DD)
+     */
+    public String getTo() {
+        return to;
+    }
+
+    /**
+     * Sets the end of the period (exclusive).
+     *
+     * @param to the value to set
+     */
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    /**
+     * Gets the nightly rate.
+     *
+     * @return the nightly rate
+     */
+    public double getPrice() {
+        return price;
+    }
+
+    /**
+     * Sets the nightly rate.
+     *
+     * @param price the value to set
+     */
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    /**
+     * Gets the days of the week.
+     *
+     * @return the ISO days of the week, or {@code null} for every night
+     */
+    public List<Integer> getDaysOfWeek() {
+        return daysOfWeek;
+    }
+
+    /**
+     * Sets the days of the week.
+     *
+     * @param daysOfWeek the value to set
+     */
+    public void setDaysOfWeek(List<Integer> daysOfWeek) {
+        this.daysOfWeek = daysOfWeek;
+    }
+}
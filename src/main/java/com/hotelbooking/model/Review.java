@@ -47,6 +47,20 @@ public class Review {
      */
     public Review() {}
 
+    /**
+     * Copy constructor.
+     *
+     * @param other the review to copy
+     */
+    public Review(Review other) {
+        this.id = other.id;
+        this.roomId = other.roomId;
+        this.customerId = other.customerId;
+        this.rating = other.rating;
+        this.comment = other.comment;
+        this.createdAt = other.createdAt;
+    }
+
     /**
      * Gets the unique identifier of this review.
      *
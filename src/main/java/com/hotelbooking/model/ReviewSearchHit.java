@@ -0,0 +1,76 @@
+package com.hotelbooking.model;
+
+/**
+ * A review matched by a full-text search, together with its relevance score.
+ *
+ * <p><b>Example JSON:</b></p>
+ * <pre>
+ * {
+ *   "review": { "id": 7, "roomId": 101, "rating": 5, "comment": "Quiet room, great breakfast" },
+ *   "score": 2.41
+ * }
+ * </pre>
+ *
+ * @author
+ * @version 1.0
+ */
+public class ReviewSearchHit {
+
+    /** The matching review. */
+    private Review review;
+
+    /** BM25 relevance score; higher is more relevant. */
+    private double score;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public ReviewSearchHit() {}
+
+    /**
+     * Creates a hit.
+     *
+     * @param review the matching review
+     * @param score  the relevance score
+     */
+    public ReviewSearchHit(Review review, double score) {
+        this.review = review;
+        this.score = score;
+    }
+
+    /**
+     * Gets the matching review.
+     *
+     * @return the review
+     */
+    public Review getReview() {
+        return review;
+    }
+
+    /**
+     * Sets the matching review.
+     *
+     * @param review the review to set
+     */
+    public void setReview(Review review) {
+        this.review = review;
+    }
+
+    /**
+     * Gets the relevance score.
+     *
+     * @return the BM25 score
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Sets the relevance score.
+     *
+     * @param score the score to set
+     */
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
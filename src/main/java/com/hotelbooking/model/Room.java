@@ -50,12 +50,44 @@ public class Room {
     /** Indicates whether the room is currently available for booking. */
     private boolean available;
 
+    /**
+     * Aggregated review statistics, filled in by listings for one response;
+     * {@code null} when not loaded.
+     */
+    private RoomRating rating;
+
+    /**
+     * Tonight's demand-adjusted price, filled in by listings for one response;
+     * {@code null} when not loaded.
+     */
+    private Double currentPrice;
+
     /**
      * Default no-argument constructor.
      * <p>Creates an empty {@code Room} object.</p>
      */
     public Room() {}
 
+    /**
+     * Copy constructor.
+     * <p>Caches and coalesced reads hand every caller a copy made with this constructor, so
+     * a room obtained from {@code RoomDAO} belongs to the caller and may be changed freely.</p>
+     *
+     * @param other the room to copy
+     */
+    public Room(Room other) {
+        this.id = other.id;
+        this.roomNo = other.roomNo;
+        this.roomType = other.roomType;
+        this.price = other.price;
+        this.status = other.status;
+        this.roomNumber = other.roomNumber;
+        this.type = other.type;
+        this.available = other.available;
+        this.rating = other.rating;
+        this.currentPrice = other.currentPrice;
+    }
+
     // ---------------------------
     // Getters and Setters
     // ---------------------------
@@ -204,6 +236,43 @@ public class Room {
         this.available = available;
     }
 
+    /**
+     * Gets the aggregated review statistics of the room.
+     *
+     * @return the rating aggregate, or {@code null} if it was not loaded
+     */
+    public RoomRating getRating() {
+        return rating;
+    }
+
+    /**
+     * Sets the aggregated review statistics of the room.
+     *
+     * @param rating the rating aggregate to set
+     */
+    public void setRating(RoomRating rating) {
+        this.rating = rating;
+    }
+
+    /**
+     * Gets tonight's demand-adjusted price, shown next to the base {@link #getPrice() price}.
+     *
+     * @return the current nightly price, or {@code null} if it was not loaded
+     */
+    public Double getCurrentPrice() {
+        return currentPrice;
+    }
+
+    /**
+     * Sets tonight's demand-adjusted price. The price changes with demand and belongs to one
+     * response.
+     *
+     * @param currentPrice the current nightly price to set
+     */
+    public void setCurrentPrice(Double currentPrice) {
+        this.currentPrice = currentPrice;
+    }
+
     /**
      * Returns a string representation of the room details.
      *
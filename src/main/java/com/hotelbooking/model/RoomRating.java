@@ -0,0 +1,158 @@
+package com.hotelbooking.model;
+
+/**
+ * Aggregated review statistics for a single room.
+ * <p>
+ * Holds the number of reviews, the sum of their ratings and a 1&ndash;5 star histogram,
+ * so the average can be computed without reading individual reviews. Aggregates are
+ * maintained incrementally as reviews are added or deleted.
+ * </p>
+ *
+ * <p><b>Example JSON:</b></p>
+ * <pre>
+ * {
+ *   "roomId": 101,
+ *   "count": 4,
+ *   "sum": 17,
+ *   "histogram": [0, 0, 1, 1, 2],
+ *   "average": 4.25
+ * }
+ * </pre>
+ *
+ * @author
+ * @version 1.0
+ */
+public class RoomRating {
+
+    /** Number of distinct star values (ratings range from 1 to {@code STARS}). */
+    public static final int STARS = 5;
+
+    /** The ID of the room these statistics belong to. */
+    private int roomId;
+
+    /** The number of reviews for the room. */
+    private int count;
+
+    /** The sum of all ratings for the room. */
+    private long sum;
+
+    /** Review counts per star value; index 0 holds one-star reviews. */
+    private int[] histogram = new int[STARS];
+
+    /**
+     * Default no-argument constructor.
+     * <p>Creates an empty aggregate.</p>
+     */
+    public RoomRating() {}
+
+    /**
+     * Creates an empty aggregate for a room.
+     *
+     * @param roomId the room ID
+     */
+    public RoomRating(int roomId) {
+        this.roomId = roomId;
+    }
+
+    /**
+     * Returns a copy of this aggregate with one review added ({@code delta = 1}) or
+     * removed ({@code delta = -1}).
+     *
+     * @param rating the review's rating, between 1 and {@link #STARS}
+     * @param delta  {@code 1} to add the review, {@code -1} to remove it
+     * @return the updated copy; this instance is left unchanged
+     */
+    public RoomRating withReview(int rating, int delta) {
+        RoomRating out = new RoomRating(roomId);
+        out.count = Math.max(0, count + delta);
+        out.sum = Math.max(0, sum + (long) rating * delta);
+        out.histogram = histogram.clone();
+        out.histogram[rating - 1] = Math.max(0, out.histogram[rating - 1] + delta);
+        return out;
+    }
+
+    // ---------------------------
+    // Getters and Setters
+    // ---------------------------
+
+    /**
+     * Gets the room ID.
+     *
+     * @return the room ID
+     */
+    public int getRoomId() {
+        return roomId;
+    }
+
+    /**
+     * Sets the room ID.
+     *
+     * @param roomId the room ID to set
+     */
+    public void setRoomId(int roomId) {
+        this.roomId = roomId;
+    }
+
+    /**
+     * Gets the number of reviews.
+     *
+     * @return the review count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Sets the number of reviews.
+     *
+     * @param count the review count to set
+     */
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    /**
+     * Gets the sum of all ratings.
+     *
+     * @return the rating sum
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * Sets the sum of all ratings.
+     *
+     * @param sum the rating sum to set
+     */
+    public void setSum(long sum) {
+        this.sum = sum;
+    }
+
+    /**
+     * Gets the star histogram; index {@code i} holds the number of {@code i + 1}-star reviews.
+     *
+     * @return the histogram (length {@link #STARS})
+     */
+    public int[] getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Sets the star histogram.
+     *
+     * @param histogram the histogram to set; {@code null} resets it to all zeros
+     */
+    public void setHistogram(int[] histogram) {
+        this.histogram = histogram != null && histogram.length == STARS ? histogram : new int[STARS];
+    }
+
+    /**
+     * Gets the average rating, rounded to two decimals.
+     *
+     * @return the average rating, or {@code 0} if the room has no reviews
+     */
+    public double getAverage() {
+        return count == 0 ? 0 : Math.round(sum * 100.0 / count) / 100.0;
+    }
+}
@@ -0,0 +1,87 @@
+package com.hotelbooking.model;
+
+/**
+ * Compact, immutable copy of a {@link Room} for in-memory caches and indexes.
+ * <p>
+ * Only the columns of the {@code rooms} table are kept, as primitives where possible; the
+ * room type and status are interned, since a hotel has a handful of distinct values shared
+ * by thousands of rooms. A record can be shared freely between threads and callers, and
+ * {@link #toRoom()} gives each caller its own {@link Room} to return or modify.
+ * </p>
+ *
+ * @author
+ * @version 1.0
+ */
+public final class RoomRecord {
+
+    private final int id;
+    private final int roomNo;
+    private final String roomType;
+    private final double price;
+    private final String status;
+
+    /**
+     * @param id       the room ID
+     * @param roomNo   the room number
+     * @param roomType the room type, or {@code null}
+     * @param price    the base nightly price
+     * @param status   the room status, or {@code null}
+     */
+    public RoomRecord(int id, int roomNo, String roomType, double price, String status) {
+        this.id = id;
+        this.roomNo = roomNo;
+        this.roomType = roomType != null ? roomType.intern() : null;
+        this.price = price;
+        this.status = status != null ? status.intern() : null;
+    }
+
+    /**
+     * Copies the stored columns of a room.
+     *
+     * @param room the room
+     * @return the record
+     */
+    public static RoomRecord of(Room room) {
+        return new RoomRecord(room.getId(), room.getRoomNo(), room.getRoomType(), room.getPrice(), room.getStatus());
+    }
+
+    /**
+     * Creates a new {@link Room} with this record's columns.
+     *
+     * @return the room
+     */
+    public Room toRoom() {
+        Room r = new Room();
+        r.setId(id);
+        r.setRoomNo(roomNo);
+        r.setRoomType(roomType);
+        r.setPrice(price);
+        r.setStatus(status);
+        return r;
+    }
+
+    /** @return the room ID */
+    public int getId() {
+        return id;
+    }
+
+    /** @return the room number */
+    public int getRoomNo() {
+        return roomNo;
+    }
+
+    /** @return the room type (interned) */
+    public String getRoomType() {
+        return roomType;
+    }
+
+    /** @return the base nightly price */
+    public double getPrice() {
+        return price;
+    }
+
+    /** @return the room status (interned) */
+    public String getStatus() {
+        return status;
+    }
+}
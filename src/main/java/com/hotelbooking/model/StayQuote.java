@@ -0,0 +1,166 @@
+package com.hotelbooking.model;
+
+/**
+ * The price of a stay in one room, as returned by the quote endpoint.
+ *
+ * @author
+ * @version 1.0
+ */
+public class StayQuote {
+
+    /** The quoted room. */
+    private int roomId;
+
+    /** The check-in date (format: YYYY-MM-DD). */
+    private String checkIn;
+
+    /** The check-out date (format: YYYY-MM-DD). */
+    private String checkOut;
+
+    /** The number of nights. */
+    private int nights;
+
+    /** The total price of the stay, adjusted to demand. */
+    private double total;
+
+    /** The price of the stay at the set rates, before demand adjustment. */
+    private double baseTotal;
+
+    /** The average price per night. */
+    private double averageNightly;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public StayQuote() {}
+
+    // ---------------------------
+    // Getters and Setters
+    // ---------------------------
+
+    /**
+     * Gets the room ID.
+     *
+     * @return the room ID
+     */
+    public int getRoomId() {
+        return roomId;
+    }
+
+    /**
+     * Sets the room ID.
+     *
+     * @param roomId the value to set
+     */
+    public void setRoomId(int roomId) {
+        this.roomId = roomId;
+    }
+
+    /**
+     * Gets the check-in date.
+     *
+     * @return the check-in date (YYYY-MM-DD)
+     */
+    public String getCheckIn() {
+        return checkIn;
+    }
+
+    /**
+     * Sets the check-in date.
+     *
+     * @param checkIn the value to set
+     */
+    public void setCheckIn(String checkIn) {
+        this.checkIn = checkIn;
+    }
+
+    /**
+     * Gets the check-out date.
+     *
+     * @return the check-out date (YYYY-MM-DD)
+     */
+    public String getCheckOut() {
+        return checkOut;
+    }
+
+    /**
+     * Sets the check-out date.
+     *
+     * @param checkOut the value to set
+     */
+    public void setCheckOut(String checkOut) {
+        this.checkOut = checkOut;
+    }
+
+    /**
+     * Gets the number of nights.
+     *
+     * @return the number of nights
+     */
+    public int getNights() {
+        return nights;
+    }
+
+    /**
+     * Sets the number of nights.
+     *
+     * @param nights the value to set
+     */
+    public void setNights(int nights) {
+        this.nights = nights;
+    }
+
+    /**
+     * Gets the total price.
+     *
+     * @return the total price
+     */
+    public double getTotal() {
+        return total;
+    }
+
+    /**
+     * Sets the total price.
+     *
+     * @param total the value to set
+     */
+    public void setTotal(double total) {
+        this.total = total;
+    }
+
+    /**
+     * Gets the price before demand adjustment.
+     *
+     * @return the price of the stay at the set rates
+     */
+    public double getBaseTotal() {
+        return baseTotal;
+    }
+
+    /**
+     * Sets the price before demand adjustment.
+     *
+     * @param baseTotal the value to set
+     */
+    public void setBaseTotal(double baseTotal) {
+        this.baseTotal = baseTotal;
+    }
+
+    /**
+     * Gets the average nightly price.
+     *
+     * @return the average price per night
+     */
+    public double getAverageNightly() {
+        return averageNightly;
+    }
+
+    /**
+     * Sets the average nightly price.
+     *
+     * @param averageNightly the value to set
+     */
+    public void setAverageNightly(double averageNightly) {
+        this.averageNightly = averageNightly;
+    }
+}
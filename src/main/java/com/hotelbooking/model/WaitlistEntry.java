@@ -0,0 +1,205 @@
+package com.hotelbooking.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.hotelbooking.utils.LocalDateDeserializer;
+import com.hotelbooking.utils.LocalDateSerializer;
+
+import java.time.LocalDate;
+
+/**
+ * A customer's request to be told when a room of a given type frees up for a date range.
+ * <p>
+ * When a cancellation frees a matching room, the oldest fitting entry is offered a hold on
+ * it (see {@link BookingHold}) and notified; the customer confirms the hold to book.
+ * </p>
+ *
+ * <p><b>Status values:</b> {@code WAITING}, {@code OFFERED} (a hold was placed),
+ * {@code EXPIRED} (the offered hold lapsed) and {@code CANCELLED}.</p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class WaitlistEntry {
+
+    /** The unique identifier of the waitlist entry. */
+    private long id;
+
+    /** The ID of the waiting customer. */
+    private int customerId;
+
+    /** The requested room type (e.g., "Deluxe"). */
+    private String roomType;
+
+    /** The desired check-in date (serialized as YYYY-MM-DD). */
+    @JsonSerialize(using = LocalDateSerializer.class)
+    @JsonDeserialize(using = LocalDateDeserializer.class)
+    private LocalDate checkIn;
+
+    /** The desired check-out date (serialized as YYYY-MM-DD). */
+    @JsonSerialize(using = LocalDateSerializer.class)
+    @JsonDeserialize(using = LocalDateDeserializer.class)
+    private LocalDate checkOut;
+
+    /** The entry status: {@code WAITING}, {@code OFFERED}, {@code EXPIRED} or {@code CANCELLED}. */
+    private String status;
+
+    /** The hold offered to the customer, once a room has been found. */
+    private Long holdId;
+
+    /** When the customer joined the waitlist. */
+    private String createdAt;
+
+    /**
+     * Default no-argument constructor.
+     */
+    public WaitlistEntry() {}
+
+    // ---------------------------
+    // Getters and Setters
+    // ---------------------------
+
+    /**
+     * Gets the entry ID.
+     *
+     * @return the entry ID
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the entry ID.
+     *
+     * @param id the value to set
+     */
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the ID of the waiting customer.
+     *
+     * @return the customer ID
+     */
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    /**
+     * Sets the ID of the waiting customer.
+     *
+     * @param customerId the value to set
+     */
+    public void setCustomerId(int customerId) {
+        this.customerId = customerId;
+    }
+
+    /**
+     * Gets the requested room type.
+     *
+     * @return the room type
+     */
+    public String getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * Sets the requested room type.
+     *
+     * @param roomType the value to set
+     */
+    public void setRoomType(String roomType) {
+        this.roomType = roomType;
+    }
+
+    /**
+     * Gets the desired check-in date.
+     *
+     * @return the check-in date
+     */
+    public LocalDate getCheckIn() {
+        return checkIn;
+    }
+
+    /**
+     * Sets the desired check-in date.
+     *
+     * @param checkIn the value to set
+     */
+    public void setCheckIn(LocalDate checkIn) {
+        this.checkIn = checkIn;
+    }
+
+    /**
+     * Gets the desired check-out date.
+     *
+     * @return the check-out date
+     */
+    public LocalDate getCheckOut() {
+        return checkOut;
+    }
+
+    /**
+     * Sets the desired check-out date.
+     *
+     * @param checkOut the value to set
+     */
+    public void setCheckOut(LocalDate checkOut) {
+        this.checkOut = checkOut;
+    }
+
+    /**
+     * Gets the entry status.
+     *
+     * @return the status
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the entry status.
+     *
+     * @param status the value to set
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * Gets the ID of the offered hold.
+     *
+     * @return the hold ID, or {@code null}
+     */
+    public Long getHoldId() {
+        return holdId;
+    }
+
+    /**
+     * Sets the ID of the offered hold.
+     *
+     * @param holdId the value to set
+     */
+    public void setHoldId(Long holdId) {
+        this.holdId = holdId;
+    }
+
+    /**
+     * Gets the creation timestamp.
+     *
+     * @return the creation timestamp
+     */
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Sets the creation timestamp.
+     *
+     * @param createdAt the value to set
+     */
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+}
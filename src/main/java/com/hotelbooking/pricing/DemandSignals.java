@@ -0,0 +1,61 @@
+package com.hotelbooking.pricing;
+
+/**
+ * The demand for one room type on one night, as seen by a {@link PricingStrategy}.
+ *
+ * @author
+ * @version 1.0
+ */
+public final class DemandSignals {
+
+    private final String roomType;
+    private final int leadDays;
+    private final int rooms;
+    private final int booked;
+    private final double pace;
+
+    /**
+     * @param roomType the room type
+     * @param leadDays days from today to the night (0 = tonight)
+     * @param rooms    the number of rooms of the type
+     * @param booked   the number of those rooms booked that night
+     * @param pace     bookings of the type made per room over the last week
+     */
+    public DemandSignals(String roomType, int leadDays, int rooms, int booked, double pace) {
+        this.roomType = roomType;
+        this.leadDays = leadDays;
+        this.rooms = rooms;
+        this.booked = booked;
+        this.pace = pace;
+    }
+
+    /** @return the room type */
+    public String getRoomType() {
+        return roomType;
+    }
+
+    /** @return days from today to the night (0 = tonight) */
+    public int getLeadDays() {
+        return leadDays;
+    }
+
+    /** @return the number of rooms of the type */
+    public int getRooms() {
+        return rooms;
+    }
+
+    /** @return the number of rooms of the type booked that night */
+    public int getBooked() {
+        return booked;
+    }
+
+    /** @return the booked share of the rooms, from 0 to 1 */
+    public double getOccupancy() {
+        return rooms == 0 ? 0 : (double) booked / rooms;
+    }
+
+    /** @return bookings of the type made per room over the last week */
+    public double getPace() {
+        return pace;
+    }
+}
@@ -0,0 +1,31 @@
+package com.hotelbooking.pricing;
+
+/**
+ * Default {@link PricingStrategy}, named {@code "occupancy"}.
+ * <p>
+ * Raises the rate in steps as a night fills up (up to +30% at 90% occupancy), adds up to
+ * +10% when the type is booking faster than one booking per room a week, and discounts
+ * nights that are still mostly empty close to arrival (-15% within 3 days below 30%
+ * occupancy).
+ * </p>
+ */
+public class OccupancyPricingStrategy implements PricingStrategy {
+
+    @Override
+    public String name() {
+        return "occupancy";
+    }
+
+    @Override
+    public double multiplier(DemandSignals s) {
+        double occupancy = s.getOccupancy();
+        double m = 1.0;
+        if (occupancy >= 0.9) m += 0.30;
+        else if (occupancy >= 0.75) m += 0.15;
+        else if (occupancy >= 0.5) m += 0.05;
+        else if (occupancy < 0.3 && s.getLeadDays() <= 3) m -= 0.15;
+
+        m += Math.min(0.10, 0.10 * s.getPace());
+        return m;
+    }
+}
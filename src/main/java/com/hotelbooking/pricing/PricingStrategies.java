@@ -0,0 +1,60 @@
+package com.hotelbooking.pricing;
+
+import java.util.ServiceLoader;
+
+/**
+ * Selects the {@link PricingStrategy} in use.
+ * <p>
+ * Strategies are discovered once with {@link ServiceLoader}. The system property
+ * {@code pricing.strategy} names the one to use (default {@value #DEFAULT_STRATEGY});
+ * {@code none}, or a name that is not installed, turns demand pricing off.
+ * </p>
+ */
+public final class PricingStrategies {
+
+    /** Name of the strategy used when {@code pricing.strategy} is not set. */
+    public static final String DEFAULT_STRATEGY = "occupancy";
+
+    /** The selected strategy, or a placeholder for none; resolved on first use. */
+    private static volatile PricingStrategy active;
+
+    private static final PricingStrategy NONE = new PricingStrategy() {
+        @Override
+        public String name() {
+            return "none";
+        }
+
+        @Override
+        public double multiplier(DemandSignals signals) {
+            return 1.0;
+        }
+    };
+
+    private PricingStrategies() {}
+
+    /**
+     * Returns the strategy in use.
+     *
+     * @return the strategy, or {@code null} if demand pricing is off
+     */
+    public static PricingStrategy active() {
+        PricingStrategy s = active;
+        if (s == null) {
+            synchronized (PricingStrategies.class) {
+                s = active;
+                if (s == null) {
+                    s = NONE;
+                    String name = System.getProperty("pricing.strategy", DEFAULT_STRATEGY).trim();
+                    for (PricingStrategy p : ServiceLoader.load(PricingStrategy.class, PricingStrategies.class.getClassLoader())) {
+                        if (p.name().equals(name)) {
+                            s = p;
+                            break;
+                        }
+                    }
+                    active = s;
+                }
+            }
+        }
+        return s == NONE ? null : s;
+    }
+}
@@ -0,0 +1,34 @@
+package com.hotelbooking.pricing;
+
+/**
+ * Service-provider interface for demand-based pricing.
+ * <p>
+ * A strategy turns the demand for one room type on one night into a multiplier of that
+ * night's rate. Implementations are discovered with {@link java.util.ServiceLoader}: list the
+ * implementation class in {@code META-INF/services/com.hotelbooking.pricing.PricingStrategy}
+ * and select it by {@link #name()} with the system property {@code pricing.strategy}.
+ * </p>
+ *
+ * <p>{@link #multiplier(DemandSignals)} is called for every night of the pricing horizon
+ * whenever a room type's demand changes, on a background thread; it should be a cheap, pure
+ * function of its input. The result is clamped to the range allowed by the caller.</p>
+ *
+ * @see PricingStrategies
+ */
+public interface PricingStrategy {
+
+    /**
+     * Returns the name used to select this strategy, e.g. {@code "occupancy"}.
+     *
+     * @return a short, unique, lower-case name
+     */
+    String name();
+
+    /**
+     * Computes the rate multiplier for one room type and night.
+     *
+     * @param signals the demand for that night
+     * @return the multiplier; {@code 1.0} leaves the rate unchanged
+     */
+    double multiplier(DemandSignals signals);
+}
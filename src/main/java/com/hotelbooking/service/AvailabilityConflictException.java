@@ -0,0 +1,49 @@
+package com.hotelbooking.service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@code AvailabilityConflictException} signals that a room cannot be reserved because the
+ * requested dates overlap an existing booking or an active hold.
+ * <p>
+ * It is a {@link BusinessException}, so existing callers keep working; servlets that
+ * distinguish it report HTTP 409 Conflict instead of 400 Bad Request, listing the
+ * {@link #getConflictingNights() clashing nights} when they are known.
+ *
+ * @see com.hotelbooking.service.AvailabilityIndex
+ */
+public class AvailabilityConflictException extends BusinessException {
+
+    /** The requested nights that are taken. */
+    private final List<String> conflictingNights;
+
+    /**
+     * Constructs a new {@code AvailabilityConflictException} with the specified detail message.
+     *
+     * @param message a descriptive message explaining the conflict
+     */
+    public AvailabilityConflictException(String message) {
+        this(message, Collections.emptyList());
+    }
+
+    /**
+     * Constructs a new {@code AvailabilityConflictException} naming the nights that clash.
+     *
+     * @param message a descriptive message explaining the conflict
+     * @param nights  the requested nights that are taken (YYYY-MM-DD), in date order
+     */
+    public AvailabilityConflictException(String message, List<String> nights) {
+        super(message);
+        this.conflictingNights = Collections.unmodifiableList(nights);
+    }
+
+    /**
+     * Returns the requested nights that are already taken.
+     *
+     * @return the nights (YYYY-MM-DD) in date order; empty if not known
+     */
+    public List<String> getConflictingNights() {
+        return conflictingNights;
+    }
+}
@@ -0,0 +1,747 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.dao.BookingDAO;
+import com.hotelbooking.event.EventBus;
+import com.hotelbooking.event.HoldReleased;
+import com.hotelbooking.model.Booking;
+import com.hotelbooking.model.BookingHold;
+import com.hotelbooking.model.BookingRecord;
+import com.hotelbooking.utils.ConcurrentIntObjectMap;
+import com.hotelbooking.utils.HashedTimingWheel;
+import com.hotelbooking.utils.IntHashSet;
+import com.hotelbooking.utils.IntIntHashMap;
+import com.hotelbooking.utils.IntObjectHashMap;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory occupancy calendar of every room, covering current bookings and active holds.
+ * <p>
+ * Each room has a {@link TreeMap} of non-overlapping occupied intervals keyed by their
+ * first night (as an epoch day), so an overlap check is one {@code lowerEntry} lookup plus a
+ * walk over the intervals that actually overlap. A room's calendar is loaded from the
+ * database on first use and then kept current by {@link BookingService}; intervals that
+ * ended before today are pruned as the room is used.
+ * </p>
+ *
+ * <p><b>Concurrency:</b> every check-and-reserve on a room happens under that room's lock,
+ * including the database insert passed to {@link #book(Booking, long, Callable)}, so two
+ * requests can never both pass the check for overlapping dates. Different rooms do not
+ * contend.</p>
+ *
+ * <p><b>Holds</b> expire through a {@link HashedTimingWheel} with one-second ticks; an
+ * expired hold that the wheel has not reached yet is also ignored (and dropped) by the
+ * overlap check. A hold that expires or is released without being confirmed publishes
+ * {@link HoldReleased} once its dates are free. Placing, releasing and expiring a hold drop
+ * the cached availability searches over its dates. Holds live only in this process, so they
+ * protect bookings made through this instance of the application; the database check in
+ * {@link BookingService} remains the guard against other writers.</p>
+ */
+public final class AvailabilityIndex {
+
+    private static final AvailabilityIndex SHARED =
+            new AvailabilityIndex(new BookingDAO(), EventBus.shared(), AvailabilitySearchCache.shared());
+
+    /** Calendars by room ID. */
+    private final ConcurrentIntObjectMap<RoomCalendar> rooms = new ConcurrentIntObjectMap<>();
+
+    /** Active holds by hold ID. */
+    private final ConcurrentHashMap<Long, Interval> holds = new ConcurrentHashMap<>();
+
+    private final AtomicLong holdIds = new AtomicLong();
+
+    private final HashedTimingWheel expiry = new HashedTimingWheel(1, TimeUnit.SECONDS, 512, "hold-expiry");
+
+    private final BookingDAO bookingDAO;
+
+    private final EventBus events;
+
+    private final AvailabilitySearchCache searchCache;
+
+    /**
+     * Creates an index that loads room calendars through the given DAO.
+     *
+     * @param bookingDAO  the DAO used to load current bookings
+     * @param events      the bus on which ended holds are published
+     * @param searchCache the availability searches to invalidate when a hold starts or ends
+     */
+    AvailabilityIndex(BookingDAO bookingDAO, EventBus events, AvailabilitySearchCache searchCache) {
+        this.bookingDAO = bookingDAO;
+        this.events = events;
+        this.searchCache = searchCache;
+    }
+
+    /**
+     * Returns the process-wide index.
+     *
+     * @return the shared index
+     */
+    public static AvailabilityIndex shared() {
+        return SHARED;
+    }
+
+    /**
+     * Places a hold on a room if the dates are free.
+     *
+     * @param roomId     the room to hold
+     * @param customerId the customer holding it
+     * @param checkIn    the first night
+     * @param checkOut   the departure date (exclusive)
+     * @param ttlMillis  how long the hold lasts
+     * @return the new hold
+     * @throws AvailabilityConflictException if the dates overlap a booking or another hold
+     * @throws Exception if the room's calendar cannot be loaded
+     */
+    public BookingHold hold(int roomId, int customerId, LocalDate checkIn, LocalDate checkOut, long ttlMillis)
+            throws Exception {
+        RoomCalendar cal = calendar(roomId);
+        cal.lock.lock();
+        try {
+            cal.ensureLoaded();
+            long now = System.currentTimeMillis();
+            if (cal.conflict(checkIn.toEpochDay(), checkOut.toEpochDay(), 0, now) != null)
+                throw new AvailabilityConflictException(BookingService.ROOM_UNAVAILABLE);
+
+            BookingHold h = new BookingHold();
+            h.setId(holdIds.incrementAndGet());
+            h.setRoomId(roomId);
+            h.setCustomerId(customerId);
+            h.setCheckIn(checkIn);
+            h.setCheckOut(checkOut);
+            h.setExpiresAt(Instant.ofEpochMilli(now + ttlMillis).toString());
+
+            Interval iv = new Interval(checkIn.toEpochDay(), checkOut.toEpochDay(), 0, h, now + ttlMillis);
+            cal.intervals.put(iv.start, iv);
+            holds.put(h.getId(), iv);
+            long id = h.getId();
+            iv.timeout = expiry.schedule(() -> expire(id), ttlMillis, TimeUnit.MILLISECONDS);
+            searchCache.invalidate(iv.start, iv.end);
+            return h;
+        } finally {
+            cal.lock.unlock();
+        }
+    }
+
+    /**
+     * Looks up an active hold.
+     *
+     * @param holdId the hold ID
+     * @return the hold, or {@code null} if it does not exist, was released or has expired
+     */
+    public BookingHold getHold(long holdId) {
+        Interval iv = holds.get(holdId);
+        return iv != null && iv.expiresAt > System.currentTimeMillis() ? iv.hold : null;
+    }
+
+    /**
+     * Releases a hold, freeing its dates.
+     *
+     * @param holdId the hold ID
+     * @return {@code true} if the hold was active
+     */
+    public boolean release(long holdId) {
+        Interval iv = holds.get(holdId);
+        if (iv == null || !drop(iv)) return false;
+        if (iv.timeout != null) iv.timeout.cancel();
+        boolean active = iv.expiresAt > System.currentTimeMillis();
+        events.publishDurable(new HoldReleased(iv.hold, !active));
+        return active;
+    }
+
+    /** Called by the expiry wheel when a hold's time is up. */
+    private void expire(long holdId) {
+        Interval iv = holds.get(holdId);
+        if (iv != null && drop(iv)) events.publishDurable(new HoldReleased(iv.hold, true));
+    }
+
+    /**
+     * Removes a hold from the index. The event is published by the caller after the room
+     * lock is released, since a handler may place holds of its own.
+     */
+    private boolean drop(Interval iv) {
+        RoomCalendar cal = calendar(iv.hold.getRoomId());
+        cal.lock.lock();
+        try {
+            if (!holds.remove(iv.hold.getId(), iv)) return false;
+            cal.intervals.remove(iv.start, iv);
+            searchCache.invalidate(iv.start, iv.end);
+            return true;
+        } finally {
+            cal.lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves a booking's dates and stores it, atomically with respect to every other
+     * reservation of the same room.
+     * <p>
+     * Under the room's lock the dates are checked against the calendar (ignoring the hold
+     * being converted, if any), {@code insert} is run, and on success the booking replaces
+     * the hold in the calendar. If {@code insert} throws, the calendar is left unchanged.
+     * </p>
+     *
+     * @param booking the booking to store; its room and dates are reserved
+     * @param holdId  the hold being converted into this booking, or {@code 0}
+     * @param insert  writes the booking and returns its ID
+     * @return the booking ID returned by {@code insert}
+     * @throws AvailabilityConflictException if the dates overlap another booking or hold
+     * @throws BusinessException if {@code holdId} is given but the hold is no longer active
+     * @throws Exception if {@code insert} or loading the calendar fails
+     */
+    public int book(Booking booking, long holdId, Callable<Integer> insert) throws Exception {
+        long start = booking.getCheckIn().toEpochDay();
+        long end = booking.getCheckOut().toEpochDay();
+        RoomCalendar cal = calendar(booking.getRoomId());
+        cal.lock.lock();
+        try {
+            cal.ensureLoaded();
+            long now = System.currentTimeMillis();
+            Interval held = null;
+            if (holdId != 0) {
+                held = holds.get(holdId);
+                if (held == null || held.expiresAt <= now || held.hold.getRoomId() != booking.getRoomId())
+                    throw new BusinessException(BookingService.HOLD_NOT_FOUND);
+            }
+            if (cal.conflict(start, end, holdId, now) != null)
+                throw new AvailabilityConflictException(BookingService.ROOM_UNAVAILABLE);
+
+            int id = insert.call();
+            if (id <= 0) return id;
+
+            if (held != null) {
+                holds.remove(holdId, held);
+                cal.intervals.remove(held.start, held);
+                if (held.timeout != null) held.timeout.cancel();
+            }
+            cal.add(new Interval(start, end, id, null, Long.MAX_VALUE));
+            return id;
+        } finally {
+            cal.lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves the dates of several bookings and stores them as one unit.
+     * <p>
+     * The rooms' locks are taken in ascending room ID order, so two group bookings sharing
+     * rooms cannot deadlock. Every booking is checked against the calendars before
+     * {@code insert} runs; on success all bookings are added to the calendars, on any
+     * failure none are.
+     * </p>
+     *
+     * @param bookings the bookings to store; must not overlap each other
+     * @param insert   writes all bookings and returns their IDs in order, or {@code null} if
+     *                 the database reports a conflict
+     * @return the booking IDs
+     * @throws AvailabilityConflictException if any booking overlaps a booking or hold
+     * @throws Exception if {@code insert} or loading a calendar fails
+     */
+    public int[] bookAll(List<Booking> bookings, Callable<int[]> insert) throws Exception {
+        TreeMap<Integer, RoomCalendar> locked = new TreeMap<>();
+        for (Booking b : bookings) locked.computeIfAbsent(b.getRoomId(), this::calendar);
+
+        List<RoomCalendar> acquired = new ArrayList<>(locked.size());
+        try {
+            for (RoomCalendar cal : locked.values()) {
+                cal.lock.lock();
+                acquired.add(cal);
+            }
+            long now = System.currentTimeMillis();
+            for (RoomCalendar cal : acquired) cal.ensureLoaded();
+            for (Booking b : bookings) {
+                RoomCalendar cal = locked.get(b.getRoomId());
+                if (cal.conflict(b.getCheckIn().toEpochDay(), b.getCheckOut().toEpochDay(), 0, now) != null)
+                    throw new AvailabilityConflictException("Room " + b.getRoomId() + " is not available from "
+                            + b.getCheckIn() + " to " + b.getCheckOut() + ".");
+            }
+
+            int[] ids = insert.call();
+            if (ids == null) throw new AvailabilityConflictException(BookingService.ROOM_UNAVAILABLE);
+
+            for (int i = 0; i < ids.length; i++) {
+                Booking b = bookings.get(i);
+                locked.get(b.getRoomId()).add(new Interval(b.getCheckIn().toEpochDay(), b.getCheckOut().toEpochDay(),
+                        ids[i], null, Long.MAX_VALUE));
+            }
+            return ids;
+        } finally {
+            for (int i = acquired.size() - 1; i >= 0; i--) acquired.get(i).lock.unlock();
+        }
+    }
+
+    /**
+     * Finds the free run of nights around a date range in one room.
+     *
+     * @param roomId the room
+     * @param start  the first night (epoch day)
+     * @param end    the departure day (epoch day, exclusive)
+     * @return {@code {gapStart, gapEnd}}, the end of the previous occupied interval (or
+     *         {@link Long#MIN_VALUE}) and the start of the next one (or {@link Long#MAX_VALUE});
+     *         {@code null} if the range is not free
+     * @throws Exception if the room's calendar cannot be loaded
+     */
+    public long[] freeGap(int roomId, long start, long end) throws Exception {
+        RoomCalendar cal = calendar(roomId);
+        cal.lock.lock();
+        try {
+            cal.ensureLoaded();
+            if (cal.conflict(start, end, 0, System.currentTimeMillis()) != null) return null;
+            Map.Entry<Long, Interval> prev = cal.intervals.lowerEntry(end);
+            Map.Entry<Long, Interval> next = cal.intervals.ceilingEntry(start);
+            return new long[]{prev != null ? prev.getValue().end : Long.MIN_VALUE,
+                    next != null ? next.getKey() : Long.MAX_VALUE};
+        } finally {
+            cal.lock.unlock();
+        }
+    }
+
+    /**
+     * Moves a booking to new dates and/or another room. Both rooms are locked (in room ID
+     * order) while the new range is checked and {@code update} runs, so nothing can take the
+     * new nights in between; the booking's own interval never counts as a conflict.
+     *
+     * @param before the booking as stored
+     * @param after  the booking with its new room and dates (same ID)
+     * @param update writes the change to the database; returns {@code false} if the booking
+     *               no longer exists
+     * @return the result of {@code update}
+     * @throws AvailabilityConflictException if the new range overlaps another booking or an
+     *         active hold, listing the clashing nights
+     * @throws Exception if {@code update} or loading a calendar fails
+     */
+    public boolean modify(Booking before, Booking after, Callable<Boolean> update) throws Exception {
+        long start = after.getCheckIn().toEpochDay();
+        long end = after.getCheckOut().toEpochDay();
+        return withRoomsLocked(Arrays.asList(before.getRoomId(), after.getRoomId()), () -> {
+            List<long[]> clashes = calendar(after.getRoomId())
+                    .overlapping(start, end, before.getId(), System.currentTimeMillis());
+            if (!clashes.isEmpty())
+                throw new AvailabilityConflictException(BookingService.ROOM_UNAVAILABLE,
+                        clashingNights(start, end, clashes));
+            if (!update.call()) return false;
+            moved(before, after);
+            return true;
+        });
+    }
+
+    /**
+     * Lists the nights of {@code [start, end)} covered by any of the given ranges.
+     *
+     * @param start  the first requested night (epoch day)
+     * @param end    the departure day (epoch day)
+     * @param ranges occupied {@code {start, end}} ranges
+     * @return the covered nights (YYYY-MM-DD), in date order without duplicates
+     */
+    static List<String> clashingNights(long start, long end, Collection<long[]> ranges) {
+        TreeSet<Long> nights = new TreeSet<>();
+        for (long[] r : ranges) {
+            for (long d = Math.max(start, r[0]); d < Math.min(end, r[1]); d++) nights.add(d);
+        }
+        List<String> out = new ArrayList<>(nights.size());
+        for (Long d : nights) out.add(LocalDate.ofEpochDay(d).toString());
+        return out;
+    }
+
+    /**
+     * Runs an action while holding the locks of several rooms, taken in ascending room ID
+     * order. No booking or hold can be placed on those rooms until it returns.
+     *
+     * @param roomIds the rooms to lock
+     * @param action  the action to run
+     * @param <T>     the result type
+     * @return the action's result
+     * @throws Exception if the action or loading a calendar fails
+     */
+    public <T> T withRoomsLocked(Collection<Integer> roomIds, Callable<T> action) throws Exception {
+        List<RoomCalendar> acquired = new ArrayList<>();
+        try {
+            for (Integer roomId : new TreeSet<>(roomIds)) {
+                RoomCalendar cal = calendar(roomId);
+                cal.lock.lock();
+                acquired.add(cal);
+                cal.ensureLoaded();
+            }
+            return action.call();
+        } finally {
+            for (int i = acquired.size() - 1; i >= 0; i--) acquired.get(i).lock.unlock();
+        }
+    }
+
+    /**
+     * Lists the active holds on a room.
+     *
+     * @param roomId the room
+     * @return the holds, ordered by check-in date
+     * @throws Exception if the room's calendar cannot be loaded
+     */
+    public List<BookingHold> holdsFor(int roomId) throws Exception {
+        RoomCalendar cal = calendar(roomId);
+        cal.lock.lock();
+        try {
+            cal.ensureLoaded();
+            long now = System.currentTimeMillis();
+            List<BookingHold> out = new ArrayList<>();
+            for (Interval iv : cal.intervals.values()) {
+                if (iv.hold != null && iv.expiresAt > now) out.add(iv.hold);
+            }
+            return out;
+        } finally {
+            cal.lock.unlock();
+        }
+    }
+
+    /**
+     * Lists the rooms with an active hold on any night of a range. Only the holds are
+     * scanned; no room calendar is loaded.
+     *
+     * @param from the first night (epoch day)
+     * @param to   the day after the last night (epoch day)
+     * @return the IDs of the held rooms
+     */
+    public IntHashSet heldRooms(long from, long to) {
+        IntHashSet ids = new IntHashSet();
+        long now = System.currentTimeMillis();
+        for (Interval iv : holds.values()) {
+            if (iv.expiresAt > now && iv.start < to && iv.end > from) ids.add(iv.hold.getRoomId());
+        }
+        return ids;
+    }
+
+    /**
+     * Counts, for each night of a range, how many of the given rooms are booked. Holds are
+     * not counted.
+     *
+     * @param roomIds the rooms
+     * @param from    the first night (epoch day)
+     * @param to      the day after the last night (epoch day)
+     * @return the number of booked rooms for each night, indexed from {@code from}
+     * @throws Exception if a room's calendar cannot be loaded
+     */
+    public int[] occupancy(int[] roomIds, long from, long to) throws Exception {
+        if (to <= from) return new int[0];
+        int[] diff = new int[(int) (to - from) + 1];
+        for (int roomId : roomIds) {
+            RoomCalendar cal = calendar(roomId);
+            cal.lock.lock();
+            try {
+                cal.ensureLoaded();
+                Long first = cal.intervals.floorKey(from);
+                for (Interval iv : cal.intervals.subMap(first != null ? first : from, true, to, false).values()) {
+                    if (iv.hold != null || iv.end <= from) continue;
+                    diff[(int) (Math.max(iv.start, from) - from)]++;
+                    diff[(int) (Math.min(iv.end, to) - from)]--;
+                }
+            } finally {
+                cal.lock.unlock();
+            }
+        }
+        int[] counts = new int[diff.length - 1];
+        int running = 0;
+        for (int i = 0; i < counts.length; i++) counts[i] = running += diff[i];
+        return counts;
+    }
+
+    /**
+     * Lists the occupied nights of a room within a range as runs, so a calendar row is a
+     * few numbers however many nights it covers.
+     *
+     * @param roomId the room
+     * @param from   the first night (epoch day)
+     * @param to     the day after the last night (epoch day)
+     * @return {@code {offset, length, held}} triples in date order, where {@code offset} is
+     *         counted from {@code from} and {@code held} is 1 for an active hold and 0 for a
+     *         booking
+     * @throws Exception if the room's calendar cannot be loaded
+     */
+    public int[] runs(int roomId, long from, long to) throws Exception {
+        if (to <= from) return new int[0];
+        RoomCalendar cal = calendar(roomId);
+        cal.lock.lock();
+        try {
+            cal.ensureLoaded();
+            long now = System.currentTimeMillis();
+            Long first = cal.intervals.floorKey(from);
+            Collection<Interval> in = cal.intervals.subMap(first != null ? first : from, true, to, false).values();
+            int[] out = new int[in.size() * 3];
+            int n = 0;
+            for (Interval iv : in) {
+                if (iv.end <= from || (iv.hold != null && iv.expiresAt <= now)) continue;
+                long start = Math.max(iv.start, from);
+                out[n++] = (int) (start - from);
+                out[n++] = (int) (Math.min(iv.end, to) - start);
+                out[n++] = iv.hold != null ? 1 : 0;
+            }
+            return n == out.length ? out : Arrays.copyOf(out, n);
+        } finally {
+            cal.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the nights of a range on which a room is taken, by a booking or an active
+     * hold, as a bit set.
+     *
+     * @param roomId the room
+     * @param from   the first night (epoch day)
+     * @param to     the day after the last night (epoch day)
+     * @return bit {@code i} (word {@code i >>> 6}, bit {@code i & 63}) is set if night
+     *         {@code from + i} is taken
+     * @throws Exception if the room's calendar cannot be loaded
+     */
+    public long[] takenNights(int roomId, long from, long to) throws Exception {
+        if (to <= from) return new long[0];
+        long[] bits = new long[(int) ((to - from + 63) >>> 6)];
+        RoomCalendar cal = calendar(roomId);
+        cal.lock.lock();
+        try {
+            cal.ensureLoaded();
+            long now = System.currentTimeMillis();
+            Long first = cal.intervals.floorKey(from);
+            for (Interval iv : cal.intervals.subMap(first != null ? first : from, true, to, false).values()) {
+                if (iv.end <= from || (iv.hold != null && iv.expiresAt <= now)) continue;
+                setRange(bits, (int) (Math.max(iv.start, from) - from), (int) (Math.min(iv.end, to) - from));
+            }
+            return bits;
+        } finally {
+            cal.lock.unlock();
+        }
+    }
+
+    /**
+     * Loads the calendars of several rooms that have not been used yet with one bulk query,
+     * instead of one query per room on first use.
+     *
+     * @param roomIds the rooms
+     * @throws Exception if the bookings cannot be loaded
+     */
+    public void preload(Collection<Integer> roomIds) throws Exception {
+        IntIntHashMap pending = new IntIntHashMap(roomIds.size());
+        for (Integer roomId : roomIds) {
+            RoomCalendar cal = calendar(roomId);
+            cal.lock.lock();
+            try {
+                if (!cal.loaded) pending.put(roomId, cal.changes);
+            } finally {
+                cal.lock.unlock();
+            }
+        }
+        if (pending.isEmpty()) return;
+
+        List<Integer> ids = new ArrayList<>(pending.size());
+        pending.forEach((roomId, changes) -> ids.add(roomId));
+        IntObjectHashMap<List<BookingRecord>> byRoom = new IntObjectHashMap<>(pending.size());
+        for (BookingRecord b : bookingDAO.getCurrentForRooms(ids, LocalDate.now())) {
+            byRoom.computeIfAbsent(b.getRoomId(), k -> new ArrayList<>()).add(b);
+        }
+        pending.forEach((roomId, changes) -> {
+            RoomCalendar cal = calendar(roomId);
+            cal.lock.lock();
+            try {
+                // A booking moved or removed since the query leaves the room to load on first use.
+                if (!cal.loaded && cal.changes == changes) {
+                    List<BookingRecord> bookings = byRoom.get(roomId);
+                    cal.load(bookings != null ? bookings : Collections.emptyList());
+                }
+            } finally {
+                cal.lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Reloads a room's bookings from the database after they were changed in bulk. Active
+     * holds are kept.
+     *
+     * @param roomId the room
+     * @throws Exception if the bookings cannot be loaded
+     */
+    public void reload(int roomId) throws Exception {
+        RoomCalendar cal = calendar(roomId);
+        cal.lock.lock();
+        try {
+            cal.intervals.values().removeIf(iv -> iv.hold == null);
+            cal.loaded = false;
+            cal.ensureLoaded();
+        } finally {
+            cal.lock.unlock();
+        }
+    }
+
+    /**
+     * Records that a booking's room or dates have changed.
+     *
+     * @param before the booking before the change
+     * @param after  the booking after the change
+     */
+    public void moved(Booking before, Booking after) {
+        removed(before);
+        RoomCalendar cal = rooms.get(after.getRoomId());
+        if (cal == null) return;
+        cal.lock.lock();
+        try {
+            cal.changes++;
+            if (cal.loaded) cal.add(new Interval(after.getCheckIn().toEpochDay(), after.getCheckOut().toEpochDay(),
+                    after.getId(), null, Long.MAX_VALUE));
+        } finally {
+            cal.lock.unlock();
+        }
+    }
+
+    /**
+     * Records that a booking no longer occupies its dates.
+     *
+     * @param booking the booking as it was
+     */
+    public void removed(Booking booking) {
+        RoomCalendar cal = rooms.get(booking.getRoomId());
+        if (cal == null) return;
+        cal.lock.lock();
+        try {
+            cal.changes++;
+            Interval iv = cal.intervals.get(booking.getCheckIn().toEpochDay());
+            if (iv != null && iv.bookingId == booking.getId()) cal.intervals.remove(iv.start);
+        } finally {
+            cal.lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the expiry timer. Active holds stay in place until their room is next used.
+     */
+    public void stop() {
+        expiry.stop();
+    }
+
+    private RoomCalendar calendar(int roomId) {
+        return rooms.computeIfAbsent(roomId, RoomCalendar::new);
+    }
+
+    /** Sets bits {@code [from, to)}. */
+    private static void setRange(long[] bits, int from, int to) {
+        int fw = from >>> 6, tw = (to - 1) >>> 6;
+        long first = -1L << from, last = -1L >>> -to;
+        if (fw == tw) {
+            bits[fw] |= first & last;
+            return;
+        }
+        bits[fw] |= first;
+        for (int w = fw + 1; w < tw; w++) bits[w] = -1L;
+        bits[tw] |= last;
+    }
+
+    /** The occupied intervals of one room. */
+    private final class RoomCalendar {
+
+        final int roomId;
+        final ReentrantLock lock = new ReentrantLock();
+        final TreeMap<Long, Interval> intervals = new TreeMap<>();
+        boolean loaded;
+
+        /** Incremented by every booking change, so a bulk load that raced with one is dropped. */
+        int changes;
+
+        RoomCalendar(int roomId) {
+            this.roomId = roomId;
+        }
+
+        /** Loads current bookings on first use and prunes past intervals. Caller holds the lock. */
+        void ensureLoaded() throws Exception {
+            long today = LocalDate.now().toEpochDay();
+            if (!loaded) load(bookingDAO.getCurrentForRoom(roomId, LocalDate.now()));
+            Map.Entry<Long, Interval> first;
+            while ((first = intervals.firstEntry()) != null && first.getValue().end <= today) {
+                intervals.pollFirstEntry();
+            }
+        }
+
+        /** Adds the room's current bookings and marks it loaded. Caller holds the lock. */
+        void load(List<BookingRecord> bookings) {
+            for (BookingRecord b : bookings) {
+                add(new Interval(b.getCheckIn(), b.getCheckOut(), b.getId(), null, Long.MAX_VALUE));
+            }
+            loaded = true;
+        }
+
+        /**
+         * Finds an interval overlapping {@code [start, end)}, skipping the hold
+         * {@code ignoreHold} and dropping expired holds on the way. A dropped hold stays
+         * registered until the wheel fires, which publishes its {@link HoldReleased}.
+         */
+        Interval conflict(long start, long end, long ignoreHold, long now) {
+            Map.Entry<Long, Interval> e = intervals.lowerEntry(end);
+            while (e != null && e.getValue().end > start) {
+                Interval iv = e.getValue();
+                Long key = e.getKey();
+                if (iv.hold != null && iv.expiresAt <= now) {
+                    intervals.remove(key);
+                } else if (iv.hold == null || iv.hold.getId() != ignoreHold) {
+                    return iv;
+                }
+                e = intervals.lowerEntry(key);
+            }
+            return null;
+        }
+
+        /**
+         * Lists the {@code {start, end}} of every interval overlapping {@code [start, end)}
+         * other than the booking {@code ignoreBooking}, dropping expired holds on the way.
+         */
+        List<long[]> overlapping(long start, long end, int ignoreBooking, long now) {
+            List<long[]> out = new ArrayList<>();
+            Map.Entry<Long, Interval> e = intervals.lowerEntry(end);
+            while (e != null && e.getValue().end > start) {
+                Interval iv = e.getValue();
+                Long key = e.getKey();
+                if (iv.hold != null && iv.expiresAt <= now) {
+                    intervals.remove(key);
+                } else if (iv.hold != null || iv.bookingId != ignoreBooking) {
+                    out.add(new long[]{iv.start, iv.end});
+                }
+                e = intervals.lowerEntry(key);
+            }
+            return out;
+        }
+
+        /**
+         * Adds a booking interval. Bookings that overlap an existing interval (possible only
+         * for data written outside this index) are left out; the database check covers them.
+         */
+        void add(Interval iv) {
+            if (iv.end <= iv.start || conflict(iv.start, iv.end, 0, System.currentTimeMillis()) != null) return;
+            intervals.put(iv.start, iv);
+        }
+    }
+
+    /** One occupied date range: a booking ({@code bookingId > 0}) or a hold. */
+    private static final class Interval {
+
+        final long start;
+        final long end;
+        final int bookingId;
+        final BookingHold hold;
+        final long expiresAt;
+        HashedTimingWheel.Timeout timeout;
+
+        Interval(long start, long end, int bookingId, BookingHold hold, long expiresAt) {
+            this.start = start;
+            this.end = end;
+            this.bookingId = bookingId;
+            this.hold = hold;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.model.Room;
+import com.hotelbooking.model.RoomRecord;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Cache of availability search results, used by {@link RoomService#findAvailableRooms}.
+ * <p>
+ * Results are keyed by stay dates and room type. A booking change invalidates only the
+ * entries whose stay overlaps the changed nights: entries are also indexed by check-in
+ * day, and since no cached stay is longer than the longest one seen, every overlapping
+ * entry checks in within {@code [from - longest + 1, to)}. That is one range scan over the
+ * index, however many unrelated searches are cached.
+ * </p>
+ *
+ * <p>Rooms are stored as {@link RoomRecord}s and copied out on every hit, so a cached
+ * result is compact and cannot be changed through a returned {@link Room}.</p>
+ *
+ * <p>At most {@value #MAX_ENTRIES} results are kept, least recently used first out, each
+ * for at most {@value #TTL_MILLIS} ms so that bookings written by other processes show up.
+ * A result computed while any booking or hold changed is not stored, since it may predate the
+ * change.</p>
+ */
+final class AvailabilitySearchCache {
+
+    /** Most results kept at once. */
+    static final int MAX_ENTRIES = 1024;
+
+    /** Longest a result is served, in milliseconds. */
+    static final long TTL_MILLIS = 60_000;
+
+    private static final AvailabilitySearchCache SHARED = new AvailabilitySearchCache();
+
+    /** Results in access order; guarded by {@code this}. */
+    private final LinkedHashMap<Key, Cached> entries = new LinkedHashMap<Key, Cached>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Cached> eldest) {
+            if (size() <= MAX_ENTRIES) return false;
+            unindex(eldest.getKey());
+            return true;
+        }
+    };
+
+    /** Cached keys by check-in day; guarded by {@code this}. */
+    private final TreeMap<Long, Set<Key>> byCheckIn = new TreeMap<>();
+
+    /** Longest cached stay, in nights; only shrinks on {@link #clear()}. */
+    private long longest;
+
+    /** Incremented by every invalidation. */
+    private long changes;
+
+    static AvailabilitySearchCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the version to pass to {@link #put}, read before computing a result.
+     *
+     * @return the current version
+     */
+    synchronized long version() {
+        return changes;
+    }
+
+    /**
+     * Looks up a result.
+     *
+     * @param checkIn  the check-in day (epoch day)
+     * @param checkOut the check-out day (epoch day)
+     * @param roomType the room type filter, or {@code null}
+     * @return copies of the cached rooms, or {@code null} on a miss
+     */
+    synchronized List<Room> get(long checkIn, long checkOut, String roomType) {
+        Key key = new Key(checkIn, checkOut, roomType);
+        Cached e = entries.get(key);
+        if (e == null) return null;
+        if (System.currentTimeMillis() - e.storedAt > TTL_MILLIS) {
+            entries.remove(key);
+            unindex(key);
+            return null;
+        }
+        List<Room> rooms = new ArrayList<>(e.rooms.length);
+        for (RoomRecord r : e.rooms) rooms.add(r.toRoom());
+        return rooms;
+    }
+
+    /**
+     * Stores a result, unless a booking or hold changed since {@code version} was read.
+     *
+     * @param checkIn  the check-in day (epoch day)
+     * @param checkOut the check-out day (epoch day)
+     * @param roomType the room type filter, or {@code null}
+     * @param rooms    the available rooms
+     * @param version  the {@link #version()} read before the result was computed
+     */
+    synchronized void put(long checkIn, long checkOut, String roomType, List<Room> rooms, long version) {
+        if (version != changes) return;
+        Key key = new Key(checkIn, checkOut, roomType);
+        RoomRecord[] records = new RoomRecord[rooms.size()];
+        for (int i = 0; i < records.length; i++) records[i] = RoomRecord.of(rooms.get(i));
+        if (entries.put(key, new Cached(records)) == null) {
+            byCheckIn.computeIfAbsent(checkIn, k -> new HashSet<>()).add(key);
+            longest = Math.max(longest, checkOut - checkIn);
+        }
+    }
+
+    /**
+     * Drops the results whose stay overlaps the nights {@code [from, to)}.
+     *
+     * @param from the first changed night (epoch day)
+     * @param to   the day after the last changed night (epoch day)
+     */
+    synchronized void invalidate(long from, long to) {
+        changes++;
+        if (to <= from || byCheckIn.isEmpty()) return;
+        long lowest = from > Long.MIN_VALUE + longest ? from - longest + 1 : Long.MIN_VALUE;
+        Iterator<Set<Key>> days = byCheckIn.subMap(lowest, true, to, false).values().iterator();
+        while (days.hasNext()) {
+            Set<Key> keys = days.next();
+            keys.removeIf(k -> {
+                if (k.checkOut <= from) return false;
+                entries.remove(k);
+                return true;
+            });
+            if (keys.isEmpty()) days.remove();
+        }
+    }
+
+    /**
+     * Drops every result, after rooms themselves were added, changed or removed.
+     */
+    synchronized void clear() {
+        changes++;
+        entries.clear();
+        byCheckIn.clear();
+        longest = 0;
+    }
+
+    /** Removes a key from the check-in index. Caller holds {@code this}. */
+    private void unindex(Key key) {
+        Set<Key> keys = byCheckIn.get(key.checkIn);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) byCheckIn.remove(key.checkIn);
+    }
+
+    /** Stay dates and filters of a search. */
+    private static final class Key {
+
+        final long checkIn;
+        final long checkOut;
+        final String roomType;
+
+        Key(long checkIn, long checkOut, String roomType) {
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+            this.roomType = roomType != null ? roomType.toLowerCase(Locale.ROOT) : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return checkIn == k.checkIn && checkOut == k.checkOut && Objects.equals(roomType, k.roomType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(checkIn, checkOut, roomType);
+        }
+    }
+
+    /** A stored result. */
+    private static final class Cached {
+
+        final RoomRecord[] rooms;
+        final long storedAt = System.currentTimeMillis();
+
+        Cached(RoomRecord[] rooms) {
+            this.rooms = rooms;
+        }
+    }
+}
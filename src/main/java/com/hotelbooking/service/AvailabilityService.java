@@ -0,0 +1,113 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.dao.RoomDAO;
+import com.hotelbooking.model.Room;
+import com.hotelbooking.utils.LocalDateDeserializer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code AvailabilityService} builds the rooms &times; nights occupancy grid shown by the
+ * front-desk calendar.
+ * <p>
+ * The grid is read from the in-memory {@link AvailabilityIndex}, not from the bookings
+ * table: rooms whose calendars are not loaded yet are loaded with one bulk query, and every
+ * row is then a range lookup in the room's interval map. Rows are handed to a
+ * {@link GridVisitor} one room at a time, so the caller can stream them without holding the
+ * whole grid.
+ * </p>
+ */
+public class AvailabilityService {
+
+    /** Longest range that can be requested in one grid, in nights. */
+    public static final int MAX_GRID_NIGHTS = 366;
+
+    private final RoomDAO roomDAO;
+    private final AvailabilityIndex availability;
+
+    /**
+     * Creates a service over the shared availability index.
+     */
+    public AvailabilityService() {
+        this(new RoomDAO(), AvailabilityIndex.shared());
+    }
+
+    /**
+     * Creates a service over the given rooms and index.
+     *
+     * @param roomDAO      the DAO the rooms are listed from
+     * @param availability the occupancy calendars
+     */
+    AvailabilityService(RoomDAO roomDAO, AvailabilityIndex availability) {
+        this.roomDAO = roomDAO;
+        this.availability = availability;
+    }
+
+    /**
+     * Receives the rows of an occupancy grid.
+     */
+    public interface GridVisitor {
+
+        /**
+         * Called once before the first row.
+         *
+         * @param from   the first night
+         * @param to     the day after the last night
+         * @param nights the number of nights in each row
+         * @throws Exception if the grid cannot be written
+         */
+        void start(LocalDate from, LocalDate to, int nights) throws Exception;
+
+        /**
+         * Called for each room, in room ID order.
+         *
+         * @param room the room
+         * @param runs the room's occupied nights as {@code {offset, length, held}} triples
+         *             (see {@link AvailabilityIndex#runs(int, long, long)})
+         * @throws Exception if the row cannot be written
+         */
+        void row(Room room, int[] runs) throws Exception;
+    }
+
+    /**
+     * Walks the occupancy grid of a date range.
+     *
+     * @param from     the first night (YYYY-MM-DD)
+     * @param to       the day after the last night (YYYY-MM-DD)
+     * @param roomType the room type to include (case-insensitive), or {@code null} for all rooms
+     * @param visitor  receives the grid
+     * @throws BusinessException if the dates are missing or invalid
+     * @throws IllegalArgumentException if a date is not in YYYY-MM-DD format
+     * @throws Exception if a DAO or database error occurs, or the visitor fails
+     */
+    public void grid(String from, String to, String roomType, GridVisitor visitor) throws Exception {
+        if (from == null || to == null)
+            throw new BusinessException("from and to dates are required.");
+        LocalDate start = LocalDateDeserializer.parse(from);
+        LocalDate end = LocalDateDeserializer.parse(to);
+        if (!end.isAfter(start))
+            throw new BusinessException("to must be after from.");
+        if (start.isBefore(LocalDate.now()))
+            throw new BusinessException("from cannot be in the past.");
+        long nights = end.toEpochDay() - start.toEpochDay();
+        if (nights > MAX_GRID_NIGHTS)
+            throw new BusinessException("A grid may cover at most " + MAX_GRID_NIGHTS + " nights.");
+
+        List<Room> rooms = new ArrayList<>();
+        List<Integer> roomIds = new ArrayList<>();
+        for (Room r : roomDAO.getAll()) {
+            if (roomType != null && !roomType.equalsIgnoreCase(r.getRoomType())) continue;
+            rooms.add(r);
+            roomIds.add(r.getId());
+        }
+        rooms.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        availability.preload(roomIds);
+
+        visitor.start(start, end, (int) nights);
+        for (Room r : rooms) {
+            visitor.row(r, availability.runs(r.getId(), start.toEpochDay(), end.toEpochDay()));
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.hotelbooking.service;
 
+import com.hotelbooking.dao.BookingDAO;
+import com.hotelbooking.dao.BookingHistoryArchive;
 import com.hotelbooking.dao.BookingHistoryDAO;
 import com.hotelbooking.model.BookingHistory;
+import com.hotelbooking.model.BookingHistoryPage;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * {@code BookingHistoryService} provides business logic for retrieving
@@ -15,6 +23,9 @@ import java.util.List;
  * <h3>Responsibilities:</h3>
  * <ul>
  *     <li>Fetch complete booking history for a given customer.</li>
+ *     <li>Fetch booking history one page at a time (newest first).</li>
+ *     <li>Move completed bookings older than the archive horizon into {@link BookingHistoryArchive}
+ *         and merge archived rows back into history reads.</li>
  *     <li>Validate customer identifiers before data retrieval.</li>
  * </ul>
  *
@@ -29,12 +40,24 @@ import java.util.List;
  */
 public class BookingHistoryService {
 
+    /** Largest page size a caller may request. */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /** Number of bookings moved to the archive per batch. */
+    private static final int ARCHIVE_BATCH_SIZE = 500;
+
     /** Data Access Object for booking history operations. */
     private final BookingHistoryDAO dao = new BookingHistoryDAO();
 
+    /** Data Access Object used to remove archived bookings from the hot table. */
+    private final BookingDAO bookingDAO = new BookingDAO();
+
     /**
      * Retrieves all historical bookings for a specific customer.
      * <p>
+     * Rows still in the {@code bookings} table come first, followed by rows moved to the
+     * history archive.
+     * <p>
      * Validation:
      * <ul>
      *     <li>Customer ID must be a positive integer.</li>
@@ -48,6 +71,171 @@ public class BookingHistoryService {
     public List<BookingHistory> getHistoryForCustomer(int customerId) throws Exception {
         if (customerId <= 0)
             throw new BusinessException("Invalid customer id");
-        return dao.getHistoryByCustomer(customerId);
+        List<BookingHistory> hot = dao.getHistoryByCustomer(customerId);
+        List<BookingHistory> archived = BookingHistoryArchive.shared().read(customerId);
+        if (archived.isEmpty()) return hot;
+
+        Set<Integer> hotIds = new HashSet<>();
+        for (BookingHistory h : hot) hotIds.add(h.getBookingId());
+        for (BookingHistory h : archived) {
+            if (!hotIds.contains(h.getBookingId())) hot.add(h);
+        }
+        return hot;
+    }
+
+    /**
+     * Retrieves one page of a customer's booking history, newest stay first.
+     * <p>
+     * The first page at the default size is served from the per-customer cache
+     * maintained by {@link BookingHistoryDAO#getBookingHistory(int)}; other pages go
+     * straight to the keyset-paginated query. Once the hot table runs out of rows, the
+     * page is filled from the history archive using the same {@code (checkIn, bookingId)}
+     * cursor, so callers page through hot and archived history seamlessly.
+     * <p>
+     * Validation:
+     * <ul>
+     *     <li>Customer ID must be a positive integer.</li>
+     *     <li>Page size must be between 1 and {@link #MAX_PAGE_SIZE}.</li>
+     *     <li>The cursor fields must be given together or not at all.</li>
+     * </ul>
+     *
+     * @param customerId      the unique identifier of the customer
+     * @param beforeCheckIn   check-in date cursor from the previous page, or {@code null}
+     * @param beforeBookingId booking ID cursor from the previous page, or {@code null}
+     * @param limit           number of bookings per page
+     * @return the requested {@link BookingHistoryPage}
+     * @throws BusinessException if any argument is invalid
+     * @throws Exception if a DAO or database error occurs
+     */
+    public BookingHistoryPage getHistoryPage(int customerId, LocalDate beforeCheckIn, Integer beforeBookingId,
+                                             int limit) throws Exception {
+        if (customerId <= 0)
+            throw new BusinessException("Invalid customer id");
+        if (limit < 1 || limit > MAX_PAGE_SIZE)
+            throw new BusinessException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        if ((beforeCheckIn == null) != (beforeBookingId == null))
+            throw new BusinessException("before and beforeId must be provided together");
+
+        BookingHistoryPage page;
+        if (beforeCheckIn == null && limit == BookingHistoryDAO.DEFAULT_PAGE_SIZE)
+            page = dao.getBookingHistory(customerId);
+        else
+            page = dao.getBookingHistory(customerId, beforeCheckIn, beforeBookingId, limit);
+
+        if (page.isHasMore()) return page;
+        return fillFromArchive(page, customerId, beforeCheckIn, beforeBookingId, limit);
+    }
+
+    /**
+     * Moves completed bookings that checked out before {@code horizon} into the history
+     * archive, in batches of {@value #ARCHIVE_BATCH_SIZE} bookings.
+     * <p>
+     * Each batch is written and forced to the archive before the bookings (and their
+     * payments) are deleted from the database, so a failure never loses history; at worst
+     * a batch is archived twice and de-duplicated on read.
+     *
+     * @param horizon bookings with a check-out date strictly before this date are archived
+     * @return the number of bookings archived
+     * @throws BusinessException if {@code horizon} is {@code null} or in the future
+     * @throws Exception if a DAO, database or archive I/O error occurs
+     */
+    public int archiveCompletedBefore(LocalDate horizon) throws Exception {
+        if (horizon == null)
+            throw new BusinessException("Archive horizon required");
+        if (horizon.isAfter(LocalDate.now()))
+            throw new BusinessException("Archive horizon cannot be in the future");
+
+        BookingHistoryArchive archive = BookingHistoryArchive.shared();
+        int archived = 0;
+        while (true) {
+            List<BookingHistory> rows = dao.getCompletedBefore(horizon, ARCHIVE_BATCH_SIZE);
+            if (rows.isEmpty()) break;
+
+            archive.append(rows);
+            Set<Integer> ids = new LinkedHashSet<>();
+            for (BookingHistory h : rows) ids.add(h.getBookingId());
+            bookingDAO.deleteArchived(ids);
+            archived += ids.size();
+        }
+        if (archived > 0) AvailabilitySearchCache.shared().invalidate(Long.MIN_VALUE, horizon.toEpochDay());
+        return archived;
+    }
+
+    /**
+     * Archives bookings older than the configured horizon
+     * ({@link BookingHistoryArchive#horizonDays()} days before today).
+     *
+     * @return the number of bookings archived
+     * @throws Exception if a DAO, database or archive I/O error occurs
+     */
+    public int archiveCompleted() throws Exception {
+        return archiveCompletedBefore(LocalDate.now().minusDays(BookingHistoryArchive.horizonDays()));
+    }
+
+    /**
+     * Tops up a final hot-table page with archived rows that sort after the cursor.
+     *
+     * @param page            the last page from the hot table (no more hot rows follow)
+     * @param customerId      the customer whose history is requested
+     * @param beforeCheckIn   the caller's check-in cursor, or {@code null}
+     * @param beforeBookingId the caller's booking ID cursor, or {@code null}
+     * @param limit           number of bookings per page
+     * @return the page, extended with archived rows and a new cursor if more remain
+     * @throws Exception if the archive cannot be read
+     */
+    private BookingHistoryPage fillFromArchive(BookingHistoryPage page, int customerId, LocalDate beforeCheckIn,
+                                               Integer beforeBookingId, int limit) throws Exception {
+        List<BookingHistory> archived = BookingHistoryArchive.shared().read(customerId);
+        if (archived.isEmpty()) return page;
+
+        List<BookingHistory> items = new ArrayList<>(page.getItems());
+        Set<Integer> seen = new LinkedHashSet<>();
+        for (BookingHistory h : items) seen.add(h.getBookingId());
+        int bookings = seen.size();
+
+        // If the hot page had rows, continue after its last row; otherwise after the caller's cursor.
+        LocalDate cursorCheckIn = beforeCheckIn;
+        Integer cursorId = beforeBookingId;
+        if (!items.isEmpty()) {
+            BookingHistory last = items.get(items.size() - 1);
+            cursorCheckIn = last.getCheckIn();
+            cursorId = last.getBookingId();
+        }
+
+        boolean hasMore = false;
+        int lastBookingId = 0;
+        for (BookingHistory h : archived) {
+            if (cursorCheckIn != null && !isBefore(h, cursorCheckIn, cursorId)) continue;
+            if (h.getBookingId() != lastBookingId) {
+                if (seen.contains(h.getBookingId())) continue;
+                if (bookings == limit) {
+                    hasMore = true;
+                    break;
+                }
+                bookings++;
+                seen.add(h.getBookingId());
+                lastBookingId = h.getBookingId();
+            }
+            items.add(h);
+        }
+
+        BookingHistoryPage out = new BookingHistoryPage();
+        out.setItems(items);
+        out.setHasMore(hasMore);
+        if (hasMore) {
+            BookingHistory last = items.get(items.size() - 1);
+            out.setNextCheckIn(last.getCheckIn());
+            out.setNextBookingId(last.getBookingId());
+        }
+        return out;
+    }
+
+    /**
+     * Checks whether a row sorts strictly after the cursor in newest-first order.
+     */
+    private static boolean isBefore(BookingHistory h, LocalDate checkIn, int bookingId) {
+        if (h.getCheckIn() == null) return true;
+        int c = h.getCheckIn().compareTo(checkIn);
+        return c < 0 || (c == 0 && h.getBookingId() < bookingId);
     }
 }
@@ -0,0 +1,121 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.dao.NotificationDAO;
+import com.hotelbooking.delivery.DeliveryChannels;
+import com.hotelbooking.event.BookingCancelled;
+import com.hotelbooking.event.BookingCreated;
+import com.hotelbooking.event.BookingEvent;
+import com.hotelbooking.event.BookingUpdated;
+import com.hotelbooking.event.EventBus;
+import com.hotelbooking.event.PaymentCaptured;
+import com.hotelbooking.model.Notification;
+import com.hotelbooking.utils.SqlUtil;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * The follow-up records of one booking or payment change, written in that change's own
+ * transaction.
+ * <p>
+ * An instance is passed to the DAO write as its {@link SqlUtil.TransactionStep}. When the
+ * step runs, the generated IDs are already set, so each event is built then, recorded for
+ * the bus's durable handlers and the guest's notification about it stored, with its outbox
+ * deliveries, on the DAO's connection: the event rows and the notification exist if and only
+ * if the change was committed. Once the DAO call has returned, {@link #publish()} pushes the
+ * stored notifications to the in-memory inbox and live subscribers and publishes the events
+ * to the bus's best-effort handlers.
+ * </p>
+ *
+ * <p>Instances are single-use and not thread-safe.</p>
+ */
+final class BookingOutbox implements SqlUtil.TransactionStep {
+
+    private final NotificationDAO notificationDAO = new NotificationDAO();
+
+    private final List<Supplier<? extends BookingEvent>> pending = new ArrayList<>();
+
+    private final List<BookingEvent> events = new ArrayList<>();
+
+    private final List<Notification> notices = new ArrayList<>();
+
+    /**
+     * Adds an event to record; {@code event} is called inside the transaction, after the
+     * change has been written.
+     *
+     * @param event builds the event
+     * @return this outbox
+     */
+    BookingOutbox add(Supplier<? extends BookingEvent> event) {
+        pending.add(event);
+        return this;
+    }
+
+    @Override
+    public void run(Connection c) throws Exception {
+        events.clear();
+        notices.clear();
+        for (Supplier<? extends BookingEvent> s : pending) {
+            BookingEvent event = s.get();
+            events.add(event);
+            EventBus.shared().record(c, event);
+            Notification n = notice(event);
+            if (n != null) {
+                n.setId(notificationDAO.createNotification(c, n, DeliveryChannels.enabledNames()));
+                notices.add(n);
+            }
+        }
+    }
+
+    /**
+     * Announces the recorded notifications and publishes the recorded events. Call only after
+     * the DAO write has committed.
+     *
+     * @throws Exception if a stored notification cannot be read back
+     */
+    void publish() throws Exception {
+        NotificationService notifications = new NotificationService();
+        for (Notification n : notices) notifications.announce(n.getId());
+        EventBus bus = EventBus.shared();
+        for (BookingEvent event : events) bus.publish(event);
+    }
+
+    /**
+     * Builds the notification that tells the guest about an event.
+     *
+     * @param event the event
+     * @return the notification, or {@code null} if the event is not announced to the guest
+     */
+    static Notification notice(BookingEvent event) {
+        Notification n = new Notification();
+        n.setUserId(event.getCustomerId());
+        n.setBookingId(event.getBookingId());
+
+        if (event instanceof BookingCreated) {
+            n.setTitle("Booking Confirmed");
+            n.setMessage("Your booking #" + event.getBookingId() + " for room " + event.getRoomId()
+                    + " from " + event.getCheckIn() + " to " + event.getCheckOut() + " has been confirmed.");
+        } else if (event instanceof BookingUpdated) {
+            n.setTitle("Booking Updated");
+            n.setMessage("Your booking #" + event.getBookingId() + " is now for room " + event.getRoomId()
+                    + " from " + event.getCheckIn() + " to " + event.getCheckOut() + ".");
+        } else if (event instanceof BookingCancelled) {
+            // The booking row is gone, so the notification must not reference it.
+            n.setBookingId(null);
+            n.setTitle("Booking Cancelled");
+            n.setMessage("Your booking #" + event.getBookingId() + " from " + event.getCheckIn()
+                    + " to " + event.getCheckOut() + " has been cancelled.");
+        } else if (event instanceof PaymentCaptured) {
+            PaymentCaptured p = (PaymentCaptured) event;
+            n.setTitle("Payment Received");
+            n.setMessage(String.format(Locale.ROOT, "We received your payment of %.2f for booking #%d.",
+                    p.getAmount(), p.getBookingId()));
+        } else {
+            return null;
+        }
+        return n;
+    }
+}
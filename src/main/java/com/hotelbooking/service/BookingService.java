@@ -1,10 +1,22 @@
 package com.hotelbooking.service;
 
 import com.hotelbooking.dao.BookingDAO;
+import com.hotelbooking.dao.RoomDAO;
+import com.hotelbooking.event.BookingCancelled;
+import com.hotelbooking.event.BookingCreated;
+import com.hotelbooking.event.BookingUpdated;
+import com.hotelbooking.event.EventBus;
 import com.hotelbooking.model.Booking;
+import com.hotelbooking.model.BookingHold;
+import com.hotelbooking.model.Room;
 
-import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * {@code BookingService} provides business logic and validation for managing hotel room bookings.
@@ -13,6 +25,11 @@ import java.util.List;
  * and delegates database operations to the {@link BookingDAO}.
  * It ensures that bookings respect logical constraints such as valid date ranges
  * and available room inventory.
+ * <p>
+ * Every change stores the guest's notification in its own transaction (see
+ * {@link BookingOutbox}) and, once committed, publishes a booking lifecycle event on the
+ * {@link EventBus}; other follow-up work is done by the bus's handlers, not in the calling
+ * request.
  *
  * <h3>Responsibilities:</h3>
  * <ul>
@@ -20,7 +37,11 @@ import java.util.List;
  *     <li>Create bookings with validation and availability checks.</li>
  *     <li>Update existing bookings after validation.</li>
  *     <li>Cancel bookings safely.</li>
+ *     <li>Place, confirm and release short-lived holds on a room.</li>
  * </ul>
+ * <p>
+ * Reservations go through the shared {@link AvailabilityIndex}, which serializes the
+ * availability check and the insert per room and also accounts for active holds.
  *
  * <h3>Example Usage:</h3>
  * <pre>
@@ -28,8 +49,8 @@ import java.util.List;
  * Booking b = new Booking();
  * b.setCustomerId(10);
  * b.setRoomId(5);
- * b.setCheckIn("2025-12-01");
- * b.setCheckOut("2025-12-05");
+ * b.setCheckIn(LocalDate.of(2025, 12, 1));
+ * b.setCheckOut(LocalDate.of(2025, 12, 5));
  * int id = service.createBooking(b);
  * </pre>
  *
@@ -38,9 +59,36 @@ import java.util.List;
  */
 public class BookingService {
 
+    /** Message of the {@link BusinessException} thrown when the room is already booked. */
+    public static final String ROOM_UNAVAILABLE = "Room is not available for the selected dates.";
+
+    /** Message of the {@link BusinessException} thrown for an unknown or expired hold. */
+    public static final String HOLD_NOT_FOUND = "Hold not found or expired";
+
+    /** Hold length used when none is requested. */
+    public static final int DEFAULT_HOLD_MINUTES = 15;
+
+    /** Longest hold a guest may place. */
+    public static final int MAX_HOLD_MINUTES = 60;
+
+    /** Largest number of rooms in one group booking. */
+    public static final int MAX_GROUP_SIZE = 250;
+
     /** Data Access Object responsible for booking persistence. */
     private final BookingDAO bookingDAO = new BookingDAO();
 
+    /** DAO used to check that the booked room exists. */
+    private final RoomDAO roomDAO = new RoomDAO();
+
+    /** Occupancy calendar used to reserve dates atomically. */
+    private final AvailabilityIndex availability = AvailabilityIndex.shared();
+
+    /** Cached availability searches, invalidated by every booking change. */
+    private final AvailabilitySearchCache searchCache = AvailabilitySearchCache.shared();
+
+    /** Chooses a concrete room for bookings made by room type. */
+    private final RoomAssignmentService assignment = new RoomAssignmentService();
+
     /**
      * Retrieves all bookings in the system.
      *
@@ -67,48 +115,228 @@ public class BookingService {
      * <p>
      * Business validation rules:
      * <ul>
-     *     <li>Check-in and Check-out dates must not be {@code null}.</li>
-     *     <li>The selected room must be available for the desired date range.</li>
+     *     <li>Check-in and Check-out dates must not be {@code null}, and check-out must be later.</li>
+     *     <li>The selected room must exist.</li>
+     *     <li>The selected room must be free of bookings and active holds for the date range.</li>
      * </ul>
-     * This method converts date strings to {@link java.sql.Date} before validation.
+     * If the booking names a {@code roomType} instead of a {@code roomId}, the free room of
+     * that type that leaves the fewest short gaps is chosen (see {@link RoomAssignmentService})
+     * and written back to {@code booking}, which is flagged {@link Booking#isAssignedByType()} so
+     * the nightly re-optimization may move it; a booking for a named room is never moved.
+     * On success a {@link BookingCreated} event is published.
      *
      * @param booking the {@link Booking} object containing customer and room details
      * @return the generated booking ID
-     * @throws BusinessException if validation fails (invalid dates or unavailable room)
+     * @throws AvailabilityConflictException if the room is booked or held for those dates
+     * @throws BusinessException if validation fails (invalid dates or unknown room)
      * @throws Exception if a DAO or database error occurs
      */
     public int createBooking(Booking booking) throws Exception {
-        if (booking.getCheckIn() == null || booking.getCheckOut() == null) {
-            throw new BusinessException("Check-in and Check-out dates are required.");
+        validateDates(booking.getCheckIn(), booking.getCheckOut());
+
+        if (booking.getRoomId() == 0 && booking.getRoomType() != null)
+            return reserveByType(booking);
+        booking.setAssignedByType(false);
+
+        if (roomDAO.getById(booking.getRoomId()) == null)
+            throw new BusinessException("Room does not exist");
+
+        return reserve(booking, 0);
+    }
+
+    /**
+     * Books several rooms at once; either every booking is stored or none is.
+     * <p>
+     * All rooms are validated with one query, the availability of all of them is checked
+     * in one pass under their locks (taken in room ID order), and the bookings are inserted
+     * in a single batched transaction. A {@link BookingCreated} event is published for each
+     * booking afterwards.
+     *
+     * @param bookings the bookings, at most {@value #MAX_GROUP_SIZE}
+     * @return the generated booking IDs, in the order of {@code bookings}
+     * @throws AvailabilityConflictException if any room is booked or held for its dates
+     * @throws BusinessException if a booking is incomplete, a room does not exist, or two
+     *         bookings in the group overlap on the same room
+     * @throws Exception if a DAO or database error occurs
+     */
+    public int[] createGroupBooking(List<Booking> bookings) throws Exception {
+        if (bookings == null || bookings.isEmpty())
+            throw new BusinessException("At least one booking is required.");
+        if (bookings.size() > MAX_GROUP_SIZE)
+            throw new BusinessException("A group booking may contain at most " + MAX_GROUP_SIZE + " rooms.");
+
+        Set<Integer> roomIds = new TreeSet<>();
+        for (Booking b : bookings) {
+            if (b.getRoomId() == 0 || b.getCustomerId() == 0)
+                throw new BusinessException("customerId and roomId are required for every booking.");
+            validateDates(b.getCheckIn(), b.getCheckOut());
+            b.setAssignedByType(false);
+            roomIds.add(b.getRoomId());
+        }
+
+        Map<Integer, Room> rooms = roomDAO.getByIds(roomIds);
+        for (Integer roomId : roomIds) {
+            if (!rooms.containsKey(roomId))
+                throw new BusinessException("Room " + roomId + " does not exist");
+        }
+
+        List<Booking> sorted = new ArrayList<>(bookings);
+        sorted.sort(Comparator.comparingInt(Booking::getRoomId).thenComparing(Booking::getCheckIn));
+        for (int i = 1; i < sorted.size(); i++) {
+            Booking prev = sorted.get(i - 1);
+            Booking cur = sorted.get(i);
+            if (prev.getRoomId() == cur.getRoomId() && prev.getCheckOut().isAfter(cur.getCheckIn()))
+                throw new BusinessException("Room " + cur.getRoomId() + " appears twice for overlapping dates.");
         }
 
-        Date desiredIn = Date.valueOf(booking.getCheckIn());
-        Date desiredOut = Date.valueOf(booking.getCheckOut());
+        BookingOutbox outbox = new BookingOutbox();
+        for (Booking b : bookings) outbox.add(() -> new BookingCreated(b));
+        int[] ids = availability.bookAll(bookings, () -> bookingDAO.createAll(bookings, outbox));
+        for (int i = 0; i < ids.length; i++) {
+            Booking b = bookings.get(i);
+            b.setId(ids[i]);
+            staysChanged(b);
+        }
+        outbox.publish();
+        return ids;
+    }
+
+    /**
+     * Places a hold on a room so it cannot be booked by anyone else while the guest checks out.
+     *
+     * @param hold    the room, customer and dates to hold
+     * @param minutes how long to hold the room, or {@code null} for {@value #DEFAULT_HOLD_MINUTES}
+     * @return the hold, including its ID and expiry time
+     * @throws AvailabilityConflictException if the dates overlap a booking or another hold
+     * @throws BusinessException if the room or dates are invalid
+     * @throws Exception if a DAO or database error occurs
+     */
+    public BookingHold placeHold(BookingHold hold, Integer minutes) throws Exception {
+        if (hold.getCheckIn() == null || hold.getCheckOut() == null)
+            throw new BusinessException("Check-in and Check-out dates are required.");
+        LocalDate in = hold.getCheckIn();
+        LocalDate out = hold.getCheckOut();
+        validateDates(in, out);
+        if (in.isBefore(LocalDate.now()))
+            throw new BusinessException("Check-in date cannot be in the past.");
+        int ttl = minutes != null ? minutes : DEFAULT_HOLD_MINUTES;
+        if (ttl <= 0 || ttl > MAX_HOLD_MINUTES)
+            throw new BusinessException("Hold length must be between 1 and " + MAX_HOLD_MINUTES + " minutes.");
+        if (roomDAO.getById(hold.getRoomId()) == null)
+            throw new BusinessException("Room does not exist");
+        if (!bookingDAO.isRoomAvailable(hold.getRoomId(), in, out))
+            throw new AvailabilityConflictException(ROOM_UNAVAILABLE);
+
+        return availability.hold(hold.getRoomId(), hold.getCustomerId(), in, out, ttl * 60_000L);
+    }
 
-        boolean available = bookingDAO.isRoomAvailable(booking.getRoomId(), desiredIn, desiredOut);
-        if (!available)
-            throw new BusinessException("Room is not available for the selected dates.");
+    /**
+     * Retrieves an active hold.
+     *
+     * @param holdId the hold ID
+     * @return the hold, or {@code null} if it does not exist or has expired
+     */
+    public BookingHold getHold(long holdId) {
+        return availability.getHold(holdId);
+    }
+
+    /**
+     * Releases a hold before it expires.
+     *
+     * @param holdId the hold ID
+     * @return {@code true} if the hold was active
+     */
+    public boolean releaseHold(long holdId) {
+        return availability.release(holdId);
+    }
 
-        return bookingDAO.create(booking);
+    /**
+     * Turns a hold into a booking. The booking is stored and the hold removed in one step,
+     * so the dates are never free in between.
+     *
+     * @param holdId the hold ID
+     * @return the generated booking ID
+     * @throws BusinessException with message {@link #HOLD_NOT_FOUND} if the hold is not active
+     * @throws Exception if a DAO or database error occurs
+     */
+    public int confirmHold(long holdId) throws Exception {
+        BookingHold hold = availability.getHold(holdId);
+        if (hold == null)
+            throw new BusinessException(HOLD_NOT_FOUND);
+        Booking booking = new Booking();
+        booking.setRoomId(hold.getRoomId());
+        booking.setCustomerId(hold.getCustomerId());
+        booking.setCheckIn(hold.getCheckIn());
+        booking.setCheckOut(hold.getCheckOut());
+        return reserve(booking, holdId);
     }
 
     /**
-     * Updates an existing booking record.
+     * Modifies an existing booking: its customer, dates and/or room.
      * <p>
      * Validation:
      * <ul>
      *     <li>Booking ID must be greater than zero.</li>
+     *     <li>Fields left out ({@code null} dates, zero room or customer) keep their stored values.</li>
+     *     <li>Check-out must be after check-in; a changed check-in cannot be in the past.</li>
+     *     <li>A new room must exist. Moving to another room pins the booking to it.</li>
+     *     <li>The new nights must be free in the target room, ignoring the booking itself.</li>
      * </ul>
+     * A change of dates or room is checked and written while both rooms are locked in the
+     * {@link AvailabilityIndex}, and re-checked against the database for other writers. On
+     * success a {@link BookingUpdated} event is published.
      *
      * @param booking the {@link Booking} object with updated details
-     * @return {@code true} if the update was successful; {@code false} otherwise
-     * @throws BusinessException if the booking ID is invalid
+     * @return {@code true} if the update was successful; {@code false} if the booking does not exist
+     * @throws AvailabilityConflictException if the new nights are taken; it lists them
+     * @throws BusinessException if the booking ID, dates or room are invalid
      * @throws Exception if a DAO or database error occurs
      */
     public boolean updateBooking(Booking booking) throws Exception {
         if (booking.getId() <= 0)
             throw new BusinessException("Invalid booking ID.");
-        return bookingDAO.update(booking);
+        Booking before = bookingDAO.getById(booking.getId());
+        if (before == null)
+            return false;
+        if (booking.getCustomerId() <= 0) booking.setCustomerId(before.getCustomerId());
+        if (booking.getRoomId() <= 0) booking.setRoomId(before.getRoomId());
+        if (booking.getCheckIn() == null) booking.setCheckIn(before.getCheckIn());
+        if (booking.getCheckOut() == null) booking.setCheckOut(before.getCheckOut());
+        validateDates(booking.getCheckIn(), booking.getCheckOut());
+
+        BookingOutbox outbox = new BookingOutbox().add(() -> new BookingUpdated(before, booking));
+        boolean sameRoom = booking.getRoomId() == before.getRoomId();
+        // A room chosen by the guest is theirs to keep; re-optimization may not move it.
+        booking.setAssignedByType(sameRoom && before.isAssignedByType());
+        boolean sameDates = booking.getCheckIn().equals(before.getCheckIn())
+                && booking.getCheckOut().equals(before.getCheckOut());
+        if (sameRoom && sameDates) {
+            if (!bookingDAO.update(booking, outbox)) return false;
+        } else {
+            if (!booking.getCheckIn().equals(before.getCheckIn()) && booking.getCheckIn().isBefore(LocalDate.now()))
+                throw new BusinessException("Check-in date cannot be in the past.");
+            if (!sameRoom && roomDAO.getById(booking.getRoomId()) == null)
+                throw new BusinessException("Room does not exist");
+            LocalDate in = booking.getCheckIn();
+            LocalDate out = booking.getCheckOut();
+            boolean updated = availability.modify(before, booking, () -> {
+                List<Booking> clashes = bookingDAO.getOverlapping(booking.getRoomId(), in, out, booking.getId());
+                if (!clashes.isEmpty()) {
+                    List<long[]> ranges = new ArrayList<>();
+                    for (Booking c : clashes) {
+                        ranges.add(new long[]{c.getCheckIn().toEpochDay(), c.getCheckOut().toEpochDay()});
+                    }
+                    throw new AvailabilityConflictException(ROOM_UNAVAILABLE, AvailabilityIndex.clashingNights(
+                            in.toEpochDay(), out.toEpochDay(), ranges));
+                }
+                return bookingDAO.update(booking, outbox);
+            });
+            if (!updated) return false;
+            staysChanged(before);
+            staysChanged(booking);
+        }
+        outbox.publish();
+        return true;
     }
 
     /**
@@ -118,15 +346,77 @@ public class BookingService {
      * <ul>
      *     <li>The booking ID must be valid (greater than zero).</li>
      * </ul>
+     * On success a {@link BookingCancelled} event is published.
      *
      * @param id the ID of the booking to cancel
-     * @return {@code true} if cancellation was successful; {@code false} otherwise
+     * @return {@code true} if cancellation was successful; {@code false} if the booking does not exist
      * @throws BusinessException if the booking ID is invalid
      * @throws Exception if a DAO or database error occurs
      */
     public boolean cancelBooking(int id) throws Exception {
         if (id <= 0)
             throw new BusinessException("Invalid booking ID.");
-        return bookingDAO.delete(id);
+        Booking before = bookingDAO.getById(id);
+        BookingOutbox outbox = new BookingOutbox().add(() -> new BookingCancelled(before));
+        if (before == null || !bookingDAO.delete(id, outbox))
+            return false;
+        availability.removed(before);
+        staysChanged(before);
+        outbox.publish();
+        return true;
+    }
+
+    /**
+     * Stores a booking through the availability index, re-checking the database under the
+     * room lock for bookings written by other processes, and publishes {@link BookingCreated}.
+     */
+    private int reserve(Booking booking, long holdId) throws Exception {
+        LocalDate desiredIn = booking.getCheckIn();
+        LocalDate desiredOut = booking.getCheckOut();
+
+        BookingOutbox outbox = new BookingOutbox().add(() -> new BookingCreated(booking));
+        int id = availability.book(booking, holdId, () -> {
+            if (!bookingDAO.isRoomAvailable(booking.getRoomId(), desiredIn, desiredOut))
+                throw new AvailabilityConflictException(ROOM_UNAVAILABLE);
+            return bookingDAO.create(booking, outbox);
+        });
+        if (id > 0) {
+            booking.setId(id);
+            staysChanged(booking);
+            outbox.publish();
+        }
+        return id;
+    }
+
+    /** Drops the cached availability searches that overlap a booking's dates. */
+    private void staysChanged(Booking b) {
+        searchCache.invalidate(b.getCheckIn().toEpochDay(), b.getCheckOut().toEpochDay());
+    }
+
+    /**
+     * Books the best free room of the requested type, falling back to the next candidate if
+     * another request takes a room first.
+     */
+    private int reserveByType(Booking booking) throws Exception {
+        booking.setAssignedByType(true);
+        for (int roomId : assignment.rankRooms(booking.getRoomType(), booking.getCheckIn(), booking.getCheckOut())) {
+            booking.setRoomId(roomId);
+            try {
+                return reserve(booking, 0);
+            } catch (AvailabilityConflictException taken) {
+                // lost the race for this room; try the next one
+            }
+        }
+        booking.setRoomId(0);
+        booking.setAssignedByType(false);
+        throw new AvailabilityConflictException("No " + booking.getRoomType() + " room is available for the selected dates.");
+    }
+
+    /** Checks that both dates are present and the stay is at least one night. */
+    private static void validateDates(LocalDate checkIn, LocalDate checkOut) throws BusinessException {
+        if (checkIn == null || checkOut == null)
+            throw new BusinessException("Check-in and Check-out dates are required.");
+        if (!checkOut.isAfter(checkIn))
+            throw new BusinessException("Check-out must be after check-in.");
     }
 }
@@ -0,0 +1,157 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.model.Room;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join search behind {@link PricingService#cheapestStays}: the cheapest free windows
+ * of a fixed number of nights across a set of rooms.
+ * <p>
+ * Rooms are split in halves until at most {@value #ROOMS_PER_TASK} remain. For each room,
+ * the free nights of the range are a bit set (the complement of
+ * {@link AvailabilityIndex#takenNights(int, long, long)}); AND-ing it with copies of itself
+ * shifted by 1, 2, 4, ... nights leaves a bit set exactly where a free window of the
+ * stay's length starts, in {@code O(log nights)} word passes. Each such window is priced in
+ * constant time from the {@link DemandPricing} prefix sums and offered to a bounded heap;
+ * halves merge their heaps on join.
+ * </p>
+ */
+final class CheapestStaySearch extends RecursiveTask<List<CheapestStaySearch.Window>> {
+
+    /** Rooms searched by one task without splitting further. */
+    static final int ROOMS_PER_TASK = 16;
+
+    /** Cheapest first, then earliest, then lowest room ID. */
+    static final Comparator<Window> ORDER = Comparator.<Window>comparingLong(w -> w.cents)
+            .thenComparingLong(w -> w.checkIn)
+            .thenComparingInt(w -> w.room.getId());
+
+    private final List<Room> rooms;
+    private final long from;
+    private final long to;
+    private final int nights;
+    private final long maxCents;
+    private final int limit;
+    private final AvailabilityIndex availability;
+    private final DemandPricing demand;
+
+    /**
+     * Creates a search over a list of rooms.
+     *
+     * @param rooms        the rooms to search
+     * @param from         the earliest check-in (epoch day)
+     * @param to           the latest check-out (epoch day)
+     * @param nights       the stay length
+     * @param maxCents     the most a stay may cost, in cents ({@link Long#MAX_VALUE} for no limit)
+     * @param limit        the number of windows to keep
+     * @param availability the occupancy calendars
+     * @param demand       the nightly prices
+     */
+    CheapestStaySearch(List<Room> rooms, long from, long to, int nights, long maxCents, int limit,
+                       AvailabilityIndex availability, DemandPricing demand) {
+        this.rooms = rooms;
+        this.from = from;
+        this.to = to;
+        this.nights = nights;
+        this.maxCents = maxCents;
+        this.limit = limit;
+        this.availability = availability;
+        this.demand = demand;
+    }
+
+    /**
+     * Searches this task's rooms.
+     *
+     * @return the cheapest windows, in {@link #ORDER}
+     */
+    @Override
+    protected List<Window> compute() {
+        if (rooms.size() > ROOMS_PER_TASK) {
+            int mid = rooms.size() / 2;
+            CheapestStaySearch left = split(rooms.subList(0, mid));
+            CheapestStaySearch right = split(rooms.subList(mid, rooms.size()));
+            left.fork();
+            List<Window> merged = new ArrayList<>(right.compute());
+            merged.addAll(left.join());
+            merged.sort(ORDER);
+            return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+        }
+
+        PriorityQueue<Window> best = new PriorityQueue<>(limit + 1, ORDER.reversed());
+        try {
+            for (Room room : rooms) search(room, best);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        List<Window> out = new ArrayList<>(best);
+        out.sort(ORDER);
+        return out;
+    }
+
+    private CheapestStaySearch split(List<Room> part) {
+        return new CheapestStaySearch(part, from, to, nights, maxCents, limit, availability, demand);
+    }
+
+    /** Offers every affordable free window of one room to {@code best}. */
+    private void search(Room room, PriorityQueue<Window> best) throws Exception {
+        int span = (int) (to - from);
+        long[] starts = availability.takenNights(room.getId(), from, to);
+        for (int w = 0; w < starts.length; w++) starts[w] = ~starts[w];
+        if ((span & 63) != 0) starts[starts.length - 1] &= -1L >>> -span;
+
+        // Bit s means nights [s, s + covered) are free; double the cover until it is the stay.
+        // A shift by 64 would be a shift by 0 in Java, so long stays grow 63 nights at a time.
+        for (int covered = 1; covered < nights; ) {
+            int step = Math.min(Math.min(covered, nights - covered), 63);
+            andShifted(starts, step);
+            covered += step;
+        }
+
+        long baseCents = Math.round(room.getPrice() * 100);
+        for (int w = 0; w < starts.length; w++) {
+            long bits = starts[w];
+            while (bits != 0) {
+                long checkIn = from + (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                long cents = demand.priceCents(room.getRoomType(), baseCents, checkIn, checkIn + nights);
+                if (cents > maxCents) continue;
+                Window win = new Window(room, checkIn, cents);
+                if (best.size() < limit) {
+                    best.add(win);
+                } else if (ORDER.compare(win, best.peek()) < 0) {
+                    best.poll();
+                    best.add(win);
+                }
+            }
+        }
+    }
+
+    /** {@code bits &= bits >>> step} across word boundaries, for {@code 0 < step < 64}. */
+    private static void andShifted(long[] bits, int step) {
+        for (int w = 0; w < bits.length; w++) {
+            long next = w + 1 < bits.length ? bits[w + 1] : 0;
+            bits[w] &= (bits[w] >>> step) | (next << (64 - step));
+        }
+    }
+
+    /** One free stay: a room, its check-in (epoch day) and its price in cents. */
+    static final class Window {
+
+        final Room room;
+        final long checkIn;
+        final long cents;
+
+        Window(Room room, long checkIn, long cents) {
+            this.room = room;
+            this.checkIn = checkIn;
+            this.cents = cents;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.dao.RoomDAO;
+import com.hotelbooking.model.Room;
+import com.hotelbooking.pricing.DemandSignals;
+import com.hotelbooking.pricing.PricingStrategies;
+import com.hotelbooking.pricing.PricingStrategy;
+import com.hotelbooking.utils.ConcurrentIntIntMap;
+import com.hotelbooking.utils.ConcurrentIntObjectMap;
+import com.hotelbooking.utils.IntArrayList;
+import com.hotelbooking.utils.IntIntHashMap;
+import com.hotelbooking.utils.IntObjectHashMap;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Demand-adjusted version of the {@link RateCalendar}, used by {@link PricingService}.
+ * <p>
+ * For every night of a room type's rate calendar the active {@link PricingStrategy} is asked
+ * for a multiplier, given the night's occupancy (counted in the {@link AvailabilityIndex},
+ * not in the database), the lead time and the type's booking pace. The multiplied rates are
+ * kept as prefix sums next to the calendar's, so a demand-priced quote is still a few
+ * subtractions.
+ * </p>
+ *
+ * <p><b>Recomputation</b> is incremental and batched: booking changes only record the
+ * affected room and nights. Every {@value #DEFAULT_RECOMPUTE_MILLIS} ms (system property
+ * {@code pricing.recompute.millis}) the recorded nights are re-priced per room type, and
+ * the whole type when its pace changed. A type's table is also rebuilt on first use each
+ * day, since lead times move, and when its rates change. Tables are immutable snapshots;
+ * readers never lock.</p>
+ */
+final class DemandPricing {
+
+    /** Lowest multiplier a strategy can apply. */
+    static final double MIN_MULTIPLIER = 0.5;
+
+    /** Highest multiplier a strategy can apply. */
+    static final double MAX_MULTIPLIER = 3.0;
+
+    /** Number of days of bookings counted as the booking pace. */
+    static final int PACE_WINDOW_DAYS = 7;
+
+    /** Default interval between batched recomputations. */
+    static final long DEFAULT_RECOMPUTE_MILLIS = 5000;
+
+    private static final Logger LOG = Logger.getLogger(DemandPricing.class.getName());
+
+    private static final DemandPricing SHARED =
+            new DemandPricing(new RoomDAO(), AvailabilityIndex.shared(), RateCalendar.shared());
+
+    /** Priced tables by lower-cased room type. */
+    private final ConcurrentHashMap<String, Table> tables = new ConcurrentHashMap<>();
+
+    /** Nights changed since the last recomputation, as {@code {from, to}} per room. */
+    private final ConcurrentIntObjectMap<long[]> changedNights = new ConcurrentIntObjectMap<>();
+
+    /** Bookings made since the last recomputation, per room. */
+    private final ConcurrentIntIntMap newBookings = new ConcurrentIntIntMap();
+
+    /** Daily booking counts by lower-cased room type; guarded by {@code this}. */
+    private final Map<String, long[]> pace = new HashMap<>();
+
+    private final RoomDAO roomDAO;
+    private final AvailabilityIndex availability;
+    private final RateCalendar calendar;
+
+    private ScheduledExecutorService recompute;
+
+    DemandPricing(RoomDAO roomDAO, AvailabilityIndex availability, RateCalendar calendar) {
+        this.roomDAO = roomDAO;
+        this.availability = availability;
+        this.calendar = calendar;
+    }
+
+    static DemandPricing shared() {
+        return SHARED;
+    }
+
+    /**
+     * Prices the nights {@code [checkIn, checkOut)} of a room at the demand-adjusted rates.
+     *
+     * @param roomType  the room's type, or {@code null} to charge only the base price
+     * @param baseCents the room's own nightly price, in cents
+     * @param checkIn   the first night (epoch day)
+     * @param checkOut  the departure day (epoch day)
+     * @return the total, in cents
+     * @throws Exception if the type's rates or occupancy cannot be loaded
+     */
+    long priceCents(String roomType, long baseCents, long checkIn, long checkOut) throws Exception {
+        PricingStrategy strategy = PricingStrategies.active();
+        if (strategy == null || roomType == null || checkOut <= checkIn)
+            return calendar.priceCents(roomType, baseCents, checkIn, checkOut);
+
+        Table t = table(roomType, strategy);
+        int a = t.rates.index(checkIn);
+        int b = t.rates.index(checkOut);
+        long outside = (checkOut - checkIn) - (b - a);
+        return (t.ratedSum[b] - t.ratedSum[a])
+                + Math.round(baseCents * (t.unratedFactor[b] - t.unratedFactor[a]))
+                + baseCents * outside;
+    }
+
+    /**
+     * Records that a room's bookings changed for some nights.
+     *
+     * @param roomId   the room
+     * @param checkIn  the first changed night (epoch day)
+     * @param checkOut the day after the last changed night (epoch day)
+     */
+    void changed(int roomId, long checkIn, long checkOut) {
+        changedNights.merge(roomId, new long[]{checkIn, checkOut},
+                (x, y) -> new long[]{Math.min(x[0], y[0]), Math.max(x[1], y[1])});
+    }
+
+    /**
+     * Records a new booking, which changes both occupancy and pace.
+     *
+     * @param roomId   the room
+     * @param checkIn  the first night (epoch day)
+     * @param checkOut the departure day (epoch day)
+     */
+    void booked(int roomId, long checkIn, long checkOut) {
+        newBookings.addTo(roomId, 1);
+        changed(roomId, checkIn, checkOut);
+    }
+
+    /**
+     * Drops a type's table after its rates changed.
+     *
+     * @param roomType the room type
+     */
+    void invalidate(String roomType) {
+        tables.remove(key(roomType));
+    }
+
+    /**
+     * Starts the batched recomputation. Does nothing if it is already running.
+     */
+    synchronized void start() {
+        if (recompute != null) return;
+        long millis = Long.getLong("pricing.recompute.millis", DEFAULT_RECOMPUTE_MILLIS);
+        recompute = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "demand-pricing");
+            t.setDaemon(true);
+            return t;
+        });
+        recompute.scheduleWithFixedDelay(() -> {
+            try {
+                recomputeChanged();
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "Demand pricing recomputation failed", e);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the batched recomputation.
+     */
+    synchronized void stop() {
+        if (recompute == null) return;
+        recompute.shutdownNow();
+        recompute = null;
+    }
+
+    /**
+     * Re-prices the nights recorded since the last call. Types without a table yet are
+     * skipped; they are priced in full on first use.
+     *
+     * @throws Exception if the rooms, rates or occupancy cannot be loaded
+     */
+    void recomputeChanged() throws Exception {
+        if (changedNights.isEmpty() && newBookings.isEmpty()) return;
+        IntObjectHashMap<long[]> changed = changedNights.drain();
+        IntIntHashMap booked = newBookings.drain();
+        PricingStrategy strategy = PricingStrategies.active();
+        if (strategy == null) return;
+
+        Map<String, int[]> roomsByType = roomsByType();
+        IntObjectHashMap<String> typeOf = new IntObjectHashMap<>();
+        for (Map.Entry<String, int[]> e : roomsByType.entrySet()) {
+            for (int roomId : e.getValue()) typeOf.put(roomId, e.getKey());
+        }
+
+        long today = LocalDate.now().toEpochDay();
+        Map<String, long[]> ranges = new HashMap<>();
+        synchronized (this) {
+            booked.forEach((roomId, count) -> {
+                String type = typeOf.get(roomId);
+                if (type != null) recordPace(type, today, count);
+            });
+        }
+        changed.forEach((roomId, nights) -> {
+            String type = typeOf.get(roomId);
+            if (type == null) return;
+            // A type whose pace moved is re-priced for every night.
+            long[] r = booked.containsKey(roomId) ? new long[]{Long.MIN_VALUE, Long.MAX_VALUE} : nights;
+            ranges.merge(type, r, (x, y) -> new long[]{Math.min(x[0], y[0]), Math.max(x[1], y[1])});
+        });
+
+        for (Map.Entry<String, long[]> e : ranges.entrySet()) {
+            synchronized (this) {
+                Table old = tables.get(e.getKey());
+                // Missing or stale tables are rebuilt in full on their next use.
+                if (old == null || old.computedOn != today || old.strategy != strategy) continue;
+                int[] rooms = roomsByType.get(e.getKey());
+                tables.put(e.getKey(), build(e.getKey(), rooms, strategy, old, e.getValue()[0], e.getValue()[1]));
+            }
+        }
+    }
+
+    /** Returns a type's current table, building it if missing or out of date. */
+    private Table table(String roomType, PricingStrategy strategy) throws Exception {
+        String key = key(roomType);
+        RateCalendar.Rates rates = calendar.rates(roomType);
+        long today = LocalDate.now().toEpochDay();
+        Table t = tables.get(key);
+        if (t != null && t.rates == rates && t.computedOn == today && t.strategy == strategy) return t;
+
+        synchronized (this) {
+            t = tables.get(key);
+            if (t != null && t.rates == rates && t.computedOn == today && t.strategy == strategy) return t;
+            int[] rooms = roomsByType().get(key);
+            if (t != null && t.rates.origin == rates.origin && t.computedOn == today && t.strategy == strategy) {
+                // Only the rates changed: keep the multipliers, rebuild the sums.
+                t = new Table(rates, today, strategy, t.factor);
+            } else {
+                t = build(key, rooms, strategy, null, Long.MIN_VALUE, Long.MAX_VALUE);
+            }
+            tables.put(key, t);
+            return t;
+        }
+    }
+
+    /**
+     * Computes the multipliers of nights {@code [from, to)} of a type, copying the others
+     * from {@code old}. Caller holds {@code this}.
+     */
+    private Table build(String key, int[] rooms, PricingStrategy strategy, Table old, long from, long to)
+            throws Exception {
+        RateCalendar.Rates rates = old != null ? old.rates : calendar.rates(key);
+        long today = LocalDate.now().toEpochDay();
+        int n = RateCalendar.HORIZON_DAYS;
+        double[] factor = old != null ? old.factor.clone() : new double[n];
+        if (old == null) Arrays.fill(factor, 1.0);
+
+        long start = Math.max(Math.max(from, today), rates.origin);
+        long end = Math.min(to, rates.origin + n);
+        if (rooms != null && rooms.length > 0 && start < end) {
+            int[] booked = availability.occupancy(rooms, start, end);
+            double pace = (double) paceCount(key, today) / rooms.length;
+            for (long d = start; d < end; d++) {
+                DemandSignals s = new DemandSignals(key, (int) (d - today), rooms.length, booked[(int) (d - start)], pace);
+                double m = strategy.multiplier(s);
+                factor[(int) (d - rates.origin)] = Math.max(MIN_MULTIPLIER, Math.min(MAX_MULTIPLIER, m));
+            }
+        }
+        return new Table(rates, today, strategy, factor);
+    }
+
+    /** Adds bookings made today to a type's pace. Caller holds {@code this}. */
+    private void recordPace(String key, long today, int bookings) {
+        long[] days = pace.computeIfAbsent(key, k -> new long[2 * PACE_WINDOW_DAYS]);
+        // Pairs of {day, count} in a ring indexed by day.
+        int slot = (int) (today % PACE_WINDOW_DAYS) * 2;
+        if (days[slot] != today) {
+            days[slot] = today;
+            days[slot + 1] = 0;
+        }
+        days[slot + 1] += bookings;
+    }
+
+    /** Bookings of a type made within the pace window. Caller holds {@code this}. */
+    private long paceCount(String key, long today) {
+        long[] days = pace.get(key);
+        if (days == null) return 0;
+        long sum = 0;
+        for (int i = 0; i < days.length; i += 2) {
+            if (today - days[i] < PACE_WINDOW_DAYS) sum += days[i + 1];
+        }
+        return sum;
+    }
+
+    private Map<String, int[]> roomsByType() throws Exception {
+        Map<String, IntArrayList> ids = new HashMap<>();
+        for (Room r : roomDAO.getAll()) {
+            if (r.getRoomType() != null) ids.computeIfAbsent(key(r.getRoomType()), k -> new IntArrayList()).add(r.getId());
+        }
+        Map<String, int[]> out = new HashMap<>();
+        for (Map.Entry<String, IntArrayList> e : ids.entrySet()) out.put(e.getKey(), e.getValue().toArray());
+        return out;
+    }
+
+    private static String key(String roomType) {
+        return roomType.toLowerCase(Locale.ROOT);
+    }
+
+    /** A type's multipliers and the demand-adjusted prefix sums over its rate calendar. */
+    private static final class Table {
+
+        final RateCalendar.Rates rates;
+        final long computedOn;
+        final PricingStrategy strategy;
+        final double[] factor;
+        /** Prefix sums of the multiplied set rates, in cents. */
+        final long[] ratedSum;
+        /** Prefix sums of the multipliers of nights without a set rate. */
+        final double[] unratedFactor;
+
+        Table(RateCalendar.Rates rates, long computedOn, PricingStrategy strategy, double[] factor) {
+            this.rates = rates;
+            this.computedOn = computedOn;
+            this.strategy = strategy;
+            this.factor = factor;
+            int n = factor.length;
+            ratedSum = new long[n + 1];
+            unratedFactor = new double[n + 1];
+            for (int i = 0; i < n; i++) {
+                ratedSum[i + 1] = ratedSum[i] + (rates.rated[i] ? Math.round(rates.cents[i] * factor[i]) : 0);
+                unratedFactor[i + 1] = unratedFactor[i] + (rates.rated[i] ? 0 : factor[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.model.Notification;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * In-memory per-user notification state: an unread counter and a bounded ring of the
+ * most recent notifications.
+ * <p>
+ * A user's entry is loaded from the database on first access (see
+ * {@link NotificationService}) and from then on kept current by the service's writes, so
+ * the unread badge and the first inbox page are served without a query. A user's unread
+ * count covers their own unread notifications plus the global ({@code user_id IS NULL})
+ * notifications they have not read; read state of global notifications is per user.
+ * </p>
+ *
+ * <p>At most {@link #MAX_USERS} users are kept; the least recently used are evicted. As in
+ * {@code BookingHistoryCache}, every write bumps a generation counter and an entry loaded
+ * under an older generation is not installed, so a concurrent write is never lost.</p>
+ *
+ * <p><b>Thread safety:</b> all methods synchronize on one lock; none of them touch the database.</p>
+ */
+public final class NotificationInbox {
+
+    /** Number of recent notifications kept per user. */
+    public static final int RECENT_SIZE = 50;
+
+    /** Maximum number of users whose inbox is kept. */
+    public static final int MAX_USERS = 10_000;
+
+    /** Process-wide instance. */
+    private static final NotificationInbox SHARED = new NotificationInbox();
+
+    private final Object lock = new Object();
+
+    /** Inboxes by user ID in access order (eldest first). */
+    private final LinkedHashMap<Integer, UserInbox> users = new LinkedHashMap<>(256, 0.75f, true);
+
+    /** Incremented on every write. */
+    private long generation;
+
+    private NotificationInbox() {}
+
+    /**
+     * Returns the process-wide inbox.
+     *
+     * @return the shared inbox
+     */
+    public static NotificationInbox shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the current generation; read it before loading a user from the database
+     * and pass it to {@link #install}.
+     *
+     * @return the current generation
+     */
+    public long generation() {
+        synchronized (lock) {
+            return generation;
+        }
+    }
+
+    /**
+     * Returns a user's unread count if the user is loaded.
+     *
+     * @param userId the user ID
+     * @return the unread count, or {@code null} if the user has to be loaded first
+     */
+    public Integer unreadCount(int userId) {
+        synchronized (lock) {
+            UserInbox inbox = users.get(userId);
+            return inbox != null ? inbox.unread : null;
+        }
+    }
+
+    /**
+     * Returns a user's most recent notifications if they can be served from memory.
+     *
+     * @param userId the user ID
+     * @param limit  the number of notifications wanted
+     * @return copies of up to {@code limit} notifications, newest first, or {@code null} if the
+     *         user is not loaded or the ring holds fewer than {@code limit} of a longer inbox
+     */
+    public List<Notification> recent(int userId, int limit) {
+        synchronized (lock) {
+            UserInbox inbox = users.get(userId);
+            if (inbox == null || (inbox.recent.size() < limit && !inbox.complete)) return null;
+
+            List<Notification> out = new ArrayList<>(Math.min(limit, inbox.recent.size()));
+            for (Notification n : inbox.recent) {
+                if (out.size() == limit) break;
+                out.add(copy(n));
+            }
+            return out;
+        }
+    }
+
+    /**
+     * Installs a user's state loaded from the database, unless a write happened since
+     * {@code observedGeneration} was read.
+     *
+     * @param userId             the user ID
+     * @param unread             unread notifications visible to the user
+     * @param recent             the user's newest notifications (at most {@link #RECENT_SIZE})
+     * @param complete           whether {@code recent} holds every notification of the user
+     * @param observedGeneration the value of {@link #generation()} before loading
+     * @return {@code true} if the state was installed
+     */
+    public boolean install(int userId, int unread, List<Notification> recent, boolean complete,
+                           long observedGeneration) {
+        synchronized (lock) {
+            if (observedGeneration != generation) return false;
+
+            UserInbox inbox = new UserInbox();
+            inbox.unread = unread;
+            inbox.complete = complete;
+            for (Notification n : recent) {
+                if (inbox.recent.size() == RECENT_SIZE) break;
+                inbox.recent.addLast(copy(n));
+            }
+            users.put(userId, inbox);
+
+            Iterator<UserInbox> it = users.values().iterator();
+            while (users.size() > MAX_USERS && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Records a newly created notification.
+     *
+     * @param n the stored notification, as read back from the database
+     */
+    public void created(Notification n) {
+        synchronized (lock) {
+            generation++;
+            if (n.getUserId() == null) {
+                for (UserInbox inbox : users.values()) {
+                    inbox.unread++;
+                    inbox.push(copy(n));
+                }
+            } else {
+                UserInbox inbox = users.get(n.getUserId());
+                if (inbox == null) return;
+                if (!n.isRead()) inbox.unread++;
+                inbox.push(copy(n));
+            }
+        }
+    }
+
+    /**
+     * Records that a notification went from unread to read for one user.
+     *
+     * @param notificationId the notification ID
+     * @param userId         the user who read it (for a global notification, only this user's
+     *                       state changes)
+     */
+    public void markedRead(int notificationId, int userId) {
+        synchronized (lock) {
+            generation++;
+            UserInbox inbox = users.get(userId);
+            if (inbox == null) return;
+            inbox.unread = Math.max(0, inbox.unread - 1);
+            inbox.markRead(notificationId);
+        }
+    }
+
+    /**
+     * Records that a notification was deleted.
+     *
+     * @param before the notification as it was before the deletion
+     */
+    public void deleted(Notification before) {
+        synchronized (lock) {
+            generation++;
+            if (before.getUserId() == null) {
+                // Whether each user had read it is not tracked here; reload everyone lazily.
+                users.clear();
+            } else {
+                UserInbox inbox = users.get(before.getUserId());
+                if (inbox == null) return;
+                if (!before.isRead()) inbox.unread = Math.max(0, inbox.unread - 1);
+                inbox.remove(before.getId());
+            }
+        }
+    }
+
+    /** Copies a notification so callers cannot change the cached one. */
+    private static Notification copy(Notification n) {
+        Notification out = new Notification();
+        out.setId(n.getId());
+        out.setUserId(n.getUserId());
+        out.setBookingId(n.getBookingId());
+        out.setTitle(n.getTitle());
+        out.setMessage(n.getMessage());
+        out.setRead(n.isRead());
+        out.setCreatedAt(n.getCreatedAt());
+        return out;
+    }
+
+    /** Cached state of one user; guarded by {@link #lock}. */
+    private static final class UserInbox {
+
+        /** Unread notifications addressed to this user (global ones are counted separately). */
+        int unread;
+
+        /** Newest notification first; never longer than {@link #RECENT_SIZE}. */
+        final ArrayDeque<Notification> recent = new ArrayDeque<>(RECENT_SIZE);
+
+        /** Whether {@link #recent} holds every notification visible to the user. */
+        boolean complete;
+
+        void push(Notification n) {
+            recent.addFirst(n);
+            if (recent.size() > RECENT_SIZE) {
+                recent.removeLast();
+                complete = false;
+            }
+        }
+
+        void markRead(int id) {
+            for (Notification n : recent) {
+                if (n.getId() == id) {
+                    n.setRead(true);
+                    return;
+                }
+            }
+        }
+
+        void remove(int id) {
+            recent.removeIf(n -> n.getId() == id);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.hotelbooking.service;
 
 import com.hotelbooking.dao.NotificationDAO;
+import com.hotelbooking.delivery.DeliveryChannels;
 import com.hotelbooking.model.Notification;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -19,6 +21,11 @@ import java.util.List;
  *     <li>Fetch notifications for a specific user or all notifications (if userId is null).</li>
  *     <li>Mark notifications as read when acknowledged by the user.</li>
  *     <li>Delete notifications from the system when they are no longer needed.</li>
+ *     <li>Serve unread counts and the first inbox page from {@link NotificationInbox},
+ *         keeping it current on every write.</li>
+ *     <li>Push new notifications to live subscribers through {@link NotificationStreamHub}.</li>
+ *     <li>Enqueue external deliveries (e-mail, SMS, ...) in the outbox, in the same transaction
+ *         as the notification; delivery workers send them asynchronously.</li>
  * </ul>
  *
  * <h3>Example Usage:</h3>
@@ -36,9 +43,15 @@ import java.util.List;
  */
 public class NotificationService {
 
+    /** Message of the {@link BusinessException} thrown when a notification does not exist. */
+    public static final String NOT_FOUND = "Notification not found";
+
     /** Data Access Object responsible for managing notification persistence. */
     private final NotificationDAO dao = new NotificationDAO();
 
+    /** Per-user unread counters and recent-notification rings. */
+    private final NotificationInbox inbox = NotificationInbox.shared();
+
     /**
      * Creates a new notification after validating required fields.
      * <p>
@@ -62,7 +75,29 @@ public class NotificationService {
             throw new BusinessException("Title required");
         if (n.getMessage() == null || n.getMessage().trim().isEmpty())
             throw new BusinessException("Message required");
-        return dao.createNotification(n);
+        int id = dao.createNotification(n, DeliveryChannels.enabledNames());
+        announce(id);
+        return id;
+    }
+
+    /**
+     * Pushes a stored notification to the in-memory inbox and to live subscribers.
+     * <p>
+     * {@link #createNotification(Notification)} does this itself; callers that store a
+     * notification inside their own transaction (through
+     * {@link NotificationDAO#createNotification(java.sql.Connection, Notification, java.util.Collection)})
+     * call it once that transaction has committed.
+     *
+     * @param id the notification ID; ignored if not positive
+     * @throws Exception if a database access error occurs
+     */
+    public void announce(int id) throws Exception {
+        if (id <= 0) return;
+        Notification stored = dao.getById(id);
+        if (stored != null) {
+            inbox.created(stored);
+            NotificationStreamHub.shared().publish(stored);
+        }
     }
 
     /**
@@ -85,12 +120,43 @@ public class NotificationService {
      * If the notification ID does not exist, a {@link BusinessException} is thrown.
      *
      * @param id the ID of the notification to mark as read
-     * @throws BusinessException if the notification does not exist
+     * @throws BusinessException if the notification does not exist or is a global notification
      * @throws Exception if a database or DAO error occurs
+     * @see #markAsRead(int, Integer)
      */
     public void markAsRead(int id) throws Exception {
-        if (!dao.markAsRead(id))
-            throw new BusinessException("Notification not found");
+        markAsRead(id, null);
+    }
+
+    /**
+     * Marks a notification as read on behalf of a user.
+     * <p>
+     * A user-specific notification is flagged read on its own row. A global notification is
+     * marked read only for {@code userId}, in that user's read watermark/bitmap, so other users
+     * still see it as unread.
+     *
+     * @param id     the ID of the notification to mark as read
+     * @param userId the reading user; required for global notifications
+     * @throws BusinessException if the notification does not exist, or is global and no user is given
+     * @throws Exception if a database or DAO error occurs
+     */
+    public void markAsRead(int id, Integer userId) throws Exception {
+        Notification before = dao.getById(id);
+        if (before == null)
+            throw new BusinessException(NOT_FOUND);
+
+        if (before.getUserId() == null) {
+            if (userId == null)
+                throw new BusinessException("userId required to mark a global notification as read");
+            if (dao.markBroadcastRead(userId, id)) inbox.markedRead(id, userId);
+        } else {
+            // Only the call whose update flipped the row adjusts the unread counter.
+            if (dao.markAsRead(id)) {
+                inbox.markedRead(id, before.getUserId());
+            } else if (dao.getById(id) == null) {
+                throw new BusinessException(NOT_FOUND);
+            }
+        }
     }
 
     /**
@@ -103,7 +169,84 @@ public class NotificationService {
      * @throws Exception if a database or DAO error occurs
      */
     public void deleteNotification(int id) throws Exception {
-        if (!dao.deleteNotification(id))
-            throw new BusinessException("Notification not found");
+        Notification before = dao.getById(id);
+        if (before == null || !dao.deleteNotification(id))
+            throw new BusinessException(NOT_FOUND);
+        inbox.deleted(before);
+    }
+
+    /**
+     * Returns the number of unread notifications visible to a user (their own plus global ones).
+     * <p>
+     * Served from memory once the user's inbox is loaded; the first call per user costs
+     * a few small indexed queries.
+     *
+     * @param userId the user ID
+     * @return the unread count
+     * @throws BusinessException if the user ID is invalid
+     * @throws Exception if a database access error occurs
+     */
+    public int getUnreadCount(int userId) throws Exception {
+        if (userId <= 0)
+            throw new BusinessException("Invalid user id");
+        Integer cached = inbox.unreadCount(userId);
+        if (cached != null) return cached;
+        return load(userId).unread;
+    }
+
+    /**
+     * Returns a user's most recent notifications, newest first.
+     * <p>
+     * Requests for up to {@link NotificationInbox#RECENT_SIZE} notifications are served from the
+     * in-memory ring; larger ones go to the database.
+     *
+     * @param userId the user ID
+     * @param limit  the maximum number of notifications to return
+     * @return up to {@code limit} notifications
+     * @throws BusinessException if the user ID or limit is invalid
+     * @throws Exception if a database access error occurs
+     */
+    public List<Notification> getRecentNotifications(int userId, int limit) throws Exception {
+        if (userId <= 0)
+            throw new BusinessException("Invalid user id");
+        if (limit < 1)
+            throw new BusinessException("limit must be positive");
+        if (limit > NotificationInbox.RECENT_SIZE)
+            return dao.getRecentForUser(userId, limit);
+
+        List<Notification> cached = inbox.recent(userId, limit);
+        if (cached != null) return cached;
+
+        Loaded loaded = load(userId);
+        return loaded.recent.size() > limit ? new ArrayList<>(loaded.recent.subList(0, limit)) : loaded.recent;
+    }
+
+    /**
+     * Loads a user's inbox from the database and installs it in {@link NotificationInbox}
+     * unless a concurrent write makes it stale.
+     *
+     * @param userId the user ID
+     * @return the freshly loaded state, usable even if it was not installed
+     * @throws Exception if a database access error occurs
+     */
+    private Loaded load(int userId) throws Exception {
+        long generation = inbox.generation();
+        int unread = dao.countUnread(userId);
+        List<Notification> recent = dao.getRecentForUser(userId, NotificationInbox.RECENT_SIZE + 1);
+        boolean complete = recent.size() <= NotificationInbox.RECENT_SIZE;
+        if (!complete) recent = new ArrayList<>(recent.subList(0, NotificationInbox.RECENT_SIZE));
+
+        inbox.install(userId, unread, recent, complete, generation);
+
+        Loaded out = new Loaded();
+        out.recent = recent;
+        out.unread = unread;
+        return out;
+    }
+
+    /** Result of {@link #load(int)}. */
+    private static final class Loaded {
+        int unread;
+        List<Notification> recent;
     }
 }
@@ -0,0 +1,171 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.model.Notification;
+import com.hotelbooking.utils.IntArrayList;
+import com.hotelbooking.utils.IntObjectHashMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fans newly created notifications out to live push subscribers (the Server-Sent Events
+ * stream) and keeps a bounded replay buffer for reconnecting clients.
+ * <p>
+ * {@link NotificationService#createNotification(Notification)} publishes every stored
+ * notification here. A user-specific notification goes to that user's subscribers; a
+ * global one ({@code userId == null}) goes to everyone. The last {@link #REPLAY_SIZE}
+ * notifications are retained so a client reconnecting with a {@code Last-Event-ID} can
+ * catch up on what it missed without re-reading its inbox.
+ * </p>
+ *
+ * <p>Subscribers must not block in {@link Subscriber#offer}: a subscriber that cannot keep
+ * up returns {@code false} and is dropped, so one slow client never holds up the others.</p>
+ *
+ * <p><b>Thread safety:</b> all methods synchronize on one lock, which makes subscribing
+ * and replaying atomic with respect to publishing (no event is missed or delivered twice).</p>
+ */
+public final class NotificationStreamHub {
+
+    /** Number of recent notifications kept for replay. */
+    public static final int REPLAY_SIZE = 1000;
+
+    /** Process-wide instance. */
+    private static final NotificationStreamHub SHARED = new NotificationStreamHub();
+
+    /**
+     * A live connection receiving notifications.
+     */
+    public interface Subscriber {
+
+        /**
+         * Hands a notification to the connection without blocking.
+         *
+         * @param n the notification to deliver
+         * @return {@code false} if the connection is closed or its buffer is full; it is then
+         *         unsubscribed
+         */
+        boolean offer(Notification n);
+    }
+
+    private final Object lock = new Object();
+
+    /** Subscribers by user ID. */
+    private final IntObjectHashMap<Set<Subscriber>> subscribers = new IntObjectHashMap<>();
+
+    /** Most recent notifications, oldest first. */
+    private final ArrayDeque<Notification> replay = new ArrayDeque<>(REPLAY_SIZE);
+
+    /**
+     * Every notification with an ID above this one is (or was) in {@link #replay};
+     * {@code -1} until the first publish, since earlier notifications were never seen.
+     */
+    private int coveredAfter = -1;
+
+    private NotificationStreamHub() {}
+
+    /**
+     * Returns the process-wide hub.
+     *
+     * @return the shared hub
+     */
+    public static NotificationStreamHub shared() {
+        return SHARED;
+    }
+
+    /**
+     * Registers a subscriber and returns the notifications it missed since {@code lastEventId}.
+     *
+     * @param userId      the subscribing user
+     * @param s           the subscriber
+     * @param lastEventId the last notification ID the client saw, or {@code null} for a fresh connection
+     * @return the missed notifications visible to the user, oldest first; an empty list for a fresh
+     *         connection; {@code null} if the replay buffer no longer reaches back to {@code lastEventId}
+     *         and the client should reload its inbox
+     */
+    public List<Notification> subscribe(int userId, Subscriber s, Integer lastEventId) {
+        synchronized (lock) {
+            subscribers.computeIfAbsent(userId, k -> new LinkedHashSet<>()).add(s);
+
+            List<Notification> missed = new ArrayList<>();
+            if (lastEventId == null) return missed;
+            if (coveredAfter < 0 || lastEventId < coveredAfter) return null;
+
+            for (Notification n : replay) {
+                if (n.getId() > lastEventId && visibleTo(n, userId)) missed.add(n);
+            }
+            return missed;
+        }
+    }
+
+    /**
+     * Removes a subscriber.
+     *
+     * @param userId the user the subscriber was registered for
+     * @param s      the subscriber
+     */
+    public void unsubscribe(int userId, Subscriber s) {
+        synchronized (lock) {
+            Set<Subscriber> set = subscribers.get(userId);
+            if (set == null) return;
+            set.remove(s);
+            if (set.isEmpty()) subscribers.remove(userId);
+        }
+    }
+
+    /**
+     * Records a stored notification and delivers it to the matching subscribers.
+     *
+     * @param n the notification, with its ID set
+     */
+    public void publish(Notification n) {
+        synchronized (lock) {
+            if (coveredAfter < 0) coveredAfter = n.getId() - 1;
+            replay.addLast(n);
+            if (replay.size() > REPLAY_SIZE) coveredAfter = replay.removeFirst().getId();
+
+            if (n.getUserId() != null) {
+                Set<Subscriber> set = subscribers.get(n.getUserId());
+                deliver(set, n);
+                if (set != null && set.isEmpty()) subscribers.remove(n.getUserId());
+            } else {
+                IntArrayList emptied = new IntArrayList();
+                subscribers.forEach((userId, set) -> {
+                    deliver(set, n);
+                    if (set.isEmpty()) emptied.add(userId);
+                });
+                for (int i = 0; i < emptied.size(); i++) subscribers.remove(emptied.get(i));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of live subscribers.
+     *
+     * @return the subscriber count
+     */
+    public int subscriberCount() {
+        synchronized (lock) {
+            int[] count = {0};
+            subscribers.forEachValue(set -> count[0] += set.size());
+            return count[0];
+        }
+    }
+
+    /** Offers a notification to a set of subscribers, dropping those that refuse it. */
+    private static void deliver(Set<Subscriber> set, Notification n) {
+        if (set == null) return;
+        Iterator<Subscriber> it = set.iterator();
+        while (it.hasNext()) {
+            if (!it.next().offer(n)) it.remove();
+        }
+    }
+
+    /** Checks whether a notification is addressed to a user (directly or globally). */
+    private static boolean visibleTo(Notification n, int userId) {
+        return n.getUserId() == null || n.getUserId() == userId;
+    }
+}
@@ -2,6 +2,8 @@ package com.hotelbooking.service;
 
 import com.hotelbooking.dao.PaymentDAO;
 import com.hotelbooking.dao.BookingDAO;
+import com.hotelbooking.event.EventBus;
+import com.hotelbooking.event.PaymentCaptured;
 import com.hotelbooking.model.Payment;
 import com.hotelbooking.model.Booking;
 
@@ -15,6 +17,10 @@ import java.util.List;
  * This service encapsulates business rules such as ensuring payment amounts are valid,
  * verifying booking existence before payment creation, and enforcing refund constraints.
  * It delegates persistence operations to the {@link PaymentDAO} and {@link BookingDAO}.
+ * <p>
+ * When a payment is recorded as, or changed to, {@value #CAPTURED} the guest's notification
+ * is stored in the payment's own transaction and a {@link PaymentCaptured} event is published
+ * on the {@link EventBus} once it has committed.
  *
  * <h3>Responsibilities:</h3>
  * <ul>
@@ -39,6 +45,9 @@ import java.util.List;
  */
 public class PaymentService {
 
+    /** Payment status that marks the money as received. */
+    public static final String CAPTURED = "Completed";
+
     /** Data Access Object for interacting with the payment persistence layer. */
     private final PaymentDAO paymentDAO = new PaymentDAO();
 
@@ -54,7 +63,7 @@ public class PaymentService {
      *     <li>The associated booking exists and has a valid ID.</li>
      *     <li>The payment amount is greater than zero.</li>
      * </ul>
-     * Once validated, the payment is persisted using {@link PaymentDAO#createPayment(Payment)}.
+     * Once validated, the payment is persisted using {@link PaymentDAO#create(Payment)}.
      *
      * @param p the {@link Payment} object containing transaction details
      * @return the generated payment ID
@@ -71,7 +80,14 @@ public class PaymentService {
             throw new BusinessException("Booking not found");
         if (p.getAmount() <= 0)
             throw new BusinessException("Invalid amount");
-        return paymentDAO.createPayment(p);
+        BookingOutbox outbox = new BookingOutbox();
+        if (isCaptured(p)) outbox.add(() -> new PaymentCaptured(b, p));
+        int id = paymentDAO.create(p, outbox);
+        if (id > 0) {
+            p.setId(id);
+            outbox.publish();
+        }
+        return id;
     }
 
     /**
@@ -81,7 +97,57 @@ public class PaymentService {
      * @throws Exception if a database access error occurs
      */
     public List<Payment> listPayments() throws Exception {
-        return paymentDAO.getAllPayments();
+        return paymentDAO.getAll();
+    }
+
+    /**
+     * Retrieves a single payment by its ID.
+     *
+     * @param id the payment ID
+     * @return the {@link Payment}, or {@code null} if not found
+     * @throws Exception if a database access error occurs
+     */
+    public Payment getPaymentById(int id) throws Exception {
+        return paymentDAO.getById(id);
+    }
+
+    /**
+     * Updates an existing payment record.
+     * <p>
+     * Publishes a {@link PaymentCaptured} event if the update moves the payment to
+     * {@value #CAPTURED}.
+     *
+     * @param p the {@link Payment} with updated details, including its ID
+     * @return {@code true} if the payment was updated; {@code false} if it does not exist
+     * @throws BusinessException if the referenced booking does not exist
+     * @throws Exception if a database or DAO error occurs
+     */
+    public boolean updatePayment(Payment p) throws Exception {
+        if (p == null)
+            throw new BusinessException("Payment required");
+        Payment before = paymentDAO.getById(p.getId());
+        if (before == null)
+            return false;
+        Booking b = bookingDAO.getById(p.getBookingId());
+        if (b == null)
+            throw new BusinessException("Booking not found");
+        BookingOutbox outbox = new BookingOutbox();
+        if (isCaptured(p) && !isCaptured(before)) outbox.add(() -> new PaymentCaptured(b, p));
+        if (!paymentDAO.update(p, outbox))
+            return false;
+        outbox.publish();
+        return true;
+    }
+
+    /**
+     * Deletes a payment record.
+     *
+     * @param id the payment ID
+     * @return {@code true} if the payment was deleted; {@code false} if it does not exist
+     * @throws Exception if a database or DAO error occurs
+     */
+    public boolean deletePayment(int id) throws Exception {
+        return paymentDAO.delete(id);
     }
 
     /**
@@ -107,4 +173,9 @@ public class PaymentService {
             throw new BusinessException("Invalid refund amount");
         paymentDAO.addRefund(paymentId, amount);
     }
+
+    /** Checks whether a payment's status is {@value #CAPTURED}. */
+    private static boolean isCaptured(Payment p) {
+        return CAPTURED.equalsIgnoreCase(p.getStatus());
+    }
 }
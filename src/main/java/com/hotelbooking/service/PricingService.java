@@ -0,0 +1,305 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.dao.RoomDAO;
+import com.hotelbooking.dao.RoomRateDAO;
+import com.hotelbooking.model.RatePeriod;
+import com.hotelbooking.model.Room;
+import com.hotelbooking.model.StayQuote;
+import com.hotelbooking.utils.LocalDateDeserializer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * {@code PricingService} prices stays from the nightly rates of each room type.
+ * <p>
+ * Rates are set per room type and night (for seasons, weekends, events...) through
+ * {@link #setRates(RatePeriod)}; nights without a rate cost the room's own
+ * {@link Room#getPrice() price}. Quotes are computed from the in-memory
+ * {@link RateCalendar} in constant time, so they can be attached to every result of an
+ * availability search.
+ * </p>
+ *
+ * <p>Rates are further adjusted to demand by {@link DemandPricing}, using the pricing
+ * strategy selected with {@code pricing.strategy}. Booking changes are reported through
+ * {@link #bookingMade(int, LocalDate, LocalDate)} and {@link #occupancyChanged(int, LocalDate, LocalDate)}
+ * and re-priced in batches between {@link #startRecompute()} and {@link #stopRecompute()}.</p>
+ *
+ * <p>{@link #cheapestStays(String, String, String, int, Double, int)} answers flexible-date
+ * questions ("any 3 nights in March under $X") by sliding the stay over every room's
+ * occupancy and demand-adjusted prices in parallel, without a query per date.</p>
+ */
+public class PricingService {
+
+    /** Message of the {@link BusinessException} thrown when the quoted room does not exist. */
+    public static final String ROOM_NOT_FOUND = "Room not found";
+
+    /** Longest period that can be priced in one request, in nights. */
+    public static final int MAX_PERIOD_NIGHTS = RateCalendar.HORIZON_DAYS;
+
+    /** Longest stay a cheapest-stay search looks for, in nights. */
+    public static final int MAX_SEARCH_STAY_NIGHTS = 30;
+
+    /** Longest range a cheapest-stay search covers, in nights. */
+    public static final int MAX_SEARCH_RANGE_NIGHTS = 366;
+
+    /** Most results a cheapest-stay search returns. */
+    public static final int MAX_SEARCH_RESULTS = 100;
+
+    private final RoomDAO roomDAO = new RoomDAO();
+    private final RoomRateDAO rateDAO = new RoomRateDAO();
+    private final RateCalendar calendar = RateCalendar.shared();
+    private final DemandPricing demand = DemandPricing.shared();
+    private final AvailabilityIndex availability = AvailabilityIndex.shared();
+
+    /**
+     * Quotes a stay in a room.
+     *
+     * @param roomId   the room
+     * @param checkIn  the check-in date (YYYY-MM-DD)
+     * @param checkOut the check-out date (YYYY-MM-DD)
+     * @return the quote
+     * @throws BusinessException with message {@link #ROOM_NOT_FOUND} if the room does not
+     *         exist, or if the dates are invalid
+     * @throws IllegalArgumentException if a date is not in YYYY-MM-DD format
+     * @throws Exception if a DAO or database error occurs
+     */
+    public StayQuote quote(int roomId, String checkIn, String checkOut) throws Exception {
+        if (checkIn == null || checkOut == null)
+            throw new BusinessException("Check-in and Check-out dates are required.");
+        LocalDate in = LocalDateDeserializer.parse(checkIn);
+        LocalDate out = LocalDateDeserializer.parse(checkOut);
+        if (!out.isAfter(in))
+            throw new BusinessException("Check-out must be after check-in.");
+        Room room = roomDAO.getById(roomId);
+        if (room == null)
+            throw new BusinessException(ROOM_NOT_FOUND);
+
+        return quote(room, in, out, price(room, in, out));
+    }
+
+    /**
+     * Finds the cheapest free stays of a given length within a date range, across all rooms
+     * (or the rooms of one type), in a single pass over the in-memory occupancy and rate
+     * calendars. See {@link CheapestStaySearch}.
+     *
+     * @param roomType the room type (case-insensitive), or {@code null} for all rooms
+     * @param from     the earliest check-in date (YYYY-MM-DD)
+     * @param to       the latest check-out date (YYYY-MM-DD)
+     * @param nights   the length of the stay
+     * @param maxTotal the most a stay may cost, or {@code null} for no limit
+     * @param limit    the number of stays to return
+     * @return the cheapest stays, cheapest first (then earliest, then by room ID)
+     * @throws BusinessException if a parameter is missing or invalid
+     * @throws IllegalArgumentException if a date is not in YYYY-MM-DD format
+     * @throws Exception if a DAO or database error occurs
+     */
+    public List<StayQuote> cheapestStays(String roomType, String from, String to, int nights,
+                                         Double maxTotal, int limit) throws Exception {
+        if (from == null || to == null)
+            throw new BusinessException("from and to dates are required.");
+        LocalDate start = LocalDateDeserializer.parse(from);
+        LocalDate end = LocalDateDeserializer.parse(to);
+        if (start.isBefore(LocalDate.now()))
+            throw new BusinessException("from cannot be in the past.");
+        if (end.toEpochDay() - start.toEpochDay() > MAX_SEARCH_RANGE_NIGHTS)
+            throw new BusinessException("A search may cover at most " + MAX_SEARCH_RANGE_NIGHTS + " nights.");
+        if (nights < 1 || nights > MAX_SEARCH_STAY_NIGHTS)
+            throw new BusinessException("nights must be between 1 and " + MAX_SEARCH_STAY_NIGHTS + ".");
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS)
+            throw new BusinessException("limit must be between 1 and " + MAX_SEARCH_RESULTS + ".");
+        if (maxTotal != null && maxTotal < 0)
+            throw new BusinessException("Invalid maxTotal");
+        if (end.toEpochDay() - start.toEpochDay() < nights) return new ArrayList<>();
+
+        List<Room> rooms = new ArrayList<>();
+        List<Integer> roomIds = new ArrayList<>();
+        Set<String> types = new HashSet<>();
+        for (Room r : roomDAO.getAll()) {
+            if (roomType != null && !roomType.equalsIgnoreCase(r.getRoomType())) continue;
+            rooms.add(r);
+            roomIds.add(r.getId());
+            if (r.getRoomType() != null && types.add(r.getRoomType().toLowerCase(Locale.ROOT)))
+                price(r, start, start.plusDays(1));
+        }
+        // Calendars and price tables are loaded here, so the parallel search never waits on the database.
+        availability.preload(roomIds);
+
+        long maxCents = maxTotal != null ? (long) Math.floor(maxTotal * 100) : Long.MAX_VALUE;
+        List<CheapestStaySearch.Window> windows = ForkJoinPool.commonPool().invoke(new CheapestStaySearch(
+                rooms, start.toEpochDay(), end.toEpochDay(), nights, maxCents, limit, availability, demand));
+
+        List<StayQuote> quotes = new ArrayList<>();
+        for (CheapestStaySearch.Window w : windows) {
+            LocalDate in = LocalDate.ofEpochDay(w.checkIn);
+            quotes.add(quote(w.room, in, in.plusDays(nights), w.cents / 100.0));
+        }
+        return quotes;
+    }
+
+    /**
+     * Prices a stay in an already loaded room at the demand-adjusted rates, without touching
+     * the database once the room type's rates are cached.
+     *
+     * @param room     the room
+     * @param checkIn  the first night
+     * @param checkOut the departure date
+     * @return the total price
+     * @throws Exception if the room type's rates cannot be loaded
+     */
+    public double price(Room room, LocalDate checkIn, LocalDate checkOut) throws Exception {
+        long cents = demand.priceCents(room.getRoomType(), Math.round(room.getPrice() * 100),
+                checkIn.toEpochDay(), checkOut.toEpochDay());
+        return cents / 100.0;
+    }
+
+    /**
+     * Prices a stay in an already loaded room at the set rates, before demand adjustment.
+     *
+     * @param room     the room
+     * @param checkIn  the first night
+     * @param checkOut the departure date
+     * @return the total price
+     * @throws Exception if the room type's rates cannot be loaded
+     */
+    public double basePrice(Room room, LocalDate checkIn, LocalDate checkOut) throws Exception {
+        long cents = calendar.priceCents(room.getRoomType(), Math.round(room.getPrice() * 100),
+                checkIn.toEpochDay(), checkOut.toEpochDay());
+        return cents / 100.0;
+    }
+
+    /**
+     * Returns the demand-adjusted price of tonight in a room.
+     *
+     * @param room the room
+     * @return the nightly price
+     * @throws Exception if the room type's rates cannot be loaded
+     */
+    public double currentPrice(Room room) throws Exception {
+        LocalDate today = LocalDate.now();
+        return price(room, today, today.plusDays(1));
+    }
+
+    /**
+     * Records a new booking for demand pricing: its nights' occupancy and its type's pace.
+     *
+     * @param roomId   the booked room
+     * @param checkIn  the check-in date
+     * @param checkOut the check-out date
+     */
+    public void bookingMade(int roomId, LocalDate checkIn, LocalDate checkOut) {
+        demand.booked(roomId, checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    /**
+     * Records that a room's occupancy changed for some nights (a booking was cancelled or
+     * moved), for demand pricing.
+     *
+     * @param roomId   the room
+     * @param checkIn  the first changed night
+     * @param checkOut the day after the last changed night
+     */
+    public void occupancyChanged(int roomId, LocalDate checkIn, LocalDate checkOut) {
+        demand.changed(roomId, checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    /**
+     * Starts re-pricing reported booking changes in the background.
+     */
+    public void startRecompute() {
+        demand.start();
+    }
+
+    /**
+     * Stops the background re-pricing.
+     */
+    public void stopRecompute() {
+        demand.stop();
+    }
+
+    /**
+     * Sets the nightly rate of a room type for a period.
+     *
+     * @param period the room type, dates, price and optional days of the week
+     * @return the number of nights set
+     * @throws BusinessException if a field is missing or invalid
+     * @throws IllegalArgumentException if a date is not in YYYY-MM-DD format
+     * @throws Exception if a DAO or database error occurs
+     */
+    public int setRates(RatePeriod period) throws Exception {
+        if (period == null || period.getRoomType() == null || period.getRoomType().trim().isEmpty())
+            throw new BusinessException("roomType is required.");
+        if (period.getPrice() < 0)
+            throw new BusinessException("Invalid price");
+        LocalDate[] range = range(period.getFrom(), period.getTo());
+        Set<Integer> days = null;
+        if (period.getDaysOfWeek() != null) {
+            days = new HashSet<>();
+            for (Integer d : period.getDaysOfWeek()) {
+                if (d == null || d < 1 || d > 7)
+                    throw new BusinessException("daysOfWeek must be between 1 (Monday) and 7 (Sunday).");
+                days.add(d);
+            }
+        }
+
+        List<LocalDate> nights = new ArrayList<>();
+        for (LocalDate d = range[0]; d.isBefore(range[1]); d = d.plusDays(1)) {
+            if (days == null || days.contains(d.getDayOfWeek().getValue())) nights.add(d);
+        }
+        rateDAO.setRates(period.getRoomType(), nights, period.getPrice());
+        calendar.invalidate(period.getRoomType());
+        demand.invalidate(period.getRoomType());
+        return nights.size();
+    }
+
+    /**
+     * Removes the rates of a room type for a period, so its nights cost the rooms' own prices.
+     *
+     * @param roomType the room type
+     * @param from     the first night (YYYY-MM-DD)
+     * @param to       the day after the last night (YYYY-MM-DD)
+     * @return the number of nights cleared
+     * @throws BusinessException if a field is missing or invalid
+     * @throws IllegalArgumentException if a date is not in YYYY-MM-DD format
+     * @throws Exception if a DAO or database error occurs
+     */
+    public int clearRates(String roomType, String from, String to) throws Exception {
+        if (roomType == null || roomType.trim().isEmpty())
+            throw new BusinessException("roomType is required.");
+        LocalDate[] range = range(from, to);
+        int cleared = rateDAO.clearRates(roomType, range[0], range[1]);
+        calendar.invalidate(roomType);
+        demand.invalidate(roomType);
+        return cleared;
+    }
+
+    private StayQuote quote(Room room, LocalDate in, LocalDate out, double total) throws Exception {
+        int nights = (int) (out.toEpochDay() - in.toEpochDay());
+        StayQuote q = new StayQuote();
+        q.setRoomId(room.getId());
+        q.setCheckIn(in.toString());
+        q.setCheckOut(out.toString());
+        q.setNights(nights);
+        q.setBaseTotal(basePrice(room, in, out));
+        q.setTotal(total);
+        q.setAverageNightly(Math.round(total * 100.0 / nights) / 100.0);
+        return q;
+    }
+
+    private static LocalDate[] range(String from, String to) throws BusinessException {
+        if (from == null || to == null)
+            throw new BusinessException("from and to dates are required.");
+        LocalDate start = LocalDateDeserializer.parse(from);
+        LocalDate end = LocalDateDeserializer.parse(to);
+        if (!end.isAfter(start))
+            throw new BusinessException("to must be after from.");
+        if (end.toEpochDay() - start.toEpochDay() > MAX_PERIOD_NIGHTS)
+            throw new BusinessException("A rate period may cover at most " + MAX_PERIOD_NIGHTS + " nights.");
+        return new LocalDate[]{start, end};
+    }
+}
@@ -0,0 +1,139 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.dao.RoomRateDAO;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory nightly rate calendar of each room type, used by {@link PricingService}.
+ * <p>
+ * A type's rates for {@value #HORIZON_DAYS} days from the day the calendar was built are
+ * held in two prefix-sum arrays indexed by epoch day: the sum of the set rates (in cents) and
+ * the number of nights that have a rate. The price of any stay is then two subtractions, plus
+ * the room's own price for the nights without a rate, however long the stay. Nights outside
+ * the horizon are charged at the room's price.
+ * </p>
+ *
+ * <p>Calendars are immutable snapshots, loaded from {@link RoomRateDAO} on first use, dropped
+ * when a rate of the type changes and rebuilt when they are more than
+ * {@value #REBUILD_AFTER_DAYS} days old, so reads never lock.</p>
+ */
+final class RateCalendar {
+
+    /** Number of nights covered by a calendar. */
+    static final int HORIZON_DAYS = 731;
+
+    /** A calendar built this many days ago is rebuilt so its horizon keeps moving forward. */
+    static final int REBUILD_AFTER_DAYS = 30;
+
+    private static final RateCalendar SHARED = new RateCalendar(new RoomRateDAO());
+
+    /** Calendars by lower-cased room type. */
+    private final ConcurrentHashMap<String, Rates> byType = new ConcurrentHashMap<>();
+
+    /** Incremented by every invalidation, so a load that raced with one is not cached. */
+    private final AtomicLong changes = new AtomicLong();
+
+    private final RoomRateDAO dao;
+
+    RateCalendar(RoomRateDAO dao) {
+        this.dao = dao;
+    }
+
+    static RateCalendar shared() {
+        return SHARED;
+    }
+
+    /**
+     * Prices the nights {@code [checkIn, checkOut)} of a room.
+     *
+     * @param roomType  the room's type, or {@code null} to charge only the base price
+     * @param baseCents the room's own nightly price, in cents
+     * @param checkIn   the first night (epoch day)
+     * @param checkOut  the departure day (epoch day)
+     * @return the total, in cents
+     * @throws Exception if the type's rates cannot be loaded
+     */
+    long priceCents(String roomType, long baseCents, long checkIn, long checkOut) throws Exception {
+        if (checkOut <= checkIn) return 0;
+        if (roomType == null) return baseCents * (checkOut - checkIn);
+        Rates r = rates(roomType);
+        int a = r.index(checkIn);
+        int b = r.index(checkOut);
+        long rated = r.ratedNights[b] - r.ratedNights[a];
+        return (r.rateSum[b] - r.rateSum[a]) + baseCents * (checkOut - checkIn - rated);
+    }
+
+    /**
+     * Drops a type's calendar after its rates have changed.
+     *
+     * @param roomType the room type
+     */
+    void invalidate(String roomType) {
+        changes.incrementAndGet();
+        byType.remove(key(roomType));
+    }
+
+    /**
+     * Returns a type's current calendar, loading or rebuilding it if needed.
+     *
+     * @param roomType the room type
+     * @return the calendar
+     * @throws Exception if the rates cannot be loaded
+     */
+    Rates rates(String roomType) throws Exception {
+        String key = key(roomType);
+        long today = LocalDate.now().toEpochDay();
+        Rates r = byType.get(key);
+        if (r != null && today - r.origin <= REBUILD_AFTER_DAYS) return r;
+
+        // Concurrent first loads may both query; either result is correct.
+        long seen = changes.get();
+        LocalDate origin = LocalDate.ofEpochDay(today);
+        Map<LocalDate, Double> set = dao.getRates(roomType, origin, origin.plusDays(HORIZON_DAYS));
+        r = new Rates(today, set);
+        byType.put(key, r);
+        if (changes.get() != seen) byType.remove(key, r);
+        return r;
+    }
+
+    private static String key(String roomType) {
+        return roomType.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * One type's rates from {@code origin}: the rate of each night (in cents, if set) and
+     * prefix sums, where entry {@code i} covers the nights before {@code origin + i}.
+     */
+    static final class Rates {
+
+        final long origin;
+        final long[] cents = new long[HORIZON_DAYS];
+        final boolean[] rated = new boolean[HORIZON_DAYS];
+        final long[] rateSum = new long[HORIZON_DAYS + 1];
+        final int[] ratedNights = new int[HORIZON_DAYS + 1];
+
+        Rates(long origin, Map<LocalDate, Double> set) {
+            this.origin = origin;
+            for (Map.Entry<LocalDate, Double> e : set.entrySet()) {
+                long i = e.getKey().toEpochDay() - origin;
+                if (i < 0 || i >= HORIZON_DAYS) continue;
+                cents[(int) i] = Math.round(e.getValue() * 100);
+                rated[(int) i] = true;
+            }
+            for (int i = 0; i < HORIZON_DAYS; i++) {
+                rateSum[i + 1] = rateSum[i] + cents[i];
+                ratedNights[i + 1] = ratedNights[i] + (rated[i] ? 1 : 0);
+            }
+        }
+
+        /** Prefix index of a day, clamped to the horizon. */
+        int index(long day) {
+            return (int) Math.max(0, Math.min(HORIZON_DAYS, day - origin));
+        }
+    }
+}
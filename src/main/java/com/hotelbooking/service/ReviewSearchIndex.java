@@ -0,0 +1,423 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.model.Review;
+import com.hotelbooking.model.ReviewSearchHit;
+import com.hotelbooking.utils.IntHashSet;
+import com.hotelbooking.utils.IntIntHashMap;
+import com.hotelbooking.utils.IntObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over review comments, ranked with BM25.
+ * <p>
+ * Comments are split into lower-case alphanumeric tokens (common English stop words are
+ * dropped). For every term the index keeps a postings list of {@code (reviewId, termFrequency)}
+ * pairs in ascending review-ID order, stored as a byte array of variable-length integers with
+ * the review IDs delta-encoded, which keeps lists for frequent terms a few bytes per review.
+ * </p>
+ *
+ * <p>The index is maintained incrementally by {@link ReviewService}: new reviews are appended to
+ * the postings of their terms, and deleted reviews are tombstoned and skipped at query time.
+ * Once tombstones make up a quarter of the index, postings are rebuilt from the live reviews.
+ * Each postings list also counts its live reviews, so document frequencies need no scan.</p>
+ *
+ * <p>The index is loaded lazily by {@link #ensureLoaded(Callable)}. Adds and removals that
+ * arrive while the reviews table is being read are queued and replayed on top of it, so a
+ * write racing the first search is never lost.</p>
+ *
+ * <p><b>Thread safety:</b> queries run concurrently under a read lock; updates take the write lock.</p>
+ *
+ * @see ReviewService#searchReviews(String, Integer, int)
+ */
+public final class ReviewSearchIndex {
+
+    /** BM25 term-frequency saturation parameter. */
+    private static final double K1 = 1.2;
+
+    /** BM25 document-length normalisation parameter. */
+    private static final double B = 0.75;
+
+    /** Minimum number of tombstones before a compaction is considered. */
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 256;
+
+    /** Words too common to be useful in a query. */
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+            "of", "on", "or", "so", "such", "that", "the", "their", "then", "there", "these", "they",
+            "this", "to", "was", "were", "will", "with"));
+
+    /** Process-wide instance. */
+    private static final ReviewSearchIndex SHARED = new ReviewSearchIndex();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Postings per term. */
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    /** Live reviews by ID. */
+    private final IntObjectHashMap<Review> docs = new IntObjectHashMap<>();
+
+    /** Token count of each live review. */
+    private final IntIntHashMap docLengths = new IntIntHashMap();
+
+    /** Deleted review IDs still present in some postings list. */
+    private final IntHashSet tombstones = new IntHashSet();
+
+    /** Sum of {@link #docLengths}, for the average document length. */
+    private long totalLength;
+
+    /** Whether the index has been populated from the database. */
+    private volatile boolean loaded;
+
+    /** Whether {@link #ensureLoaded} is reading the reviews table; guarded by the write lock. */
+    private boolean loading;
+
+    /** Adds and removals made while {@link #loading}, replayed in order once the load is indexed. */
+    private final List<Runnable> pendingWrites = new ArrayList<>();
+
+    /** Serialises loads, so the table is read at most once at a time. */
+    private final Object loadLock = new Object();
+
+    private ReviewSearchIndex() {}
+
+    /**
+     * Returns the process-wide index.
+     *
+     * @return the shared index
+     */
+    public static ReviewSearchIndex shared() {
+        return SHARED;
+    }
+
+    /**
+     * Checks whether the index has been loaded.
+     *
+     * @return {@code true} once the index holds the reviews table
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Loads the index from the reviews table unless that has already happened.
+     * <p>
+     * {@link #add} and {@link #remove} calls made while {@code source} runs are queued and
+     * applied after its reviews, so each write is reflected whether or not the snapshot saw it.
+     * If {@code source} fails, the index stays unloaded and the next call tries again.
+     *
+     * @param source reads every review in the system, typically {@code ReviewDAO::getAllReviews}
+     * @throws Exception if {@code source} fails
+     */
+    public void ensureLoaded(Callable<? extends Collection<Review>> source) throws Exception {
+        if (loaded) return;
+        synchronized (loadLock) {
+            if (loaded) return;
+            setLoading(true);
+            Collection<Review> reviews;
+            try {
+                reviews = source.call();
+            } catch (Exception e) {
+                setLoading(false);
+                throw e;
+            }
+            lock.writeLock().lock();
+            try {
+                clear();
+                List<Review> sorted = new ArrayList<>(reviews);
+                sorted.sort(Comparator.comparingInt(Review::getId));
+                for (Review r : sorted) addLocked(r);
+                for (Runnable w : pendingWrites) w.run();
+                loaded = true;
+            } finally {
+                loading = false;
+                pendingWrites.clear();
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Indexes a newly added review. Before the index is loaded this does nothing, since the
+     * load reads the review from the table.
+     *
+     * @param r the review, with its generated ID set
+     */
+    public void add(Review r) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                // The snapshot may already hold the review; only index it if it does not.
+                pendingWrites.add(() -> {
+                    if (!docs.containsKey(r.getId())) addOrReplaceLocked(r);
+                });
+            } else if (loaded) {
+                addOrReplaceLocked(r);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a review from search results. Before the index is loaded this does nothing.
+     *
+     * @param reviewId the ID of the deleted review
+     */
+    public void remove(int reviewId) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                pendingWrites.add(() -> removeAndMaybeCompactLocked(reviewId));
+            } else if (loaded) {
+                removeAndMaybeCompactLocked(reviewId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the reviews that best match a free-text query.
+     *
+     * @param query  the search text; every token is optional and contributes to the score
+     * @param roomId restrict results to this room, or {@code null} for all rooms
+     * @param limit  maximum number of hits
+     * @return hits ordered by descending BM25 score; empty if no token matches
+     */
+    public List<ReviewSearchHit> search(String query, Integer roomId, int limit) {
+        List<String> terms = new ArrayList<>(new HashSet<>(tokenize(query)));
+
+        lock.readLock().lock();
+        try {
+            int n = docs.size();
+            if (n == 0 || terms.isEmpty()) return new ArrayList<>();
+            double avgLength = (double) totalLength / n;
+
+            Map<Integer, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Postings p = postings.get(term);
+                if (p == null) continue;
+                int df = Math.max(1, p.live);
+                double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+
+                Postings.Cursor cur = p.cursor();
+                while (cur.next()) {
+                    int id = cur.doc;
+                    if (tombstones.contains(id)) continue;
+                    Review r = docs.get(id);
+                    if (r == null || (roomId != null && r.getRoomId() != roomId)) continue;
+                    double norm = K1 * (1 - B + B * docLengths.getOrDefault(id, 0) / avgLength);
+                    double s = idf * cur.tf * (K1 + 1) / (cur.tf + norm);
+                    scores.merge(id, s, Double::sum);
+                }
+            }
+
+            // Lower score first (ties: higher ID first), so the heap head is the weakest hit.
+            Comparator<ReviewSearchHit> weakestFirst = Comparator.comparingDouble(ReviewSearchHit::getScore)
+                    .thenComparingInt(h -> -h.getReview().getId());
+            PriorityQueue<ReviewSearchHit> top = new PriorityQueue<>(weakestFirst);
+            for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+                top.add(new ReviewSearchHit(docs.get(e.getKey()), e.getValue()));
+                if (top.size() > limit) top.poll();
+            }
+            List<ReviewSearchHit> out = new ArrayList<>(top);
+            out.sort(weakestFirst.reversed());
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lower-case alphanumeric tokens, dropping stop words and single characters.
+     *
+     * @param text the text to tokenize; may be {@code null}
+     * @return the tokens in order of appearance
+     */
+    static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                String token = lower.substring(start, i);
+                if (token.length() > 1 && !STOP_WORDS.contains(token)) out.add(token);
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    /** Marks a load as started or finished, dropping writes queued for it; takes the write lock. */
+    private void setLoading(boolean value) {
+        lock.writeLock().lock();
+        try {
+            loading = value;
+            pendingWrites.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Indexes a review, replacing an earlier version; caller holds the write lock. */
+    private void addOrReplaceLocked(Review r) {
+        if (docs.containsKey(r.getId())) removeLocked(r.getId());
+        if (tombstones.contains(r.getId())) compactLocked();
+        addLocked(r);
+    }
+
+    /** Tombstones a review and compacts if tombstones dominate; caller holds the write lock. */
+    private void removeAndMaybeCompactLocked(int reviewId) {
+        if (!removeLocked(reviewId)) return;
+        if (tombstones.size() >= MIN_TOMBSTONES_TO_COMPACT && tombstones.size() * 4 >= docs.size() + tombstones.size())
+            compactLocked();
+    }
+
+    /** Adds a review to the postings; caller holds the write lock. */
+    private void addLocked(Review r) {
+        List<String> tokens = tokenize(r.getComment());
+        Map<String, Integer> tf = new LinkedHashMap<>();
+        for (String t : tokens) tf.merge(t, 1, Integer::sum);
+
+        for (Map.Entry<String, Integer> e : tf.entrySet()) {
+            Postings p = postings.computeIfAbsent(e.getKey(), k -> new Postings());
+            p.add(r.getId(), e.getValue());
+            p.live++;
+        }
+        docs.put(r.getId(), r);
+        docLengths.put(r.getId(), tokens.size());
+        totalLength += tokens.size();
+    }
+
+    /** Tombstones a review; caller holds the write lock. */
+    private boolean removeLocked(int reviewId) {
+        Review r = docs.remove(reviewId);
+        if (r == null) return false;
+        for (String t : new HashSet<>(tokenize(r.getComment()))) {
+            Postings p = postings.get(t);
+            if (p != null) p.live--;
+        }
+        totalLength -= docLengths.getOrDefault(reviewId, 0);
+        docLengths.remove(reviewId);
+        tombstones.add(reviewId);
+        return true;
+    }
+
+    /** Rebuilds every postings list from the live reviews; caller holds the write lock. */
+    private void compactLocked() {
+        List<Review> live = new ArrayList<>(docs.size());
+        docs.forEachValue(live::add);
+        clear();
+        live.sort(Comparator.comparingInt(Review::getId));
+        for (Review r : live) addLocked(r);
+    }
+
+    /** Empties the index; caller holds the write lock. */
+    private void clear() {
+        postings.clear();
+        docs.clear();
+        docLengths.clear();
+        tombstones.clear();
+        totalLength = 0;
+    }
+
+    /**
+     * Postings list for one term: varint-encoded {@code (reviewId delta, tf)} pairs in
+     * ascending review-ID order.
+     */
+    private static final class Postings {
+
+        private byte[] data = new byte[8];
+        private int size;
+        private int count;
+        private int lastDoc;
+
+        /** Postings of reviews that are not tombstoned: the term's document frequency. */
+        int live;
+
+        /** Appends a posting, re-encoding the list if the ID arrives out of order. */
+        void add(int doc, int tf) {
+            if (count > 0 && doc <= lastDoc) {
+                insertOutOfOrder(doc, tf);
+                return;
+            }
+            writeVarint(doc - lastDoc);
+            writeVarint(tf);
+            lastDoc = doc;
+            count++;
+        }
+
+        Cursor cursor() {
+            return new Cursor();
+        }
+
+        private void insertOutOfOrder(int doc, int tf) {
+            List<int[]> all = new ArrayList<>(count + 1);
+            Cursor cur = cursor();
+            while (cur.next()) {
+                if (cur.doc != doc) all.add(new int[]{cur.doc, cur.tf});
+            }
+            all.add(new int[]{doc, tf});
+            all.sort(Comparator.comparingInt(p -> p[0]));
+
+            size = 0;
+            count = 0;
+            lastDoc = 0;
+            for (int[] p : all) add(p[0], p[1]);
+        }
+
+        private void writeVarint(int v) {
+            if (size + 5 > data.length) data = Arrays.copyOf(data, Math.max(data.length * 2, size + 5));
+            while ((v & ~0x7F) != 0) {
+                data[size++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            data[size++] = (byte) v;
+        }
+
+        /** Forward-only decoder over the postings list. */
+        final class Cursor {
+            private int pos;
+            int doc;
+            int tf;
+
+            boolean next() {
+                if (pos >= size) return false;
+                doc += readVarint();
+                tf = readVarint();
+                return true;
+            }
+
+            private int readVarint() {
+                int v = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[pos++];
+                    v |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                return v;
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.hotelbooking.service;
 
 import com.hotelbooking.dao.ReviewDAO;
 import com.hotelbooking.model.Review;
+import com.hotelbooking.model.ReviewSearchHit;
 
 import java.util.List;
 
@@ -20,6 +21,8 @@ import java.util.List;
  *     <li>Validate and persist new customer reviews.</li>
  *     <li>Retrieve all reviews or reviews for a specific room.</li>
  *     <li>Delete reviews by ID.</li>
+ *     <li>Keep the per-room rating aggregates in {@link RoomRatingService} in step with review writes.</li>
+ *     <li>Search review comments through the in-memory {@link ReviewSearchIndex}.</li>
  * </ul>
  *
  * <h3>Example Usage:</h3>
@@ -35,9 +38,18 @@ import java.util.List;
  */
 public class ReviewService {
 
+    /** Default number of search hits returned. */
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+
+    /** Largest number of search hits a caller may request. */
+    public static final int MAX_SEARCH_LIMIT = 100;
+
     /** Data Access Object for interacting with the review persistence layer. */
     private final ReviewDAO reviewDAO = new ReviewDAO();
 
+    /** Maintains the per-room rating aggregates. */
+    private final RoomRatingService ratingService = new RoomRatingService();
+
     /**
      * Adds a new review to the database after validation.
      * <p>
@@ -46,6 +58,7 @@ public class ReviewService {
      *     <li>The {@link Review} object is not null.</li>
      *     <li>The rating value is between 1 and 5 (inclusive).</li>
      * </ul>
+     * The room's rating aggregate and the search index are updated once the review is stored.
      *
      * @param r the {@link Review} object to be persisted
      * @return the generated review ID
@@ -57,7 +70,13 @@ public class ReviewService {
             throw new BusinessException("Review required");
         if (r.getRating() < 1 || r.getRating() > 5)
             throw new BusinessException("Rating must be between 1 and 5");
-        return reviewDAO.addReview(r);
+        int id = reviewDAO.addReview(r);
+        if (id > 0) {
+            r.setId(id);
+            ratingService.reviewAdded(r.getRoomId(), r.getRating());
+            ReviewSearchIndex.shared().add(r);
+        }
+        return id;
     }
 
     /**
@@ -85,14 +104,42 @@ public class ReviewService {
      * Deletes a review by its unique ID.
      * <p>
      * If the review cannot be deleted (for example, because it does not exist),
-     * a {@link BusinessException} is thrown.
+     * a {@link BusinessException} is thrown. On success the review is removed from its
+     * room's rating aggregate and from the search index.
      *
      * @param id the ID of the review to delete
      * @throws BusinessException if the review cannot be found or deleted
      * @throws Exception if a database or DAO error occurs
      */
     public void deleteReview(int id) throws Exception {
-        if (!reviewDAO.deleteReview(id))
+        Review existing = reviewDAO.getById(id);
+        if (existing == null || !reviewDAO.deleteReview(id))
             throw new BusinessException("Review delete failed or not found");
+        ratingService.reviewDeleted(existing.getRoomId(), existing.getRating());
+        ReviewSearchIndex.shared().remove(id);
+    }
+
+    /**
+     * Searches review comments, best match first.
+     * <p>
+     * The search index is built from all reviews on first use and kept up to date by
+     * {@link #addReview(Review)} and {@link #deleteReview(int)} afterwards.
+     *
+     * @param query  free-text query, e.g. {@code "quiet breakfast"}
+     * @param roomId restrict results to one room, or {@code null} for all rooms
+     * @param limit  maximum number of hits, between 1 and {@link #MAX_SEARCH_LIMIT}
+     * @return the matching reviews with their BM25 scores
+     * @throws BusinessException if the query is blank or the limit is out of range
+     * @throws Exception if the index has to be loaded and a database error occurs
+     */
+    public List<ReviewSearchHit> searchReviews(String query, Integer roomId, int limit) throws Exception {
+        if (query == null || query.trim().isEmpty())
+            throw new BusinessException("Search query required");
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT)
+            throw new BusinessException("limit must be between 1 and " + MAX_SEARCH_LIMIT);
+
+        ReviewSearchIndex index = ReviewSearchIndex.shared();
+        index.ensureLoaded(reviewDAO::getAllReviews);
+        return index.search(query, roomId, limit);
     }
 }
@@ -0,0 +1,167 @@
+package com.hotelbooking.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Scoring and planning rules behind {@link RoomAssignmentService}.
+ * <p>
+ * A <i>short gap</i> is a free run of 1 to {@value #SHORT_GAP_NIGHTS} nights between two
+ * occupied intervals of a room; such runs rarely sell. Placement prefers, in order: a gap
+ * that the stay fills exactly, the tightest gap that leaves a sellable remainder, and only
+ * then a gap that leaves a short remainder.
+ * </p>
+ *
+ * <p>All dates are epoch days; intervals are {@code [start, end)}.</p>
+ */
+final class RoomAssignmentPlanner {
+
+    /** Free runs of at most this many nights count as fragmentation. */
+    static final int SHORT_GAP_NIGHTS = 2;
+
+    private static final long SHORT_GAP_COST = 1_000_000;
+    private static final long OPEN_GAP_COST = 1_000;
+
+    private RoomAssignmentPlanner() {}
+
+    /**
+     * Scores placing a stay into a free gap; lower is better.
+     *
+     * @param gap   the free gap as returned by {@link AvailabilityIndex#freeGap(int, long, long)}
+     * @param start the first night
+     * @param end   the departure day
+     * @param today today's epoch day; a gap with no earlier booking is measured from here
+     * @return the cost of the two remainders left on either side of the stay
+     */
+    static long placementCost(long[] gap, long start, long end, long today) {
+        long from = gap[0] == Long.MIN_VALUE ? today : gap[0];
+        long leftCost = remainderCost(Math.max(0, start - from));
+        long rightCost = gap[1] == Long.MAX_VALUE ? OPEN_GAP_COST : remainderCost(gap[1] - end);
+        return leftCost + rightCost;
+    }
+
+    /** Cost of leaving {@code nights} free next to a stay. */
+    private static long remainderCost(long nights) {
+        if (nights == 0) return 0;
+        if (nights <= SHORT_GAP_NIGHTS) return SHORT_GAP_COST + nights;
+        return Math.min(nights, OPEN_GAP_COST - 1);
+    }
+
+    /**
+     * Plans an assignment of movable stays onto rooms around pinned intervals.
+     * <p>
+     * Stays are swept in check-in order (the longer stay first on ties). Each room is
+     * tracked by the end of the last interval placed in it, in a sorted map, so the best room
+     * for a stay is found with a few floor lookups instead of a scan: first a room that
+     * becomes free exactly on the check-in day, then the one with the latest end that still
+     * leaves more than {@value #SHORT_GAP_NIGHTS} free nights, then one that leaves a short
+     * gap. A candidate is skipped if a pinned interval later in that room would overlap.
+     * </p>
+     *
+     * @param rooms   the room IDs available to the plan
+     * @param pinned  fixed intervals as {@code {roomId, start, end}}
+     * @param movable stays to place as {@code {start, end}}
+     * @param today   today's epoch day
+     * @return the room ID chosen for each movable stay, in input order, or {@code null} if
+     *         some stay could not be placed
+     */
+    static int[] plan(int[] rooms, long[][] pinned, long[][] movable, long today) {
+        Map<Integer, Integer> slot = new HashMap<>();
+        for (int i = 0; i < rooms.length; i++) slot.put(rooms[i], i);
+
+        List<TreeMap<Long, Long>> pinnedByRoom = new ArrayList<>(rooms.length);
+        long[] lastEnd = new long[rooms.length];
+        for (int i = 0; i < rooms.length; i++) {
+            pinnedByRoom.add(new TreeMap<>());
+            lastEnd[i] = today;
+        }
+        for (long[] p : pinned) {
+            Integer r = slot.get((int) p[0]);
+            if (r != null) pinnedByRoom.get(r).put(p[1], p[2]);
+        }
+
+        // Events: pinned first on equal start so rooms they occupy are skipped.
+        Integer[] order = new Integer[pinned.length + movable.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.<Integer>comparingLong(i -> i < pinned.length ? pinned[i][1] : movable[i - pinned.length][0])
+                .thenComparingInt(i -> i < pinned.length ? 0 : 1)
+                .thenComparingLong(i -> i < pinned.length ? 0 : movable[i - pinned.length][0] - movable[i - pinned.length][1]));
+
+        TreeMap<Long, ArrayDeque<Integer>> byLastEnd = new TreeMap<>();
+        for (int r = 0; r < rooms.length; r++) byLastEnd.computeIfAbsent(lastEnd[r], k -> new ArrayDeque<>()).add(r);
+
+        int[] result = new int[movable.length];
+        for (Integer e : order) {
+            if (e < pinned.length) {
+                Integer r = slot.get((int) pinned[e][0]);
+                if (r != null && pinned[e][2] > lastEnd[r]) move(byLastEnd, r, lastEnd[r], pinned[e][2], lastEnd);
+                continue;
+            }
+            long[] m = movable[e - pinned.length];
+            int r = choose(byLastEnd, pinnedByRoom, m[0], m[1]);
+            if (r < 0) return null;
+            move(byLastEnd, r, lastEnd[r], m[1], lastEnd);
+            result[e - pinned.length] = rooms[r];
+        }
+        return result;
+    }
+
+    /** Picks the room slot for a stay, or -1. */
+    private static int choose(TreeMap<Long, ArrayDeque<Integer>> byLastEnd, List<TreeMap<Long, Long>> pinnedByRoom,
+                              long start, long end) {
+        int r = firstFit(byLastEnd.subMap(start, true, start, true), pinnedByRoom, start, end);
+        if (r < 0) r = firstFit(byLastEnd.headMap(start - SHORT_GAP_NIGHTS, false), pinnedByRoom, start, end);
+        if (r < 0) r = firstFit(byLastEnd.subMap(start - SHORT_GAP_NIGHTS, true, start, false), pinnedByRoom, start, end);
+        return r;
+    }
+
+    /** Returns the first room, latest end first, whose future pinned intervals leave room for the stay. */
+    private static int firstFit(NavigableMap<Long, ArrayDeque<Integer>> candidates, List<TreeMap<Long, Long>> pinnedByRoom,
+                                long start, long end) {
+        for (ArrayDeque<Integer> rooms : candidates.descendingMap().values()) {
+            for (int r : rooms) {
+                Map.Entry<Long, Long> next = pinnedByRoom.get(r).ceilingEntry(start);
+                Map.Entry<Long, Long> prev = pinnedByRoom.get(r).lowerEntry(start);
+                if ((next == null || next.getKey() >= end) && (prev == null || prev.getValue() <= start)) return r;
+            }
+        }
+        return -1;
+    }
+
+    private static void move(TreeMap<Long, ArrayDeque<Integer>> byLastEnd, int r, long from, long to, long[] lastEnd) {
+        ArrayDeque<Integer> q = byLastEnd.get(from);
+        q.remove(r);
+        if (q.isEmpty()) byLastEnd.remove(from);
+        byLastEnd.computeIfAbsent(to, k -> new ArrayDeque<>()).add(r);
+        lastEnd[r] = to;
+    }
+
+    /**
+     * Measures fragmentation as the number of nights in short gaps, counting the run from
+     * today to a room's first interval as a gap.
+     *
+     * @param intervalsByRoom the occupied intervals of each room as {@code {start, end}}
+     * @param today           today's epoch day
+     * @return the number of nights in short gaps
+     */
+    static long fragmentation(Map<Integer, List<long[]>> intervalsByRoom, long today) {
+        long nights = 0;
+        for (List<long[]> intervals : intervalsByRoom.values()) {
+            intervals.sort(Comparator.comparingLong(iv -> iv[0]));
+            long prevEnd = today;
+            for (long[] iv : intervals) {
+                long gap = iv[0] - prevEnd;
+                if (gap > 0 && gap <= SHORT_GAP_NIGHTS) nights += gap;
+                prevEnd = Math.max(prevEnd, iv[1]);
+            }
+        }
+        return nights;
+    }
+}
@@ -0,0 +1,229 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.dao.BookingDAO;
+import com.hotelbooking.dao.RoomDAO;
+import com.hotelbooking.model.BookingHold;
+import com.hotelbooking.model.BookingRecord;
+import com.hotelbooking.model.Room;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@code RoomAssignmentService} places bookings made for a room type onto concrete rooms so
+ * that free nights stay in long, sellable runs.
+ * <p>
+ * <b>On create</b>, {@link #rankRooms(String, LocalDate, LocalDate)} scores every free room of the
+ * type by the gaps the stay would leave on either side (see {@link RoomAssignmentPlanner})
+ * and {@link BookingService} books the best one.
+ * </p>
+ *
+ * <p><b>Nightly</b>, {@link #reoptimize(String)} re-plans all future bookings of each type
+ * while holding the locks of the type's rooms in the {@link AvailabilityIndex}. Only bookings
+ * whose room was chosen from the type ({@link BookingRecord#isAssignedByType()}) are moved;
+ * bookings the guest made for a specific room, bookings that start within
+ * {@value #FROZEN_DAYS} days, and active holds keep their rooms. The movable bookings are swept in check-in order onto the rooms that leave the fewest short gaps. The new plan
+ * is applied in one transaction, and only if it reduces fragmentation. Moves change only the
+ * room number, so no booking events are published for them.</p>
+ *
+ * <p>The nightly run starts at the hour given by the system property
+ * {@code assignment.reoptimize.hour} (default {@value #DEFAULT_REOPTIMIZE_HOUR}; a negative
+ * value disables it) and is started and stopped by
+ * {@code com.hotelbooking.servlet.AppContextListener}.</p>
+ */
+public class RoomAssignmentService {
+
+    /** Bookings starting within this many days are never moved. */
+    public static final int FROZEN_DAYS = 2;
+
+    /** Default hour of day for the nightly re-optimization. */
+    public static final int DEFAULT_REOPTIMIZE_HOUR = 3;
+
+    private static final Logger LOG = Logger.getLogger(RoomAssignmentService.class.getName());
+
+    private final RoomDAO roomDAO = new RoomDAO();
+    private final BookingDAO bookingDAO = new BookingDAO();
+    private final AvailabilityIndex availability = AvailabilityIndex.shared();
+    private final AvailabilitySearchCache searchCache = AvailabilitySearchCache.shared();
+
+    private ScheduledExecutorService nightly;
+
+    /**
+     * Lists the rooms of a type that are free for a stay, best placement first.
+     *
+     * @param roomType the room type (case-insensitive)
+     * @param checkIn  the check-in date
+     * @param checkOut the check-out date
+     * @return the free room IDs, ordered by placement cost and then room ID
+     * @throws BusinessException if no room has that type
+     * @throws Exception if a DAO or database error occurs
+     */
+    public List<Integer> rankRooms(String roomType, LocalDate checkIn, LocalDate checkOut) throws Exception {
+        List<Room> rooms = roomsOfType(roomType);
+        if (rooms.isEmpty())
+            throw new BusinessException("Unknown room type: " + roomType);
+
+        long start = checkIn.toEpochDay();
+        long end = checkOut.toEpochDay();
+        long today = LocalDate.now().toEpochDay();
+
+        List<long[]> scored = new ArrayList<>();
+        for (Room r : rooms) {
+            long[] gap = availability.freeGap(r.getId(), start, end);
+            if (gap != null) scored.add(new long[]{RoomAssignmentPlanner.placementCost(gap, start, end, today), r.getId()});
+        }
+        scored.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        List<Integer> ids = new ArrayList<>(scored.size());
+        for (long[] s : scored) ids.add((int) s[1]);
+        return ids;
+    }
+
+    /**
+     * Re-plans the future bookings of one room type to reduce short gaps.
+     *
+     * @param roomType the room type (case-insensitive)
+     * @return the number of bookings moved to another room
+     * @throws Exception if a DAO or database error occurs
+     */
+    public int reoptimize(String roomType) throws Exception {
+        List<Room> rooms = roomsOfType(roomType);
+        if (rooms.isEmpty()) return 0;
+        Set<Integer> roomIds = new TreeSet<>();
+        for (Room r : rooms) roomIds.add(r.getId());
+
+        return availability.withRoomsLocked(roomIds, () -> {
+            LocalDate today = LocalDate.now();
+            long todayDay = today.toEpochDay();
+            long frozenUntil = todayDay + FROZEN_DAYS;
+
+            List<long[]> pinned = new ArrayList<>();
+            List<BookingRecord> movable = new ArrayList<>();
+            Map<Integer, List<long[]>> current = new HashMap<>();
+            for (Integer roomId : roomIds) current.put(roomId, new ArrayList<>());
+
+            for (BookingRecord b : bookingDAO.getCurrentForRooms(roomIds, today)) {
+                long start = b.getCheckIn();
+                long end = b.getCheckOut();
+                current.get(b.getRoomId()).add(new long[]{start, end});
+                if (start < frozenUntil || !b.isAssignedByType()) pinned.add(new long[]{b.getRoomId(), start, end});
+                else movable.add(b);
+            }
+            for (Integer roomId : roomIds) {
+                for (BookingHold h : availability.holdsFor(roomId)) {
+                    long[] iv = {h.getCheckIn().toEpochDay(), h.getCheckOut().toEpochDay()};
+                    current.get(roomId).add(iv);
+                    pinned.add(new long[]{roomId, iv[0], iv[1]});
+                }
+            }
+            if (movable.isEmpty()) return 0;
+
+            long[][] stays = new long[movable.size()][];
+            for (int i = 0; i < stays.length; i++) {
+                BookingRecord b = movable.get(i);
+                stays[i] = new long[]{b.getCheckIn(), b.getCheckOut()};
+            }
+            int[] roomArray = roomIds.stream().mapToInt(Integer::intValue).toArray();
+            int[] plan = RoomAssignmentPlanner.plan(roomArray, pinned.toArray(new long[0][]), stays, todayDay);
+            if (plan == null) return 0;
+
+            Map<Integer, List<long[]>> planned = new HashMap<>();
+            for (Integer roomId : roomIds) planned.put(roomId, new ArrayList<>());
+            for (long[] p : pinned) planned.get((int) p[0]).add(new long[]{p[1], p[2]});
+            for (int i = 0; i < plan.length; i++) planned.get(plan[i]).add(stays[i]);
+
+            long before = RoomAssignmentPlanner.fragmentation(current, todayDay);
+            long after = RoomAssignmentPlanner.fragmentation(planned, todayDay);
+            if (after >= before) return 0;
+
+            Map<Integer, Integer> moves = new LinkedHashMap<>();
+            Set<Integer> touched = new TreeSet<>();
+            for (int i = 0; i < plan.length; i++) {
+                BookingRecord b = movable.get(i);
+                if (plan[i] != b.getRoomId()) {
+                    moves.put(b.getId(), plan[i]);
+                    touched.add(b.getRoomId());
+                    touched.add(plan[i]);
+                }
+            }
+            bookingDAO.reassignRooms(moves);
+            for (Integer roomId : touched) availability.reload(roomId);
+            for (int i = 0; i < plan.length; i++) {
+                if (plan[i] != movable.get(i).getRoomId()) searchCache.invalidate(stays[i][0], stays[i][1]);
+            }
+            LOG.info("Re-optimized " + roomType + ": moved " + moves.size() + " bookings, short-gap nights "
+                    + before + " -> " + after);
+            return moves.size();
+        });
+    }
+
+    /**
+     * Re-plans every room type.
+     *
+     * @return the total number of bookings moved
+     * @throws Exception if a DAO or database error occurs
+     */
+    public int reoptimizeAll() throws Exception {
+        Set<String> types = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (Room r : roomDAO.getAll()) {
+            if (r.getRoomType() != null) types.add(r.getRoomType());
+        }
+        int moved = 0;
+        for (String type : types) moved += reoptimize(type);
+        return moved;
+    }
+
+    /**
+     * Schedules {@link #reoptimizeAll()} once a day. Does nothing if already scheduled or
+     * disabled by {@code assignment.reoptimize.hour}.
+     */
+    public synchronized void startNightly() {
+        int hour = Integer.getInteger("assignment.reoptimize.hour", DEFAULT_REOPTIMIZE_HOUR);
+        if (nightly != null || hour < 0) return;
+        nightly = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "room-assignment");
+            t.setDaemon(true);
+            return t;
+        });
+        long now = System.currentTimeMillis();
+        long next = LocalDate.now().atTime(hour % 24, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (next <= now) next += TimeUnit.DAYS.toMillis(1);
+        nightly.scheduleAtFixedRate(() -> {
+            try {
+                reoptimizeAll();
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "Nightly room re-optimization failed", e);
+            }
+        }, next - now, TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels the nightly schedule.
+     */
+    public synchronized void stopNightly() {
+        if (nightly == null) return;
+        nightly.shutdownNow();
+        nightly = null;
+    }
+
+    private List<Room> roomsOfType(String roomType) throws Exception {
+        if (roomType == null) return Collections.emptyList();
+        List<Room> out = new ArrayList<>();
+        for (Room r : roomDAO.getAll()) {
+            if (roomType.equalsIgnoreCase(r.getRoomType())) out.add(r);
+        }
+        return out;
+    }
+}
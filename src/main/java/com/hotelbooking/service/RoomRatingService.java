@@ -0,0 +1,147 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.dao.RoomRatingDAO;
+import com.hotelbooking.model.RoomRating;
+import com.hotelbooking.utils.ConcurrentIntObjectMap;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code RoomRatingService} keeps per-room review aggregates (count, sum and star
+ * histogram) in memory so ratings can be served without scanning the {@code reviews} table.
+ * <p>
+ * The aggregates are loaded once from {@code room_ratings} and then updated incrementally by
+ * {@link ReviewService} whenever a review is added or deleted; every change is written through
+ * to the database via {@link RoomRatingDAO}. {@link #rebuild()} recomputes everything from
+ * the {@code reviews} table if the two ever drift apart.
+ *
+ * <h3>Responsibilities:</h3>
+ * <ul>
+ *     <li>Serve the rating of one room or of a batch of rooms.</li>
+ *     <li>Apply added and deleted reviews to the aggregates.</li>
+ *     <li>Rebuild the aggregates from the review table.</li>
+ * </ul>
+ *
+ * <h3>Example Usage:</h3>
+ * <pre>
+ * RoomRatingService service = new RoomRatingService();
+ * RoomRating rating = service.getRating(101);
+ * double avg = rating.getAverage();
+ * </pre>
+ *
+ * @see com.hotelbooking.dao.RoomRatingDAO
+ * @see com.hotelbooking.model.RoomRating
+ */
+public class RoomRatingService {
+
+    /**
+     * Aggregates by room ID, shared by all service instances. Values are never mutated in
+     * place; updates swap in a new {@link RoomRating}, so readers always see a consistent one.
+     */
+    private static final ConcurrentIntObjectMap<RoomRating> RATINGS = new ConcurrentIntObjectMap<>();
+
+    /** Guards the one-time load of {@link #RATINGS}. */
+    private static final Object LOAD_LOCK = new Object();
+
+    /** Whether {@link #RATINGS} has been loaded from the database. */
+    private static volatile boolean loaded;
+
+    /** Data Access Object for the persisted aggregates. */
+    private final RoomRatingDAO ratingDAO = new RoomRatingDAO();
+
+    /**
+     * Retrieves the rating aggregate of a room.
+     *
+     * @param roomId the room ID
+     * @return the aggregate; an empty one if the room has no reviews
+     * @throws BusinessException if the room ID is invalid
+     * @throws Exception if the aggregates cannot be loaded
+     */
+    public RoomRating getRating(int roomId) throws Exception {
+        if (roomId <= 0)
+            throw new BusinessException("Invalid room id");
+        ensureLoaded();
+        RoomRating r = RATINGS.get(roomId);
+        return r != null ? r : new RoomRating(roomId);
+    }
+
+    /**
+     * Retrieves the rating aggregates of several rooms.
+     *
+     * @param roomIds the room IDs
+     * @return a map from room ID to aggregate, with an empty aggregate for rooms without reviews
+     * @throws Exception if the aggregates cannot be loaded
+     */
+    public Map<Integer, RoomRating> getRatings(Collection<Integer> roomIds) throws Exception {
+        ensureLoaded();
+        Map<Integer, RoomRating> out = new HashMap<>();
+        for (Integer id : roomIds) {
+            if (id == null) continue;
+            RoomRating r = RATINGS.get(id);
+            out.put(id, r != null ? r : new RoomRating(id));
+        }
+        return out;
+    }
+
+    /**
+     * Records a newly added review.
+     *
+     * @param roomId the reviewed room
+     * @param rating the review's rating (1&ndash;5)
+     * @throws Exception if the persisted aggregate cannot be updated
+     */
+    public void reviewAdded(int roomId, int rating) throws Exception {
+        apply(roomId, rating, 1);
+    }
+
+    /**
+     * Records a deleted review.
+     *
+     * @param roomId the reviewed room
+     * @param rating the deleted review's rating (1&ndash;5)
+     * @throws Exception if the persisted aggregate cannot be updated
+     */
+    public void reviewDeleted(int roomId, int rating) throws Exception {
+        apply(roomId, rating, -1);
+    }
+
+    /**
+     * Recomputes all aggregates from the {@code reviews} table and reloads them.
+     *
+     * @return the number of rooms with reviews
+     * @throws Exception if a database error occurs
+     */
+    public int rebuild() throws Exception {
+        synchronized (LOAD_LOCK) {
+            int rooms = ratingDAO.rebuild();
+            Map<Integer, RoomRating> fresh = ratingDAO.getAll();
+            RATINGS.clear();
+            fresh.forEach(RATINGS::put);
+            loaded = true;
+            return rooms;
+        }
+    }
+
+    /**
+     * Writes one review change through to the database and then to the in-memory aggregate.
+     */
+    private void apply(int roomId, int rating, int delta) throws Exception {
+        if (rating < 1 || rating > RoomRating.STARS)
+            throw new BusinessException("Rating must be between 1 and " + RoomRating.STARS);
+        ensureLoaded();
+        ratingDAO.applyReview(roomId, rating, delta);
+        RATINGS.merge(roomId, new RoomRating(roomId).withReview(rating, delta), (old, added) -> old.withReview(rating, delta));
+    }
+
+    /** Loads the aggregates from the database on first use. */
+    private void ensureLoaded() throws Exception {
+        if (loaded) return;
+        synchronized (LOAD_LOCK) {
+            if (loaded) return;
+            ratingDAO.getAll().forEach(RATINGS::put);
+            loaded = true;
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.hotelbooking.service;
 
 import com.hotelbooking.dao.RoomDAO;
 import com.hotelbooking.model.Room;
+import com.hotelbooking.utils.IntHashSet;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -37,6 +39,12 @@ public class RoomService {
     /** Data access object used for interacting with the rooms database. */
     private final RoomDAO roomDAO = new RoomDAO();
 
+    /** Cached availability searches. */
+    private final AvailabilitySearchCache searchCache = AvailabilitySearchCache.shared();
+
+    /** Active holds, which make a room unavailable just as bookings do. */
+    private final AvailabilityIndex availability = AvailabilityIndex.shared();
+
     /**
      * Adds a new room to the database after performing basic validation.
      * <p>
@@ -60,7 +68,9 @@ public class RoomService {
         if (room.getPrice() < 0)
             throw new BusinessException("Invalid price");
 
-        return roomDAO.addRoom(room);
+        int id = roomDAO.addRoom(room);
+        searchCache.clear();
+        return id;
     }
 
     /**
@@ -99,6 +109,7 @@ public class RoomService {
             throw new BusinessException("Invalid room");
 
         roomDAO.update(room);
+        searchCache.clear();
     }
 
     /**
@@ -112,6 +123,7 @@ public class RoomService {
      */
     public void deleteRoom(int id) throws Exception {
         roomDAO.delete(id);
+        searchCache.clear();
     }
 
     /**
@@ -123,9 +135,53 @@ public class RoomService {
      * @param checkIn  the check-in date (inclusive)
      * @param checkOut the check-out date (exclusive)
      * @return a {@link List} of available {@link Room} objects
+     * @throws BusinessException if the dates are missing or invalid
+     * @throws Exception if database access or query fails
+     */
+    public List<Room> findAvailableRooms(LocalDate checkIn, LocalDate checkOut) throws Exception {
+        return findAvailableRooms(checkIn, checkOut, null);
+    }
+
+    /**
+     * Retrieves the available rooms of a type for the given dates.
+     * <p>
+     * A room is available if no booking and no active hold in the {@link AvailabilityIndex}
+     * overlaps the dates. Results are cached per dates and type in
+     * {@link AvailabilitySearchCache}; a booking change, or a hold being placed, released or
+     * expiring, drops only the cached searches whose dates overlap it, and room changes drop
+     * them all. Every call returns its own {@link Room} objects.
+     *
+     * @param checkIn  the check-in date (inclusive)
+     * @param checkOut the check-out date (exclusive)
+     * @param roomType the room type, or {@code null} for all types
+     * @return a {@link List} of available {@link Room} objects, ordered by ID
+     * @throws BusinessException if the dates are missing or invalid
      * @throws Exception if database access or query fails
      */
-    public List<Room> findAvailableRooms(java.sql.Date checkIn, java.sql.Date checkOut) throws Exception {
-        return roomDAO.getAvailableRooms(checkIn, checkOut);
+    public List<Room> findAvailableRooms(LocalDate checkIn, LocalDate checkOut, String roomType)
+            throws Exception {
+        if (checkIn == null || checkOut == null)
+            throw new BusinessException("Check-in and Check-out dates are required.");
+        if (!checkOut.isAfter(checkIn))
+            throw new BusinessException("Check-out must be after check-in.");
+        long in = checkIn.toEpochDay();
+        long out = checkOut.toEpochDay();
+
+        List<Room> cached = searchCache.get(in, out, roomType);
+        if (cached != null) return cached;
+        long version = searchCache.version();
+        List<Room> rooms = roomDAO.getAvailableRooms(checkIn, checkOut, roomType);
+        IntHashSet held = availability.heldRooms(in, out);
+        if (!held.isEmpty()) rooms.removeIf(r -> held.contains(r.getId()));
+        searchCache.put(in, out, roomType, rooms, version);
+        return rooms;
+    }
+
+    /**
+     * Drops cached availability searches after rooms were added, changed or removed outside
+     * this service.
+     */
+    public void roomsChanged() {
+        searchCache.clear();
     }
 }
@@ -0,0 +1,163 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.dao.WaitlistDAO;
+import com.hotelbooking.model.WaitlistEntry;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory index of the waiting entries of the waitlist, used by {@link WaitlistService}
+ * to find who can take a freed room.
+ * <p>
+ * Entries are grouped by room type and, within a type, kept in a {@link TreeMap} keyed by
+ * check-in epoch day. Stays are at most {@value WaitlistService#MAX_STAY_NIGHTS} nights, so
+ * every entry overlapping a freed range {@code [start, end)} checks in within
+ * {@code (start - MAX_STAY_NIGHTS, end)}: a match is one {@code subMap} walk over those days
+ * rather than a scan of the whole list, and no database query is made for freed nights that
+ * nobody is waiting for.
+ * </p>
+ *
+ * <p>The index is loaded from the database on first use. All methods are synchronized;
+ * each is a short in-memory operation.</p>
+ */
+final class WaitlistIndex {
+
+    private static final WaitlistIndex SHARED = new WaitlistIndex(new WaitlistDAO());
+
+    /** Waiting entries by lower-cased room type, then check-in epoch day, in ID order. */
+    private final Map<String, TreeMap<Long, List<Node>>> byType = new HashMap<>();
+
+    /** Waiting entries by ID. */
+    private final Map<Long, Node> byId = new HashMap<>();
+
+    private final WaitlistDAO dao;
+    private boolean loaded;
+
+    WaitlistIndex(WaitlistDAO dao) {
+        this.dao = dao;
+    }
+
+    static WaitlistIndex shared() {
+        return SHARED;
+    }
+
+    /**
+     * Adds a waiting entry.
+     *
+     * @param e the entry
+     * @throws Exception if the index cannot be loaded
+     */
+    synchronized void add(WaitlistEntry e) throws Exception {
+        ensureLoaded();
+        insert(e);
+    }
+
+    /**
+     * Removes an entry, if present.
+     *
+     * @param id the entry ID
+     * @return {@code true} if the entry was in the index
+     * @throws Exception if the index cannot be loaded
+     */
+    synchronized boolean remove(long id) throws Exception {
+        ensureLoaded();
+        Node n = byId.remove(id);
+        if (n == null) return false;
+        TreeMap<Long, List<Node>> days = byType.get(key(n.entry.getRoomType()));
+        List<Node> list = days.get(n.checkIn);
+        list.remove(n);
+        if (list.isEmpty()) days.remove(n.checkIn);
+        return true;
+    }
+
+    /**
+     * Removes and returns the oldest entry that fits into a free gap and overlaps a freed
+     * range of it.
+     *
+     * @param roomType  the type of the freed room
+     * @param gapStart  first free night of the gap (epoch day, may be {@link Long#MIN_VALUE})
+     * @param gapEnd    day the gap ends (epoch day, may be {@link Long#MAX_VALUE})
+     * @param freeStart first freed night (epoch day)
+     * @param freeEnd   day after the last freed night (epoch day)
+     * @return the entry, or {@code null} if no waiting entry fits
+     * @throws Exception if the index cannot be loaded
+     */
+    synchronized WaitlistEntry claim(String roomType, long gapStart, long gapEnd, long freeStart, long freeEnd)
+            throws Exception {
+        ensureLoaded();
+        TreeMap<Long, List<Node>> days = byType.get(key(roomType));
+        if (days == null) return null;
+
+        long today = LocalDate.now().toEpochDay();
+        pruneBefore(days, today);
+        long from = Math.max(Math.max(gapStart, today), freeStart - WaitlistService.MAX_STAY_NIGHTS + 1);
+        if (from >= freeEnd) return null;
+
+        // Each day's list is in ID order, so only its first fitting entry can be the oldest.
+        Node best = null;
+        for (List<Node> list : days.subMap(from, true, freeEnd, false).values()) {
+            for (Node n : list) {
+                if (best != null && n.entry.getId() > best.entry.getId()) break;
+                if (n.checkOut > freeStart && n.checkOut <= gapEnd) {
+                    best = n;
+                    break;
+                }
+            }
+        }
+        if (best == null) return null;
+        remove(best.entry.getId());
+        return best.entry;
+    }
+
+    private void insert(WaitlistEntry e) {
+        if (byId.containsKey(e.getId())) return;
+        Node n = new Node(e);
+        byId.put(e.getId(), n);
+        List<Node> list = byType.computeIfAbsent(key(e.getRoomType()), k -> new TreeMap<>())
+                .computeIfAbsent(n.checkIn, k -> new ArrayList<>());
+        // Entries are normally added in ID order; a re-added entry goes back to its place.
+        int i = list.size();
+        while (i > 0 && list.get(i - 1).entry.getId() > e.getId()) i--;
+        list.add(i, n);
+    }
+
+    /** Drops entries whose check-in has passed; they can no longer be offered a room. */
+    private void pruneBefore(TreeMap<Long, List<Node>> days, long today) {
+        Iterator<List<Node>> it = days.headMap(today, false).values().iterator();
+        while (it.hasNext()) {
+            for (Node n : it.next()) byId.remove(n.entry.getId());
+            it.remove();
+        }
+    }
+
+    private void ensureLoaded() throws Exception {
+        if (loaded) return;
+        for (WaitlistEntry e : dao.getWaiting(LocalDate.now())) insert(e);
+        loaded = true;
+    }
+
+    private static String key(String roomType) {
+        return roomType.toLowerCase(Locale.ROOT);
+    }
+
+    /** An indexed entry with its dates as epoch days. */
+    private static final class Node {
+
+        final WaitlistEntry entry;
+        final long checkIn;
+        final long checkOut;
+
+        Node(WaitlistEntry entry) {
+            this.entry = entry;
+            this.checkIn = entry.getCheckIn().toEpochDay();
+            this.checkOut = entry.getCheckOut().toEpochDay();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.dao.RoomDAO;
+import com.hotelbooking.dao.WaitlistDAO;
+import com.hotelbooking.model.BookingHold;
+import com.hotelbooking.model.Notification;
+import com.hotelbooking.model.Room;
+import com.hotelbooking.model.WaitlistEntry;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@code WaitlistService} lets customers wait for a room type on dates that are sold out, and
+ * offers them rooms as they free up.
+ * <p>
+ * When a room's nights are freed (a booking is cancelled or moved, or a hold ends), the
+ * {@link WaitlistIndex} is asked for the oldest waiting entry of the room's type whose stay
+ * fits into the room's free gap and overlaps the freed nights. That customer gets a hold of
+ * {@value #OFFER_MINUTES} minutes on the room and a notification; confirming the hold
+ * through {@link BookingService#confirmHold(long)} books it. Nights the offer leaves free
+ * are matched again, so one long cancellation can serve several shorter requests.
+ * </p>
+ *
+ * <p>Freed nights are reported by {@code com.hotelbooking.event.WaitlistMatcher}, which runs
+ * on the event bus. Finding candidates is in memory; the database is touched only for
+ * actual offers.</p>
+ */
+public class WaitlistService {
+
+    /** Message of the {@link BusinessException} thrown when an entry does not exist. */
+    public static final String NOT_FOUND = "Waitlist entry not found";
+
+    /** Longest stay that can be put on the waitlist. */
+    public static final int MAX_STAY_NIGHTS = 30;
+
+    /** How long a room offered to a waiting customer is held. */
+    public static final int OFFER_MINUTES = BookingService.MAX_HOLD_MINUTES;
+
+    /** Status of an entry still waiting for a room. */
+    public static final String WAITING = "WAITING";
+
+    private static final Logger LOG = Logger.getLogger(WaitlistService.class.getName());
+
+    private final WaitlistDAO dao = new WaitlistDAO();
+    private final RoomDAO roomDAO = new RoomDAO();
+    private final WaitlistIndex index = WaitlistIndex.shared();
+    private final AvailabilityIndex availability = AvailabilityIndex.shared();
+    private final BookingService bookings = new BookingService();
+    private final RoomAssignmentService assignment = new RoomAssignmentService();
+    private final NotificationService notifications = new NotificationService();
+
+    /**
+     * Puts a customer on the waitlist. If a room of the type is already free for the dates,
+     * it is offered straight away.
+     *
+     * @param entry the customer, room type and dates
+     * @return the stored entry, {@code OFFERED} if a room was found
+     * @throws BusinessException if a field is missing or invalid, or the room type is unknown
+     * @throws Exception if a DAO or database error occurs
+     */
+    public WaitlistEntry register(WaitlistEntry entry) throws Exception {
+        if (entry == null || entry.getCustomerId() <= 0)
+            throw new BusinessException("customerId is required.");
+        if (entry.getRoomType() == null || entry.getRoomType().trim().isEmpty())
+            throw new BusinessException("roomType is required.");
+        if (entry.getCheckIn() == null || entry.getCheckOut() == null)
+            throw new BusinessException("Check-in and Check-out dates are required.");
+        LocalDate in = entry.getCheckIn();
+        LocalDate out = entry.getCheckOut();
+        if (!out.isAfter(in))
+            throw new BusinessException("Check-out must be after check-in.");
+        if (in.isBefore(LocalDate.now()))
+            throw new BusinessException("Check-in date cannot be in the past.");
+        if (ChronoUnit.DAYS.between(in, out) > MAX_STAY_NIGHTS)
+            throw new BusinessException("A waitlisted stay may be at most " + MAX_STAY_NIGHTS + " nights.");
+        List<Integer> free = assignment.rankRooms(entry.getRoomType(), in, out);
+
+        long id = dao.create(entry);
+        entry.setId(id);
+        entry.setStatus(WAITING);
+        index.add(entry);
+
+        // A room freed between the lookup and the insert is found by the matcher instead.
+        for (Integer roomId : free) {
+            if (!index.remove(id)) break;
+            if (offer(entry, roomId) || !WAITING.equals(entry.getStatus())) break;
+            index.add(entry);
+        }
+        WaitlistEntry stored = dao.getById(id);
+        return stored != null ? stored : entry;
+    }
+
+    /**
+     * Retrieves a waitlist entry.
+     *
+     * @param id the entry ID
+     * @return the entry, or {@code null} if not found
+     * @throws Exception if a database error occurs
+     */
+    public WaitlistEntry getEntry(long id) throws Exception {
+        return dao.getById(id);
+    }
+
+    /**
+     * Lists a customer's waitlist entries, newest first.
+     *
+     * @param customerId the customer ID
+     * @return the entries
+     * @throws Exception if a database error occurs
+     */
+    public List<WaitlistEntry> listForCustomer(int customerId) throws Exception {
+        return dao.getForCustomer(customerId);
+    }
+
+    /**
+     * Takes a waiting customer off the waitlist.
+     *
+     * @param id the entry ID
+     * @throws BusinessException with message {@link #NOT_FOUND} if the entry does not exist,
+     *         or if it is no longer waiting
+     * @throws Exception if a database error occurs
+     */
+    public void cancel(long id) throws Exception {
+        if (!dao.cancel(id)) {
+            if (dao.getById(id) == null) throw new BusinessException(NOT_FOUND);
+            throw new BusinessException("Only waiting entries can be cancelled.");
+        }
+        index.remove(id);
+    }
+
+    /**
+     * Offers freed nights of a room to waiting customers.
+     *
+     * @param roomId   the room
+     * @param checkIn  the first freed night
+     * @param checkOut the day after the last freed night
+     * @return the number of offers made
+     * @throws Exception if a DAO or database error occurs
+     */
+    public int roomFreed(int roomId, LocalDate checkIn, LocalDate checkOut) throws Exception {
+        Room room = roomDAO.getById(roomId);
+        if (room == null || room.getRoomType() == null) return 0;
+
+        long today = LocalDate.now().toEpochDay();
+        Deque<long[]> freed = new ArrayDeque<>();
+        freed.add(new long[]{Math.max(checkIn.toEpochDay(), today), checkOut.toEpochDay()});
+        int offers = 0;
+        while (!freed.isEmpty()) {
+            long[] range = freed.poll();
+            if (range[0] >= range[1]) continue;
+            long[] gap = availability.freeGap(roomId, range[0], range[1]);
+            if (gap == null) continue;
+
+            List<WaitlistEntry> skipped = new ArrayList<>();
+            try {
+                WaitlistEntry e;
+                while ((e = index.claim(room.getRoomType(), gap[0], gap[1], range[0], range[1])) != null) {
+                    // Listed before offering, so the entry goes back on the index if offer() throws.
+                    skipped.add(e);
+                    if (offer(e, roomId)) {
+                        skipped.remove(skipped.size() - 1);
+                        offers++;
+                        freed.add(new long[]{range[0], e.getCheckIn().toEpochDay()});
+                        freed.add(new long[]{e.getCheckOut().toEpochDay(), range[1]});
+                        break;
+                    }
+                }
+            } finally {
+                for (WaitlistEntry e : skipped) {
+                    if (WAITING.equals(e.getStatus())) index.add(e);
+                }
+            }
+        }
+        return offers;
+    }
+
+    /**
+     * Records that a hold has ended unconfirmed and offers its nights to the next customer.
+     *
+     * @param hold the hold that ended
+     * @return the number of new offers made
+     * @throws Exception if a DAO or database error occurs
+     */
+    public int holdEnded(BookingHold hold) throws Exception {
+        dao.markExpired(hold.getId(), hold.getCustomerId());
+        return roomFreed(hold.getRoomId(), hold.getCheckIn(), hold.getCheckOut());
+    }
+
+    /**
+     * Holds a room for a claimed entry and notifies the customer.
+     *
+     * @return {@code false} if the room could not be held; the entry is still waiting unless
+     *         its status says otherwise
+     * @throws Exception if the offer could not be recorded; the hold is released and the
+     *         entry is still waiting
+     */
+    private boolean offer(WaitlistEntry e, int roomId) throws Exception {
+        BookingHold request = new BookingHold();
+        request.setRoomId(roomId);
+        request.setCustomerId(e.getCustomerId());
+        request.setCheckIn(e.getCheckIn());
+        request.setCheckOut(e.getCheckOut());
+        BookingHold hold;
+        try {
+            hold = bookings.placeHold(request, OFFER_MINUTES);
+        } catch (BusinessException conflict) {
+            return false;
+        }
+
+        boolean marked;
+        try {
+            marked = dao.markOffered(e.getId(), hold.getId());
+        } catch (Exception ex) {
+            // The entry is still waiting; do not leave the room held for nobody.
+            bookings.releaseHold(hold.getId());
+            throw ex;
+        }
+        if (!marked) {
+            // Cancelled by the customer in the meantime.
+            e.setStatus("CANCELLED");
+            bookings.releaseHold(hold.getId());
+            return false;
+        }
+        e.setStatus("OFFERED");
+        e.setHoldId(hold.getId());
+
+        Notification n = new Notification();
+        n.setUserId(e.getCustomerId());
+        n.setTitle("Room Available");
+        n.setMessage("A " + e.getRoomType() + " room (room " + roomId + ") is held for you from " + e.getCheckIn()
+                + " to " + e.getCheckOut() + " until " + hold.getExpiresAt() + ". Confirm hold #" + hold.getId()
+                + " to book it.");
+        try {
+            notifications.createNotification(n);
+        } catch (Exception ex) {
+            // The offer stands; the customer can still see it on their waitlist entry.
+            LOG.log(Level.WARNING, "Could not notify customer " + e.getCustomerId() + " of waitlist offer", ex);
+        }
+        return true;
+    }
+}
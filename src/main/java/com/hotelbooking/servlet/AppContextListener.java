@@ -0,0 +1,66 @@
+package com.hotelbooking.servlet;
+
+import com.hotelbooking.delivery.DeliveryWorkerPool;
+import com.hotelbooking.event.DemandPricingHandler;
+import com.hotelbooking.event.EventBus;
+import com.hotelbooking.event.WaitlistMatcher;
+import com.hotelbooking.service.AvailabilityIndex;
+import com.hotelbooking.service.PricingService;
+import com.hotelbooking.service.RoomAssignmentService;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+
+/**
+ * {@code AppContextListener} starts and stops the application's background services
+ * together with the web application.
+ * <p>
+ * These are the booking {@link EventBus}, whose handlers are registered here, and the
+ * {@link DeliveryWorkerPool}, which delivers notifications from the outbox. The hold expiry
+ * timer of the {@link AvailabilityIndex} starts on first use and is stopped here, and the
+ * nightly {@link RoomAssignmentService} re-optimization and the batched demand re-pricing of
+ * the {@link PricingService} are scheduled here. The listener is
+ * registered in {@code web.xml}.
+ */
+public class AppContextListener implements ServletContextListener {
+
+    /** Delivers outbox messages in the background. */
+    private final DeliveryWorkerPool deliveryWorkers = new DeliveryWorkerPool();
+
+    /** Re-plans room assignments every night. */
+    private final RoomAssignmentService roomAssignment = new RoomAssignmentService();
+
+    /** Re-prices rooms as demand changes. */
+    private final PricingService pricing = new PricingService();
+
+    /**
+     * Starts the background services.
+     *
+     * @param sce the context event
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        EventBus bus = EventBus.shared();
+        WaitlistMatcher.register(bus);
+        DemandPricingHandler.register(bus);
+        bus.start();
+        deliveryWorkers.start();
+        roomAssignment.startNightly();
+        pricing.startRecompute();
+    }
+
+    /**
+     * Stops the background services.
+     *
+     * @param sce the context event
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        roomAssignment.stopNightly();
+        pricing.stopRecompute();
+        // Drain events first: their handlers may still write to the outbox.
+        EventBus.shared().stop();
+        deliveryWorkers.stop();
+        AvailabilityIndex.shared().stop();
+    }
+}
@@ -0,0 +1,115 @@
+package com.hotelbooking.servlet;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelbooking.model.Room;
+import com.hotelbooking.service.AvailabilityService;
+import com.hotelbooking.service.BusinessException;
+
+import javax.servlet.http.*;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@code AvailabilityServlet} serves the front-desk occupancy calendar: which nights of a
+ * date range each room is booked or held.
+ * <p>
+ * Each room's row is run-length encoded as flat {@code [offset, length, ...]} pairs, where
+ * {@code offset} counts nights from {@code from}; nights in neither list are free. Rows are
+ * written to the response as they are read, so a large hotel never builds the grid in memory.
+ * </p>
+ *
+ * <h3>Example Endpoints:</h3>
+ * <ul>
+ *     <li>GET /availability?from=2025-11-01&amp;to=2025-12-31 — grid of every room</li>
+ *     <li>GET /availability?from=2025-11-01&amp;to=2025-12-31&amp;type=Deluxe — grid of one room type</li>
+ * </ul>
+ *
+ * <p>Example response:</p>
+ * <pre>
+ * {"from":"2025-11-01","to":"2025-12-31","nights":60,"encoding":"rle","rooms":[
+ *   {"roomId":1,"roomNo":101,"roomType":"Deluxe","booked":[0,3,10,2],"held":[5,1]}, ...]}
+ * </pre>
+ */
+public class AvailabilityServlet extends HttpServlet {
+
+    private static final Logger LOG = Logger.getLogger(AvailabilityServlet.class.getName());
+
+    /** Service for occupancy grids. */
+    private final AvailabilityService service = new AvailabilityService();
+
+    /** Jackson ObjectMapper whose factory creates the streaming generator. */
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Handles HTTP GET requests for the occupancy grid of a date range.
+     *
+     * @param req  the HTTP request with {@code from}, {@code to} and an optional {@code type}
+     * @param resp the HTTP response containing the grid
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        resp.setContentType("application/json");
+        JsonGenerator[] out = new JsonGenerator[1];
+        try {
+            service.grid(req.getParameter("from"), req.getParameter("to"), req.getParameter("type"),
+                    new AvailabilityService.GridVisitor() {
+                        @Override
+                        public void start(LocalDate from, LocalDate to, int nights) throws IOException {
+                            JsonGenerator g = mapper.getFactory().createGenerator(resp.getWriter());
+                            out[0] = g;
+                            g.writeStartObject();
+                            g.writeStringField("from", from.toString());
+                            g.writeStringField("to", to.toString());
+                            g.writeNumberField("nights", nights);
+                            g.writeStringField("encoding", "rle");
+                            g.writeArrayFieldStart("rooms");
+                        }
+
+                        @Override
+                        public void row(Room room, int[] runs) throws IOException {
+                            JsonGenerator g = out[0];
+                            g.writeStartObject();
+                            g.writeNumberField("roomId", room.getId());
+                            g.writeNumberField("roomNo", room.getRoomNo());
+                            g.writeStringField("roomType", room.getRoomType());
+                            writeRuns(g, "booked", runs, 0);
+                            writeRuns(g, "held", runs, 1);
+                            g.writeEndObject();
+                        }
+                    });
+            if (out[0] == null) return;
+            out[0].writeEndArray();
+            out[0].writeEndObject();
+            out[0].flush();
+        } catch (BusinessException be) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
+        } catch (IllegalArgumentException ia) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"Bad date format. Use YYYY-MM-DD\"}");
+        } catch (Exception e) {
+            if (out[0] != null) {
+                // Rows have already been sent; the truncated body is the only signal left.
+                LOG.log(Level.WARNING, "Availability grid failed while streaming", e);
+                return;
+            }
+            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
+        }
+    }
+
+    /** Writes the runs of one kind (0 booked, 1 held) as a flat offset/length array. */
+    private static void writeRuns(JsonGenerator g, String field, int[] runs, int kind) throws IOException {
+        g.writeArrayFieldStart(field);
+        for (int i = 0; i < runs.length; i += 3) {
+            if (runs[i + 2] != kind) continue;
+            g.writeNumber(runs[i]);
+            g.writeNumber(runs[i + 1]);
+        }
+        g.writeEndArray();
+    }
+}
@@ -3,10 +3,15 @@ package com.hotelbooking.servlet;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hotelbooking.dao.BookingHistoryDAO;
 import com.hotelbooking.model.BookingHistory;
+import com.hotelbooking.model.BookingHistoryPage;
+import com.hotelbooking.service.BookingHistoryService;
+import com.hotelbooking.service.BusinessException;
+import com.hotelbooking.utils.LocalDateDeserializer;
 
 import javax.servlet.http.*;
 import javax.servlet.*;
 import java.io.*;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -20,6 +25,13 @@ import java.util.List;
  * <h3>Supported Endpoint:</h3>
  * <ul>
  *     <li><b>GET /api/history?customerId=1</b> — Retrieve booking history for a specific customer.</li>
+ *     <li><b>GET /api/history?customerId=1&amp;limit=20&amp;before=2025-10-01&amp;beforeId=12</b> —
+ *         Retrieve one page of history, newest first. Any of {@code limit}, {@code before}
+ *         or {@code beforeId} switches the response to a {@link BookingHistoryPage} object;
+ *         pass the page's {@code nextCheckIn}/{@code nextBookingId} as {@code before}/{@code beforeId}
+ *         to fetch the following page.</li>
+ *     <li><b>POST /api/history/archive?horizonDays=730</b> — Move bookings that checked out more than
+ *         {@code horizonDays} days ago into the history archive (defaults to the configured horizon).</li>
  * </ul>
  *
  * <h3>Example Request:</h3>
@@ -52,6 +64,9 @@ public class BookingHistoryServlet extends HttpServlet {
     /** Data access object for booking history operations. */
     private final BookingHistoryDAO dao = new BookingHistoryDAO();
 
+    /** Service for paged history retrieval and validation. */
+    private final BookingHistoryService service = new BookingHistoryService();
+
     /** ObjectMapper for converting between Java objects and JSON. */
     private final ObjectMapper mapper = new ObjectMapper();
 
@@ -77,13 +92,70 @@ public class BookingHistoryServlet extends HttpServlet {
             return;
         }
 
+        String limitParam = req.getParameter("limit");
+        String before = req.getParameter("before");
+        String beforeIdParam = req.getParameter("beforeId");
+
         try {
             int customerId = Integer.parseInt(param);
-            List<BookingHistory> list = dao.getHistoryByCustomer(customerId);
+            if (limitParam != null || before != null || beforeIdParam != null) {
+                int limit = limitParam != null ? Integer.parseInt(limitParam) : BookingHistoryDAO.DEFAULT_PAGE_SIZE;
+                Integer beforeId = beforeIdParam != null ? Integer.valueOf(beforeIdParam) : null;
+                LocalDate beforeCheckIn = before != null ? LocalDateDeserializer.parse(before) : null;
+                BookingHistoryPage page = service.getHistoryPage(customerId, beforeCheckIn, beforeId, limit);
+                res.getWriter().write(mapper.writeValueAsString(page));
+                return;
+            }
+
+            List<BookingHistory> list = service.getHistoryForCustomer(customerId);
             res.getWriter().write(mapper.writeValueAsString(list));
         } catch (NumberFormatException nfe) {
             res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-            res.getWriter().write("{\"error\":\"customerId must be a valid integer\"}");
+            res.getWriter().write("{\"error\":\"customerId, limit and beforeId must be valid integers\"}");
+        } catch (IllegalArgumentException iae) {
+            res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            res.getWriter().write("{\"error\":\"Bad date format. Use YYYY-MM-DD\"}");
+        } catch (BusinessException be) {
+            res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            res.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
+        } catch (Exception e) {
+            res.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            res.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
+        }
+    }
+
+    /**
+     * Handles HTTP POST requests to run the history archive.
+     * <p>
+     * Only the {@code /archive} sub-path is supported. An optional {@code horizonDays}
+     * parameter overrides the configured archive horizon. Returns the number of
+     * bookings moved to the archive.
+     *
+     * @param req the HTTP request, optionally containing {@code horizonDays}
+     * @param res the HTTP response containing {@code {"archived": n}}
+     * @throws IOException if an I/O error occurs while reading or writing data
+     */
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse res) throws IOException {
+        res.setContentType("application/json");
+        if (!"/archive".equals(req.getPathInfo())) {
+            res.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            res.getWriter().write("{\"error\":\"Unknown endpoint\"}");
+            return;
+        }
+
+        try {
+            String param = req.getParameter("horizonDays");
+            int archived = param != null
+                    ? service.archiveCompletedBefore(LocalDate.now().minusDays(Integer.parseInt(param)))
+                    : service.archiveCompleted();
+            res.getWriter().write("{\"archived\":" + archived + "}");
+        } catch (NumberFormatException nfe) {
+            res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            res.getWriter().write("{\"error\":\"horizonDays must be a valid integer\"}");
+        } catch (BusinessException be) {
+            res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            res.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
         } catch (Exception e) {
             res.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             res.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
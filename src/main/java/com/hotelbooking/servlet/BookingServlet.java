@@ -1,30 +1,43 @@
 package com.hotelbooking.servlet;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.hotelbooking.dao.BookingDAO;
-import com.hotelbooking.dao.RoomDAO;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.hotelbooking.dao.BookingDetailDAO;
 import com.hotelbooking.model.Booking;
+import com.hotelbooking.model.BookingDetail;
+import com.hotelbooking.model.BookingHold;
+import com.hotelbooking.service.AvailabilityConflictException;
+import com.hotelbooking.service.BookingService;
+import com.hotelbooking.service.BusinessException;
 
 import javax.servlet.http.*;
 import java.io.*;
-import java.sql.Date;
+import java.time.LocalDate;
 import java.util.*;
 
 /**
  * {@code BookingServlet} handles all CRUD operations related to hotel room bookings.
  * <p>
  * This servlet exposes REST-style endpoints to manage booking data, including validation of room
- * availability and basic field checks. It communicates with {@link BookingDAO} for database operations
- * and {@link RoomDAO} to verify room existence and availability.
+ * availability and basic field checks. Reads and writes go through {@link BookingService}, which
+ * validates the room and dates and publishes booking lifecycle events for downstream work.
  * <p>
  * All requests and responses use JSON format.
  *
  * <h3>Supported Endpoints:</h3>
  * <ul>
  *     <li><b>GET /bookings</b> — Retrieve all bookings or one by ID.</li>
- *     <li><b>POST /bookings</b> — Create a new booking (with room/date validation).</li>
+ *     <li><b>GET /bookings/{id}/detail</b> — Retrieve a booking with its room, customer, payments and reviews.</li>
+ *     <li><b>GET /bookings/detail?customerId=</b> or <b>?ids=1,2,3</b> — Retrieve several booking details at once.</li>
+ *     <li><b>POST /bookings</b> — Create a new booking (with room/date validation). Give
+ *         {@code roomType} instead of {@code roomId} to let the system pick the room.</li>
  *     <li><b>PUT /bookings</b> — Update an existing booking.</li>
  *     <li><b>DELETE /bookings</b> — Delete a booking by ID.</li>
+ *     <li><b>POST /bookings/group</b> — Book several rooms atomically (all or nothing).</li>
+ *     <li><b>POST /bookings/holds?minutes=15</b> — Hold a room/date range during checkout.</li>
+ *     <li><b>GET /bookings/holds/{id}</b> — Retrieve an active hold.</li>
+ *     <li><b>POST /bookings/holds/{id}/confirm</b> — Turn a hold into a booking.</li>
+ *     <li><b>DELETE /bookings/holds/{id}</b> — Release a hold.</li>
  * </ul>
  *
  * <h3>Example JSON Request (POST):</h3>
@@ -40,11 +53,11 @@ import java.util.*;
  */
 public class BookingServlet extends HttpServlet {
 
-    /** Data access object for booking operations. */
-    private final BookingDAO dao = new BookingDAO();
+    /** Service layer for booking operations. */
+    private final BookingService service = new BookingService();
 
-    /** DAO for validating room existence and availability. */
-    private final RoomDAO roomDao = new RoomDAO();
+    /** DAO for aggregated booking detail views. */
+    private final BookingDetailDAO detailDao = new BookingDetailDAO();
 
     /** ObjectMapper for JSON parsing and serialization. */
     private final ObjectMapper mapper = new ObjectMapper();
@@ -53,7 +66,8 @@ public class BookingServlet extends HttpServlet {
      * Handles HTTP GET requests to retrieve booking information.
      * <p>
      * If an {@code id} parameter is provided, returns a single booking record.
-     * Otherwise, returns a list of all bookings.
+     * Otherwise, returns a list of all bookings. Paths ending in {@code /detail}
+     * are delegated to {@link #writeDetail(String, HttpServletRequest, HttpServletResponse)}.
      *
      * @param req  the HTTP request (optionally containing {@code id})
      * @param resp the HTTP response containing booking(s) in JSON format
@@ -62,11 +76,21 @@ public class BookingServlet extends HttpServlet {
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         resp.setContentType("application/json");
+        String path = req.getPathInfo();
+        if (path != null && path.endsWith("/detail")) {
+            writeDetail(path, req, resp);
+            return;
+        }
+        if (path != null && path.startsWith("/holds/")) {
+            handleHold(path, "GET", req, resp);
+            return;
+        }
+
         String idParam = req.getParameter("id");
         try {
             if (idParam != null) {
                 int id = Integer.parseInt(idParam);
-                Booking b = dao.getById(id);
+                Booking b = service.getBookingById(id);
                 if (b == null) {
                     resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
                     resp.getWriter().write("{\"error\":\"Booking not found\"}");
@@ -74,7 +98,7 @@ public class BookingServlet extends HttpServlet {
                     resp.getWriter().write(mapper.writeValueAsString(b));
                 }
             } else {
-                List<Booking> list = dao.getAll();
+                List<Booking> list = service.getAllBookings();
                 resp.getWriter().write(mapper.writeValueAsString(list));
             }
         } catch (Exception e) {
@@ -83,6 +107,61 @@ public class BookingServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Serves the aggregated booking detail endpoints.
+     * <p>
+     * {@code /bookings/{id}/detail} returns one {@link BookingDetail};
+     * {@code /bookings/detail} returns a list, selected either by {@code customerId}
+     * or by a comma-separated {@code ids} parameter. Each response is built from one
+     * joined query plus one batched review query.
+     *
+     * @param path the request path info (e.g. {@code /12/detail})
+     * @param req  the HTTP request
+     * @param resp the HTTP response containing the detail(s) in JSON format
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeDetail(String path, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        try {
+            if ("/detail".equals(path)) {
+                String customerParam = req.getParameter("customerId");
+                String idsParam = req.getParameter("ids");
+                List<BookingDetail> list;
+                if (customerParam != null) {
+                    list = detailDao.getDetailsByCustomer(Integer.parseInt(customerParam));
+                } else if (idsParam != null) {
+                    List<Integer> ids = new ArrayList<>();
+                    for (String part : idsParam.split(",")) {
+                        if (!part.trim().isEmpty()) ids.add(Integer.parseInt(part.trim()));
+                    }
+                    list = new ArrayList<>(detailDao.getDetails(ids).values());
+                } else {
+                    resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                    resp.getWriter().write("{\"error\":\"customerId or ids required\"}");
+                    return;
+                }
+                resp.getWriter().write(mapper.writeValueAsString(list));
+                return;
+            }
+
+            // Expected form: /{id}/detail
+            String idPart = path.substring(1, path.length() - "/detail".length());
+            int id = Integer.parseInt(idPart);
+            BookingDetail d = detailDao.getDetail(id);
+            if (d == null) {
+                resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                resp.getWriter().write("{\"error\":\"Booking not found\"}");
+            } else {
+                resp.getWriter().write(mapper.writeValueAsString(d));
+            }
+        } catch (NumberFormatException e) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"Invalid booking or customer ID\"}");
+        } catch (Exception e) {
+            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
+        }
+    }
+
     /**
      * Handles HTTP POST requests to create a new booking.
      * <p>
@@ -95,39 +174,37 @@ public class BookingServlet extends HttpServlet {
      */
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String path = req.getPathInfo();
+        if (path != null && path.startsWith("/holds")) {
+            handleHold(path, "POST", req, resp);
+            return;
+        }
+        if ("/group".equals(path)) {
+            createGroup(req, resp);
+            return;
+        }
         try {
             Booking b = mapper.readValue(req.getReader(), Booking.class);
 
             // Required field validation
-            if (b.getRoomId() == 0 || b.getCustomerId() == 0 ||
+            if ((b.getRoomId() == 0 && b.getRoomType() == null) || b.getCustomerId() == 0 ||
                 b.getCheckIn() == null || b.getCheckOut() == null) {
                 resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-                resp.getWriter().write("{\"error\":\"customerId, roomId, checkIn, checkOut required\"}");
+                resp.getWriter().write("{\"error\":\"customerId, roomId (or roomType), checkIn, checkOut required\"}");
                 return;
             }
 
-            // Validate room existence
-            if (roomDao.getById(b.getRoomId()) == null) {
-                resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-                resp.getWriter().write("{\"error\":\"Room does not exist\"}");
-                return;
-            }
-
-            // Validate date range and room availability
-            Date in = Date.valueOf(b.getCheckIn());
-            Date out = Date.valueOf(b.getCheckOut());
-            if (!dao.isRoomAvailable(b.getRoomId(), in, out)) {
-                resp.setStatus(HttpServletResponse.SC_CONFLICT);
-                resp.getWriter().write("{\"error\":\"Room not available for the selected dates\"}");
-                return;
-            }
-
-            int id = dao.create(b);
+            int id = service.createBooking(b);
             resp.setContentType("application/json");
-            resp.getWriter().write("{\"status\":\"created\",\"id\":" + id + "}");
-        } catch (IllegalArgumentException ia) {
+            resp.getWriter().write("{\"status\":\"created\",\"id\":" + id + ",\"roomId\":" + b.getRoomId() + "}");
+        } catch (AvailabilityConflictException ce) {
+            resp.setStatus(HttpServletResponse.SC_CONFLICT);
+            resp.getWriter().write("{\"error\":\"" + ce.getMessage() + "\"}");
+        } catch (BusinessException be) {
             resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-            resp.getWriter().write("{\"error\":\"Bad date format. Use YYYY-MM-DD\"}");
+            resp.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
+        } catch (InvalidFormatException bad) {
+            writeBadFormat(resp, bad);
         } catch (Exception e) {
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
@@ -135,10 +212,11 @@ public class BookingServlet extends HttpServlet {
     }
 
     /**
-     * Handles HTTP PUT requests to update an existing booking record.
+     * Handles HTTP PUT requests to modify an existing booking record.
      * <p>
-     * Expects a JSON body representing the full {@link Booking} object.
-     * Returns a success message if updated, or 404 if the booking does not exist.
+     * Expects a JSON body with the booking {@code id} and the fields to change (customer,
+     * room, dates). Returns a success message if updated, 404 if the booking does not exist,
+     * or 409 with {@code conflictingNights} if the new room or dates are taken.
      *
      * @param req  the HTTP request containing updated booking data
      * @param resp the HTTP response indicating the update status
@@ -148,7 +226,7 @@ public class BookingServlet extends HttpServlet {
     protected void doPut(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         try {
             Booking b = mapper.readValue(req.getReader(), Booking.class);
-            boolean ok = dao.update(b);
+            boolean ok = service.updateBooking(b);
             resp.setContentType("application/json");
             if (ok) {
                 resp.getWriter().write("{\"status\":\"updated\"}");
@@ -156,6 +234,15 @@ public class BookingServlet extends HttpServlet {
                 resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
                 resp.getWriter().write("{\"error\":\"Booking not found\"}");
             }
+        } catch (AvailabilityConflictException ce) {
+            resp.setStatus(HttpServletResponse.SC_CONFLICT);
+            resp.getWriter().write("{\"error\":\"" + ce.getMessage() + "\",\"conflictingNights\":"
+                    + mapper.writeValueAsString(ce.getConflictingNights()) + "}");
+        } catch (BusinessException be) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
+        } catch (InvalidFormatException bad) {
+            writeBadFormat(resp, bad);
         } catch (Exception e) {
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
@@ -174,6 +261,11 @@ public class BookingServlet extends HttpServlet {
      */
     @Override
     protected void doDelete(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String path = req.getPathInfo();
+        if (path != null && path.startsWith("/holds/")) {
+            handleHold(path, "DELETE", req, resp);
+            return;
+        }
         try {
             String idParam = req.getParameter("id");
             resp.setContentType("application/json");
@@ -185,7 +277,7 @@ public class BookingServlet extends HttpServlet {
             }
 
             int id = Integer.parseInt(idParam);
-            boolean ok = dao.delete(id);
+            boolean ok = service.cancelBooking(id);
 
             if (ok) {
                 resp.getWriter().write("{\"status\":\"deleted\"}");
@@ -193,6 +285,125 @@ public class BookingServlet extends HttpServlet {
                 resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
                 resp.getWriter().write("{\"error\":\"Booking not found\"}");
             }
+        } catch (BusinessException be) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
+        } catch (Exception e) {
+            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
+        }
+    }
+
+    /**
+     * Handles {@code POST /bookings/group}: books every room in a JSON array of bookings, or
+     * none of them. Returns the generated IDs in request order; a conflict on any room is
+     * reported with 409 Conflict and nothing is booked.
+     *
+     * @param req  the HTTP request containing a JSON array of bookings
+     * @param resp the HTTP response with {@code {"status":"created","ids":[...]}}
+     * @throws IOException if an I/O error occurs
+     */
+    private void createGroup(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        resp.setContentType("application/json");
+        try {
+            List<Booking> bookings = Arrays.asList(mapper.readValue(req.getReader(), Booking[].class));
+            int[] ids = service.createGroupBooking(bookings);
+            resp.getWriter().write("{\"status\":\"created\",\"ids\":" + mapper.writeValueAsString(ids) + "}");
+        } catch (AvailabilityConflictException ce) {
+            resp.setStatus(HttpServletResponse.SC_CONFLICT);
+            resp.getWriter().write("{\"error\":\"" + ce.getMessage() + "\"}");
+        } catch (BusinessException be) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
+        } catch (InvalidFormatException bad) {
+            writeBadFormat(resp, bad);
+        } catch (Exception e) {
+            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
+        }
+    }
+
+    /**
+     * Answers 400 Bad Request for a JSON value of the wrong form, naming the date format if
+     * a date was malformed.
+     */
+    private static void writeBadFormat(HttpServletResponse resp, InvalidFormatException bad) throws IOException {
+        resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        if (bad.getTargetType() == LocalDate.class) {
+            resp.getWriter().write("{\"error\":\"Bad date format. Use YYYY-MM-DD\"}");
+        } else {
+            resp.getWriter().write("{\"error\":\"Invalid value: " + bad.getValue() + "\"}");
+        }
+    }
+
+    /**
+     * Serves the hold endpoints under {@code /bookings/holds}.
+     * <p>
+     * {@code POST /holds} expects a JSON body with {@code roomId}, {@code customerId},
+     * {@code checkIn} and {@code checkOut}, plus an optional {@code minutes} query parameter,
+     * and returns the hold. {@code POST /holds/{id}/confirm} books the held room and returns
+     * the booking ID. Overlapping dates are reported with 409 Conflict; unknown or expired
+     * holds with 404.
+     *
+     * @param path   the request path info (e.g. {@code /holds/7/confirm})
+     * @param method the HTTP method
+     * @param req    the HTTP request
+     * @param resp   the HTTP response
+     * @throws IOException if an I/O error occurs
+     */
+    private void handleHold(String path, String method, HttpServletRequest req, HttpServletResponse resp)
+            throws IOException {
+        resp.setContentType("application/json");
+        try {
+            String[] parts = path.substring(1).split("/");
+            if (parts.length == 1 && "POST".equals(method)) {
+                BookingHold h = mapper.readValue(req.getReader(), BookingHold.class);
+                if (h.getRoomId() == 0 || h.getCustomerId() == 0 || h.getCheckIn() == null || h.getCheckOut() == null) {
+                    resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                    resp.getWriter().write("{\"error\":\"customerId, roomId, checkIn, checkOut required\"}");
+                    return;
+                }
+                String minutes = req.getParameter("minutes");
+                BookingHold created = service.placeHold(h, minutes != null ? Integer.valueOf(minutes) : null);
+                resp.getWriter().write(mapper.writeValueAsString(created));
+                return;
+            }
+
+            long id = parts.length >= 2 ? Long.parseLong(parts[1]) : -1;
+            if (parts.length == 2 && "GET".equals(method)) {
+                BookingHold h = service.getHold(id);
+                if (h == null) {
+                    resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                    resp.getWriter().write("{\"error\":\"" + BookingService.HOLD_NOT_FOUND + "\"}");
+                } else {
+                    resp.getWriter().write(mapper.writeValueAsString(h));
+                }
+            } else if (parts.length == 2 && "DELETE".equals(method)) {
+                if (service.releaseHold(id)) {
+                    resp.getWriter().write("{\"status\":\"released\"}");
+                } else {
+                    resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                    resp.getWriter().write("{\"error\":\"" + BookingService.HOLD_NOT_FOUND + "\"}");
+                }
+            } else if (parts.length == 3 && "confirm".equals(parts[2]) && "POST".equals(method)) {
+                int bookingId = service.confirmHold(id);
+                resp.getWriter().write("{\"status\":\"created\",\"id\":" + bookingId + "}");
+            } else {
+                resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                resp.getWriter().write("{\"error\":\"Unknown hold endpoint\"}");
+            }
+        } catch (AvailabilityConflictException ce) {
+            resp.setStatus(HttpServletResponse.SC_CONFLICT);
+            resp.getWriter().write("{\"error\":\"" + ce.getMessage() + "\"}");
+        } catch (BusinessException be) {
+            resp.setStatus(BookingService.HOLD_NOT_FOUND.equals(be.getMessage())
+                    ? HttpServletResponse.SC_NOT_FOUND : HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
+        } catch (NumberFormatException nfe) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"Invalid hold ID or minutes\"}");
+        } catch (InvalidFormatException bad) {
+            writeBadFormat(resp, bad);
         } catch (Exception e) {
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
@@ -1,8 +1,9 @@
 package com.hotelbooking.servlet;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.hotelbooking.dao.NotificationDAO;
 import com.hotelbooking.model.Notification;
+import com.hotelbooking.service.BusinessException;
+import com.hotelbooking.service.NotificationService;
 
 import javax.servlet.http.*;
 import javax.servlet.*;
@@ -20,12 +21,15 @@ import java.util.List;
  *     <li><b>DELETE</b> — Delete a notification by ID.</li>
  * </ul>
  * <p>
- * All responses are in JSON format, and database operations are handled via {@link NotificationDAO}.
+ * All responses are in JSON format. Requests are handled by {@link NotificationService}, which keeps
+ * per-user unread counters and recent inboxes in memory.
  *
  * <h3>Example Endpoints:</h3>
  * <ul>
  *     <li>GET /notifications — retrieves all system and user notifications</li>
  *     <li>GET /notifications?userId=15 — retrieves notifications for user #15</li>
+ *     <li>GET /notifications?userId=15&amp;limit=20 — retrieves the 20 newest notifications for user #15</li>
+ *     <li>GET /notifications/unread-count?userId=15 — returns {@code {"unread": n}} for user #15</li>
  *     <li>POST /notifications — creates a new notification (JSON body)</li>
  *     <li>PUT /notifications?id=20 — marks notification #20 as read</li>
  *     <li>DELETE /notifications?id=20 — deletes notification #20</li>
@@ -33,8 +37,8 @@ import java.util.List;
  */
 public class NotificationServlet extends HttpServlet {
 
-    /** DAO for notification-related database operations. */
-    private final NotificationDAO dao = new NotificationDAO();
+    /** Service for notification operations. */
+    private final NotificationService service = new NotificationService();
 
     /** Jackson ObjectMapper for JSON serialization and deserialization. */
     private final ObjectMapper mapper = new ObjectMapper();
@@ -43,7 +47,9 @@ public class NotificationServlet extends HttpServlet {
      * Handles HTTP GET requests to retrieve notifications.
      * <p>
      * If a {@code userId} query parameter is provided, returns notifications for that specific user.
-     * Otherwise, returns all notifications (including system-wide ones).
+     * Otherwise, returns all notifications (including system-wide ones). With a {@code limit}
+     * parameter only the newest notifications of the user are returned. The {@code /unread-count}
+     * sub-path returns the user's unread count.
      *
      * @param req the HTTP request, optionally containing a {@code userId} parameter
      * @param res the HTTP response containing a JSON list of {@link Notification} objects
@@ -55,8 +61,31 @@ public class NotificationServlet extends HttpServlet {
         try {
             String uid = req.getParameter("userId");
             Integer userId = uid == null ? null : Integer.valueOf(uid);
-            List<Notification> list = dao.getNotificationsForUser(userId);
+            String limit = req.getParameter("limit");
+
+            if ("/unread-count".equals(req.getPathInfo())) {
+                if (userId == null) {
+                    res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                    res.getWriter().write("{\"error\":\"userId required\"}");
+                    return;
+                }
+                res.getWriter().write("{\"unread\":" + service.getUnreadCount(userId) + "}");
+                return;
+            }
+
+            List<Notification> list;
+            if (userId != null && limit != null) {
+                list = service.getRecentNotifications(userId, Integer.parseInt(limit));
+            } else {
+                list = service.getNotificationsForUser(userId);
+            }
             res.getWriter().write(mapper.writeValueAsString(list));
+        } catch (NumberFormatException nfe) {
+            res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            res.getWriter().write("{\"error\":\"userId and limit must be valid integers\"}");
+        } catch (BusinessException be) {
+            res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            res.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
         } catch (Exception e) {
             res.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             res.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
@@ -87,9 +116,12 @@ public class NotificationServlet extends HttpServlet {
     protected void doPost(HttpServletRequest req, HttpServletResponse res) throws IOException {
         try {
             Notification n = mapper.readValue(req.getReader(), Notification.class);
-            int id = dao.createNotification(n);
+            int id = service.createNotification(n);
             res.setContentType("application/json");
             res.getWriter().write("{\"id\":" + id + "}");
+        } catch (BusinessException be) {
+            res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            res.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
         } catch (Exception e) {
             res.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             res.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
@@ -100,14 +132,16 @@ public class NotificationServlet extends HttpServlet {
      * Handles HTTP PUT requests to mark a notification as read.
      * <p>
      * Requires an {@code id} query parameter identifying the notification to update.
+     * Global notifications are read per user, so they also require a {@code userId}.
      * Returns a success message if updated, or an error message if not found.
      *
      * Example request:
      * <pre>
      * PUT /notifications?id=10
+     * PUT /notifications?id=11&amp;userId=15
      * </pre>
      *
-     * @param req the HTTP request containing the {@code id} parameter
+     * @param req the HTTP request containing the {@code id} and optionally {@code userId} parameters
      * @param res the HTTP response indicating success or error in JSON
      * @throws IOException if an I/O error occurs
      */
@@ -122,12 +156,16 @@ public class NotificationServlet extends HttpServlet {
                 return;
             }
             int id = Integer.parseInt(idParam);
-            boolean ok = dao.markAsRead(id);
-            if (ok) {
-                res.getWriter().write("{\"status\":\"marked\"}");
-            } else {
+            String uid = req.getParameter("userId");
+            service.markAsRead(id, uid == null ? null : Integer.valueOf(uid));
+            res.getWriter().write("{\"status\":\"marked\"}");
+        } catch (BusinessException be) {
+            if (NotificationService.NOT_FOUND.equals(be.getMessage())) {
                 res.setStatus(HttpServletResponse.SC_NOT_FOUND);
                 res.getWriter().write("{\"error\":\"Not found\"}");
+            } else {
+                res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                res.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
             }
         } catch (Exception e) {
             res.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
@@ -155,13 +193,11 @@ public class NotificationServlet extends HttpServlet {
         try {
             res.setContentType("application/json");
             int id = Integer.parseInt(req.getParameter("id"));
-            boolean ok = dao.deleteNotification(id);
-            if (ok) {
-                res.getWriter().write("{\"status\":\"deleted\"}");
-            } else {
-                res.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                res.getWriter().write("{\"error\":\"Not found\"}");
-            }
+            service.deleteNotification(id);
+            res.getWriter().write("{\"status\":\"deleted\"}");
+        } catch (BusinessException be) {
+            res.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            res.getWriter().write("{\"error\":\"Not found\"}");
         } catch (Exception e) {
             res.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             res.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
@@ -0,0 +1,344 @@
+package com.hotelbooking.servlet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotelbooking.model.Notification;
+import com.hotelbooking.service.NotificationStreamHub;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code NotificationStreamServlet} pushes new notifications to the browser as
+ * Server-Sent Events, replacing the need to poll {@link NotificationServlet}.
+ * <p>
+ * Each request is put into asynchronous mode and registered with the
+ * {@link NotificationStreamHub}; no container thread is held while the connection is idle.
+ * Events are written by a small shared writer pool through the non-blocking servlet output
+ * stream, so a slow client only delays its own stream.
+ *
+ * <h3>Protocol:</h3>
+ * <ul>
+ *     <li>Every notification is sent as {@code event: notification}, with the notification ID
+ *         as the event {@code id} and the JSON notification as {@code data}.</li>
+ *     <li>A comment line is sent every {@value #HEARTBEAT_SECONDS} seconds so proxies keep the
+ *         connection open and dead clients are detected.</li>
+ *     <li>On reconnect the browser sends {@code Last-Event-ID}; missed notifications are replayed
+ *         from the hub's buffer. If the buffer no longer reaches back that far, an
+ *         {@code event: reset} tells the client to reload its inbox.</li>
+ *     <li>Each connection buffers at most {@value #QUEUE_CAPACITY} undelivered notifications. A client
+ *         that falls further behind receives {@code event: overflow} and is disconnected; it
+ *         reconnects and catches up through the replay buffer.</li>
+ *     <li>A client that accepts no data for {@value #WRITE_TIMEOUT_SECONDS} seconds is disconnected.</li>
+ * </ul>
+ *
+ * Example endpoint:
+ * <ul>
+ *     <li>GET /notifications/stream?userId=15 — opens the event stream for user #15</li>
+ * </ul>
+ */
+public class NotificationStreamServlet extends HttpServlet {
+
+    /** Seconds between heartbeat comments. */
+    public static final int HEARTBEAT_SECONDS = 15;
+
+    /** Maximum number of undelivered notifications buffered per connection. */
+    public static final int QUEUE_CAPACITY = 256;
+
+    /** Seconds a connection may refuse output before it is closed. */
+    public static final int WRITE_TIMEOUT_SECONDS = 2 * HEARTBEAT_SECONDS;
+
+    /** Reconnect delay suggested to the browser, in milliseconds. */
+    private static final int RETRY_MILLIS = 3000;
+
+    /** Jackson ObjectMapper for JSON serialization. */
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /** Open connections, for heartbeats and shutdown. */
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+
+    /** Writes events and heartbeats; connections never block container threads. */
+    private ScheduledExecutorService writers;
+
+    /**
+     * Starts the writer pool and the heartbeat schedule.
+     */
+    @Override
+    public void init() {
+        AtomicInteger seq = new AtomicInteger();
+        writers = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "sse-writer-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        writers.scheduleAtFixedRate(() -> {
+            for (Connection c : connections) c.heartbeat();
+        }, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Closes every open connection and stops the writer pool.
+     */
+    @Override
+    public void destroy() {
+        for (Connection c : connections) c.close();
+        writers.shutdownNow();
+    }
+
+    /**
+     * Opens an event stream for a user.
+     *
+     * @param req the HTTP request containing the {@code userId} parameter and optionally a
+     *            {@code Last-Event-ID} header (or {@code lastEventId} parameter)
+     * @param res the HTTP response, kept open as a {@code text/event-stream}
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse res) throws IOException {
+        int userId;
+        Integer lastEventId;
+        try {
+            userId = Integer.parseInt(req.getParameter("userId"));
+            String last = req.getHeader("Last-Event-ID");
+            if (last == null) last = req.getParameter("lastEventId");
+            lastEventId = last != null && !last.trim().isEmpty() ? Integer.valueOf(last.trim()) : null;
+        } catch (NumberFormatException nfe) {
+            res.setContentType("application/json");
+            res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            res.getWriter().write("{\"error\":\"userId and Last-Event-ID must be valid integers\"}");
+            return;
+        }
+
+        res.setContentType("text/event-stream");
+        res.setCharacterEncoding("UTF-8");
+        res.setHeader("Cache-Control", "no-cache");
+        res.setHeader("X-Accel-Buffering", "no");
+
+        AsyncContext ctx = req.startAsync();
+        ctx.setTimeout(0);
+        ServletOutputStream out = res.getOutputStream();
+        Connection conn = new Connection(userId, ctx, out);
+        ctx.addListener(conn);
+        connections.add(conn);
+        out.setWriteListener(conn);
+
+        List<Notification> missed = NotificationStreamHub.shared().subscribe(userId, conn, lastEventId);
+        conn.open(missed);
+    }
+
+    /**
+     * One open event stream. Notifications are queued by the hub and written by the
+     * writer pool; at most one write runs per connection at a time.
+     * <p>
+     * Output uses the non-blocking {@link ServletOutputStream}: a chunk is written only while
+     * {@link ServletOutputStream#isReady()} is true, and otherwise kept until the container
+     * calls {@link #onWritePossible()}. A slow client therefore never holds a writer thread.
+     * A client that accepts nothing for {@value #WRITE_TIMEOUT_SECONDS} seconds, or overflows
+     * its queue while stalled, is disconnected.
+     */
+    private final class Connection implements NotificationStreamHub.Subscriber, AsyncListener, WriteListener {
+
+        private final int userId;
+        private final AsyncContext ctx;
+        private final ServletOutputStream out;
+        private final ArrayBlockingQueue<Notification> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        /** Preamble to write before any queued events (retry hint and replay reset). */
+        private volatile String preamble;
+
+        /** Set once the preamble is queued; live events wait until then so replay comes first. */
+        private volatile boolean opened;
+        private volatile boolean heartbeatDue;
+        private volatile boolean overflowed;
+
+        /** When the output last refused a write, from {@link System#nanoTime()}; {@code 0} while writable. */
+        private volatile long stalledSince;
+
+        /** Encoded chunk waiting for the output to become ready; guarded by {@code this}. */
+        private byte[] pending;
+
+        /** Whether {@link #pending} ends with the overflow event; guarded by {@code this}. */
+        private boolean closeAfterPending;
+
+        Connection(int userId, AsyncContext ctx, ServletOutputStream out) {
+            this.userId = userId;
+            this.ctx = ctx;
+            this.out = out;
+        }
+
+        /** Queues the stream preamble and the replayed notifications. */
+        void open(List<Notification> missed) {
+            StringBuilder sb = new StringBuilder("retry: ").append(RETRY_MILLIS).append("\n\n");
+            if (missed == null) {
+                sb.append("event: reset\ndata: {}\n\n");
+            } else {
+                try {
+                    for (Notification n : missed) appendEvent(sb, n);
+                } catch (IOException e) {
+                    close();
+                    return;
+                }
+            }
+            preamble = sb.toString();
+            opened = true;
+            schedule();
+        }
+
+        @Override
+        public boolean offer(Notification n) {
+            if (closed.get()) return false;
+            if (!queue.offer(n)) {
+                overflowed = true;
+                schedule();
+                return false;
+            }
+            schedule();
+            return true;
+        }
+
+        void heartbeat() {
+            long since = stalledSince;
+            if (since != 0 && System.nanoTime() - since > TimeUnit.SECONDS.toNanos(WRITE_TIMEOUT_SECONDS)) {
+                close();
+                return;
+            }
+            heartbeatDue = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (closed.get() || !scheduled.compareAndSet(false, true)) return;
+            try {
+                writers.execute(() -> {
+                    scheduled.set(false);
+                    drain();
+                });
+            } catch (RuntimeException rejected) {
+                scheduled.set(false);
+                close();
+            }
+        }
+
+        /**
+         * Writes pending output for as long as the stream accepts it without blocking. Runs on
+         * the writer pool, or on a container thread from {@link #onWritePossible()}.
+         */
+        private synchronized void drain() {
+            if (closed.get() || !opened) return;
+            try {
+                while (true) {
+                    if (pending == null) {
+                        pending = nextChunk();
+                        if (pending == null) {
+                            if (out.isReady()) out.flush();
+                            return;
+                        }
+                    }
+                    if (!out.isReady()) {
+                        // A stalled client could not even receive the overflow event.
+                        if (overflowed) {
+                            close();
+                            return;
+                        }
+                        // The container calls onWritePossible() once the client catches up.
+                        if (stalledSince == 0) stalledSince = System.nanoTime();
+                        return;
+                    }
+                    stalledSince = 0;
+                    out.write(pending);
+                    pending = null;
+                    if (closeAfterPending) {
+                        if (out.isReady()) out.flush();
+                        close();
+                        return;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            }
+        }
+
+        /** Encodes everything queued so far, or returns {@code null} if there is nothing to send. */
+        private byte[] nextChunk() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            String p = preamble;
+            if (p != null) {
+                sb.append(p);
+                preamble = null;
+            }
+            Notification n;
+            while ((n = queue.poll()) != null) appendEvent(sb, n);
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                if (sb.length() == 0) sb.append(": heartbeat\n\n");
+            }
+            if (overflowed) {
+                sb.append("event: overflow\ndata: {}\n\n");
+                closeAfterPending = true;
+            }
+            return sb.length() == 0 ? null : sb.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        private void appendEvent(StringBuilder sb, Notification n) throws IOException {
+            sb.append("id: ").append(n.getId()).append('\n')
+              .append("event: notification\n")
+              .append("data: ").append(mapper.writeValueAsString(n)).append("\n\n");
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) return;
+            NotificationStreamHub.shared().unsubscribe(userId, this);
+            connections.remove(this);
+            try {
+                ctx.complete();
+            } catch (IllegalStateException ignored) {
+                // already completed by the container
+            }
+        }
+
+        @Override
+        public void onWritePossible() {
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            close();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
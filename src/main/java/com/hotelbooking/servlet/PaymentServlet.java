@@ -1,8 +1,9 @@
 package com.hotelbooking.servlet;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.hotelbooking.dao.PaymentDAO;
 import com.hotelbooking.model.Payment;
+import com.hotelbooking.service.BusinessException;
+import com.hotelbooking.service.PaymentService;
 
 import javax.servlet.http.*;
 import java.io.*;
@@ -12,8 +13,9 @@ import java.util.*;
  * {@code PaymentServlet} manages CRUD operations for hotel booking payments.
  * <p>
  * This servlet exposes RESTful endpoints for managing payment records.
- * All responses are returned in JSON format, and the servlet interacts with the
- * {@link PaymentDAO} class to perform database operations.
+ * All responses are returned in JSON format, and the servlet delegates to
+ * {@link PaymentService}, which validates the booking reference and publishes an event
+ * when a payment is captured.
  *
  * <h3>Supported Endpoints:</h3>
  * <ul>
@@ -39,8 +41,8 @@ import java.util.*;
  */
 public class PaymentServlet extends HttpServlet {
 
-    /** Data Access Object for payment database operations. */
-    private final PaymentDAO dao = new PaymentDAO();
+    /** Service layer for payment operations. */
+    private final PaymentService service = new PaymentService();
 
     /** Jackson ObjectMapper for JSON serialization/deserialization. */
     private final ObjectMapper mapper = new ObjectMapper();
@@ -62,7 +64,7 @@ public class PaymentServlet extends HttpServlet {
         try {
             if (idParam != null) {
                 int id = Integer.parseInt(idParam);
-                Payment p = dao.getById(id);
+                Payment p = service.getPaymentById(id);
                 if (p == null) {
                     resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
                     resp.getWriter().write("{\"error\":\"Payment not found\"}");
@@ -70,7 +72,7 @@ public class PaymentServlet extends HttpServlet {
                     resp.getWriter().write(mapper.writeValueAsString(p));
                 }
             } else {
-                List<Payment> list = dao.getAll();
+                List<Payment> list = service.listPayments();
                 resp.getWriter().write(mapper.writeValueAsString(list));
             }
         } catch (Exception e) {
@@ -103,9 +105,12 @@ public class PaymentServlet extends HttpServlet {
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         try {
             Payment p = mapper.readValue(req.getReader(), Payment.class);
-            int id = dao.create(p);
+            int id = service.createPayment(p);
             resp.setContentType("application/json");
             resp.getWriter().write("{\"status\":\"created\",\"id\":" + id + "}");
+        } catch (BusinessException be) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
         } catch (Exception e) {
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
@@ -137,7 +142,7 @@ public class PaymentServlet extends HttpServlet {
     protected void doPut(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         try {
             Payment p = mapper.readValue(req.getReader(), Payment.class);
-            boolean ok = dao.update(p);
+            boolean ok = service.updatePayment(p);
             resp.setContentType("application/json");
             if (ok) {
                 resp.getWriter().write("{\"status\":\"updated\"}");
@@ -145,6 +150,9 @@ public class PaymentServlet extends HttpServlet {
                 resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
                 resp.getWriter().write("{\"error\":\"Payment not found\"}");
             }
+        } catch (BusinessException be) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
         } catch (Exception e) {
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
@@ -174,7 +182,7 @@ public class PaymentServlet extends HttpServlet {
             }
 
             int id = Integer.parseInt(idParam);
-            boolean ok = dao.delete(id);
+            boolean ok = service.deletePayment(id);
 
             if (ok) {
                 resp.getWriter().write("{\"status\":\"deleted\"}");
@@ -1,8 +1,10 @@
 package com.hotelbooking.servlet;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.hotelbooking.dao.ReviewDAO;
 import com.hotelbooking.model.Review;
+import com.hotelbooking.model.ReviewSearchHit;
+import com.hotelbooking.service.BusinessException;
+import com.hotelbooking.service.ReviewService;
 
 import javax.servlet.http.*;
 import javax.servlet.*;
@@ -19,21 +21,24 @@ import java.util.List;
  *     <li><b>DELETE</b> – Delete a review by its ID.</li>
  * </ul>
  * <p>
- * Responses are returned in JSON format. This servlet interacts with the {@link ReviewDAO}
- * data access object and uses the Jackson {@link ObjectMapper} for JSON serialization.
+ * Responses are returned in JSON format. This servlet delegates to {@link ReviewService}, which
+ * validates reviews and keeps room rating aggregates up to date, and uses the Jackson
+ * {@link ObjectMapper} for JSON serialization.
  *
  * Example endpoints:
  * <ul>
  *     <li>GET /reviews — retrieves all reviews</li>
  *     <li>GET /reviews?roomId=101 — retrieves reviews for room #101</li>
+ *     <li>GET /reviews/search?q=quiet+breakfast&amp;roomId=101&amp;limit=20 — full-text search over
+ *         review comments, best match first ({@code roomId} and {@code limit} are optional)</li>
  *     <li>POST /reviews — creates a new review (JSON body)</li>
  *     <li>DELETE /reviews?id=5 — deletes review #5</li>
  * </ul>
  */
 public class ReviewServlet extends HttpServlet {
 
-    /** DAO for review database operations. */
-    private final ReviewDAO dao = new ReviewDAO();
+    /** Service for review operations. */
+    private final ReviewService service = new ReviewService();
 
     /** Jackson ObjectMapper for JSON serialization and deserialization. */
     private final ObjectMapper mapper = new ObjectMapper();
@@ -42,7 +47,8 @@ public class ReviewServlet extends HttpServlet {
      * Handles GET requests to retrieve reviews.
      * <p>
      * If the {@code roomId} parameter is present, retrieves reviews for that specific room.
-     * Otherwise, retrieves all reviews.
+     * Otherwise, retrieves all reviews. The {@code /search} sub-path runs a full-text
+     * search over review comments instead.
      *
      * @param req the HTTP request, optionally containing the {@code roomId} query parameter
      * @param res the HTTP response containing a JSON array of {@link Review} objects
@@ -51,14 +57,18 @@ public class ReviewServlet extends HttpServlet {
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse res) throws IOException {
         res.setContentType("application/json");
+        if ("/search".equals(req.getPathInfo())) {
+            search(req, res);
+            return;
+        }
         try {
             String roomId = req.getParameter("roomId");
             List<Review> list;
 
             if (roomId != null) {
-                list = dao.getReviewsByRoom(Integer.parseInt(roomId));
+                list = service.getReviewsForRoom(Integer.parseInt(roomId));
             } else {
-                list = dao.getAllReviews();
+                list = service.getAllReviews();
             }
 
             res.getWriter().write(mapper.writeValueAsString(list));
@@ -92,10 +102,13 @@ public class ReviewServlet extends HttpServlet {
     protected void doPost(HttpServletRequest req, HttpServletResponse res) throws IOException {
         try {
             Review r = mapper.readValue(req.getReader(), Review.class);
-            int id = dao.addReview(r);
+            int id = service.addReview(r);
 
             res.setContentType("application/json");
             res.getWriter().write("{\"id\":" + id + "}");
+        } catch (BusinessException be) {
+            res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            res.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
         } catch (Exception e) {
             res.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             res.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
@@ -116,15 +129,40 @@ public class ReviewServlet extends HttpServlet {
     protected void doDelete(HttpServletRequest req, HttpServletResponse res) throws IOException {
         try {
             int id = Integer.parseInt(req.getParameter("id"));
-            boolean ok = dao.deleteReview(id);
+            service.deleteReview(id);
 
             res.setContentType("application/json");
-            if (ok) {
-                res.getWriter().write("{\"status\":\"deleted\"}");
-            } else {
-                res.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                res.getWriter().write("{\"error\":\"Not found\"}");
-            }
+            res.getWriter().write("{\"status\":\"deleted\"}");
+        } catch (BusinessException be) {
+            res.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            res.getWriter().write("{\"error\":\"Not found\"}");
+        } catch (Exception e) {
+            res.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            res.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
+        }
+    }
+
+    /**
+     * Handles {@code GET /reviews/search}.
+     *
+     * @param req the HTTP request containing {@code q} and optionally {@code roomId} and {@code limit}
+     * @param res the HTTP response containing a JSON array of {@link ReviewSearchHit} objects
+     * @throws IOException if an I/O error occurs during the process
+     */
+    private void search(HttpServletRequest req, HttpServletResponse res) throws IOException {
+        try {
+            String roomId = req.getParameter("roomId");
+            String limit = req.getParameter("limit");
+            List<ReviewSearchHit> hits = service.searchReviews(req.getParameter("q"),
+                    roomId != null ? Integer.valueOf(roomId) : null,
+                    limit != null ? Integer.parseInt(limit) : ReviewService.DEFAULT_SEARCH_LIMIT);
+            res.getWriter().write(mapper.writeValueAsString(hits));
+        } catch (NumberFormatException nfe) {
+            res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            res.getWriter().write("{\"error\":\"roomId and limit must be valid integers\"}");
+        } catch (BusinessException be) {
+            res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            res.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
         } catch (Exception e) {
             res.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             res.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
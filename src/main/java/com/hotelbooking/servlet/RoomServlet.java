@@ -2,11 +2,21 @@ package com.hotelbooking.servlet;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hotelbooking.dao.RoomDAO;
+import com.hotelbooking.model.RatePeriod;
 import com.hotelbooking.model.Room;
+import com.hotelbooking.model.RoomRating;
+import com.hotelbooking.service.BusinessException;
+import com.hotelbooking.service.PricingService;
+import com.hotelbooking.service.RoomAssignmentService;
+import com.hotelbooking.service.RoomRatingService;
+import com.hotelbooking.service.RoomService;
+import com.hotelbooking.utils.LocalDateDeserializer;
 
 import javax.servlet.http.*;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * {@code RoomServlet} handles all HTTP requests related to room management
@@ -20,9 +30,17 @@ import java.util.List;
  * <ul>
  *   <li><b>GET /api/rooms</b> → Retrieve all rooms</li>
  *   <li><b>GET /api/rooms?id={id}</b> → Retrieve room by ID</li>
+ *   <li><b>GET /api/rooms/{id}/rating</b> → Retrieve a room's review aggregate</li>
+ *   <li><b>GET /api/rooms/{id}/quote?checkIn={date}&amp;checkOut={date}</b> → Price a stay from the nightly rates</li>
+ *   <li><b>GET /api/rooms/available?checkIn={date}&amp;checkOut={date}&amp;type={type}</b> → Rooms with no booking on those dates (cached per dates and type)</li>
+ *   <li><b>GET /api/rooms/cheapest?from={date}&amp;to={date}&amp;nights={n}&amp;type={type}&amp;maxTotal={amount}&amp;limit={k}</b> → Cheapest free stays of {@code n} nights within a range</li>
  *   <li><b>POST /api/rooms</b> → Create a new room</li>
+ *   <li><b>POST /api/rooms/ratings/rebuild</b> → Recompute all review aggregates from the reviews table</li>
+ *   <li><b>POST /api/rooms/assignments/optimize?type={type}</b> → Re-plan room assignments of future bookings (all types if omitted)</li>
+ *   <li><b>POST /api/rooms/rates</b> → Set a room type's nightly rate for a period (see {@link RatePeriod})</li>
  *   <li><b>PUT /api/rooms</b> → Update an existing room</li>
  *   <li><b>DELETE /api/rooms?id={id}</b> → Delete a room by ID</li>
+ *   <li><b>DELETE /api/rooms/rates?type={type}&amp;from={date}&amp;to={date}</b> → Clear a room type's rates for a period</li>
  * </ul>
  *
  * <p>All responses are in JSON format and follow the pattern:
@@ -33,6 +51,10 @@ import java.util.List;
  * }
  * </pre></p>
  *
+ * <p>Rooms returned by GET carry a {@code rating} object (count, sum, star histogram and
+ * average) taken from the in-memory aggregates, so listings never scan reviews, and a
+ * {@code currentPrice}: tonight's rate adjusted to demand.</p>
+ *
  * <p>Example JSON for POST/PUT:</p>
  * <pre>
  * {
@@ -51,6 +73,21 @@ public class RoomServlet extends HttpServlet {
     /** Data Access Object for performing database operations on Room entities. */
     private final RoomDAO dao = new RoomDAO();
 
+    /** Service holding the per-room review aggregates. */
+    private final RoomRatingService ratingService = new RoomRatingService();
+
+    /** Re-plans room assignments on demand. */
+    private final RoomAssignmentService assignmentService = new RoomAssignmentService();
+
+    /** Answers cached availability searches. */
+    private final RoomService roomService = new RoomService();
+
+    /** Prices stays from the nightly rate calendar. */
+    private final PricingService pricingService = new PricingService();
+
+    /** Number of stays returned by {@code GET /cheapest} when no limit is given. */
+    private static final int DEFAULT_CHEAPEST_LIMIT = 10;
+
     /** ObjectMapper from Jackson library for JSON serialization/deserialization. */
     private final ObjectMapper mapper = new ObjectMapper();
 
@@ -58,7 +95,9 @@ public class RoomServlet extends HttpServlet {
      * Handles HTTP GET requests.
      *
      * <p>If an 'id' parameter is provided, fetches a single room by ID.
-     * Otherwise, returns a list of all available rooms.</p>
+     * Otherwise, returns a list of all available rooms. The {@code /{id}/rating}
+     * sub-path returns only the room's review aggregate, and {@code /{id}/quote} the price
+     * of a stay.</p>
      *
      * @param req  the {@link HttpServletRequest} object
      * @param resp the {@link HttpServletResponse} object
@@ -68,9 +107,26 @@ public class RoomServlet extends HttpServlet {
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         resp.setContentType("application/json");
         String idParam = req.getParameter("id");
+        String path = req.getPathInfo();
 
         try {
-            if (idParam != null) {
+            if ("/cheapest".equals(path)) {
+                writeCheapest(req, resp);
+            } else if ("/available".equals(path)) {
+                String checkIn = req.getParameter("checkIn");
+                String checkOut = req.getParameter("checkOut");
+                List<Room> rooms = roomService.findAvailableRooms(
+                        checkIn != null ? LocalDateDeserializer.parse(checkIn) : null,
+                        checkOut != null ? LocalDateDeserializer.parse(checkOut) : null, req.getParameter("type"));
+                resp.getWriter().write(mapper.writeValueAsString(rooms));
+            } else if (path != null && path.endsWith("/quote")) {
+                int id = Integer.parseInt(path.substring(1, path.length() - "/quote".length()));
+                resp.getWriter().write(mapper.writeValueAsString(
+                        pricingService.quote(id, req.getParameter("checkIn"), req.getParameter("checkOut"))));
+            } else if (path != null && path.endsWith("/rating")) {
+                int id = Integer.parseInt(path.substring(1, path.length() - "/rating".length()));
+                resp.getWriter().write(mapper.writeValueAsString(ratingService.getRating(id)));
+            } else if (idParam != null) {
                 // Retrieve room by ID
                 int id = Integer.parseInt(idParam);
                 Room room = dao.getById(id);
@@ -79,26 +135,65 @@ public class RoomServlet extends HttpServlet {
                     resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
                     resp.getWriter().write("{\"error\":\"Room not found\"}");
                 } else {
+                    room.setRating(ratingService.getRating(room.getId()));
+                    room.setCurrentPrice(pricingService.currentPrice(room));
                     resp.getWriter().write(mapper.writeValueAsString(room));
                 }
             } else {
                 // Retrieve all rooms
-                List<Room> rooms = dao.getAll();
+                List<Room> rooms = withRatings(dao.getAll());
                 resp.getWriter().write(mapper.writeValueAsString(rooms));
             }
         } catch (NumberFormatException e) {
             resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             resp.getWriter().write("{\"error\":\"Invalid room ID format\"}");
+        } catch (BusinessException e) {
+            resp.setStatus(PricingService.ROOM_NOT_FOUND.equals(e.getMessage())
+                    ? HttpServletResponse.SC_NOT_FOUND : HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
+        } catch (IllegalArgumentException e) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"Bad date format. Use YYYY-MM-DD\"}");
         } catch (Exception e) {
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
         }
     }
 
+    /**
+     * Writes the cheapest free stays for {@code GET /cheapest}.
+     *
+     * @param req  the request with {@code from}, {@code to}, {@code nights} and optional
+     *             {@code type}, {@code maxTotal} and {@code limit} (default
+     *             {@value #DEFAULT_CHEAPEST_LIMIT})
+     * @param resp the response
+     * @throws Exception if the search fails
+     */
+    private void writeCheapest(HttpServletRequest req, HttpServletResponse resp) throws Exception {
+        int nights;
+        int limit;
+        Double maxTotal;
+        try {
+            nights = Integer.parseInt(req.getParameter("nights"));
+            String limitParam = req.getParameter("limit");
+            limit = limitParam != null ? Integer.parseInt(limitParam) : DEFAULT_CHEAPEST_LIMIT;
+            String maxParam = req.getParameter("maxTotal");
+            maxTotal = maxParam != null ? Double.valueOf(maxParam) : null;
+        } catch (NumberFormatException e) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"nights, limit and maxTotal must be valid numbers\"}");
+            return;
+        }
+        resp.getWriter().write(mapper.writeValueAsString(pricingService.cheapestStays(req.getParameter("type"),
+                req.getParameter("from"), req.getParameter("to"), nights, maxTotal, limit)));
+    }
+
     /**
      * Handles HTTP POST requests.
      *
-     * <p>Creates a new {@link Room} record in the database using JSON input from the request body.</p>
+     * <p>Creates a new {@link Room} record in the database using JSON input from the request body.
+     * The {@code /ratings/rebuild} sub-path instead recomputes every room's review aggregate,
+     * and {@code /rates} sets a room type's nightly rate for a period.</p>
      *
      * @param req  the {@link HttpServletRequest} object containing JSON room data
      * @param resp the {@link HttpServletResponse} object
@@ -108,12 +203,37 @@ public class RoomServlet extends HttpServlet {
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         resp.setContentType("application/json");
         try {
+            if ("/ratings/rebuild".equals(req.getPathInfo())) {
+                int rooms = ratingService.rebuild();
+                resp.getWriter().write("{\"status\":\"rebuilt\",\"rooms\":" + rooms + "}");
+                return;
+            }
+            if ("/rates".equals(req.getPathInfo())) {
+                RatePeriod period = mapper.readValue(req.getReader(), RatePeriod.class);
+                int nights = pricingService.setRates(period);
+                resp.getWriter().write("{\"status\":\"updated\",\"nights\":" + nights + "}");
+                return;
+            }
+            if ("/assignments/optimize".equals(req.getPathInfo())) {
+                String type = req.getParameter("type");
+                int moved = type != null ? assignmentService.reoptimize(type) : assignmentService.reoptimizeAll();
+                resp.getWriter().write("{\"status\":\"optimized\",\"moved\":" + moved + "}");
+                return;
+            }
+
             // Parse the JSON body into a Room object
             Room room = mapper.readValue(req.getReader(), Room.class);
 
             // Persist to database and return created ID
             int id = dao.create(room);
+            roomService.roomsChanged();
             resp.getWriter().write("{\"status\":\"created\",\"id\":" + id + "}");
+        } catch (BusinessException e) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
+        } catch (IllegalArgumentException e) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"Bad date format. Use YYYY-MM-DD\"}");
         } catch (Exception e) {
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
@@ -136,6 +256,7 @@ public class RoomServlet extends HttpServlet {
         try {
             Room room = mapper.readValue(req.getReader(), Room.class);
             boolean updated = dao.update(room);
+            if (updated) roomService.roomsChanged();
 
             if (updated) {
                 resp.getWriter().write("{\"status\":\"updated\"}");
@@ -152,7 +273,8 @@ public class RoomServlet extends HttpServlet {
     /**
      * Handles HTTP DELETE requests.
      *
-     * <p>Deletes a {@link Room} from the database based on the provided room ID.</p>
+     * <p>Deletes a {@link Room} from the database based on the provided room ID. The
+     * {@code /rates} sub-path instead clears a room type's rates for a period.</p>
      *
      * @param req  the {@link HttpServletRequest} containing the 'id' parameter
      * @param resp the {@link HttpServletResponse} used to return the result
@@ -162,6 +284,12 @@ public class RoomServlet extends HttpServlet {
     protected void doDelete(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         resp.setContentType("application/json");
         try {
+            if ("/rates".equals(req.getPathInfo())) {
+                int nights = pricingService.clearRates(req.getParameter("type"), req.getParameter("from"),
+                        req.getParameter("to"));
+                resp.getWriter().write("{\"status\":\"cleared\",\"nights\":" + nights + "}");
+                return;
+            }
             String idParam = req.getParameter("id");
 
             if (idParam == null) {
@@ -172,6 +300,7 @@ public class RoomServlet extends HttpServlet {
 
             int id = Integer.parseInt(idParam);
             boolean deleted = dao.delete(id);
+            if (deleted) roomService.roomsChanged();
 
             if (deleted) {
                 resp.getWriter().write("{\"status\":\"deleted\"}");
@@ -182,9 +311,33 @@ public class RoomServlet extends HttpServlet {
         } catch (NumberFormatException e) {
             resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             resp.getWriter().write("{\"error\":\"Invalid room ID format\"}");
+        } catch (BusinessException e) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
+        } catch (IllegalArgumentException e) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"Bad date format. Use YYYY-MM-DD\"}");
         } catch (Exception e) {
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
         }
     }
+
+    /**
+     * Embeds in each room its review aggregate, looked up in one batch, and its current price.
+     *
+     * @param rooms the rooms to enrich
+     * @return the same list, enriched
+     * @throws Exception if the aggregates cannot be loaded
+     */
+    private List<Room> withRatings(List<Room> rooms) throws Exception {
+        List<Integer> ids = new ArrayList<>(rooms.size());
+        for (Room r : rooms) ids.add(r.getId());
+        Map<Integer, RoomRating> ratings = ratingService.getRatings(ids);
+        for (Room r : rooms) {
+            r.setRating(ratings.get(r.getId()));
+            r.setCurrentPrice(pricingService.currentPrice(r));
+        }
+        return rooms;
+    }
 }
@@ -0,0 +1,138 @@
+package com.hotelbooking.servlet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.hotelbooking.model.WaitlistEntry;
+import com.hotelbooking.service.BusinessException;
+import com.hotelbooking.service.WaitlistService;
+
+import javax.servlet.http.*;
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * {@code WaitlistServlet} lets customers wait for a room type on sold-out dates.
+ * <p>
+ * When a matching room frees up, the customer is offered a hold on it and notified; the
+ * hold is confirmed through {@code POST /bookings/holds/{id}/confirm}.
+ * </p>
+ *
+ * <h3>Example Endpoints:</h3>
+ * <ul>
+ *     <li>POST /waitlist — joins the waitlist (JSON body with {@code customerId}, {@code roomType},
+ *         {@code checkIn}, {@code checkOut})</li>
+ *     <li>GET /waitlist?customerId=15 — lists customer #15's entries</li>
+ *     <li>GET /waitlist/7 — retrieves entry #7, including any offered hold</li>
+ *     <li>DELETE /waitlist/7 — leaves the waitlist</li>
+ * </ul>
+ */
+public class WaitlistServlet extends HttpServlet {
+
+    /** Service for waitlist operations. */
+    private final WaitlistService service = new WaitlistService();
+
+    /** Jackson ObjectMapper for JSON serialization and deserialization. */
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Handles HTTP GET requests: one entry by ID in the path, or a customer's entries.
+     *
+     * @param req  the HTTP request
+     * @param resp the HTTP response containing the entry or a JSON list of entries
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        resp.setContentType("application/json");
+        try {
+            String path = req.getPathInfo();
+            if (path != null && path.length() > 1) {
+                WaitlistEntry e = service.getEntry(Long.parseLong(path.substring(1)));
+                if (e == null) {
+                    resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                    resp.getWriter().write("{\"error\":\"" + WaitlistService.NOT_FOUND + "\"}");
+                } else {
+                    resp.getWriter().write(mapper.writeValueAsString(e));
+                }
+                return;
+            }
+            String customerId = req.getParameter("customerId");
+            if (customerId == null) {
+                resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                resp.getWriter().write("{\"error\":\"customerId required\"}");
+                return;
+            }
+            resp.getWriter().write(mapper.writeValueAsString(service.listForCustomer(Integer.parseInt(customerId))));
+        } catch (NumberFormatException nfe) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"Invalid entry ID or customerId\"}");
+        } catch (Exception e) {
+            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
+        }
+    }
+
+    /**
+     * Handles HTTP POST requests to join the waitlist. Returns the stored entry, which is
+     * already {@code OFFERED} if a room was free.
+     *
+     * @param req  the HTTP request containing the JSON representation of a {@link WaitlistEntry}
+     * @param resp the HTTP response containing the stored entry
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        resp.setContentType("application/json");
+        try {
+            WaitlistEntry e = mapper.readValue(req.getReader(), WaitlistEntry.class);
+            WaitlistEntry stored = service.register(e);
+            resp.setStatus(HttpServletResponse.SC_CREATED);
+            resp.getWriter().write(mapper.writeValueAsString(stored));
+        } catch (BusinessException be) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
+        } catch (InvalidFormatException bad) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            if (bad.getTargetType() == LocalDate.class) {
+                resp.getWriter().write("{\"error\":\"Bad date format. Use YYYY-MM-DD\"}");
+            } else {
+                resp.getWriter().write("{\"error\":\"Invalid value: " + bad.getValue() + "\"}");
+            }
+        } catch (Exception e) {
+            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
+        }
+    }
+
+    /**
+     * Handles HTTP DELETE requests to leave the waitlist. Only waiting entries can be removed.
+     *
+     * @param req  the HTTP request with the entry ID in the path
+     * @param resp the HTTP response
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    protected void doDelete(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        resp.setContentType("application/json");
+        try {
+            String path = req.getPathInfo();
+            if (path == null || path.length() <= 1) {
+                resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                resp.getWriter().write("{\"error\":\"Entry ID required\"}");
+                return;
+            }
+            service.cancel(Long.parseLong(path.substring(1)));
+            resp.getWriter().write("{\"status\":\"cancelled\"}");
+        } catch (NumberFormatException nfe) {
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            resp.getWriter().write("{\"error\":\"Invalid entry ID\"}");
+        } catch (BusinessException be) {
+            resp.setStatus(WaitlistService.NOT_FOUND.equals(be.getMessage())
+                    ? HttpServletResponse.SC_NOT_FOUND : HttpServletResponse.SC_CONFLICT);
+            resp.getWriter().write("{\"error\":\"" + be.getMessage() + "\"}");
+        } catch (Exception e) {
+            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            resp.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.hotelbooking.utils;
+
+/**
+ * Thread-safe map from {@code int} keys to {@code int} values, such as per-ID counters.
+ *
+ * <p>Striped like {@link ConcurrentIntObjectMap}, over {@link IntIntHashMap}s. Every method
+ * is atomic with respect to its key.</p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class ConcurrentIntIntMap {
+
+    /** Number of stripes; a power of two. */
+    private static final int STRIPES = 16;
+
+    private final IntIntHashMap[] stripes = new IntIntHashMap[STRIPES];
+
+    /** Creates an empty map. */
+    public ConcurrentIntIntMap() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new IntIntHashMap();
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key      the key
+     * @param fallback returned if the key is absent
+     * @return the value, or {@code fallback}
+     */
+    public int getOrDefault(int key, int fallback) {
+        IntIntHashMap s = stripe(key);
+        synchronized (s) {
+            return s.getOrDefault(key, fallback);
+        }
+    }
+
+    /**
+     * Adds to the value of a key, treating an absent key as {@code 0}.
+     *
+     * @param key   the key
+     * @param delta the amount to add
+     * @return the new value
+     */
+    public int addTo(int key, int delta) {
+        IntIntHashMap s = stripe(key);
+        synchronized (s) {
+            return s.addTo(key, delta);
+        }
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return {@code true} if the key was present
+     */
+    public boolean remove(int key) {
+        IntIntHashMap s = stripe(key);
+        synchronized (s) {
+            return s.remove(key);
+        }
+    }
+
+    /** @return {@code true} if no stripe has an entry */
+    public boolean isEmpty() {
+        for (IntIntHashMap s : stripes) {
+            synchronized (s) {
+                if (!s.isEmpty()) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes and returns every entry; see {@link ConcurrentIntObjectMap#drain()}.
+     *
+     * @return the removed entries
+     */
+    public IntIntHashMap drain() {
+        IntIntHashMap out = new IntIntHashMap();
+        for (IntIntHashMap s : stripes) {
+            synchronized (s) {
+                s.forEach(out::put);
+                s.clear();
+            }
+        }
+        return out;
+    }
+
+    private IntIntHashMap stripe(int key) {
+        return stripes[IntObjectHashMap.mix(key) >>> (32 - Integer.numberOfTrailingZeros(STRIPES))];
+    }
+}
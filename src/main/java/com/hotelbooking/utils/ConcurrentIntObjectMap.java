@@ -0,0 +1,159 @@
+package com.hotelbooking.utils;
+
+import java.util.function.BinaryOperator;
+import java.util.function.IntFunction;
+
+/**
+ * Thread-safe map from {@code int} keys to objects.
+ *
+ * <p>Keys are spread over a fixed number of {@link IntObjectHashMap} stripes, each guarded
+ * by its own monitor, so threads working on different IDs rarely wait on each other while
+ * entries stay unboxed. Every method is atomic with respect to its key; {@link #size()} and
+ * {@link #drain()} take the stripes one at a time.</p>
+ *
+ * <p>{@code null} values are not allowed.</p>
+ *
+ * @param <V> the value type
+ * @author
+ * @version 1.0
+ */
+public class ConcurrentIntObjectMap<V> {
+
+    /** Number of stripes; a power of two. */
+    private static final int STRIPES = 16;
+
+    private final IntObjectHashMap<V>[] stripes;
+
+    /** Creates an empty map. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentIntObjectMap() {
+        stripes = new IntObjectHashMap[STRIPES];
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new IntObjectHashMap<>();
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if the key is absent
+     */
+    public V get(int key) {
+        IntObjectHashMap<V> s = stripe(key);
+        synchronized (s) {
+            return s.get(key);
+        }
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key   the key
+     * @param value the value, not {@code null}
+     * @return the previous value, or {@code null}
+     */
+    public V put(int key, V value) {
+        IntObjectHashMap<V> s = stripe(key);
+        synchronized (s) {
+            return s.put(key, value);
+        }
+    }
+
+    /**
+     * Returns the value of a key, first storing {@code create}'s result if the key is absent.
+     * {@code create} runs while the key's stripe is locked and must be short.
+     *
+     * @param key    the key
+     * @param create computes the value of an absent key; must not return {@code null}
+     * @return the current value
+     */
+    public V computeIfAbsent(int key, IntFunction<? extends V> create) {
+        IntObjectHashMap<V> s = stripe(key);
+        synchronized (s) {
+            return s.computeIfAbsent(key, create);
+        }
+    }
+
+    /**
+     * Stores {@code value} for an absent key, or combines it with the current value.
+     *
+     * @param key     the key
+     * @param value   the value to store or combine, not {@code null}
+     * @param combine combines the current value with {@code value}; runs under the stripe lock
+     * @return the new value
+     */
+    public V merge(int key, V value, BinaryOperator<V> combine) {
+        IntObjectHashMap<V> s = stripe(key);
+        synchronized (s) {
+            V old = s.get(key);
+            V merged = old != null ? combine.apply(old, value) : value;
+            s.put(key, merged);
+            return merged;
+        }
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return the removed value, or {@code null}
+     */
+    public V remove(int key) {
+        IntObjectHashMap<V> s = stripe(key);
+        synchronized (s) {
+            return s.remove(key);
+        }
+    }
+
+    /** Removes every entry, one stripe at a time. */
+    public void clear() {
+        for (IntObjectHashMap<V> s : stripes) {
+            synchronized (s) {
+                s.clear();
+            }
+        }
+    }
+
+    /** @return the number of entries, summed stripe by stripe */
+    public int size() {
+        int n = 0;
+        for (IntObjectHashMap<V> s : stripes) {
+            synchronized (s) {
+                n += s.size();
+            }
+        }
+        return n;
+    }
+
+    /** @return {@code true} if no stripe has an entry */
+    public boolean isEmpty() {
+        for (IntObjectHashMap<V> s : stripes) {
+            synchronized (s) {
+                if (!s.isEmpty()) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes and returns every entry. Each entry is returned exactly once even if other
+     * threads keep adding; entries added to a stripe after it was emptied stay for the
+     * next call.
+     *
+     * @return the removed entries
+     */
+    public IntObjectHashMap<V> drain() {
+        IntObjectHashMap<V> out = new IntObjectHashMap<>();
+        for (IntObjectHashMap<V> s : stripes) {
+            synchronized (s) {
+                s.forEach(out::put);
+                s.clear();
+            }
+        }
+        return out;
+    }
+
+    private IntObjectHashMap<V> stripe(int key) {
+        // High bits pick the stripe; the stripe's table uses the low bits.
+        return stripes[IntObjectHashMap.mix(key) >>> (32 - Integer.numberOfTrailingZeros(STRIPES))];
+    }
+}
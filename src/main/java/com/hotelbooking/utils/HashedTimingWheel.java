@@ -0,0 +1,242 @@
+package com.hotelbooking.utils;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Timer for large numbers of low-precision timeouts, such as booking hold expiries.
+ *
+ * <p>Time is divided into ticks of a fixed length. Timeouts are placed in one of
+ * {@code wheelSize} buckets according to their deadline tick; a single worker thread visits
+ * one bucket per tick and fires the entries whose deadline has come. Timeouts further away
+ * than one revolution carry a round counter that is decremented on each visit. Scheduling and
+ * cancelling are O(1) regardless of how many timeouts are pending, unlike a
+ * {@link java.util.concurrent.ScheduledThreadPoolExecutor}, whose heap costs O(log n) per
+ * operation and keeps cancelled tasks until their deadline.</p>
+ *
+ * <p>Timeouts fire up to one tick late. Tasks run on the worker thread and should be short;
+ * an exception thrown by a task is logged and does not affect other timeouts.</p>
+ *
+ * <pre>{@code
+ * HashedTimingWheel wheel = new HashedTimingWheel(1, TimeUnit.SECONDS, 512, "hold-expiry");
+ * HashedTimingWheel.Timeout t = wheel.schedule(() -> release(holdId), 15, TimeUnit.MINUTES);
+ * ...
+ * t.cancel();
+ * }</pre>
+ *
+ * @author
+ * @version 1.0
+ */
+public class HashedTimingWheel {
+
+    /** A scheduled task that can be cancelled before it fires. */
+    public interface Timeout {
+
+        /**
+         * Cancels the timeout.
+         *
+         * @return {@code true} if it was cancelled; {@code false} if it had already fired
+         *         or been cancelled
+         */
+        boolean cancel();
+    }
+
+    private static final Logger LOG = Logger.getLogger(HashedTimingWheel.class.getName());
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final String threadName;
+
+    /** Timeouts scheduled since the last tick; moved into buckets by the worker. */
+    private final ConcurrentLinkedQueue<Entry> incoming = new ConcurrentLinkedQueue<>();
+
+    /** Cancelled timeouts still linked into a bucket; unlinked by the worker. */
+    private final ConcurrentLinkedQueue<Entry> cancelled = new ConcurrentLinkedQueue<>();
+
+    private volatile long startNanos;
+    private volatile Thread worker;
+
+    /**
+     * Creates a wheel. It is started by {@link #start()}.
+     *
+     * @param tick       the length of one tick
+     * @param unit       the unit of {@code tick}
+     * @param wheelSize  the number of buckets, rounded up to a power of two
+     * @param threadName the name of the worker thread
+     */
+    public HashedTimingWheel(long tick, TimeUnit unit, int wheelSize, String threadName) {
+        if (tick <= 0 || wheelSize <= 0) throw new IllegalArgumentException("tick and wheelSize must be positive");
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickNanos = unit.toNanos(tick);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) wheel[i] = new Bucket();
+        this.mask = size - 1;
+        this.threadName = threadName;
+    }
+
+    /**
+     * Starts the worker thread. Does nothing if it is already running.
+     */
+    public synchronized void start() {
+        if (worker != null) return;
+        startNanos = System.nanoTime();
+        Thread t = new Thread(this::run, threadName);
+        t.setDaemon(true);
+        worker = t;
+        t.start();
+    }
+
+    /**
+     * Stops the worker thread. Pending timeouts are discarded without firing.
+     */
+    public synchronized void stop() {
+        Thread t = worker;
+        if (t == null) return;
+        worker = null;
+        t.interrupt();
+        try {
+            t.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Schedules a task to run once after the given delay. The wheel is started on first use.
+     *
+     * @param task  the task to run on the worker thread
+     * @param delay the delay
+     * @param unit  the unit of {@code delay}
+     * @return a handle for cancelling the task
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (worker == null) start();
+        long deadline = System.nanoTime() - startNanos + Math.max(0, unit.toNanos(delay));
+        Entry e = new Entry(task, deadline);
+        incoming.add(e);
+        return e;
+    }
+
+    /** Worker loop: waits for each tick and processes its bucket. */
+    private void run() {
+        long tick = 0;
+        while (worker == Thread.currentThread()) {
+            long deadline = (tick + 1) * tickNanos;
+            long sleep = deadline - (System.nanoTime() - startNanos);
+            if (sleep > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                continue;
+            }
+            unlinkCancelled();
+            transferIncoming(tick);
+            wheel[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+    }
+
+    /** Moves newly scheduled timeouts into their buckets. */
+    private void transferIncoming(long currentTick) {
+        Entry e;
+        while ((e = incoming.poll()) != null) {
+            if (e.state.get() != PENDING) continue;
+            long ticks = e.deadline / tickNanos;
+            e.rounds = Math.max(0, (ticks - currentTick) / wheel.length);
+            long target = Math.max(ticks, currentTick);
+            wheel[(int) (target & mask)].add(e);
+        }
+    }
+
+    /** Removes cancelled timeouts from their buckets. */
+    private void unlinkCancelled() {
+        Entry e;
+        while ((e = cancelled.poll()) != null) {
+            if (e.bucket != null) e.bucket.remove(e);
+        }
+    }
+
+    /** Doubly linked list of the timeouts hashed to one slot; touched only by the worker. */
+    private static final class Bucket {
+
+        private Entry head;
+        private Entry tail;
+
+        void add(Entry e) {
+            e.bucket = this;
+            e.prev = tail;
+            if (tail == null) head = e;
+            else tail.next = e;
+            tail = e;
+        }
+
+        void remove(Entry e) {
+            if (e.prev == null) head = e.next;
+            else e.prev.next = e.next;
+            if (e.next == null) tail = e.prev;
+            else e.next.prev = e.prev;
+            e.prev = e.next = null;
+            e.bucket = null;
+        }
+
+        /** Fires the entries due by {@code deadline} and ages the rest by one round. */
+        void expire(long deadline) {
+            Entry e = head;
+            while (e != null) {
+                Entry next = e.next;
+                if (e.rounds <= 0 && e.deadline <= deadline) {
+                    remove(e);
+                    e.fire();
+                } else if (e.state.get() == CANCELLED) {
+                    remove(e);
+                } else {
+                    e.rounds--;
+                }
+                e = next;
+            }
+        }
+    }
+
+    /** One scheduled timeout. */
+    private final class Entry implements Timeout {
+
+        final Runnable task;
+        final long deadline;
+        final AtomicInteger state = new AtomicInteger(PENDING);
+        long rounds;
+        Entry prev;
+        Entry next;
+        Bucket bucket;
+
+        Entry(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) return false;
+            cancelled.add(this);
+            return true;
+        }
+
+        void fire() {
+            if (!state.compareAndSet(PENDING, EXPIRED)) return;
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                LOG.log(Level.WARNING, "Timeout task failed", ex);
+            }
+        }
+    }
+}
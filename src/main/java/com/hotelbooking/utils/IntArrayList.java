@@ -0,0 +1,83 @@
+package com.hotelbooking.utils;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of {@code int} values, backed by a plain array.
+ *
+ * <p>Used where a {@code List<Integer>} of IDs would box every element. The list is not
+ * thread-safe.</p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class IntArrayList {
+
+    private int[] values;
+    private int size;
+
+    /** Creates an empty list. */
+    public IntArrayList() {
+        this(8);
+    }
+
+    /**
+     * Creates an empty list that holds {@code capacity} values without growing.
+     *
+     * @param capacity the initial capacity
+     */
+    public IntArrayList(int capacity) {
+        values = new int[Math.max(capacity, 1)];
+    }
+
+    /** @return the number of values */
+    public int size() {
+        return size;
+    }
+
+    /** @return {@code true} if the list is empty */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Appends a value.
+     *
+     * @param value the value
+     */
+    public void add(int value) {
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size++] = value;
+    }
+
+    /**
+     * Returns a value.
+     *
+     * @param index the position, from {@code 0} to {@code size() - 1}
+     * @return the value
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        return values[index];
+    }
+
+    /** Removes every value, keeping the current capacity. */
+    public void clear() {
+        size = 0;
+    }
+
+    /** Sorts the values in ascending order. */
+    public void sort() {
+        Arrays.sort(values, 0, size);
+    }
+
+    /**
+     * Copies the values into a new array.
+     *
+     * @return the values, in list order
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,159 @@
+package com.hotelbooking.utils;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Set of {@code int} values, such as the IDs of deleted records.
+ *
+ * <p>Open addressing with linear probing over an {@code int} array, with an occupancy flag
+ * per slot; see {@link IntObjectHashMap}. Nothing is boxed. The set is not thread-safe.</p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class IntHashSet {
+
+    private int[] keys;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    /** Creates an empty set. */
+    public IntHashSet() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty set that holds {@code expected} values without resizing.
+     *
+     * @param expected the expected number of values
+     */
+    public IntHashSet(int expected) {
+        allocate(IntObjectHashMap.tableSize(expected));
+    }
+
+    /** @return the number of values */
+    public int size() {
+        return size;
+    }
+
+    /** @return {@code true} if the set is empty */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether a value is in the set.
+     *
+     * @param value the value
+     * @return {@code true} if present
+     */
+    public boolean contains(int value) {
+        for (int i = slot(value); used[i]; i = (i + 1) & mask) {
+            if (keys[i] == value) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value
+     * @return {@code true} if it was not already present
+     */
+    public boolean add(int value) {
+        int i = slot(value);
+        for (; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == value) return false;
+        }
+        keys[i] = value;
+        used[i] = true;
+        if (++size > (mask + 1) / 4 * 3) resize();
+        return true;
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param value the value
+     * @return {@code true} if it was present
+     */
+    public boolean remove(int value) {
+        for (int i = slot(value); used[i]; i = (i + 1) & mask) {
+            if (keys[i] == value) {
+                shiftBack(i);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Removes every value, keeping the current capacity. */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Visits every value, in no particular order. The set must not be modified meanwhile.
+     *
+     * @param action receives each value
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) action.accept(keys[i]);
+        }
+    }
+
+    /**
+     * Copies the values into a new array.
+     *
+     * @return the values, in ascending order
+     */
+    public int[] toSortedArray() {
+        int[] out = new int[size];
+        int n = 0;
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) out[n++] = keys[i];
+        }
+        Arrays.sort(out);
+        return out;
+    }
+
+    /** See {@code IntObjectHashMap.shiftBack}. */
+    private void shiftBack(int gap) {
+        for (int i = (gap + 1) & mask; used[i]; i = (i + 1) & mask) {
+            int home = slot(keys[i]);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                gap = i;
+            }
+        }
+        used[gap] = false;
+    }
+
+    private int slot(int value) {
+        return IntObjectHashMap.mix(value) & mask;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        allocate(oldUsed.length * 2);
+        for (int j = 0; j < oldUsed.length; j++) {
+            if (!oldUsed[j]) continue;
+            int i = slot(oldKeys[j]);
+            while (used[i]) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            used[i] = true;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+}
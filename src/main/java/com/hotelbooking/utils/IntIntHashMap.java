@@ -0,0 +1,198 @@
+package com.hotelbooking.utils;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from {@code int} keys to {@code int} values, such as counters or ID-to-ID links.
+ *
+ * <p>Same layout as {@link IntObjectHashMap}: parallel key and value arrays with linear
+ * probing and back-shifting removal, plus an occupancy flag per slot since every
+ * {@code int} is a valid key and value. Nothing is boxed.</p>
+ *
+ * <p>The map is not thread-safe; see {@link ConcurrentIntIntMap}.</p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class IntIntHashMap {
+
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    /** Creates an empty map. */
+    public IntIntHashMap() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty map that holds {@code expected} entries without resizing.
+     *
+     * @param expected the expected number of entries
+     */
+    public IntIntHashMap(int expected) {
+        allocate(IntObjectHashMap.tableSize(expected));
+    }
+
+    /** @return the number of entries */
+    public int size() {
+        return size;
+    }
+
+    /** @return {@code true} if the map has no entries */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether a key is present.
+     *
+     * @param key the key
+     * @return {@code true} if the map has a value for it
+     */
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key      the key
+     * @param fallback returned if the key is absent
+     * @return the value, or {@code fallback}
+     */
+    public int getOrDefault(int key, int fallback) {
+        int i = find(key);
+        return i >= 0 ? values[i] : fallback;
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void put(int key, int value) {
+        int i = slot(key);
+        for (; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        insert(i, key, value);
+    }
+
+    /**
+     * Adds to the value of a key, treating an absent key as {@code 0}.
+     *
+     * @param key   the key
+     * @param delta the amount to add
+     * @return the new value
+     */
+    public int addTo(int key, int delta) {
+        int i = slot(key);
+        for (; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i] += delta;
+        }
+        insert(i, key, delta);
+        return delta;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return {@code true} if the key was present
+     */
+    public boolean remove(int key) {
+        int i = find(key);
+        if (i < 0) return false;
+        shiftBack(i);
+        size--;
+        return true;
+    }
+
+    /** Removes every entry, keeping the current capacity. */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Visits every entry, in no particular order. The map must not be modified meanwhile.
+     *
+     * @param action receives each key and value
+     */
+    public void forEach(Entry action) {
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) action.accept(keys[i], values[i]);
+        }
+    }
+
+    /** Receives the entries of {@link #forEach(Entry)}. */
+    @FunctionalInterface
+    public interface Entry {
+
+        /**
+         * @param key   the key
+         * @param value its value
+         */
+        void accept(int key, int value);
+    }
+
+    private int find(int key) {
+        for (int i = slot(key); used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return i;
+        }
+        return -1;
+    }
+
+    private void insert(int i, int key, int value) {
+        keys[i] = key;
+        values[i] = value;
+        used[i] = true;
+        if (++size > (mask + 1) / 4 * 3) resize();
+    }
+
+    /** See {@code IntObjectHashMap.shiftBack}. */
+    private void shiftBack(int gap) {
+        for (int i = (gap + 1) & mask; used[i]; i = (i + 1) & mask) {
+            int home = slot(keys[i]);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        used[gap] = false;
+    }
+
+    private int slot(int key) {
+        return IntObjectHashMap.mix(key) & mask;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldUsed.length * 2);
+        for (int j = 0; j < oldUsed.length; j++) {
+            if (!oldUsed[j]) continue;
+            int i = slot(oldKeys[j]);
+            while (used[i]) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+            used[i] = true;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,228 @@
+package com.hotelbooking.utils;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Hash map from {@code int} keys to objects, for caches and indexes keyed by record IDs.
+ *
+ * <p>Keys and values live in two parallel arrays with open addressing and linear probing,
+ * so an entry costs two array slots instead of a {@link java.util.HashMap} node plus a boxed
+ * {@link Integer} key. Removal shifts later entries of the probe run back rather than
+ * leaving tombstones, so lookups stay short however many removals happen.</p>
+ *
+ * <p>{@code null} values are not allowed; {@link #get(int)} returns {@code null} for a
+ * missing key. The map is not thread-safe.</p>
+ *
+ * @param <V> the value type
+ * @author
+ * @version 1.0
+ */
+public class IntObjectHashMap<V> {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    /** Creates an empty map. */
+    public IntObjectHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map that holds {@code expected} entries without resizing.
+     *
+     * @param expected the expected number of entries
+     */
+    public IntObjectHashMap(int expected) {
+        allocate(tableSize(expected));
+    }
+
+    /** @return the number of entries */
+    public int size() {
+        return size;
+    }
+
+    /** @return {@code true} if the map has no entries */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if the key is absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        for (int i = slot(key); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) return (V) values[i];
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a key is present.
+     *
+     * @param key the key
+     * @return {@code true} if the map has a value for it
+     */
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key   the key
+     * @param value the value, not {@code null}
+     * @return the previous value, or {@code null} if the key was absent
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) throw new NullPointerException("value");
+        int i = slot(key);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                V old = (V) values[i];
+                values[i] = value;
+                return old;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > (mask + 1) / 4 * 3) resize();
+        return null;
+    }
+
+    /**
+     * Returns the value of a key, first storing {@code create}'s result if the key is absent.
+     *
+     * @param key    the key
+     * @param create computes the value of an absent key; must not return {@code null}
+     * @return the current value
+     */
+    public V computeIfAbsent(int key, IntFunction<? extends V> create) {
+        V v = get(key);
+        if (v == null) put(key, v = create.apply(key));
+        return v;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return the removed value, or {@code null} if the key was absent
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        for (int i = slot(key); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                V old = (V) values[i];
+                shiftBack(i);
+                size--;
+                return old;
+            }
+        }
+        return null;
+    }
+
+    /** Removes every entry, keeping the current capacity. */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Visits every entry, in no particular order. The map must not be modified meanwhile.
+     *
+     * @param action receives each key and value
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Entry<? super V> action) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) action.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    /**
+     * Visits every value, in no particular order. The map must not be modified meanwhile.
+     *
+     * @param action receives each value
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for (Object v : values) {
+            if (v != null) action.accept((V) v);
+        }
+    }
+
+    /** Receives the entries of {@link #forEach(Entry)}. */
+    @FunctionalInterface
+    public interface Entry<V> {
+
+        /**
+         * @param key   the key
+         * @param value its value
+         */
+        void accept(int key, V value);
+    }
+
+    /**
+     * Empties slot {@code gap} and moves back any later entry of the same probe run that
+     * could no longer be reached past the gap.
+     */
+    private void shiftBack(int gap) {
+        for (int i = (gap + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            int home = slot(keys[i]);
+            // The entry may fill the gap unless its home lies cyclically in (gap, i].
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private int slot(int key) {
+        return mix(key) & mask;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldValues.length * 2);
+        for (int j = 0; j < oldValues.length; j++) {
+            if (oldValues[j] == null) continue;
+            int i = slot(oldKeys[j]);
+            while (values[i] != null) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    /** Smallest power-of-two table that keeps {@code expected} entries under 3/4 load. */
+    static int tableSize(int expected) {
+        long needed = Math.max(MIN_CAPACITY, (long) expected * 4 / 3 + 1);
+        if (needed > 1 << 30) throw new IllegalArgumentException("Too many entries: " + expected);
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    /** Spreads sequential IDs across the table (Fibonacci hashing). */
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
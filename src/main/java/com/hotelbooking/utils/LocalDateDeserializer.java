@@ -0,0 +1,80 @@
+package com.hotelbooking.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads a {@code "YYYY-MM-DD"} JSON string into a {@link LocalDate}.
+ * <p>
+ * The canonical ten-character form is parsed directly from its digits; anything else goes
+ * through {@link LocalDate#parse(CharSequence)}. An empty string reads as {@code null}. Invalid
+ * dates fail with an {@link com.fasterxml.jackson.databind.exc.InvalidFormatException}
+ * whose target type is {@code LocalDate}, which servlets report as a bad date format.
+ * </p>
+ *
+ * @see LocalDateSerializer
+ */
+public final class LocalDateDeserializer extends StdDeserializer<LocalDate> {
+
+    public LocalDateDeserializer() {
+        super(LocalDate.class);
+    }
+
+    @Override
+    public LocalDate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.hasToken(JsonToken.VALUE_STRING))
+            return (LocalDate) ctxt.handleUnexpectedToken(LocalDate.class, p);
+        String text = p.getText().trim();
+        if (text.isEmpty()) return null;
+        try {
+            return parse(text);
+        } catch (IllegalArgumentException e) {
+            return (LocalDate) ctxt.handleWeirdStringValue(LocalDate.class, text, "Use YYYY-MM-DD");
+        }
+    }
+
+    /**
+     * Parses a date in {@code YYYY-MM-DD} form.
+     *
+     * @param text the date
+     * @return the parsed date
+     * @throws IllegalArgumentException if the text is not a valid date in that form
+     */
+    public static LocalDate parse(String text) {
+        if (text.length() == 10 && text.charAt(4) == '-' && text.charAt(7) == '-') {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 7);
+            int day = digits(text, 8, 10);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                try {
+                    return LocalDate.of(year, month, day);
+                } catch (DateTimeException e) {
+                    throw new IllegalArgumentException(e.getMessage(), e);
+                }
+            }
+        }
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /** Returns the number in {@code text[from, to)}, or -1 if it is not all digits. */
+    private static int digits(String text, int from, int to) {
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            n = n * 10 + (c - '0');
+        }
+        return n;
+    }
+}
@@ -0,0 +1,33 @@
+package com.hotelbooking.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Writes a {@link LocalDate} as a {@code "YYYY-MM-DD"} JSON string, the format the API has
+ * always used for dates.
+ *
+ * <p>Usage:
+ * <pre>{@code
+ * @JsonSerialize(using = LocalDateSerializer.class)
+ * @JsonDeserialize(using = LocalDateDeserializer.class)
+ * private LocalDate checkIn;
+ * }</pre></p>
+ *
+ * @see LocalDateDeserializer
+ */
+public final class LocalDateSerializer extends StdSerializer<LocalDate> {
+
+    public LocalDateSerializer() {
+        super(LocalDate.class);
+    }
+
+    @Override
+    public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeString(value.toString());
+    }
+}
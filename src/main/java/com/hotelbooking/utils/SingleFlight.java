@@ -0,0 +1,180 @@
+package com.hotelbooking.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.UnaryOperator;
+
+/**
+ * Collapses concurrent identical reads into a single in-flight call.
+ *
+ * <p>When several threads ask for the same data at the same time (for example, hundreds of
+ * {@code GET /api/reviews?roomId=7} requests arriving together), only the first caller runs
+ * the underlying query. Every other caller with the same key waits for that query and
+ * receives the same result (or the same exception). Once the call finishes, the key is
+ * released so the next request triggers a fresh query &mdash; nothing is cached.</p>
+ *
+ * <p>Keys are built from a method name plus its arguments, so one instance can be shared by
+ * every read method of a DAO:</p>
+ * <pre>{@code
+ * private static final SingleFlight READS = new SingleFlight();
+ *
+ * public List<Review> getReviewsByRoom(int roomId) throws Exception {
+ *     return READS.execute("getReviewsByRoom", new Object[]{roomId}, () -> queryByRoom(roomId));
+ * }
+ * }</pre>
+ *
+ * <p><b>Note:</b> {@link #execute(String, Object[], Callable)} hands the same result object to
+ * every waiting caller, so such results must be treated as read-only. Results that callers
+ * may modify go through {@link #execute(String, Object[], Callable, UnaryOperator)}, which
+ * gives each caller its own copy.</p>
+ *
+ * <p><b>Writes:</b> a read that starts while an older identical read is in flight joins it,
+ * and may therefore see data from before a write that has since completed. A DAO calls
+ * {@link #forget()} after each write, so reads that start after it run their own query.</p>
+ *
+ * @author
+ * @version 1.0
+ */
+public class SingleFlight {
+
+    /** Calls currently running, keyed by method name and arguments. */
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs {@code loader} unless an identical call is already in flight, in which case
+     * this method waits for that call and returns its result.
+     *
+     * @param method the logical name of the read (e.g. {@code "getReviewsByRoom"})
+     * @param args   the arguments that identify the read; compared with {@code equals}
+     * @param loader the query to run when no identical call is in flight
+     * @param <T>    the result type
+     * @return the result of the (possibly shared) call
+     * @throws Exception the exception thrown by the (possibly shared) call
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String method, Object[] args, Callable<T> loader) throws Exception {
+        Key key = new Key(method, args);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+
+        if (existing != null) {
+            return (T) await(existing);
+        }
+
+        try {
+            T value = loader.call();
+            mine.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Runs {@code loader} unless an identical call is already in flight, like
+     * {@link #execute(String, Object[], Callable)}, but hands every caller, including the one
+     * that ran the query, its own copy of the result. The shared result itself is never
+     * returned, so no caller can see another's changes.
+     *
+     * @param method the logical name of the read
+     * @param args   the arguments that identify the read; compared with {@code equals}
+     * @param loader the query to run when no identical call is in flight
+     * @param copy   makes one caller's copy of a non-null result
+     * @param <T>    the result type
+     * @return a copy of the result of the (possibly shared) call, or {@code null}
+     * @throws Exception the exception thrown by the (possibly shared) call
+     */
+    public <T> T execute(String method, Object[] args, Callable<T> loader, UnaryOperator<T> copy)
+            throws Exception {
+        T value = execute(method, args, loader);
+        return value != null ? copy.apply(value) : null;
+    }
+
+    /**
+     * Returns a copier for list results that copies each element into a new list, for use
+     * with {@link #execute(String, Object[], Callable, UnaryOperator)}.
+     *
+     * @param copy makes a copy of one element
+     * @param <E>  the element type
+     * @return the list copier
+     */
+    public static <E> UnaryOperator<List<E>> eachCopied(UnaryOperator<E> copy) {
+        return list -> {
+            List<E> out = new ArrayList<>(list.size());
+            for (E e : list) out.add(copy.apply(e));
+            return out;
+        };
+    }
+
+    /**
+     * Stops new callers from joining the calls now in flight; reads that start after this
+     * returns run a fresh query. Calls already in flight still complete for the callers
+     * waiting on them.
+     */
+    public void forget() {
+        inFlight.clear();
+    }
+
+    /**
+     * Returns the number of distinct calls currently in flight (useful for monitoring).
+     *
+     * @return the number of in-flight keys
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Waits for a shared call and unwraps its failure, so waiters see the same exception
+     * type as the caller that actually ran the query.
+     */
+    private static Object await(CompletableFuture<Object> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw ie;
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw ee;
+        }
+    }
+
+    /**
+     * Immutable lookup key combining the method name with its arguments.
+     */
+    private static final class Key {
+        private final String method;
+        private final Object[] args;
+        private final int hash;
+
+        Key(String method, Object[] args) {
+            this.method = method;
+            this.args = args != null ? args.clone() : new Object[0];
+            this.hash = 31 * method.hashCode() + Arrays.deepHashCode(this.args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return hash == other.hash && method.equals(other.method) && Arrays.deepEquals(args, other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.hotelbooking.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small helpers for building JDBC statements shared by the DAO classes.
+ *
+ * <p>Mainly used for batched lookups such as {@code SELECT * FROM rooms WHERE id IN (?,?,?)},
+ * where the id list has to be de-duplicated and split into chunks so that a single
+ * statement never carries an unbounded number of bind parameters.</p>
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * for (List<Integer> chunk : SqlUtil.chunks(ids, SqlUtil.IN_CHUNK_SIZE)) {
+ *     String sql = "SELECT * FROM rooms WHERE id IN (" + SqlUtil.placeholders(chunk.size()) + ")";
+ *     ...
+ * }
+ * }</pre></p>
+ *
+ * @author
+ * @version 1.0
+ */
+public final class SqlUtil {
+
+    /** Maximum number of ids bound into a single {@code IN (...)} clause. */
+    public static final int IN_CHUNK_SIZE = 500;
+
+    private SqlUtil() {}
+
+    /**
+     * Maps the current row of a result set to an object, typically a DAO's {@code mapRow}.
+     *
+     * @param <T> the row type
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        /**
+         * @param rs the result set, positioned on a row
+         * @return the mapped row
+         * @throws SQLException if a column cannot be read
+         */
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Extra writes a DAO runs on its own connection just before committing, so they commit
+     * or roll back together with the DAO's change (for example the notification about it).
+     */
+    @FunctionalInterface
+    public interface TransactionStep {
+        /**
+         * @param c the connection of the DAO's open transaction; must not be committed or closed
+         * @throws Exception if a write fails; the whole transaction is then rolled back
+         */
+        void run(Connection c) throws Exception;
+    }
+
+    /**
+     * Loads the rows of {@code table} whose {@code id} column is in {@code ids}, using one
+     * {@code SELECT * ... WHERE id IN (...)} per chunk of {@link #IN_CHUNK_SIZE} on a single
+     * connection. Duplicate and {@code null} ids are ignored.
+     *
+     * @param table  the table name; a constant supplied by the DAO, never user input
+     * @param ids    the ids to look up
+     * @param mapper maps one row
+     * @param <V>    the row type
+     * @return the rows found, keyed by id, in the order the ids were given
+     * @throws Exception if a database error occurs
+     */
+    public static <V> Map<Integer, V> selectByIds(String table, Collection<Integer> ids, RowMapper<V> mapper) throws Exception {
+        List<List<Integer>> chunks = chunks(ids, IN_CHUNK_SIZE);
+        if (chunks.isEmpty()) return new LinkedHashMap<>();
+
+        Map<Integer, V> found = new HashMap<>();
+        try (Connection c = DBConnection.getConnection()) {
+            for (List<Integer> chunk : chunks) {
+                String sql = "SELECT * FROM " + table + " WHERE id IN (" + placeholders(chunk.size()) + ")";
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) ps.setInt(i + 1, chunk.get(i));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) found.put(rs.getInt("id"), mapper.map(rs));
+                    }
+                }
+            }
+        }
+        return inOrder(ids, found);
+    }
+
+    /**
+     * Builds a comma-separated list of {@code n} JDBC placeholders, e.g. {@code "?,?,?"}.
+     *
+     * @param n the number of placeholders (must be positive)
+     * @return the placeholder list
+     * @throws IllegalArgumentException if {@code n} is not positive
+     */
+    public static String placeholders(int n) {
+        if (n <= 0) throw new IllegalArgumentException("At least one placeholder is required");
+        StringBuilder sb = new StringBuilder(n * 2);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * De-duplicates the given ids (ignoring {@code null}s) and splits them into chunks
+     * of at most {@code size} elements, preserving first-seen order.
+     *
+     * @param ids  the ids to split
+     * @param size the maximum chunk size
+     * @return the list of chunks; empty if {@code ids} is empty
+     */
+    public static List<List<Integer>> chunks(Collection<Integer> ids, int size) {
+        List<List<Integer>> out = new ArrayList<>();
+        List<Integer> current = new ArrayList<>(Math.min(size, ids.size()));
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            if (id == null) continue;
+            current.add(id);
+            if (current.size() == size) {
+                out.add(current);
+                current = new ArrayList<>(size);
+            }
+        }
+        if (!current.isEmpty()) out.add(current);
+        return out;
+    }
+
+    /**
+     * Re-orders rows fetched by an {@code IN (...)} query to follow the order of the
+     * requested ids. Ids with no matching row are skipped.
+     *
+     * @param ids   the ids in the order the caller asked for them
+     * @param found the rows returned by the database, keyed by id
+     * @param <V>   the row type
+     * @return an insertion-ordered map containing only the ids that were found
+     */
+    public static <V> Map<Integer, V> inOrder(Collection<Integer> ids, Map<Integer, V> found) {
+        Map<Integer, V> out = new LinkedHashMap<>(found.size() * 2);
+        for (Integer id : ids) {
+            if (id == null) continue;
+            V v = found.get(id);
+            if (v != null) out.put(id, v);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,138 @@
+package com.hotelbooking.model;
+
+import com.hotelbooking.utils.IntObjectHashMap;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Measures the retained heap of cached rooms and bookings held as mutable POJOs in a
+ * {@code HashMap<Integer, ...>} versus compact records in an {@link IntObjectHashMap}.
+ * <p>
+ * The POJOs are filled the way {@code RoomDAO} and {@code BookingDAO} map a row, including a
+ * fresh {@code String} per row for the room type and status as a JDBC driver returns them;
+ * the records are built through their public constructors. Each layout is built on its own,
+ * and its footprint is the used heap after a full GC minus the used heap before it was built.
+ * </p>
+ *
+ * <p>Not a unit test (surefire only runs {@code *Test} classes). Run it after
+ * {@code mvn test-compile} with
+ * {@code java -Xmx2g -cp target/classes:target/test-classes com.hotelbooking.model.RecordFootprintBenchmark [rooms] [bookings]}.</p>
+ */
+public final class RecordFootprintBenchmark {
+
+    private static final String[] TYPES = {"Single", "Double", "Twin", "Suite", "Family"};
+    private static final String[] STATUSES = {"AVAILABLE", "MAINTENANCE"};
+    private static final LocalDate EPOCH_START = LocalDate.of(2025, 1, 1);
+
+    /** Keeps the structure under measurement reachable. */
+    private static Object retained;
+
+    private RecordFootprintBenchmark() {}
+
+    public static void main(String[] args) {
+        int rooms = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int bookings = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        System.out.printf("%,d rooms, %,d bookings%n", rooms, bookings);
+
+        long pojoRooms = footprint(() -> pojoRooms(rooms));
+        long recordRooms = footprint(() -> recordRooms(rooms));
+        long pojoBookings = footprint(() -> pojoBookings(bookings, rooms));
+        long recordBookings = footprint(() -> recordBookings(bookings, rooms));
+
+        print("rooms", pojoRooms, recordRooms);
+        print("bookings", pojoBookings, recordBookings);
+        print("total", pojoRooms + pojoBookings, recordRooms + recordBookings);
+    }
+
+    static Map<Integer, Room> pojoRooms(int n) {
+        Random rnd = new Random(49);
+        Map<Integer, Room> out = new HashMap<>();
+        for (int id = 1; id <= n; id++) {
+            Room r = new Room();
+            r.setId(id);
+            r.setRoomNo(100 + id);
+            r.setRoomType(new String(TYPES[rnd.nextInt(TYPES.length)]));
+            r.setPrice(50 + rnd.nextInt(400));
+            r.setStatus(new String(STATUSES[rnd.nextInt(10) == 0 ? 1 : 0]));
+            out.put(id, r);
+        }
+        return out;
+    }
+
+    static IntObjectHashMap<RoomRecord> recordRooms(int n) {
+        Random rnd = new Random(49);
+        IntObjectHashMap<RoomRecord> out = new IntObjectHashMap<>();
+        for (int id = 1; id <= n; id++) {
+            String type = new String(TYPES[rnd.nextInt(TYPES.length)]);
+            double price = 50 + rnd.nextInt(400);
+            String status = new String(STATUSES[rnd.nextInt(10) == 0 ? 1 : 0]);
+            out.put(id, new RoomRecord(id, 100 + id, type, price, status));
+        }
+        return out;
+    }
+
+    static Map<Integer, Booking> pojoBookings(int n, int rooms) {
+        Random rnd = new Random(49);
+        Map<Integer, Booking> out = new HashMap<>();
+        for (int id = 1; id <= n; id++) {
+            LocalDate in = EPOCH_START.plusDays(rnd.nextInt(365));
+            Booking b = new Booking();
+            b.setId(id);
+            b.setCustomerId(1 + rnd.nextInt(200_000));
+            b.setRoomId(1 + rnd.nextInt(rooms));
+            b.setCheckIn(in);
+            b.setCheckOut(in.plusDays(1 + rnd.nextInt(7)));
+            b.setAssignedByType(rnd.nextBoolean());
+            out.put(id, b);
+        }
+        return out;
+    }
+
+    static IntObjectHashMap<BookingRecord> recordBookings(int n, int rooms) {
+        Random rnd = new Random(49);
+        IntObjectHashMap<BookingRecord> out = new IntObjectHashMap<>();
+        for (int id = 1; id <= n; id++) {
+            int in = (int) EPOCH_START.plusDays(rnd.nextInt(365)).toEpochDay();
+            int customerId = 1 + rnd.nextInt(200_000);
+            int roomId = 1 + rnd.nextInt(rooms);
+            int checkOut = in + 1 + rnd.nextInt(7);
+            out.put(id, new BookingRecord(id, customerId, roomId, in, checkOut, rnd.nextBoolean()));
+        }
+        return out;
+    }
+
+    /** Returns the heap retained by the structure {@code build} returns, in bytes. */
+    private static long footprint(Supplier<Object> build) {
+        retained = null;
+        long before = usedAfterGc();
+        retained = build.get();
+        long after = usedAfterGc();
+        retained = null;
+        return after - before;
+    }
+
+    private static long usedAfterGc() {
+        Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            used = Math.min(used, rt.totalMemory() - rt.freeMemory());
+        }
+        return used;
+    }
+
+    private static void print(String what, long pojo, long record) {
+        System.out.printf("%-9s HashMap<Integer, POJO> %7.1f MB   IntObjectHashMap<record> %7.1f MB   (%.0f%%)%n",
+                what, pojo / 1e6, record / 1e6, 100.0 * record / pojo);
+    }
+}
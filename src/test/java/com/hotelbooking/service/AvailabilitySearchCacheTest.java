@@ -0,0 +1,190 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.model.Room;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class AvailabilitySearchCacheTest {
+
+    private static final String[] TYPES = {null, "Single", "suite"};
+
+    private static List<Room> rooms(int... ids) {
+        List<Room> out = new ArrayList<>();
+        for (int id : ids) {
+            Room r = new Room();
+            r.setId(id);
+            r.setRoomNo(100 + id);
+            r.setRoomType("Single");
+            r.setPrice(80);
+            r.setStatus("AVAILABLE");
+            out.add(r);
+        }
+        return out;
+    }
+
+    private static List<Integer> ids(List<Room> rooms) {
+        if (rooms == null) return null;
+        List<Integer> out = new ArrayList<>();
+        for (Room r : rooms) out.add(r.getId());
+        return out;
+    }
+
+    private static String key(long checkIn, long checkOut, String roomType) {
+        return checkIn + ".." + checkOut + " " + (roomType != null ? roomType.toLowerCase(Locale.ROOT) : null);
+    }
+
+    /**
+     * Random puts and invalidations against a plain map that drops every stay overlapping the
+     * invalidated nights. Fewer distinct searches than {@link AvailabilitySearchCache#MAX_ENTRIES},
+     * so nothing is evicted.
+     */
+    @Test
+    public void matchesNaiveOverlapInvalidation() {
+        Random rnd = new Random(46);
+        AvailabilitySearchCache cache = new AvailabilitySearchCache();
+        Map<String, List<Integer>> model = new HashMap<>();
+        Map<String, long[]> stays = new HashMap<>();
+
+        for (int op = 0; op < 20_000; op++) {
+            long in = rnd.nextInt(40);
+            long out = in + 1 + rnd.nextInt(8);
+            String type = TYPES[rnd.nextInt(TYPES.length)];
+            String key = key(in, out, type);
+            if (rnd.nextInt(3) > 0) {
+                List<Room> result = rooms(rnd.nextInt(50), rnd.nextInt(50));
+                cache.put(in, out, type, result, cache.version());
+                model.put(key, ids(result));
+                stays.put(key, new long[]{in, out});
+            } else {
+                long from = rnd.nextInt(50) - 5;
+                long to = from + rnd.nextInt(12);
+                cache.invalidate(from, to);
+                if (to > from) {
+                    stays.entrySet().removeIf(e -> {
+                        boolean overlaps = e.getValue()[0] < to && e.getValue()[1] > from;
+                        if (overlaps) model.remove(e.getKey());
+                        return overlaps;
+                    });
+                }
+            }
+
+            if (op % 100 == 0) {
+                for (long i = 0; i < 40; i++) {
+                    for (long o = i + 1; o <= i + 8; o++) {
+                        for (String t : TYPES) {
+                            assertEquals("op " + op + " " + key(i, o, t), model.get(key(i, o, t)), ids(cache.get(i, o, t)));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void resultComputedAcrossAnInvalidationIsNotStored() {
+        AvailabilitySearchCache cache = new AvailabilitySearchCache();
+        long version = cache.version();
+        cache.invalidate(500, 501);
+        cache.put(10, 12, null, rooms(1), version);
+        assertNull(cache.get(10, 12, null));
+
+        cache.put(10, 12, null, rooms(1), cache.version());
+        assertEquals(List.of(1), ids(cache.get(10, 12, null)));
+    }
+
+    @Test
+    public void invalidationOfEveryNight() {
+        AvailabilitySearchCache cache = new AvailabilitySearchCache();
+        cache.put(-1_000, -990, null, rooms(1), cache.version());
+        cache.put(10, 12, "Suite", rooms(2), cache.version());
+        cache.put(Long.MAX_VALUE - 5, Long.MAX_VALUE - 1, null, rooms(3), cache.version());
+
+        cache.invalidate(Long.MIN_VALUE, Long.MIN_VALUE + 3);
+        assertNotNull("far-away nights leave the entries alone", cache.get(-1_000, -990, null));
+
+        cache.invalidate(Long.MIN_VALUE, Long.MAX_VALUE);
+        assertNull(cache.get(-1_000, -990, null));
+        assertNull(cache.get(10, 12, "Suite"));
+        assertNull(cache.get(Long.MAX_VALUE - 5, Long.MAX_VALUE - 1, null));
+    }
+
+    @Test
+    public void longStayIsFoundFromItsLastNight() {
+        AvailabilitySearchCache cache = new AvailabilitySearchCache();
+        cache.put(0, 30, null, rooms(1), cache.version());
+        cache.put(25, 27, null, rooms(2), cache.version());
+
+        cache.invalidate(30, 31);
+        assertNotNull("checks out before the changed night", cache.get(0, 30, null));
+        cache.invalidate(29, 30);
+        assertNull(cache.get(0, 30, null));
+        assertNotNull(cache.get(25, 27, null));
+    }
+
+    @Test
+    public void emptyRangeOnlyBumpsTheVersion() {
+        AvailabilitySearchCache cache = new AvailabilitySearchCache();
+        cache.put(10, 12, null, rooms(1), cache.version());
+        long version = cache.version();
+        cache.invalidate(11, 11);
+        assertNotNull(cache.get(10, 12, null));
+        assertEquals(version + 1, cache.version());
+    }
+
+    @Test
+    public void roomTypeIsCaseInsensitive() {
+        AvailabilitySearchCache cache = new AvailabilitySearchCache();
+        cache.put(10, 12, "Suite", rooms(4), cache.version());
+        assertEquals(List.of(4), ids(cache.get(10, 12, "SUITE")));
+        assertNull(cache.get(10, 12, null));
+    }
+
+    @Test
+    public void hitsAreCopies() {
+        AvailabilitySearchCache cache = new AvailabilitySearchCache();
+        List<Room> stored = rooms(1);
+        cache.put(10, 12, null, stored, cache.version());
+        stored.get(0).setPrice(999);
+
+        List<Room> first = cache.get(10, 12, null);
+        assertEquals(80, first.get(0).getPrice(), 0);
+        first.get(0).setPrice(555);
+        assertEquals(80, cache.get(10, 12, null).get(0).getPrice(), 0);
+    }
+
+    @Test
+    public void evictedEntryLeavesNoStaleIndex() {
+        AvailabilitySearchCache cache = new AvailabilitySearchCache();
+        for (int i = 0; i <= AvailabilitySearchCache.MAX_ENTRIES; i++) {
+            cache.put(i, i + 1, null, rooms(i), cache.version());
+        }
+        assertNull("least recently used entry is evicted", cache.get(0, 1, null));
+        assertNotNull(cache.get(AvailabilitySearchCache.MAX_ENTRIES, AvailabilitySearchCache.MAX_ENTRIES + 1, null));
+
+        cache.put(0, 1, null, rooms(7), cache.version());
+        assertEquals(List.of(7), ids(cache.get(0, 1, null)));
+        cache.invalidate(0, 1);
+        assertNull(cache.get(0, 1, null));
+    }
+
+    @Test
+    public void clearDropsEverything() {
+        AvailabilitySearchCache cache = new AvailabilitySearchCache();
+        cache.put(10, 12, null, rooms(1), cache.version());
+        long version = cache.version();
+        cache.clear();
+        assertNull(cache.get(10, 12, null));
+        cache.put(10, 12, null, rooms(1), version);
+        assertNull("a result from before the clear is not stored", cache.get(10, 12, null));
+    }
+}
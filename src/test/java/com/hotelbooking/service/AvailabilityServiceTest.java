@@ -0,0 +1,253 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.dao.BookingDAO;
+import com.hotelbooking.dao.RoomDAO;
+import com.hotelbooking.event.EventBus;
+import com.hotelbooking.model.BookingRecord;
+import com.hotelbooking.model.Room;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AvailabilityServiceTest {
+
+    private static final String[] TYPES = {"Single", "Double", "Suite"};
+
+    /** Night states in the brute-force grid. */
+    private static final int FREE = 0, BOOKED = 1, HELD = 2;
+
+    private final long today = LocalDate.now().toEpochDay();
+
+    private final List<Room> rooms = new ArrayList<>();
+
+    /** Bookings per room, as {@code {checkIn, checkOut}} epoch days. */
+    private final Map<Integer, List<long[]>> booked = new HashMap<>();
+
+    /** Active holds per room, as {@code {checkIn, checkOut}} epoch days. */
+    private final Map<Integer, List<long[]>> held = new HashMap<>();
+
+    private AvailabilityIndex availability;
+
+    private AvailabilityService service;
+
+    @Before
+    public void randomHotel() throws Exception {
+        Random rnd = new Random(44);
+        for (int id = 1; id <= 30; id++) {
+            Room r = new Room();
+            r.setId(id);
+            r.setRoomType(TYPES[rnd.nextInt(TYPES.length)]);
+            r.setPrice(100);
+            rooms.add(r);
+            List<long[]> stays = new ArrayList<>();
+            // Some stays began before today and are still running.
+            long day = today - 3 + rnd.nextInt(5);
+            while (day < today + 400) {
+                long end = day + 1 + rnd.nextInt(8);
+                stays.add(new long[]{day, end});
+                day = end + rnd.nextInt(10);
+            }
+            booked.put(id, stays);
+            held.put(id, new ArrayList<>());
+        }
+        Collections.shuffle(rooms, rnd);
+
+        BookingDAO bookings = new BookingDAO() {
+            @Override
+            public List<BookingRecord> getCurrentForRoom(int roomId, LocalDate from) {
+                return records(roomId, from);
+            }
+
+            @Override
+            public List<BookingRecord> getCurrentForRooms(Collection<Integer> roomIds, LocalDate from) {
+                List<BookingRecord> out = new ArrayList<>();
+                for (int roomId : roomIds) out.addAll(records(roomId, from));
+                return out;
+            }
+        };
+        RoomDAO roomDAO = new RoomDAO() {
+            @Override
+            public List<Room> getAll() {
+                List<Room> out = new ArrayList<>();
+                for (Room r : rooms) out.add(new Room(r));
+                return out;
+            }
+        };
+        availability = new AvailabilityIndex(bookings, new EventBus(16), new AvailabilitySearchCache());
+        service = new AvailabilityService(roomDAO, availability);
+
+        for (int id = 1; id <= 30; id++) {
+            for (int i = 0; i < 3; i++) {
+                long in = today + rnd.nextInt(400);
+                long out = in + 1 + rnd.nextInt(4);
+                if (free(id, in, out)) {
+                    availability.hold(id, 1, LocalDate.ofEpochDay(in), LocalDate.ofEpochDay(out), 3_600_000L);
+                    held.get(id).add(new long[]{in, out});
+                }
+            }
+        }
+    }
+
+    @After
+    public void stopIndex() {
+        availability.stop();
+    }
+
+    private List<BookingRecord> records(int roomId, LocalDate from) {
+        List<BookingRecord> out = new ArrayList<>();
+        int id = roomId * 1_000;
+        for (long[] b : booked.get(roomId)) {
+            if (b[1] > from.toEpochDay()) out.add(new BookingRecord(++id, 1, roomId, (int) b[0], (int) b[1], false));
+        }
+        return out;
+    }
+
+    private boolean free(int roomId, long in, long out) {
+        for (long[] b : booked.get(roomId)) if (b[0] < out && b[1] > in) return false;
+        for (long[] h : held.get(roomId)) if (h[0] < out && h[1] > in) return false;
+        return true;
+    }
+
+    /** Marks each night of the range from every booking and hold of the room. */
+    private int[] naiveRow(int roomId, long from, long to) {
+        int[] nights = new int[(int) (to - from)];
+        for (long day = from; day < to; day++) {
+            for (long[] b : booked.get(roomId)) if (b[0] <= day && day < b[1]) nights[(int) (day - from)] = BOOKED;
+            for (long[] h : held.get(roomId)) if (h[0] <= day && day < h[1]) nights[(int) (day - from)] = HELD;
+        }
+        return nights;
+    }
+
+    /** Expands {@code {offset, length, held}} runs into nights, checking they are ordered and disjoint. */
+    private static int[] expand(int[] runs, int length) {
+        assertEquals("runs come in triples", 0, runs.length % 3);
+        int[] nights = new int[length];
+        int end = 0;
+        for (int i = 0; i < runs.length; i += 3) {
+            int offset = runs[i], len = runs[i + 1];
+            assertTrue("run starts after the previous one ends", offset >= end);
+            assertTrue("run is not empty", len > 0);
+            assertTrue("run ends inside the grid", offset + len <= length);
+            for (int n = offset; n < offset + len; n++) nights[n] = runs[i + 2] == 1 ? HELD : BOOKED;
+            end = offset + len;
+        }
+        return nights;
+    }
+
+    /** Collects the rows of a grid. */
+    private static final class Collector implements AvailabilityService.GridVisitor {
+
+        LocalDate from;
+        LocalDate to;
+        int nights;
+        final List<Room> rooms = new ArrayList<>();
+        final List<int[]> runs = new ArrayList<>();
+
+        @Override
+        public void start(LocalDate from, LocalDate to, int nights) {
+            this.from = from;
+            this.to = to;
+            this.nights = nights;
+        }
+
+        @Override
+        public void row(Room room, int[] runs) {
+            rooms.add(room);
+            this.runs.add(runs);
+        }
+    }
+
+    private void assertGridMatches(long from, long to, String roomType) throws Exception {
+        Collector grid = new Collector();
+        service.grid(LocalDate.ofEpochDay(from).toString(), LocalDate.ofEpochDay(to).toString(), roomType, grid);
+        String what = "[" + from + ", " + to + ") " + roomType;
+
+        assertEquals(what, LocalDate.ofEpochDay(from), grid.from);
+        assertEquals(what, LocalDate.ofEpochDay(to), grid.to);
+        assertEquals(what, (int) (to - from), grid.nights);
+
+        List<Integer> expectedIds = new ArrayList<>();
+        for (Room r : rooms) {
+            if (roomType == null || roomType.equalsIgnoreCase(r.getRoomType())) expectedIds.add(r.getId());
+        }
+        Collections.sort(expectedIds);
+        List<Integer> ids = new ArrayList<>();
+        for (Room r : grid.rooms) ids.add(r.getId());
+        assertEquals(what + ": rooms in ID order", expectedIds, ids);
+
+        for (int i = 0; i < grid.rooms.size(); i++) {
+            int roomId = grid.rooms.get(i).getId();
+            assertArrayEquals(what + ": room " + roomId, naiveRow(roomId, from, to),
+                    expand(grid.runs.get(i), (int) (to - from)));
+        }
+    }
+
+    @Test
+    public void gridMatchesNightByNightOccupancy() throws Exception {
+        Random rnd = new Random(440);
+        for (int round = 0; round < 200; round++) {
+            long from = today + rnd.nextInt(300);
+            long to = from + 1 + rnd.nextInt(AvailabilityService.MAX_GRID_NIGHTS);
+            String type = rnd.nextInt(3) == 0 ? null : TYPES[rnd.nextInt(TYPES.length)];
+            assertGridMatches(from, to, type);
+        }
+    }
+
+    @Test
+    public void gridClipsStaysRunningOverEitherEdge() throws Exception {
+        assertGridMatches(today, today + 1, null);
+        assertGridMatches(today, today + AvailabilityService.MAX_GRID_NIGHTS, null);
+        assertGridMatches(today + 17, today + 18, "suite");
+    }
+
+    @Test
+    public void releasedHoldLeavesTheGrid() throws Exception {
+        Room room = rooms.get(0);
+        long in = today + 500;
+        availability.hold(room.getId(), 1, LocalDate.ofEpochDay(in), LocalDate.ofEpochDay(in + 2), 3_600_000L);
+        held.get(room.getId()).add(new long[]{in, in + 2});
+        assertGridMatches(in - 3, in + 5, null);
+
+        long holdId = availability.holdsFor(room.getId()).stream()
+                .filter(h -> h.getCheckIn().toEpochDay() == in).findFirst().get().getId();
+        assertTrue(availability.release(holdId));
+        held.get(room.getId()).removeIf(h -> h[0] == in);
+        assertGridMatches(in - 3, in + 5, null);
+    }
+
+    @Test
+    public void invalidRangesAreRejected() throws Exception {
+        String tomorrow = LocalDate.ofEpochDay(today + 1).toString();
+        String yesterday = LocalDate.ofEpochDay(today - 1).toString();
+        String farOut = LocalDate.ofEpochDay(today + 1 + AvailabilityService.MAX_GRID_NIGHTS + 1).toString();
+        assertRejected(null, tomorrow, BusinessException.class);
+        assertRejected(tomorrow, tomorrow, BusinessException.class);
+        assertRejected(yesterday, tomorrow, BusinessException.class);
+        assertRejected(tomorrow, farOut, BusinessException.class);
+        assertRejected("2031-02-30", tomorrow, IllegalArgumentException.class);
+        assertRejected("tomorrow", tomorrow, IllegalArgumentException.class);
+    }
+
+    private void assertRejected(String from, String to, Class<? extends Exception> expected) throws Exception {
+        try {
+            service.grid(from, to, null, new Collector());
+            fail("accepted " + from + ".." + to);
+        } catch (Exception e) {
+            if (!expected.isInstance(e)) throw e;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.dao.BookingDAO;
+import com.hotelbooking.dao.RoomDAO;
+import com.hotelbooking.dao.RoomRateDAO;
+import com.hotelbooking.event.EventBus;
+import com.hotelbooking.model.BookingRecord;
+import com.hotelbooking.model.Room;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CheapestStaySearchTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    private final long today = LocalDate.now().toEpochDay();
+
+    /** Bookings per room, as {@code {checkIn, checkOut}} epoch days. */
+    private final Map<Integer, List<long[]>> booked = new HashMap<>();
+
+    /** Held nights per room, as {@code {checkIn, checkOut}} epoch days. */
+    private final Map<Integer, List<long[]>> held = new HashMap<>();
+
+    private final List<Room> rooms = new ArrayList<>();
+
+    private final Map<LocalDate, Double> rates = new TreeMap<>();
+
+    private AvailabilityIndex availability;
+
+    private DemandPricing demand;
+
+    @After
+    public void stopIndex() {
+        if (availability != null) availability.stop();
+    }
+
+    private void addRoom(int id, String type, double price) {
+        Room r = new Room();
+        r.setId(id);
+        r.setRoomType(type);
+        r.setPrice(price);
+        rooms.add(r);
+        booked.put(id, new ArrayList<>());
+        held.put(id, new ArrayList<>());
+    }
+
+    /** Builds the index and pricing over the rooms and bookings added so far. */
+    private void build() {
+        BookingDAO bookings = new BookingDAO() {
+            @Override
+            public List<BookingRecord> getCurrentForRoom(int roomId, LocalDate from) {
+                return records(roomId, from);
+            }
+
+            @Override
+            public List<BookingRecord> getCurrentForRooms(Collection<Integer> roomIds, LocalDate from) {
+                List<BookingRecord> out = new ArrayList<>();
+                for (int roomId : roomIds) out.addAll(records(roomId, from));
+                return out;
+            }
+        };
+        RoomDAO roomDAO = new RoomDAO() {
+            @Override
+            public List<Room> getAll() {
+                List<Room> out = new ArrayList<>();
+                for (Room r : rooms) out.add(new Room(r));
+                return out;
+            }
+        };
+        RoomRateDAO rateDAO = new RoomRateDAO() {
+            @Override
+            public Map<LocalDate, Double> getRates(String roomType, LocalDate from, LocalDate to) {
+                return new TreeMap<>(rates);
+            }
+        };
+        availability = new AvailabilityIndex(bookings, new EventBus(16), new AvailabilitySearchCache());
+        demand = new DemandPricing(roomDAO, availability, new RateCalendar(rateDAO));
+    }
+
+    private List<BookingRecord> records(int roomId, LocalDate from) {
+        List<BookingRecord> out = new ArrayList<>();
+        int id = roomId * 1_000;
+        for (long[] b : booked.get(roomId)) {
+            if (b[1] > from.toEpochDay()) out.add(new BookingRecord(++id, 1, roomId, (int) b[0], (int) b[1], false));
+        }
+        return out;
+    }
+
+    private void hold(int roomId, long in, long out) throws Exception {
+        availability.hold(roomId, 1, LocalDate.ofEpochDay(in), LocalDate.ofEpochDay(out), HOUR);
+        held.get(roomId).add(new long[]{in, out});
+    }
+
+    private List<CheapestStaySearch.Window> search(long from, long to, int nights, long maxCents, int limit) {
+        return ForkJoinPool.commonPool().invoke(
+                new CheapestStaySearch(rooms, from, to, nights, maxCents, limit, availability, demand));
+    }
+
+    /** Tries every room and check-in, checking each night against every booking and hold. */
+    private List<CheapestStaySearch.Window> naive(long from, long to, int nights, long maxCents, int limit)
+            throws Exception {
+        List<CheapestStaySearch.Window> all = new ArrayList<>();
+        for (Room room : rooms) {
+            for (long in = from; in + nights <= to; in++) {
+                if (!free(room.getId(), in, in + nights)) continue;
+                long cents = demand.priceCents(room.getRoomType(), Math.round(room.getPrice() * 100), in, in + nights);
+                if (cents <= maxCents) all.add(new CheapestStaySearch.Window(room, in, cents));
+            }
+        }
+        all.sort(CheapestStaySearch.ORDER);
+        return all.size() > limit ? all.subList(0, limit) : all;
+    }
+
+    private boolean free(int roomId, long in, long out) {
+        for (long night = in; night < out; night++) {
+            for (long[] b : booked.get(roomId)) if (b[0] <= night && night < b[1]) return false;
+            for (long[] h : held.get(roomId)) if (h[0] <= night && night < h[1]) return false;
+        }
+        return true;
+    }
+
+    private void assertSameWindows(String what, List<CheapestStaySearch.Window> expected,
+                                   List<CheapestStaySearch.Window> actual) {
+        assertEquals(what + ": count", expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            CheapestStaySearch.Window e = expected.get(i);
+            CheapestStaySearch.Window a = actual.get(i);
+            String at = what + ": window " + i;
+            assertEquals(at + " room", e.room.getId(), a.room.getId());
+            assertEquals(at + " check-in", e.checkIn, a.checkIn);
+            assertEquals(at + " cents", e.cents, a.cents);
+        }
+    }
+
+    /** Fills each room with random stays and a few holds over the next {@code days} days. */
+    private void randomHotel(Random rnd, int roomCount, int days) throws Exception {
+        String[] types = {"Single", "Double", "Suite"};
+        for (int id = 1; id <= roomCount; id++) {
+            addRoom(id, types[rnd.nextInt(types.length)], 60 + rnd.nextInt(200));
+            long day = today + 1 + rnd.nextInt(5);
+            while (day < today + days) {
+                long end = day + 1 + rnd.nextInt(6);
+                booked.get(id).add(new long[]{day, end});
+                day = end + rnd.nextInt(12);
+            }
+        }
+        for (int i = 0; i < 20; i++) {
+            long day = today + 1 + rnd.nextInt(days);
+            rates.put(LocalDate.ofEpochDay(day), 50 + rnd.nextInt(30_000) / 100.0);
+        }
+        build();
+        for (int id = 1; id <= roomCount; id++) {
+            long in = today + 1 + rnd.nextInt(days);
+            long out = in + 1 + rnd.nextInt(3);
+            if (free(id, in, out)) hold(id, in, out);
+        }
+    }
+
+    @Test
+    public void matchesNaiveSearchOnRandomHotels() throws Exception {
+        Random rnd = new Random(45);
+        randomHotel(rnd, 40, 200);
+        for (int round = 0; round < 200; round++) {
+            long from = today + 1 + rnd.nextInt(60);
+            long to = from + 1 + rnd.nextInt(140);
+            int nights = 1 + rnd.nextInt(PricingService.MAX_SEARCH_STAY_NIGHTS);
+            int limit = 1 + rnd.nextInt(30);
+            long maxCents = rnd.nextBoolean() ? Long.MAX_VALUE : 10_000L * nights + rnd.nextInt(20_000) * nights;
+            String what = "round " + round + " [" + from + ", " + to + ") x" + nights;
+            assertSameWindows(what, naive(from, to, nights, maxCents, limit), search(from, to, nights, maxCents, limit));
+        }
+    }
+
+    /** Ranges of 63, 64, 65, 128 and 130 nights put the window edges on and across word boundaries. */
+    @Test
+    public void wordBoundarySpansMatchNaiveSearch() throws Exception {
+        Random rnd = new Random(64);
+        randomHotel(rnd, 20, 200);
+        int[] spans = {1, 2, 62, 63, 64, 65, 127, 128, 129, 130};
+        int[] stays = {1, 2, 3, 7, 8, 16, 17, 30};
+        for (int span : spans) {
+            for (int nights : stays) {
+                long from = today + 1 + rnd.nextInt(10);
+                String what = "span " + span + " x" + nights;
+                assertSameWindows(what, naive(from, from + span, nights, Long.MAX_VALUE, 1_000),
+                        search(from, from + span, nights, Long.MAX_VALUE, 1_000));
+            }
+        }
+    }
+
+    /** A free room with no rates: every start whose stay fits the range, and none past the last word's end. */
+    @Test
+    public void emptyRoomOffersEveryStartThatFits() throws Exception {
+        addRoom(7, "Single", 100);
+        build();
+        for (int span : new int[]{63, 64, 65, 128, 130}) {
+            for (int nights : new int[]{1, 5, 30}) {
+                long from = today + 3;
+                List<CheapestStaySearch.Window> got = search(from, from + span, nights, Long.MAX_VALUE, 1_000);
+                assertEquals("span " + span + " x" + nights, span - nights + 1, got.size());
+                for (CheapestStaySearch.Window w : got) assertTrue(w.checkIn + nights <= from + span);
+            }
+        }
+    }
+
+    /** Stays longer than the doubling reaches in one word: the shift stays below 64. */
+    @Test
+    public void longStaysMatchNaiveSearch() throws Exception {
+        addRoom(1, "Single", 100);
+        addRoom(2, "Double", 150);
+        booked.get(1).add(new long[]{today + 70, today + 72});
+        booked.get(2).add(new long[]{today + 140, today + 141});
+        build();
+        long from = today + 1;
+        for (int nights : new int[]{64, 65, 100, 128, 129, 130}) {
+            assertSameWindows("x" + nights, naive(from, from + 300, nights, Long.MAX_VALUE, 1_000),
+                    search(from, from + 300, nights, Long.MAX_VALUE, 1_000));
+        }
+    }
+
+    @Test
+    public void heldNightsAreNotOffered() throws Exception {
+        addRoom(1, "Single", 100);
+        build();
+        long from = today + 10;
+        hold(1, from + 2, from + 4);
+        List<CheapestStaySearch.Window> got = search(from, from + 8, 2, Long.MAX_VALUE, 10);
+        List<Long> starts = new ArrayList<>();
+        for (CheapestStaySearch.Window w : got) starts.add(w.checkIn - from);
+        starts.sort(null);
+        assertEquals(List.of(0L, 4L, 5L, 6L), starts);
+    }
+
+    @Test
+    public void rangeShorterThanStayFindsNothing() throws Exception {
+        addRoom(1, "Single", 100);
+        build();
+        assertTrue(search(today + 1, today + 3, 5, Long.MAX_VALUE, 10).isEmpty());
+    }
+}
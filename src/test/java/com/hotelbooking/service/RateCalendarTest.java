@@ -0,0 +1,126 @@
+package com.hotelbooking.service;
+
+import com.hotelbooking.dao.RoomRateDAO;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+
+public class RateCalendarTest {
+
+    /** Serves rates from memory, filtered by range as the real query does. */
+    private static final class StubRateDAO extends RoomRateDAO {
+
+        final Map<String, TreeMap<LocalDate, Double>> byType = new HashMap<>();
+        int loads;
+
+        @Override
+        public Map<LocalDate, Double> getRates(String roomType, LocalDate from, LocalDate to) {
+            loads++;
+            TreeMap<LocalDate, Double> set = byType.get(roomType.toLowerCase(Locale.ROOT));
+            return set == null ? new TreeMap<>() : new TreeMap<>(set.subMap(from, true, to, false));
+        }
+
+        void set(String roomType, LocalDate night, double price) {
+            byType.computeIfAbsent(roomType.toLowerCase(Locale.ROOT), k -> new TreeMap<>()).put(night, price);
+        }
+    }
+
+    private final long today = LocalDate.now().toEpochDay();
+
+    /** Sums the stay night by night: the set rate inside the horizon, otherwise the base price. */
+    private long naiveCents(StubRateDAO dao, String roomType, long baseCents, long in, long out) {
+        TreeMap<LocalDate, Double> set = dao.byType.getOrDefault(roomType.toLowerCase(Locale.ROOT), new TreeMap<>());
+        long total = 0;
+        for (long day = in; day < out; day++) {
+            Double rate = set.get(LocalDate.ofEpochDay(day));
+            boolean inHorizon = day >= today && day < today + RateCalendar.HORIZON_DAYS;
+            total += rate != null && inHorizon ? Math.round(rate * 100) : baseCents;
+        }
+        return total;
+    }
+
+    @Test
+    public void matchesNightByNightSumOnRandomStays() throws Exception {
+        Random rnd = new Random(42);
+        StubRateDAO dao = new StubRateDAO();
+        // Rates on both sides of the horizon, so the calendar has to ignore some of them.
+        for (int i = 0; i < 400; i++) {
+            long day = today - 30 + rnd.nextInt(RateCalendar.HORIZON_DAYS + 60);
+            dao.set("Suite", LocalDate.ofEpochDay(day), 80 + rnd.nextInt(20_000) / 100.0);
+        }
+        RateCalendar calendar = new RateCalendar(dao);
+
+        for (int i = 0; i < 2_000; i++) {
+            long in = today - 40 + rnd.nextInt(RateCalendar.HORIZON_DAYS + 80);
+            long out = in + rnd.nextInt(60);
+            long base = 5_000 + rnd.nextInt(20_000);
+            assertEquals("stay " + in + ".." + out, naiveCents(dao, "Suite", base, in, out),
+                    calendar.priceCents("Suite", base, in, out));
+        }
+    }
+
+    @Test
+    public void stayAcrossWholeHorizonMatches() throws Exception {
+        StubRateDAO dao = new StubRateDAO();
+        dao.set("Double", LocalDate.ofEpochDay(today), 100.0);
+        dao.set("Double", LocalDate.ofEpochDay(today + RateCalendar.HORIZON_DAYS - 1), 250.5);
+        dao.set("Double", LocalDate.ofEpochDay(today + RateCalendar.HORIZON_DAYS), 999.0);
+        RateCalendar calendar = new RateCalendar(dao);
+
+        long in = today - 5;
+        long out = today + RateCalendar.HORIZON_DAYS + 5;
+        assertEquals(naiveCents(dao, "Double", 9_000, in, out), calendar.priceCents("Double", 9_000, in, out));
+    }
+
+    @Test
+    public void emptyOrReversedStayCostsNothing() throws Exception {
+        StubRateDAO dao = new StubRateDAO();
+        RateCalendar calendar = new RateCalendar(dao);
+        assertEquals(0, calendar.priceCents("Suite", 9_000, today + 3, today + 3));
+        assertEquals(0, calendar.priceCents("Suite", 9_000, today + 3, today + 1));
+        assertEquals(0, dao.loads);
+    }
+
+    @Test
+    public void nullTypeChargesBasePriceWithoutLoading() throws Exception {
+        StubRateDAO dao = new StubRateDAO();
+        RateCalendar calendar = new RateCalendar(dao);
+        assertEquals(4 * 12_345, calendar.priceCents(null, 12_345, today, today + 4));
+        assertEquals(0, dao.loads);
+    }
+
+    @Test
+    public void typeIsCaseInsensitiveAndLoadedOnce() throws Exception {
+        StubRateDAO dao = new StubRateDAO();
+        dao.set("Suite", LocalDate.ofEpochDay(today + 1), 300.0);
+        RateCalendar calendar = new RateCalendar(dao);
+
+        long expected = 10_000 + 30_000 + 10_000;
+        assertEquals(expected, calendar.priceCents("Suite", 10_000, today, today + 3));
+        assertEquals(expected, calendar.priceCents("SUITE", 10_000, today, today + 3));
+        assertEquals(expected, calendar.priceCents("suite", 10_000, today, today + 3));
+        assertEquals(1, dao.loads);
+    }
+
+    @Test
+    public void invalidateReloadsChangedRates() throws Exception {
+        StubRateDAO dao = new StubRateDAO();
+        dao.set("Suite", LocalDate.ofEpochDay(today + 1), 300.0);
+        RateCalendar calendar = new RateCalendar(dao);
+        assertEquals(50_000, calendar.priceCents("Suite", 10_000, today, today + 3));
+
+        dao.set("Suite", LocalDate.ofEpochDay(today + 2), 150.25);
+        assertEquals("cached until invalidated", 50_000, calendar.priceCents("Suite", 10_000, today, today + 3));
+
+        calendar.invalidate("SUITE");
+        assertEquals(10_000 + 30_000 + 15_025, calendar.priceCents("Suite", 10_000, today, today + 3));
+        assertEquals(2, dao.loads);
+    }
+}
@@ -0,0 +1,82 @@
+package com.hotelbooking.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Times {@link RoomAssignmentPlanner#plan} on a year of bookings for a large hotel.
+ * <p>
+ * Every room is filled with stays of 1 to 7 nights separated by 0 to 3 free nights over 365
+ * days, which gives the sort of short gaps the planner is meant to close. One stay in five is
+ * pinned to its room; the rest are re-planned. The current and planned fragmentation are
+ * printed next to the timing.
+ * </p>
+ *
+ * <p>Not a unit test (surefire only runs {@code *Test} classes). Run it after
+ * {@code mvn test-compile} with
+ * {@code java -cp target/classes:target/test-classes com.hotelbooking.service.RoomAssignmentPlannerBenchmark [rooms] [nights]}.</p>
+ */
+public final class RoomAssignmentPlannerBenchmark {
+
+    private static final long TODAY = 20_000;
+
+    private RoomAssignmentPlannerBenchmark() {}
+
+    public static void main(String[] args) {
+        int roomCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int nights = args.length > 1 ? Integer.parseInt(args[1]) : 365;
+        Random rnd = new Random(40);
+
+        int[] rooms = new int[roomCount];
+        List<long[]> pinned = new ArrayList<>();
+        List<long[]> movable = new ArrayList<>();
+        Map<Integer, List<long[]>> current = new HashMap<>();
+        for (int r = 0; r < roomCount; r++) {
+            rooms[r] = r + 1;
+            List<long[]> booked = new ArrayList<>();
+            long day = TODAY + rnd.nextInt(4);
+            while (true) {
+                long end = day + 1 + rnd.nextInt(7);
+                if (end > TODAY + nights) break;
+                booked.add(new long[]{day, end});
+                if (rnd.nextInt(5) == 0) pinned.add(new long[]{rooms[r], day, end});
+                else movable.add(new long[]{day, end});
+                day = end + rnd.nextInt(4);
+            }
+            current.put(rooms[r], booked);
+        }
+        long[][] pins = pinned.toArray(new long[0][]);
+        long[][] stays = movable.toArray(new long[0][]);
+        System.out.printf("%d rooms x %d nights: %d pinned, %d movable stays%n",
+                roomCount, nights, pins.length, stays.length);
+
+        int[] plan = null;
+        for (int i = 0; i < 3; i++) plan = RoomAssignmentPlanner.plan(rooms, pins, stays, TODAY);
+
+        int runs = 5;
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < runs; i++) {
+            long t0 = System.nanoTime();
+            plan = RoomAssignmentPlanner.plan(rooms, pins, stays, TODAY);
+            long t = System.nanoTime() - t0;
+            best = Math.min(best, t);
+            total += t;
+        }
+        System.out.printf("plan: best %.1f ms, mean %.1f ms over %d runs%n", best / 1e6, total / 1e6 / runs, runs);
+
+        long before = RoomAssignmentPlanner.fragmentation(current, TODAY);
+        if (plan == null) {
+            System.out.printf("fragmentation: current %d short-gap nights; no complete plan found%n", before);
+            return;
+        }
+        Map<Integer, List<long[]>> planned = new HashMap<>();
+        for (long[] p : pins) planned.computeIfAbsent((int) p[0], k -> new ArrayList<>()).add(new long[]{p[1], p[2]});
+        for (int i = 0; i < stays.length; i++) planned.computeIfAbsent(plan[i], k -> new ArrayList<>()).add(stays[i]);
+        long after = RoomAssignmentPlanner.fragmentation(planned, TODAY);
+        System.out.printf("fragmentation: current %d, planned %d short-gap nights%n", before, after);
+    }
+}
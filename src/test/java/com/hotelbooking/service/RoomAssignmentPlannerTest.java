@@ -0,0 +1,216 @@
+package com.hotelbooking.service;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RoomAssignmentPlannerTest {
+
+    private static final long TODAY = 20_000;
+
+    // ---------------------------
+    // placementCost
+    // ---------------------------
+
+    @Test
+    public void exactFitCostsNothing() {
+        assertEquals(0, RoomAssignmentPlanner.placementCost(new long[]{TODAY + 3, TODAY + 7}, TODAY + 3, TODAY + 7, TODAY));
+    }
+
+    @Test
+    public void sellableRemainderBeatsShortRemainder() {
+        long[] gap = {TODAY, TODAY + 20};
+        long exact = RoomAssignmentPlanner.placementCost(new long[]{TODAY, TODAY + 5}, TODAY, TODAY + 5, TODAY);
+        long sellable = RoomAssignmentPlanner.placementCost(gap, TODAY, TODAY + 5, TODAY);
+        long shortLeft = RoomAssignmentPlanner.placementCost(gap, TODAY + 1, TODAY + 6, TODAY);
+        long shortRight = RoomAssignmentPlanner.placementCost(new long[]{TODAY, TODAY + 7}, TODAY, TODAY + 5, TODAY);
+        assertTrue(exact < sellable);
+        assertTrue(sellable < shortLeft);
+        assertTrue(sellable < shortRight);
+    }
+
+    @Test
+    public void tighterSellableGapIsCheaper() {
+        long tight = RoomAssignmentPlanner.placementCost(new long[]{TODAY, TODAY + 10}, TODAY, TODAY + 5, TODAY);
+        long loose = RoomAssignmentPlanner.placementCost(new long[]{TODAY, TODAY + 30}, TODAY, TODAY + 5, TODAY);
+        assertTrue(tight < loose);
+    }
+
+    @Test
+    public void openEndedGapCostsMoreThanAnyBoundedSellableGap() {
+        long open = RoomAssignmentPlanner.placementCost(new long[]{TODAY, Long.MAX_VALUE}, TODAY, TODAY + 5, TODAY);
+        long bounded = RoomAssignmentPlanner.placementCost(new long[]{TODAY, TODAY + 5 + 100_000}, TODAY, TODAY + 5, TODAY);
+        assertTrue(bounded < open);
+    }
+
+    @Test
+    public void gapWithNoEarlierBookingIsMeasuredFromToday() {
+        long fromToday = RoomAssignmentPlanner.placementCost(new long[]{TODAY, TODAY + 10}, TODAY + 1, TODAY + 10, TODAY);
+        long unbounded = RoomAssignmentPlanner.placementCost(new long[]{Long.MIN_VALUE, TODAY + 10}, TODAY + 1, TODAY + 10, TODAY);
+        assertEquals(fromToday, unbounded);
+        assertEquals(0, RoomAssignmentPlanner.placementCost(new long[]{Long.MIN_VALUE, TODAY + 10}, TODAY, TODAY + 10, TODAY));
+    }
+
+    // ---------------------------
+    // plan
+    // ---------------------------
+
+    @Test
+    public void planPrefersRoomFreedOnCheckInDay() {
+        int[] rooms = {1, 2};
+        long[][] pinned = {{1, TODAY, TODAY + 8}, {2, TODAY, TODAY + 10}};
+        long[][] movable = {{TODAY + 10, TODAY + 12}};
+        assertArrayEquals(new int[]{2}, RoomAssignmentPlanner.plan(rooms, pinned, movable, TODAY));
+    }
+
+    @Test
+    public void planAvoidsLeavingShortGap() {
+        int[] rooms = {1, 2};
+        // Room 1 frees up one night before the stay, room 2 five nights before.
+        long[][] pinned = {{1, TODAY, TODAY + 9}, {2, TODAY, TODAY + 5}};
+        long[][] movable = {{TODAY + 10, TODAY + 12}};
+        assertArrayEquals(new int[]{2}, RoomAssignmentPlanner.plan(rooms, pinned, movable, TODAY));
+    }
+
+    @Test
+    public void planSkipsRoomWhosePinnedStayWouldOverlap() {
+        int[] rooms = {1, 2};
+        long[][] pinned = {{1, TODAY + 3, TODAY + 5}};
+        long[][] movable = {{TODAY, TODAY + 4}};
+        assertArrayEquals(new int[]{2}, RoomAssignmentPlanner.plan(rooms, pinned, movable, TODAY));
+    }
+
+    @Test
+    public void planReturnsNullWhenAStayCannotBePlaced() {
+        int[] rooms = {1};
+        long[][] pinned = {{1, TODAY, TODAY + 10}};
+        long[][] movable = {{TODAY + 2, TODAY + 4}};
+        assertNull(RoomAssignmentPlanner.plan(rooms, pinned, movable, TODAY));
+    }
+
+    @Test
+    public void planIgnoresPinnedStaysInOtherRooms() {
+        int[] rooms = {1};
+        long[][] pinned = {{99, TODAY, TODAY + 10}};
+        long[][] movable = {{TODAY + 2, TODAY + 4}};
+        assertArrayEquals(new int[]{1}, RoomAssignmentPlanner.plan(rooms, pinned, movable, TODAY));
+    }
+
+    /** Random instances: every plan found is conflict-free, and one is always found without pins when rooms suffice. */
+    @Test
+    public void planIsConflictFreeOnRandomInstances() {
+        Random rnd = new Random(40);
+        for (int round = 0; round < 500; round++) {
+            int roomCount = 1 + rnd.nextInt(6);
+            int[] rooms = new int[roomCount];
+            for (int i = 0; i < roomCount; i++) rooms[i] = 100 + i;
+
+            List<long[]> pinned = new ArrayList<>();
+            if (rnd.nextBoolean()) {
+                for (int r : rooms) {
+                    long day = TODAY + rnd.nextInt(5);
+                    while (day < TODAY + 40 && rnd.nextInt(3) == 0) {
+                        long end = day + 1 + rnd.nextInt(4);
+                        pinned.add(new long[]{r, day, end});
+                        day = end + rnd.nextInt(8);
+                    }
+                }
+            }
+            long[][] movable = new long[rnd.nextInt(15)][];
+            for (int i = 0; i < movable.length; i++) {
+                long start = TODAY + rnd.nextInt(40);
+                movable[i] = new long[]{start, start + 1 + rnd.nextInt(6)};
+            }
+
+            long[][] pins = pinned.toArray(new long[0][]);
+            int[] plan = RoomAssignmentPlanner.plan(rooms, pins, movable, TODAY);
+            if (pins.length == 0 && maxOverlap(movable) <= roomCount) {
+                assertNotNull("round " + round + ": interval partitioning must succeed", plan);
+            }
+            if (plan != null) assertConflictFree(rooms, pins, movable, plan);
+        }
+    }
+
+    private static int maxOverlap(long[][] stays) {
+        int max = 0;
+        for (long[] a : stays) {
+            int n = 0;
+            for (long[] b : stays) if (b[0] <= a[0] && a[0] < b[1]) n++;
+            max = Math.max(max, n);
+        }
+        return max;
+    }
+
+    private static void assertConflictFree(int[] rooms, long[][] pinned, long[][] movable, int[] plan) {
+        assertEquals(movable.length, plan.length);
+        Map<Integer, List<long[]>> byRoom = new HashMap<>();
+        for (long[] p : pinned) byRoom.computeIfAbsent((int) p[0], k -> new ArrayList<>()).add(new long[]{p[1], p[2]});
+        for (int i = 0; i < plan.length; i++) {
+            int room = plan[i];
+            assertTrue("unknown room " + room, Arrays.stream(rooms).anyMatch(r -> r == room));
+            byRoom.computeIfAbsent(room, k -> new ArrayList<>()).add(movable[i]);
+        }
+        for (Map.Entry<Integer, List<long[]>> e : byRoom.entrySet()) {
+            List<long[]> ivs = e.getValue();
+            for (int i = 0; i < ivs.size(); i++) {
+                for (int j = i + 1; j < ivs.size(); j++) {
+                    long[] a = ivs.get(i), b = ivs.get(j);
+                    assertTrue("overlap in room " + e.getKey() + ": " + Arrays.toString(a) + " " + Arrays.toString(b),
+                            a[1] <= b[0] || b[1] <= a[0]);
+                }
+            }
+        }
+    }
+
+    // ---------------------------
+    // fragmentation
+    // ---------------------------
+
+    @Test
+    public void fragmentationCountsShortGapsOnly() {
+        Map<Integer, List<long[]>> rooms = new HashMap<>();
+        rooms.put(1, intervals(TODAY, TODAY + 3, TODAY + 4, TODAY + 6, TODAY + 8, TODAY + 9, TODAY + 12, TODAY + 20));
+        // Gaps: 1 night, 2 nights, 3 nights (sellable).
+        assertEquals(3, RoomAssignmentPlanner.fragmentation(rooms, TODAY));
+    }
+
+    @Test
+    public void fragmentationCountsRunFromToday() {
+        Map<Integer, List<long[]>> rooms = new HashMap<>();
+        rooms.put(1, intervals(TODAY + 2, TODAY + 5));
+        rooms.put(2, intervals(TODAY + 3, TODAY + 5));
+        assertEquals(2, RoomAssignmentPlanner.fragmentation(rooms, TODAY));
+    }
+
+    @Test
+    public void fragmentationSortsAndMergesOverlaps() {
+        Map<Integer, List<long[]>> rooms = new HashMap<>();
+        rooms.put(1, intervals(TODAY + 6, TODAY + 8, TODAY, TODAY + 5, TODAY + 1, TODAY + 4));
+        assertEquals(1, RoomAssignmentPlanner.fragmentation(rooms, TODAY));
+    }
+
+    @Test
+    public void fragmentationOfEmptyRoomsIsZero() {
+        Map<Integer, List<long[]>> rooms = new HashMap<>();
+        rooms.put(1, new ArrayList<>());
+        assertEquals(0, RoomAssignmentPlanner.fragmentation(rooms, TODAY));
+    }
+
+    /** Builds a mutable interval list from {@code start, end} pairs. */
+    private static List<long[]> intervals(long... bounds) {
+        List<long[]> out = new ArrayList<>();
+        for (int i = 0; i < bounds.length; i += 2) out.add(new long[]{bounds[i], bounds[i + 1]});
+        return out;
+    }
+}